@@ -0,0 +1,124 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Measures allocations of an inline {@link PolicyVerifier} call, read the {@code gc.alloc.rate.norm} metric
+ * reported by the gc profiler (bytes per operation) :
+ * <ul>
+ * <li>context : fixed-arity call, context hooks policies and reusable {@link InvocationContext} (expected 0 B/op)</li>
+ * <li>legacy : same call with legacy hooks policies, delegating from context hooks (expected 0 B/op)</li>
+ * <li>varargs : call with more arguments than reusable arrays, the arguments array is allocated</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+public class InvocationContextBenchmark {
+
+	private static final PolicyMethod METHOD = PolicyMethod.of("Target:call");
+
+	private final Object arg0 = new Object();
+
+	private final Object arg1 = new Object();
+
+	/**
+	 * Verifier with context hooks policies
+	 */
+	private PolicyVerifier<Target> contextVerifier;
+
+	/**
+	 * Verifier with legacy hooks policies
+	 */
+	private PolicyVerifier<Target> legacyVerifier;
+
+	/**
+	 * Wrapped method, built once like a non capturing lambda
+	 */
+	private CallableWithIOException<Target> callable;
+
+	@Setup
+	public void setup() {
+		Target target = new Target();
+		contextVerifier = new PolicyVerifier<>(target, new ArrayList<>(Arrays.asList(new ContextPolicy())));
+		legacyVerifier = new PolicyVerifier<>(target, new ArrayList<>(Arrays.asList(new LegacyPolicy())));
+		callable = target::call;
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		contextVerifier.close();
+		legacyVerifier.close();
+	}
+
+	@Benchmark
+	public Object context() throws IOException {
+		return contextVerifier.runWithPolicies(METHOD, callable, arg0, arg1);
+	}
+
+	@Benchmark
+	public Object legacy() throws IOException {
+		return legacyVerifier.runWithPolicies(METHOD, callable, arg0, arg1);
+	}
+
+	@Benchmark
+	public Object varargs() throws IOException {
+		return contextVerifier.runWithPolicies(METHOD, callable, arg0, arg1, arg0, arg1, arg0);
+	}
+
+	/**
+	 * Proxied object
+	 */
+	public static final class Target {
+
+		private long calls;
+
+		public Target call() throws IOException {
+			calls++;
+			return this;
+		}
+	}
+
+	/**
+	 * Policy using context hooks
+	 */
+	private static final class ContextPolicy implements Policy {
+
+		private long arguments;
+
+		private long executionTime;
+
+		@Override
+		public void beforeRun(InvocationContext context) throws IOException {
+			arguments += context.getArguments().length;
+		}
+
+		@Override
+		public void afterRun(InvocationContext context) {
+			executionTime += context.getExecutionTime();
+		}
+	}
+
+	/**
+	 * Policy using legacy hooks
+	 */
+	private static final class LegacyPolicy implements Policy {
+
+		private long arguments;
+
+		private long executionTime;
+
+		@Override
+		public <T> void beforeRun(T object, String method, Object[] args) throws IOException {
+			arguments += args.length;
+		}
+
+		@Override
+		public <T> void afterRun(T object, String method, Object[] args, Object result, long executionTime) {
+			this.executionTime += executionTime;
+		}
+	}
+}
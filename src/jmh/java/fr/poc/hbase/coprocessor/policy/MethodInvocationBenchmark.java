@@ -0,0 +1,158 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Compares how {@link PolicyInvocationHandler} could invoke the proxied method (agent path) :
+ * <ul>
+ * <li>reflection : {@link Method#invoke(Object, Object...)}, exceptions are wrapped in {@link InvocationTargetException}</li>
+ * <li>methodHandle : method handle bound once to the adaptee and spread over the arguments array</li>
+ * </ul>
+ * Each operation calls all methods of the target through the same call site (like the handler does for each hook),
+ * the error variants measure a method that throws a pre-allocated {@link IOException}.
+ */
+@State(Scope.Benchmark)
+public class MethodInvocationBenchmark {
+
+	private static final String[] METHODS = {"call0", "call1", "call2", "call3"};
+
+	private final Object[] args = new Object[]{new Object(), new Object()};
+
+	private final Target target = new TargetImpl();
+
+	private Method[] methods;
+
+	private MethodHandle[] handles;
+
+	private Method failingMethod;
+
+	private MethodHandle failingHandle;
+
+	@Setup
+	public void setup() throws Exception {
+		methods = new Method[METHODS.length];
+		handles = new MethodHandle[METHODS.length];
+		for (int i = 0; i < METHODS.length; i++) {
+			methods[i] = Target.class.getMethod(METHODS[i], Object.class, Object.class);
+			handles[i] = bind(methods[i]);
+		}
+		failingMethod = Target.class.getMethod("fail", Object.class, Object.class);
+		failingHandle = bind(failingMethod);
+	}
+
+	private MethodHandle bind(Method method) throws IllegalAccessException {
+		return MethodHandles.publicLookup().unreflect(method).bindTo(target)
+				.asSpreader(Object[].class, method.getParameterCount())
+				.asType(MethodType.methodType(Object.class, Object[].class));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(4)
+	public Object reflection() throws IOException {
+		Object result = null;
+		for (Method method : methods) {
+			result = invoke(method);
+		}
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(4)
+	public Object methodHandle() throws Throwable {
+		Object result = null;
+		for (MethodHandle handle : handles) {
+			result = (Object) handle.invokeExact(args);
+		}
+		return result;
+	}
+
+	@Benchmark
+	public Object reflectionError() {
+		try {
+			return invoke(failingMethod);
+		} catch (IOException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public Object methodHandleError() throws Throwable {
+		try {
+			return (Object) failingHandle.invokeExact(args);
+		} catch (IOException e) {
+			return e;
+		}
+	}
+
+	private Object invoke(Method method) throws IOException {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw (IOException) e.getTargetException();
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Proxied interface
+	 */
+	public interface Target {
+
+		Object call0(Object arg0, Object arg1) throws IOException;
+
+		Object call1(Object arg0, Object arg1) throws IOException;
+
+		Object call2(Object arg0, Object arg1) throws IOException;
+
+		Object call3(Object arg0, Object arg1) throws IOException;
+
+		Object fail(Object arg0, Object arg1) throws IOException;
+	}
+
+	/**
+	 * Proxied object
+	 */
+	public static final class TargetImpl implements Target {
+
+		private static final IOException ERROR = new IOException("expected");
+
+		private long calls;
+
+		@Override
+		public Object call0(Object arg0, Object arg1) throws IOException {
+			calls++;
+			return arg0;
+		}
+
+		@Override
+		public Object call1(Object arg0, Object arg1) throws IOException {
+			calls += 2;
+			return arg1;
+		}
+
+		@Override
+		public Object call2(Object arg0, Object arg1) throws IOException {
+			calls += 3;
+			return arg0;
+		}
+
+		@Override
+		public Object call3(Object arg0, Object arg1) throws IOException {
+			calls += 4;
+			return arg1;
+		}
+
+		@Override
+		public Object fail(Object arg0, Object arg1) throws IOException {
+			throw ERROR;
+		}
+	}
+}
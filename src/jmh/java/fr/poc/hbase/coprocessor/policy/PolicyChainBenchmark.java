@@ -0,0 +1,158 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Compares the cost of applying policies hooks of a successful call :
+ * <ul>
+ * <li>loop : every hook of every policy is called through forEach lambdas (previous {@link PolicyVerifier} behaviour)</li>
+ * <li>chain : only overriding policies are called, through a pre-compiled {@link PolicyChain}</li>
+ * </ul>
+ * Policies mimic the default configuration : each of them only overrides a few hooks.
+ */
+@State(Scope.Benchmark)
+public class PolicyChainBenchmark {
+
+	private static final String METHOD_NAME = "RegionObserver:prePut";
+
+	private static final PolicyMethod METHOD = PolicyMethod.of(METHOD_NAME);
+
+	private final Object target = new Object();
+
+	private final Object[] args = new Object[]{new Object(), new Object()};
+
+	private final Future<?> future = new FutureTask<>(() -> null);
+
+	private List<Policy> policies;
+
+	private PolicyChain chain;
+
+	@Setup
+	public void setup() {
+		policies = Arrays.asList(
+				new TimeoutLikePolicy(),
+				new LoggingLikePolicy(),
+				new MetricsLikePolicy(),
+				new RetryLikePolicy(),
+				new ArgumentLikePolicy());
+		chain = new PolicyChain(policies);
+	}
+
+	@Benchmark
+	public void loop(Blackhole blackhole) throws IOException {
+		Object arg = args[0];
+		for (Policy policy : policies) {
+			arg = policy.onArgument(arg);
+		}
+		blackhole.consume(arg);
+		for (Policy policy : policies) {
+			policy.beforeRun(target, METHOD_NAME, args);
+		}
+		policies.forEach(p -> p.running(target, METHOD_NAME, args, future));
+		policies.forEach(p -> p.afterRun(target, METHOD_NAME, args, null, 1L));
+	}
+
+	@Benchmark
+	public void chain(Blackhole blackhole) throws IOException {
+		blackhole.consume(chain.onArgument(args[0]));
+		InvocationContext context = InvocationContext.acquire(target, METHOD).withArguments(args);
+		try {
+			chain.beforeRun(context);
+			chain.running(context, future);
+			chain.afterRun(context);
+		} finally {
+			context.release();
+		}
+	}
+
+	private static final class TimeoutLikePolicy implements Policy {
+
+		private long count;
+
+		@Override
+		public <T> void running(T object, String method, Object[] args, Future<?> future) {
+			count++;
+		}
+
+		@Override
+		public <T> void afterRun(T object, String method, Object[] args, Object result, long executionTime) {
+			count--;
+		}
+	}
+
+	private static final class LoggingLikePolicy implements Policy {
+
+		private long count;
+
+		@Override
+		public <T> T onArgument(T arg) {
+			count++;
+			return arg;
+		}
+
+		@Override
+		public <T> void beforeRun(T object, String method, Object[] args) throws IOException {
+			count++;
+		}
+
+		@Override
+		public <T> void onError(T object, String method, Object[] args, IOException ioException) {
+			count++;
+		}
+
+		@Override
+		public <T> void onUnexpectedError(T object, String method, Object[] args, Throwable throwable) {
+			count++;
+		}
+
+		@Override
+		public <T> void afterRun(T object, String method, Object[] args, Object result, long executionTime) {
+			count++;
+		}
+	}
+
+	private static final class MetricsLikePolicy implements Policy {
+
+		private long count;
+
+		@Override
+		public <T> void beforeRun(T object, String method, Object[] args) throws IOException {
+			count++;
+		}
+
+		@Override
+		public <T> void afterRun(T object, String method, Object[] args, Object result, long executionTime) {
+			count += executionTime;
+		}
+	}
+
+	private static final class RetryLikePolicy implements Policy {
+
+		private long count;
+
+		@Override
+		public <T> void beforeRun(T object, String method, Object[] args) throws IOException {
+			count++;
+		}
+
+		@Override
+		public <T> void onUnexpectedError(T object, String method, Object[] args, Throwable throwable) {
+			count++;
+		}
+	}
+
+	private static final class ArgumentLikePolicy implements Policy {
+
+		@Override
+		public <T> T onArgument(T arg) {
+			return arg;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.util.PolicyProxyFactory;
+import org.apache.hadoop.hbase.Coprocessor;
+import org.apache.hadoop.hbase.CoprocessorEnvironment;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+
+/**
+ * Compares proxies of the same coprocessor without policies :
+ * <ul>
+ * <li>javaProxy : {@link Proxy} on a {@link PolicyInvocationHandler} (agent path fallback)</li>
+ * <li>generatedProxy : class generated by {@link PolicyProxyFactory} (agent path)</li>
+ * <li>handWrittenProxy : proxy written like the {@code *PolicyProxy} classes</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+public class PolicyProxyBenchmark {
+
+	private static final Class<?>[] IFACES = {Coprocessor.class, Target.class};
+
+	private final Object arg = new Object();
+
+	private Target javaProxy;
+
+	private Target generatedProxy;
+
+	private Target handWrittenProxy;
+
+	@Setup
+	public void setup() {
+		TargetImpl target = new TargetImpl();
+		javaProxy = (Target) Proxy.newProxyInstance(getClass().getClassLoader(), IFACES,
+				new PolicyInvocationHandler<>(target, IFACES, new ArrayList<>()));
+		generatedProxy = (Target) PolicyProxyFactory.newProxy(target, IFACES, new ArrayList<>(),
+				SharedPolicyExecutor.getInstance().newBoundedExecutor(), PolicyVerifier.ExecutionMode.EXECUTOR);
+		handWrittenProxy = new TargetProxy(target);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public Object javaProxy() throws IOException {
+		javaProxy.call0(arg);
+		return javaProxy.call1(arg, arg);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public Object generatedProxy() throws IOException {
+		generatedProxy.call0(arg);
+		return generatedProxy.call1(arg, arg);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public Object handWrittenProxy() throws IOException {
+		handWrittenProxy.call0(arg);
+		return handWrittenProxy.call1(arg, arg);
+	}
+
+	/**
+	 * Proxied interface
+	 */
+	public interface Target {
+
+		Object call0(Object arg0) throws IOException;
+
+		Object call1(Object arg0, Object arg1) throws IOException;
+	}
+
+	/**
+	 * Hand-written proxy
+	 */
+	private static final class TargetProxy extends PolicyVerifier<TargetImpl> implements Target {
+
+		private static final PolicyMethod CALL0 = PolicyMethod.of("call0");
+		private static final PolicyMethod CALL1 = PolicyMethod.of("call1");
+
+		private TargetProxy(TargetImpl adaptee) {
+			super(adaptee, new ArrayList<>());
+		}
+
+		@Override
+		public Object call0(Object arg0) throws IOException {
+			return runWithPolicies(CALL0, () -> getAdaptee().call0(arg0), arg0);
+		}
+
+		@Override
+		public Object call1(Object arg0, Object arg1) throws IOException {
+			return runWithPolicies(CALL1, () -> getAdaptee().call1(arg0, arg1), arg0, arg1);
+		}
+	}
+
+	/**
+	 * Proxied coprocessor
+	 */
+	public static final class TargetImpl implements Coprocessor, Target {
+
+		@Override
+		public void start(CoprocessorEnvironment env) throws IOException {
+			// Nothing to do
+		}
+
+		@Override
+		public void stop(CoprocessorEnvironment env) throws IOException {
+			// Nothing to do
+		}
+
+		@Override
+		public Object call0(Object arg0) throws IOException {
+			return arg0;
+		}
+
+		@Override
+		public Object call1(Object arg0, Object arg1) throws IOException {
+			return arg1;
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the per call overhead of {@link PolicyVerifier} execution modes :
+ * <ul>
+ * <li>inline : the method is executed in the caller thread (no policy consumes the execution future)</li>
+ * <li>executor : the method is submitted to the verifier executor and the caller waits for its result</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+public class PolicyVerifierBenchmark {
+
+	private static final PolicyMethod METHOD = PolicyMethod.of("Target:call");
+
+	/**
+	 * Verifier executing methods in the caller thread
+	 */
+	private PolicyVerifier<Target> inlineVerifier;
+
+	/**
+	 * Verifier executing methods in its executor
+	 */
+	private PolicyVerifier<Target> executorVerifier;
+
+	@Setup
+	public void setup() {
+		inlineVerifier = new PolicyVerifier<>(new Target(), new ArrayList<>(Arrays.asList(
+				new CountingPolicy())));
+		executorVerifier = new PolicyVerifier<>(new Target(), new ArrayList<>(Arrays.asList(
+				new CountingPolicy(), new WatchingPolicy())));
+		if (!inlineVerifier.isInline() || executorVerifier.isInline()) {
+			throw new IllegalStateException("Unexpected verifier execution modes");
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		inlineVerifier.close();
+		executorVerifier.close();
+	}
+
+	@Benchmark
+	public long inline() throws IOException {
+		Target target = inlineVerifier.getAdaptee();
+		return inlineVerifier.runWithPolicies(METHOD, target::call, target);
+	}
+
+	@Benchmark
+	public long executor() throws IOException {
+		Target target = executorVerifier.getAdaptee();
+		return executorVerifier.runWithPolicies(METHOD, target::call, target);
+	}
+
+	/**
+	 * Proxied object
+	 */
+	public static final class Target {
+
+		private long calls;
+
+		public long call() throws IOException {
+			return ++calls;
+		}
+	}
+
+	/**
+	 * Policy without any execution watcher
+	 */
+	private static final class CountingPolicy implements Policy {
+
+		private long before;
+
+		private long after;
+
+		@Override
+		public <T> void beforeRun(T object, String method, Object[] args) throws IOException {
+			before++;
+		}
+
+		@Override
+		public <T> void afterRun(T object, String method, Object[] args, Object result, long executionTime) {
+			after++;
+		}
+	}
+
+	/**
+	 * Policy that watch the execution (like the TimeoutPolicy does)
+	 */
+	private static final class WatchingPolicy implements Policy {
+
+		private long watched;
+
+		@Override
+		public <T> void running(T object, String method, Object[] args, Future<?> future) {
+			watched++;
+		}
+	}
+}
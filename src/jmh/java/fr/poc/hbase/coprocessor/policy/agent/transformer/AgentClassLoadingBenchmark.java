@@ -0,0 +1,95 @@
+package fr.poc.hbase.coprocessor.policy.agent.transformer;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.hbase.regionserver.RegionCoprocessorHost;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Measures the class loading time added by the agent transformers on a RegionServer startup :
+ * each operation transforms all classes of the hbase-server jar (like the RegionServer loads them), only
+ * coprocessor hosts are modified by the host transformer, and there is no coprocessor to weave in this jar.
+ * The rejected variant only transforms classes that are not modified, to isolate the cost added to each class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AgentClassLoadingBenchmark {
+
+	private final List<String> classNames = new ArrayList<>();
+
+	private final List<byte[]> classFiles = new ArrayList<>();
+
+	private final List<String> rejectedClassNames = new ArrayList<>();
+
+	private final List<byte[]> rejectedClassFiles = new ArrayList<>();
+
+	private ClassLoader loader;
+
+	private ClassFileTransformer hostTransformer;
+
+	private ClassFileTransformer weavingTransformer;
+
+	@Setup
+	public void setup() throws Exception {
+		loader = getClass().getClassLoader();
+		File jar = new File(RegionCoprocessorHost.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		try (JarFile jarFile = new JarFile(jar)) {
+			Enumeration<JarEntry> entries = jarFile.entries();
+			while (entries.hasMoreElements()) {
+				JarEntry entry = entries.nextElement();
+				if (entry.getName().endsWith(".class")) {
+					try (InputStream input = jarFile.getInputStream(entry)) {
+						classNames.add(entry.getName().substring(0, entry.getName().length() - ".class".length()));
+						classFiles.add(IOUtils.toByteArray(input));
+					}
+				}
+			}
+		}
+		hostTransformer = new CoprocessorHostWithPoliciesTransformer(Collections.emptyMap());
+		weavingTransformer = new CoprocessorPolicyWeavingTransformer(Collections.emptyMap());
+		for (int i = 0; i < classFiles.size(); i++) {
+			if (hostTransformer.transform(loader, classNames.get(i), null, null, classFiles.get(i)) == null) {
+				rejectedClassNames.add(classNames.get(i));
+				rejectedClassFiles.add(classFiles.get(i));
+			}
+		}
+	}
+
+	@Benchmark
+	public int hostTransformer() throws IllegalClassFormatException {
+		return transformAll(hostTransformer, classNames, classFiles);
+	}
+
+	@Benchmark
+	public int hostTransformerRejected() throws IllegalClassFormatException {
+		return transformAll(hostTransformer, rejectedClassNames, rejectedClassFiles);
+	}
+
+	@Benchmark
+	public int weavingTransformer() throws IllegalClassFormatException {
+		return transformAll(weavingTransformer, classNames, classFiles);
+	}
+
+	private int transformAll(ClassFileTransformer transformer, List<String> names, List<byte[]> files)
+			throws IllegalClassFormatException {
+		int transformed = 0;
+		for (int i = 0; i < files.size(); i++) {
+			if (transformer.transform(loader, names.get(i), null, null, files.get(i)) != null) {
+				transformed++;
+			}
+		}
+		return transformed;
+	}
+}
@@ -0,0 +1,61 @@
+package fr.poc.hbase.coprocessor.policy.impl;
+
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import org.apache.hadoop.metrics2.impl.MetricsSystemImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Measures an inline {@link PolicyVerifier} call with a {@link MetricsPolicy} :
+ * the metric is resolved once per invocation and recorded by the other hooks
+ */
+@State(Scope.Benchmark)
+public class MetricsPolicyBenchmark {
+
+	private static final PolicyMethod METHOD = PolicyMethod.of("Target:call(Object)");
+
+	private final Object arg0 = new Object();
+
+	private MetricsSystemImpl metricsSystem;
+
+	private Verifier verifier;
+
+	private CallableWithIOException<Object> callable;
+
+	@Setup
+	public void setup() {
+		metricsSystem = new MetricsSystemImpl("MetricsPolicyBenchmark");
+		verifier = new Verifier(new MetricsPolicy(metricsSystem, "Benchmark"));
+		callable = () -> arg0;
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		verifier.close();
+		metricsSystem.shutdown();
+	}
+
+	@Benchmark
+	public Object call() throws IOException {
+		return verifier.call(callable, arg0);
+	}
+
+	/**
+	 * Verifier that exposes calls with policies
+	 */
+	private static final class Verifier extends PolicyVerifier<Object> {
+
+		private Verifier(MetricsPolicy policy) {
+			super(new Object(), new ArrayList<>(Collections.singletonList(policy)));
+		}
+
+		private Object call(CallableWithIOException<Object> callable, Object arg0) throws IOException {
+			return runWithPolicies(METHOD, callable, arg0);
+		}
+	}
+}
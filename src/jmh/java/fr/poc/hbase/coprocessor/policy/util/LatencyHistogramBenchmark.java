@@ -0,0 +1,35 @@
+package fr.poc.hbase.coprocessor.policy.util;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures the cost of recording an execution time from concurrent handler threads :
+ * <ul>
+ * <li>histogram : {@link LatencyHistogram}, lock-free and striped</li>
+ * <li>summary : commons-math {@link SummaryStatistics}, synchronized to be thread safe</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+public class LatencyHistogramBenchmark {
+
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	private final SummaryStatistics summary = new SummaryStatistics();
+
+	@Benchmark
+	public void histogram() {
+		histogram.recordMicros(ThreadLocalRandom.current().nextInt(100000));
+	}
+
+	@Benchmark
+	public void summary() {
+		long value = ThreadLocalRandom.current().nextInt(100000);
+		synchronized (summary) {
+			summary.addValue(value);
+		}
+	}
+}
@@ -0,0 +1,255 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import lombok.NonNull;
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cooperative cancellation token of a policy-wrapped method invocation.
+ * <p>
+ * {@link PolicyVerifier} publishes a deadline for each invocation executed in its executor,
+ * the running coprocessor code could fetch it with {@link #current()} and poll it
+ * (see {@link #isExpired()} and {@link #check()}) to stop cleanly, for example at each row batch of a scan,
+ * instead of being interrupted in the middle of an I/O.
+ * </p>
+ * Policies (like {@link fr.poc.hbase.coprocessor.policy.impl.TimeoutPolicy}) that watch the invocation
+ * could also fetch it with {@link #current()} while their hooks are called.
+ */
+public final class Deadline {
+
+	/**
+	 * Deadline that never expires, returned outside of a policy-wrapped invocation
+	 */
+	public static final Deadline NONE = new Deadline();
+
+	/**
+	 * Deadline of the invocation executed by the current thread
+	 */
+	private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * Indicates whenever the invocation should stop
+	 */
+	private volatile boolean expired;
+
+	/**
+	 * Expected expiration time (in {@link System#nanoTime()} reference), {@link Long#MAX_VALUE} if unknown
+	 */
+	private volatile long expirationTime = Long.MAX_VALUE;
+
+	/**
+	 * Thread executing the invocation (guarded by this)
+	 */
+	private Thread executingThread;
+
+	/**
+	 * Future of the watched execution, released on cancellation (guarded by this)
+	 */
+	private Future<?> future;
+
+	/**
+	 * Reason of the cancellation, null if not cancelled by {@link #cancel(DoNotRetryIOException)}
+	 */
+	private volatile DoNotRetryIOException cancellationReason;
+
+	/**
+	 * Constructor, deadlines are only created by {@link PolicyVerifier}
+	 */
+	Deadline() {
+		// Package private
+	}
+
+	/**
+	 * Returns the deadline of the invocation executed by the current thread
+	 *
+	 * @return the current deadline, {@link #NONE} outside of a policy-wrapped invocation
+	 */
+	public static Deadline current() {
+		Deadline deadline = CURRENT.get();
+		return deadline == null ? NONE : deadline;
+	}
+
+	/**
+	 * Publish the given deadline on the current thread
+	 *
+	 * @param deadline the deadline to publish
+	 * @return the previously published deadline, to restore once the invocation ends
+	 */
+	static Deadline publish(Deadline deadline) {
+		Deadline previous = CURRENT.get();
+		CURRENT.set(deadline);
+		return previous;
+	}
+
+	/**
+	 * Restore a previously published deadline on the current thread
+	 *
+	 * @param previous the deadline returned by {@link #publish(Deadline)}
+	 */
+	static void restore(Deadline previous) {
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+
+	/**
+	 * Indicates whenever the invocation should stop as soon as possible
+	 *
+	 * @return true once expired
+	 */
+	public boolean isExpired() {
+		return expired;
+	}
+
+	/**
+	 * Check that the invocation could continue
+	 *
+	 * @throws DeadlineExceededException once expired
+	 */
+	public void check() throws DeadlineExceededException {
+		if (expired) {
+			DoNotRetryIOException reason = cancellationReason;
+			if (reason != null) {
+				throw new DeadlineExceededException(reason.getMessage(), reason);
+			}
+			throw new DeadlineExceededException("Coprocessor method has spend to much time to execute");
+		}
+	}
+
+	/**
+	 * Returns the remaining time before expiration
+	 *
+	 * @param unit result unit
+	 * @return the remaining time (0 once expired), {@link Long#MAX_VALUE} when there is no expected expiration time
+	 */
+	public long remaining(@NonNull TimeUnit unit) {
+		if (expired) {
+			return 0L;
+		}
+		long time = expirationTime;
+		if (time == Long.MAX_VALUE) {
+			return Long.MAX_VALUE;
+		}
+		return unit.convert(Math.max(0L, time - System.nanoTime()), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Set the expected expiration time, keep the earliest one
+	 *
+	 * @param timeout delay before expiration
+	 * @param unit    delay unit
+	 */
+	public void expireIn(long timeout, @NonNull TimeUnit unit) {
+		if (this == NONE) {
+			return;
+		}
+		long time = System.nanoTime() + unit.toNanos(timeout);
+		synchronized (this) {
+			if (time < expirationTime) {
+				expirationTime = time;
+			}
+		}
+	}
+
+	/**
+	 * Expire the deadline, the invocation should stop as soon as possible
+	 */
+	public void expire() {
+		if (this != NONE) {
+			expired = true;
+		}
+	}
+
+	/**
+	 * Expire the deadline and cancel the watched execution : the caller is immediately released with the given reason
+	 *
+	 * @param reason error returned to the caller
+	 * @return true if the execution has been cancelled, false if it was not watched or already completed
+	 */
+	public boolean cancel(@NonNull DoNotRetryIOException reason) {
+		if (this == NONE) {
+			return false;
+		}
+		cancellationReason = reason;
+		expired = true;
+		Future<?> watched;
+		synchronized (this) {
+			watched = future;
+		}
+		return watched != null && watched.cancel(false);
+	}
+
+	/**
+	 * Returns the reason of the cancellation
+	 *
+	 * @return the reason given to {@link #cancel(DoNotRetryIOException)}, null if not cancelled that way
+	 */
+	public DoNotRetryIOException getCancellationReason() {
+		return cancellationReason;
+	}
+
+	/**
+	 * Interrupt the thread executing the invocation, if the invocation is still running
+	 *
+	 * @return true if a thread has been interrupted
+	 */
+	public synchronized boolean interrupt() {
+		if (executingThread == null) {
+			return false;
+		}
+		executingThread.interrupt();
+		return true;
+	}
+
+	/**
+	 * Attach (or detach with null) the thread executing the invocation
+	 *
+	 * @param thread executing thread
+	 */
+	synchronized void setExecutingThread(Thread thread) {
+		this.executingThread = thread;
+	}
+
+	/**
+	 * Attach the future of the watched execution
+	 *
+	 * @param future execution future
+	 */
+	synchronized void setFuture(Future<?> future) {
+		this.future = future;
+	}
+
+	/**
+	 * Marker exception thrown once an invocation deadline is exceeded
+	 */
+	public static final class DeadlineExceededException extends DoNotRetryIOException {
+
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = -2870527624843946126L;
+
+		/**
+		 * Default constructor
+		 *
+		 * @param message error description
+		 */
+		public DeadlineExceededException(String message) {
+			super(message);
+		}
+
+		/**
+		 * Constructor
+		 *
+		 * @param message error description
+		 * @param cause   root cause
+		 */
+		public DeadlineExceededException(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
+}
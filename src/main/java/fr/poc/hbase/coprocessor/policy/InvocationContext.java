@@ -0,0 +1,666 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Context of a policy-wrapped method invocation, given to {@link Policy} hooks.
+ * <p>
+ * Contexts are reusable and thread-confined : a context is only valid while the hook it is given to is running,
+ * policies must not keep a reference on it (or on its arguments array) once the hook returns.
+ * Methods executed in the caller thread reuse the contexts of this thread, so a steady-state invocation
+ * does not allocate anything.
+ * Contexts of methods executed in the executor are not reused, they are given to the hooks of the caller thread and
+ * to the execution hooks of the executing thread : their states are allocated at creation, so both threads could
+ * set distinct states concurrently.
+ * </p>
+ * Policies could keep a state between their hooks of an invocation with a {@link Key} (see {@link #set(Key, Object)}),
+ * states are cleared when the context is released.
+ * <br>
+ * Once the method is executed, its execution time is split in policy overhead, queue time (waiting for an executor
+ * thread) and run time, so executor saturation could be told apart from a slow coprocessor.
+ */
+public final class InvocationContext {
+
+	/**
+	 * Empty arguments
+	 */
+	private static final Object[] NO_ARGUMENTS = new Object[0];
+
+	/**
+	 * Maximum number of arguments stored in reusable arrays
+	 */
+	static final int MAX_REUSABLE_ARGUMENTS = 4;
+
+	/**
+	 * Reusable contexts of the current thread
+	 */
+	private static final ThreadLocal<InvocationContext> POOL = ThreadLocal.withInitial(InvocationContext::new);
+
+	/**
+	 * Number of allocated policies states keys
+	 */
+	private static final AtomicInteger KEYS = new AtomicInteger();
+
+	/**
+	 * Reusable arguments arrays, indexed by arguments count
+	 */
+	private final Object[][] reusableArguments = new Object[MAX_REUSABLE_ARGUMENTS + 1][];
+
+	/**
+	 * Indicates whenever the context belongs to a thread pool
+	 */
+	private final boolean pooled;
+
+	/**
+	 * Context used by nested invocations of the same thread (lazily created)
+	 */
+	private InvocationContext nested;
+
+	/**
+	 * Indicates whenever the context is currently used by an invocation
+	 */
+	private boolean inUse;
+
+	/**
+	 * Proxied object
+	 */
+	private Object target;
+
+	/**
+	 * Proxied method
+	 */
+	private PolicyMethod method;
+
+	/**
+	 * Method arguments
+	 */
+	private Object[] arguments = NO_ARGUMENTS;
+
+	/**
+	 * Invocation start time (in {@link System#nanoTime()} reference)
+	 */
+	private long startTime;
+
+	/**
+	 * Invocation duration in nano seconds
+	 */
+	private long executionTime;
+
+	/**
+	 * Time (in {@link System#nanoTime()} reference) the method is submitted to the executor, 0 if not submitted
+	 */
+	private long submitTime;
+
+	/**
+	 * Time (in {@link System#nanoTime()} reference) an executor thread takes the submitted method, 0 if not yet.
+	 * Written by the executing thread
+	 */
+	private long dequeueTime;
+
+	/**
+	 * Time (in {@link System#nanoTime()} reference) the method starts on its executing thread, 0 if not yet.
+	 * Written by the executing thread
+	 */
+	private long runStartTime;
+
+	/**
+	 * Time (in {@link System#nanoTime()} reference) the method ends on its executing thread, 0 if not yet.
+	 * Written by the executing thread
+	 */
+	private long runEndTime;
+
+	/**
+	 * Time spent waiting for the executing thread, in nano seconds
+	 */
+	private long queueTime;
+
+	/**
+	 * Method run duration, in nano seconds
+	 */
+	private long runTime;
+
+	/**
+	 * Method result
+	 */
+	private Object result;
+
+	/**
+	 * Method error
+	 */
+	private Throwable error;
+
+	/**
+	 * Policy that rejected the invocation before its execution, null if none
+	 */
+	private Policy rejectingPolicy;
+
+	/**
+	 * State of the verifier that executes the invocation, kept between its entry and exit hooks
+	 */
+	private Object attachment;
+
+	/**
+	 * Policies states indexed by key id, null until a state is set
+	 */
+	private Object[] states;
+
+	/**
+	 * Indicates whenever a policy state has been set since the last reset
+	 */
+	private boolean hasStates;
+
+	/**
+	 * Constructor of a thread pooled context
+	 */
+	private InvocationContext() {
+		this(true);
+		reusableArguments[0] = NO_ARGUMENTS;
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param pooled true if the context belongs to a thread pool
+	 */
+	private InvocationContext(boolean pooled) {
+		this.pooled = pooled;
+	}
+
+	/**
+	 * Acquire a reusable context of the current thread, it must be released by the same thread
+	 *
+	 * @param target proxied object
+	 * @param method proxied method
+	 * @return a free context
+	 */
+	static InvocationContext acquire(Object target, PolicyMethod method) {
+		InvocationContext context = POOL.get();
+		while (context.inUse) {
+			if (context.nested == null) {
+				context.nested = new InvocationContext();
+			}
+			context = context.nested;
+		}
+		context.inUse = true;
+		return context.reset(target, method);
+	}
+
+	/**
+	 * Indicates whenever the current thread is already executing an invocation on the given target
+	 *
+	 * @param target proxied object
+	 * @return true if a context of the current thread is used by an invocation on the target
+	 */
+	static boolean isInvoking(Object target) {
+		for (InvocationContext context = POOL.get(); context != null && context.inUse; context = context.nested) {
+			if (context.target == target) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Create a context that is not reused, for invocations that could outlive their caller (executor mode)
+	 *
+	 * @param target proxied object
+	 * @param method proxied method
+	 * @return a new context
+	 */
+	static InvocationContext create(Object target, PolicyMethod method) {
+		InvocationContext context = new InvocationContext(false);
+		context.inUse = true;
+		// Policies keys are allocated before their invocations : set never reallocates states from two threads
+		context.states = new Object[KEYS.get()];
+		return context.reset(target, method);
+	}
+
+	/**
+	 * Release the context, clear all references it holds
+	 */
+	void release() {
+		if (pooled) {
+			Object[] reusable = arguments.length <= MAX_REUSABLE_ARGUMENTS ? reusableArguments[arguments.length] : null;
+			if (reusable == arguments) {
+				for (int i = 0; i < reusable.length; i++) {
+					reusable[i] = null;
+				}
+			}
+			reset(null, null);
+		}
+		inUse = false;
+	}
+
+	/**
+	 * Reset the context
+	 *
+	 * @param target proxied object
+	 * @param method proxied method
+	 * @return self
+	 */
+	private InvocationContext reset(Object target, PolicyMethod method) {
+		this.target = target;
+		this.method = method;
+		this.arguments = NO_ARGUMENTS;
+		this.startTime = 0L;
+		this.executionTime = 0L;
+		this.submitTime = 0L;
+		this.dequeueTime = 0L;
+		this.runStartTime = 0L;
+		this.runEndTime = 0L;
+		this.queueTime = 0L;
+		this.runTime = 0L;
+		this.result = null;
+		this.error = null;
+		this.rejectingPolicy = null;
+		this.attachment = null;
+		if (hasStates) {
+			Arrays.fill(states, null);
+			hasStates = false;
+		}
+		return this;
+	}
+
+	/**
+	 * Returns an array able to store the given number of arguments, reused when possible
+	 *
+	 * @param count number of arguments
+	 * @return arguments array, its length is the arguments count
+	 */
+	private Object[] argumentsArray(int count) {
+		if (!pooled || count > MAX_REUSABLE_ARGUMENTS) {
+			return new Object[count];
+		}
+		Object[] array = reusableArguments[count];
+		if (array == null) {
+			array = new Object[count];
+			reusableArguments[count] = array;
+		}
+		return array;
+	}
+
+	/**
+	 * Set method arguments
+	 *
+	 * @param args method arguments (not copied)
+	 * @return self
+	 */
+	InvocationContext withArguments(Object[] args) {
+		this.arguments = args == null ? NO_ARGUMENTS : args;
+		return this;
+	}
+
+	/**
+	 * Set a single method argument
+	 *
+	 * @param arg0 first argument
+	 * @return self
+	 */
+	InvocationContext withArguments(Object arg0) {
+		Object[] args = argumentsArray(1);
+		args[0] = arg0;
+		this.arguments = args;
+		return this;
+	}
+
+	/**
+	 * Set two method arguments
+	 *
+	 * @param arg0 first argument
+	 * @param arg1 second argument
+	 * @return self
+	 */
+	InvocationContext withArguments(Object arg0, Object arg1) {
+		Object[] args = argumentsArray(2);
+		args[0] = arg0;
+		args[1] = arg1;
+		this.arguments = args;
+		return this;
+	}
+
+	/**
+	 * Set three method arguments
+	 *
+	 * @param arg0 first argument
+	 * @param arg1 second argument
+	 * @param arg2 third argument
+	 * @return self
+	 */
+	InvocationContext withArguments(Object arg0, Object arg1, Object arg2) {
+		Object[] args = argumentsArray(3);
+		args[0] = arg0;
+		args[1] = arg1;
+		args[2] = arg2;
+		this.arguments = args;
+		return this;
+	}
+
+	/**
+	 * Set four method arguments
+	 *
+	 * @param arg0 first argument
+	 * @param arg1 second argument
+	 * @param arg2 third argument
+	 * @param arg3 fourth argument
+	 * @return self
+	 */
+	InvocationContext withArguments(Object arg0, Object arg1, Object arg2, Object arg3) {
+		Object[] args = argumentsArray(4);
+		args[0] = arg0;
+		args[1] = arg1;
+		args[2] = arg2;
+		args[3] = arg3;
+		this.arguments = args;
+		return this;
+	}
+
+	/**
+	 * Mark the invocation start
+	 */
+	void started() {
+		this.startTime = System.nanoTime();
+	}
+
+	/**
+	 * Mark the method submission to the executor
+	 */
+	void submitted() {
+		this.submitTime = System.nanoTime();
+	}
+
+	/**
+	 * Mark the submitted method taken by an executor thread, by this thread
+	 */
+	void dequeued() {
+		this.dequeueTime = System.nanoTime();
+	}
+
+	/**
+	 * Mark the method start, by its executing thread
+	 */
+	void runStarted() {
+		this.runStartTime = System.nanoTime();
+	}
+
+	/**
+	 * Mark the method end, by its executing thread
+	 */
+	void runEnded() {
+		this.runEndTime = System.nanoTime();
+	}
+
+	/**
+	 * Mark the invocation end, and split its duration.
+	 * A method still queued or still running (ie: cancelled) is measured until now
+	 */
+	void ended() {
+		long now = System.nanoTime();
+		this.executionTime = now - startTime;
+		if (submitTime != 0L) {
+			long dequeue = dequeueTime;
+			this.queueTime = (dequeue != 0L ? dequeue : now) - submitTime;
+		}
+		long runStart = runStartTime;
+		if (runStart != 0L) {
+			long runEnd = runEndTime;
+			this.runTime = (runEnd != 0L ? runEnd : now) - runStart;
+		}
+	}
+
+	/**
+	 * Set the method result
+	 *
+	 * @param result method result
+	 */
+	void setResult(Object result) {
+		this.result = result;
+	}
+
+	/**
+	 * Set the method error
+	 *
+	 * @param error method error
+	 */
+	void setError(Throwable error) {
+		this.error = error;
+	}
+
+	/**
+	 * Set the policy that rejected the invocation
+	 *
+	 * @param rejectingPolicy policy that failed before the method execution
+	 */
+	void setRejectingPolicy(Policy rejectingPolicy) {
+		this.rejectingPolicy = rejectingPolicy;
+	}
+
+	/**
+	 * Attach a verifier state to the invocation
+	 *
+	 * @param attachment verifier state
+	 */
+	void attach(Object attachment) {
+		this.attachment = attachment;
+	}
+
+	/**
+	 * Returns the verifier state attached to the invocation
+	 *
+	 * @return the attached state, null if none
+	 */
+	Object getAttachment() {
+		return attachment;
+	}
+
+	/**
+	 * Allocate a key of policy state. Keys are never released and size the states of every context : a policy class
+	 * allocates its keys once, in static fields, and its instances share them
+	 *
+	 * @param name state name, for debugging purpose
+	 * @param <T>  state type
+	 * @return a new key
+	 */
+	public static <T> Key<T> newKey(String name) {
+		return new Key<>(name, KEYS.getAndIncrement());
+	}
+
+	/**
+	 * Returns a policy state of the invocation
+	 *
+	 * @param key state key
+	 * @param <T> state type
+	 * @return the state, null if it has not been set
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(Key<T> key) {
+		Object[] values = states;
+		return values != null && key.id < values.length ? (T) values[key.id] : null;
+	}
+
+	/**
+	 * Set a policy state of the invocation, kept until the context is released
+	 *
+	 * @param key   state key
+	 * @param value state value
+	 * @param <T>   state type
+	 */
+	public <T> void set(Key<T> key, T value) {
+		if (states == null || key.id >= states.length) {
+			int length = Math.max(KEYS.get(), key.id + 1);
+			states = states == null ? new Object[length] : Arrays.copyOf(states, length);
+		}
+		states[key.id] = value;
+		hasStates = true;
+	}
+
+	/**
+	 * Returns the proxied object
+	 *
+	 * @return the proxied object
+	 */
+	public Object getTarget() {
+		return target;
+	}
+
+	/**
+	 * Returns the proxied method name
+	 *
+	 * @return the proxied method name
+	 */
+	public String getMethod() {
+		return method.getName();
+	}
+
+	/**
+	 * Returns the proxied method descriptor
+	 *
+	 * @return the proxied method descriptor
+	 */
+	public PolicyMethod getPolicyMethod() {
+		return method;
+	}
+
+	/**
+	 * Returns the proxied method id, policies could use it to index per method state
+	 *
+	 * @return the proxied method id
+	 * @see PolicyMethod#getId()
+	 */
+	public int getMethodId() {
+		return method.getId();
+	}
+
+	/**
+	 * Returns all row arguments passed from original method call
+	 *
+	 * @return method arguments, must not be modified nor kept once the hook returns
+	 */
+	public Object[] getArguments() {
+		return arguments;
+	}
+
+	/**
+	 * Returns the first method argument
+	 *
+	 * @return the first argument, null if there is no argument
+	 */
+	public Object getFirstArgument() {
+		return arguments.length == 0 ? null : arguments[0];
+	}
+
+	/**
+	 * Returns the invocation start time
+	 *
+	 * @return start time in {@link System#nanoTime()} reference
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * Returns the invocation duration, available once the method is executed : its policy overhead, queue time and
+	 * run time (see {@link #getPolicyTime()}, {@link #getQueueTime()} and {@link #getRunTime()})
+	 *
+	 * @return execution time in nano seconds
+	 */
+	public long getExecutionTime() {
+		return executionTime;
+	}
+
+	/**
+	 * Returns the time spent waiting for the executing thread (ie: queued in the executor behind other calls),
+	 * available once the method is executed. Zero when the method is executed in the caller thread.
+	 *
+	 * @return queue time in nano seconds
+	 */
+	public long getQueueTime() {
+		return queueTime;
+	}
+
+	/**
+	 * Returns the duration of the method itself, available once the method is executed.
+	 * Zero when a policy rejected the invocation before its execution.
+	 *
+	 * @return run time in nano seconds
+	 */
+	public long getRunTime() {
+		return runTime;
+	}
+
+	/**
+	 * Returns the time spent in policies and in hand-overs between threads, available once the method is executed :
+	 * the execution time without the queue and run times.
+	 *
+	 * @return policy overhead in nano seconds
+	 */
+	public long getPolicyTime() {
+		return Math.max(executionTime - queueTime - runTime, 0L);
+	}
+
+	/**
+	 * Returns the method result, available once the method is executed
+	 *
+	 * @return method result
+	 */
+	public Object getResult() {
+		return result;
+	}
+
+	/**
+	 * Returns the method error, available once the method is executed
+	 *
+	 * @return method error, null on success
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+	/**
+	 * Returns the policy that rejected the invocation, available once the method is executed
+	 *
+	 * @return the policy that failed in {@link Policy#beforeRun(InvocationContext)}, null if the method has been executed
+	 */
+	public Policy getRejectingPolicy() {
+		return rejectingPolicy;
+	}
+
+	@Override
+	public String toString() {
+		return "InvocationContext{method=" + method + ", target=" + target + "}";
+	}
+
+	/**
+	 * Key of a policy state, states are stored in an array indexed by key id
+	 *
+	 * @param <T> state type
+	 */
+	public static final class Key<T> {
+
+		/**
+		 * State name
+		 */
+		private final String name;
+
+		/**
+		 * Dense key id
+		 */
+		private final int id;
+
+		/**
+		 * Constructor
+		 *
+		 * @param name state name
+		 * @param id   key id
+		 */
+		private Key(String name, int id) {
+			this.name = name;
+			this.id = id;
+		}
+
+		@Override
+		public String toString() {
+			return "InvocationContext.Key{" + name + "#" + id + "}";
+		}
+	}
+}
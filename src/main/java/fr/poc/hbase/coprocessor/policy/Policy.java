@@ -8,6 +8,12 @@ import java.util.concurrent.Future;
 
 /**
  * Execution policy interface, able to implements various execution policy
+ * <p>
+ * Each hook exists in two flavors : the legacy one taking the proxied object, method and arguments, and the one
+ * taking an {@link InvocationContext}. Context hooks are the ones called by the {@link PolicyChain}, their default
+ * implementation delegates to the legacy hooks, so a policy should override only one flavor of each hook.
+ * Context hooks avoid any allocation on the invocation path.
+ * </p>
  */
 public interface Policy extends Closeable {
 
@@ -35,6 +41,16 @@ public interface Policy extends Closeable {
 		// No operation
 	}
 
+	/**
+	 * Call before method execution
+	 *
+	 * @param context invocation context
+	 * @throws IOException if run current method run must be cancelled
+	 */
+	default void beforeRun(@NonNull InvocationContext context) throws IOException {
+		beforeRun(context.getTarget(), context.getMethod(), context.getArguments());
+	}
+
 	/**
 	 * Calle while method as been executed
 	 *
@@ -48,6 +64,26 @@ public interface Policy extends Closeable {
 		// No Operation
 	}
 
+	/**
+	 * Call while method as been executed
+	 *
+	 * @param context invocation context
+	 * @param future  future of current method execution
+	 */
+	default void running(@NonNull InvocationContext context, @NonNull Future<?> future) {
+		running(context.getTarget(), context.getMethod(), context.getArguments(), future);
+	}
+
+	/**
+	 * Indicates whenever executions must be watched even if the policy does not override a running hook :
+	 * watched executions have a {@link Deadline}, so the policy could cancel them (ie: from its execution hooks)
+	 *
+	 * @return true to watch executions, policies overriding a running hook are always watched
+	 */
+	default boolean watchesExecution() {
+		return false;
+	}
+
 	/**
 	 * Call when a method throw an {@link IOException}
 	 *
@@ -61,6 +97,16 @@ public interface Policy extends Closeable {
 		// No operation
 	}
 
+	/**
+	 * Call when a method throw an {@link IOException}
+	 *
+	 * @param context     invocation context
+	 * @param ioException method execution error
+	 */
+	default void onError(@NonNull InvocationContext context, @NonNull IOException ioException) {
+		onError(context.getTarget(), context.getMethod(), context.getArguments(), ioException);
+	}
+
 	/**
 	 * Call when a method throw an unexpected Error (Timeout, Other error)
 	 *
@@ -74,6 +120,16 @@ public interface Policy extends Closeable {
 		// No operation
 	}
 
+	/**
+	 * Call when a method throw an unexpected Error (Timeout, Other error)
+	 *
+	 * @param context   invocation context
+	 * @param throwable method execution error
+	 */
+	default void onUnexpectedError(@NonNull InvocationContext context, @NonNull Throwable throwable) {
+		onUnexpectedError(context.getTarget(), context.getMethod(), context.getArguments(), throwable);
+	}
+
 	/**
 	 * Call once method is already executed
 	 *
@@ -88,6 +144,45 @@ public interface Policy extends Closeable {
 		// No operation
 	}
 
+	/**
+	 * Call once method is already executed, result and execution time are available in the context
+	 *
+	 * @param context invocation context
+	 */
+	default void afterRun(@NonNull InvocationContext context) {
+		afterRun(context.getTarget(), context.getMethod(), context.getArguments(), context.getResult(), context.getExecutionTime());
+	}
+
+	/**
+	 * Call in the thread that executes the method, right before the method starts (ie: an executor thread when the
+	 * execution is watched, the caller thread otherwise). Only called when the method is executed.
+	 *
+	 * @param context invocation context
+	 */
+	default void beforeExecution(@NonNull InvocationContext context) {
+		// No operation
+	}
+
+	/**
+	 * Call in the thread that executes the method, right after the method ends, even when the caller has stopped
+	 * waiting for it (ie: on timeout)
+	 *
+	 * @param context invocation context
+	 */
+	default void afterExecution(@NonNull InvocationContext context) {
+		// No operation
+	}
+
+	/**
+	 * Call when a proxied object stops using the policy (ie: its coprocessor is stopped), the policy could release
+	 * the state it keeps for this object
+	 *
+	 * @param object proxied object
+	 */
+	default void onClose(@NonNull Object object) {
+		// No operation
+	}
+
 	@Override
 	default void close() throws IOException {
 		// No operation
@@ -0,0 +1,267 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Immutable and pre-compiled chain of policies.
+ * <p>
+ * The chain is compiled once when it is built : for each {@link Policy} phase, it only keeps policies that
+ * override one flavor of the phase default (no operation) method, so the hot path only touches policies that do work.
+ * </p>
+ */
+public final class PolicyChain {
+
+	/**
+	 * Empty array
+	 */
+	private static final Policy[] EMPTY = new Policy[0];
+
+	/**
+	 * All policies in declaration order
+	 */
+	private final List<Policy> policies;
+
+	/**
+	 * Policies overriding {@link Policy#onArgument(Object)}
+	 */
+	private final Policy[] onArgument;
+
+	/**
+	 * Policies overriding {@link Policy#beforeRun(InvocationContext)}
+	 */
+	private final Policy[] beforeRun;
+
+	/**
+	 * Policies overriding {@link Policy#running(InvocationContext, Future)}
+	 */
+	private final Policy[] running;
+
+	/**
+	 * Policies overriding {@link Policy#onError(InvocationContext, IOException)}
+	 */
+	private final Policy[] onError;
+
+	/**
+	 * Policies overriding {@link Policy#onUnexpectedError(InvocationContext, Throwable)}
+	 */
+	private final Policy[] onUnexpectedError;
+
+	/**
+	 * Policies overriding {@link Policy#afterRun(InvocationContext)}
+	 */
+	private final Policy[] afterRun;
+
+	/**
+	 * Policies overriding {@link Policy#beforeExecution(InvocationContext)}
+	 */
+	private final Policy[] beforeExecution;
+
+	/**
+	 * Policies overriding {@link Policy#afterExecution(InvocationContext)}
+	 */
+	private final Policy[] afterExecution;
+
+	/**
+	 * Indicates whenever a policy watches executions
+	 */
+	private final boolean watched;
+
+	/**
+	 * Constructor
+	 *
+	 * @param policies policies of the chain, in execution order
+	 */
+	public PolicyChain(@NonNull List<Policy> policies) {
+		this.policies = Collections.unmodifiableList(new ArrayList<>(policies));
+		this.onArgument = compile(this.policies, "onArgument", new Class<?>[]{Object.class});
+		this.beforeRun = compile(this.policies, "beforeRun",
+				new Class<?>[]{Object.class, String.class, Object[].class},
+				new Class<?>[]{InvocationContext.class});
+		this.running = compile(this.policies, "running",
+				new Class<?>[]{Object.class, String.class, Object[].class, Future.class},
+				new Class<?>[]{InvocationContext.class, Future.class});
+		this.onError = compile(this.policies, "onError",
+				new Class<?>[]{Object.class, String.class, Object[].class, IOException.class},
+				new Class<?>[]{InvocationContext.class, IOException.class});
+		this.onUnexpectedError = compile(this.policies, "onUnexpectedError",
+				new Class<?>[]{Object.class, String.class, Object[].class, Throwable.class},
+				new Class<?>[]{InvocationContext.class, Throwable.class});
+		this.afterRun = compile(this.policies, "afterRun",
+				new Class<?>[]{Object.class, String.class, Object[].class, Object.class, long.class},
+				new Class<?>[]{InvocationContext.class});
+		this.beforeExecution = compile(this.policies, "beforeExecution", new Class<?>[]{InvocationContext.class});
+		this.afterExecution = compile(this.policies, "afterExecution", new Class<?>[]{InvocationContext.class});
+		this.watched = running.length > 0 || this.policies.stream().anyMatch(Policy::watchesExecution);
+	}
+
+	/**
+	 * Select policies that override one flavor of the given {@link Policy} method
+	 *
+	 * @param policies   all policies
+	 * @param name       method name
+	 * @param signatures parameter types of each method flavor
+	 * @return overriding policies, in execution order
+	 */
+	private static Policy[] compile(List<Policy> policies, String name, Class<?>[]... signatures) {
+		List<Policy> result = new ArrayList<>(policies.size());
+		for (Policy policy : policies) {
+			for (Class<?>[] parameterTypes : signatures) {
+				if (overrides(policy, name, parameterTypes)) {
+					result.add(policy);
+					break;
+				}
+			}
+		}
+		return result.isEmpty() ? EMPTY : result.toArray(new Policy[result.size()]);
+	}
+
+	/**
+	 * Indicates whenever a policy overrides the given {@link Policy} method
+	 *
+	 * @param policy         the policy
+	 * @param name           method name
+	 * @param parameterTypes method parameter types
+	 * @return true if the policy does not use the default method
+	 */
+	static boolean overrides(@NonNull Policy policy, @NonNull String name, Class<?>... parameterTypes) {
+		try {
+			return policy.getClass().getMethod(name, parameterTypes).getDeclaringClass() != Policy.class;
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Method [" + name + "] is not part of the Policy interface", e);
+		}
+	}
+
+	/**
+	 * Returns all policies of the chain
+	 *
+	 * @return unmodifiable list of policies
+	 */
+	public List<Policy> getPolicies() {
+		return policies;
+	}
+
+	/**
+	 * Indicates whenever at least one policy needs to watch the execution {@link Future}
+	 *
+	 * @return true if a policy overrides {@link Policy#running(InvocationContext, Future)} or
+	 * {@link Policy#watchesExecution() watches executions}
+	 */
+	public boolean hasRunningPolicies() {
+		return watched;
+	}
+
+	/**
+	 * Applies policies on argument
+	 *
+	 * @param arg argument
+	 * @param <T> argument type
+	 * @return mutated argument
+	 * @see Policy#onArgument(Object)
+	 */
+	public <T> T onArgument(T arg) {
+		T result = arg;
+		for (Policy policy : onArgument) {
+			result = policy.onArgument(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Call before method execution
+	 *
+	 * @param context invocation context
+	 * @throws IOException if run current method run must be cancelled, the rejecting policy is kept in the context
+	 * @see Policy#beforeRun(InvocationContext)
+	 */
+	public void beforeRun(@NonNull InvocationContext context) throws IOException {
+		for (Policy policy : beforeRun) {
+			try {
+				policy.beforeRun(context);
+			} catch (IOException | RuntimeException e) {
+				context.setRejectingPolicy(policy);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Call while method as been executed
+	 *
+	 * @param context invocation context
+	 * @param future  future of current method execution
+	 * @see Policy#running(InvocationContext, Future)
+	 */
+	public void running(@NonNull InvocationContext context, @NonNull Future<?> future) {
+		for (Policy policy : running) {
+			policy.running(context, future);
+		}
+	}
+
+	/**
+	 * Call when a method throw an {@link IOException}
+	 *
+	 * @param context     invocation context
+	 * @param ioException method execution error
+	 * @see Policy#onError(InvocationContext, IOException)
+	 */
+	public void onError(@NonNull InvocationContext context, @NonNull IOException ioException) {
+		for (Policy policy : onError) {
+			policy.onError(context, ioException);
+		}
+	}
+
+	/**
+	 * Call when a method throw an unexpected Error (Timeout, Other error)
+	 *
+	 * @param context   invocation context
+	 * @param throwable method execution error
+	 * @see Policy#onUnexpectedError(InvocationContext, Throwable)
+	 */
+	public void onUnexpectedError(@NonNull InvocationContext context, @NonNull Throwable throwable) {
+		for (Policy policy : onUnexpectedError) {
+			policy.onUnexpectedError(context, throwable);
+		}
+	}
+
+	/**
+	 * Call once method is already executed
+	 *
+	 * @param context invocation context
+	 * @see Policy#afterRun(InvocationContext)
+	 */
+	public void afterRun(@NonNull InvocationContext context) {
+		for (Policy policy : afterRun) {
+			policy.afterRun(context);
+		}
+	}
+
+	/**
+	 * Call in the thread that executes the method, right before it starts
+	 *
+	 * @param context invocation context
+	 * @see Policy#beforeExecution(InvocationContext)
+	 */
+	public void beforeExecution(@NonNull InvocationContext context) {
+		for (Policy policy : beforeExecution) {
+			policy.beforeExecution(context);
+		}
+	}
+
+	/**
+	 * Call in the thread that executes the method, right after it ends
+	 *
+	 * @param context invocation context
+	 * @see Policy#afterExecution(InvocationContext)
+	 */
+	public void afterExecution(@NonNull InvocationContext context) {
+		for (Policy policy : afterExecution) {
+			policy.afterExecution(context);
+		}
+	}
+}
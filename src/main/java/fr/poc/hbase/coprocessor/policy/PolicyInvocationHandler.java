@@ -1,6 +1,7 @@
 package fr.poc.hbase.coprocessor.policy;
 
 import com.google.protobuf.Service;
+import fr.poc.hbase.coprocessor.policy.executor.BoundedPolicyExecutor;
 import fr.poc.hbase.coprocessor.policy.proxy.ServicePolicyProxy;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -10,12 +11,18 @@ import org.apache.hadoop.hbase.coprocessor.CoprocessorService;
 import org.apache.hadoop.hbase.coprocessor.SingletonCoprocessorService;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Java Proxy invocation handler able to applies policies on {@link Coprocessor} and all derived interfaces.
@@ -24,6 +31,11 @@ import java.util.List;
 @Slf4j
 public class PolicyInvocationHandler<T extends Coprocessor> extends PolicyVerifier<T> implements InvocationHandler {
 
+	/**
+	 * Empty arguments
+	 */
+	private static final Object[] NO_ARGUMENTS = new Object[0];
+
 	/**
 	 * List of all Coprocessor friendly interfaces where policies must be applied
 	 * <p>
@@ -33,6 +45,17 @@ public class PolicyInvocationHandler<T extends Coprocessor> extends PolicyVerifi
 	@NonNull
 	private final List<Class<?>> ifaces;
 
+	/**
+	 * How coprocessor services are executed when a policy watches them
+	 */
+	@NonNull
+	private final ExecutionMode serviceExecutionMode;
+
+	/**
+	 * Dispatchers by method, interfaces methods ones are built with the handler, others lazily
+	 */
+	private final ConcurrentMap<Method, Dispatcher> dispatchers = new ConcurrentHashMap<>();
+
 	/**
 	 * Constructor
 	 *
@@ -44,52 +67,212 @@ public class PolicyInvocationHandler<T extends Coprocessor> extends PolicyVerifi
 								   @NonNull List<Policy> policies) {
 		super(adaptee, policies);
 		this.ifaces = new ArrayList<>(Arrays.asList(ifaces));
+		this.serviceExecutionMode = ExecutionMode.EXECUTOR;
+		registerDispatchers(ifaces);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param adaptee  proxied object
+	 * @param ifaces   list of all Coprocessor friendly interfaces where policies must be applied
+	 * @param policies policies to check
+	 * @param executor executor where methods are executed when a policy needs to watch the execution
+	 */
+	public PolicyInvocationHandler(@NonNull T adaptee, @NonNull Class<?>[] ifaces,
+								   @NonNull List<Policy> policies, @NonNull BoundedPolicyExecutor executor) {
+		this(adaptee, ifaces, policies, executor, ExecutionMode.EXECUTOR);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param adaptee              proxied object
+	 * @param ifaces               list of all Coprocessor friendly interfaces where policies must be applied
+	 * @param policies             policies to check
+	 * @param executor             executor where methods are executed when a policy needs to watch the execution
+	 * @param serviceExecutionMode how coprocessor services are executed when a policy watches them
+	 */
+	public PolicyInvocationHandler(@NonNull T adaptee, @NonNull Class<?>[] ifaces,
+								   @NonNull List<Policy> policies, @NonNull BoundedPolicyExecutor executor,
+								   @NonNull ExecutionMode serviceExecutionMode) {
+		super(adaptee, policies, executor);
+		this.ifaces = new ArrayList<>(Arrays.asList(ifaces));
+		this.serviceExecutionMode = serviceExecutionMode;
+		registerDispatchers(ifaces);
+	}
+
+	/**
+	 * Build dispatchers of all interfaces methods (and register their descriptors)
+	 *
+	 * @param ifaces interfaces where policies must be applied
+	 */
+	private void registerDispatchers(@NonNull Class<?>[] ifaces) {
+		for (Class<?> iface : ifaces) {
+			for (Method method : iface.getMethods()) {
+				dispatchers.computeIfAbsent(method, this::newDispatcher);
+			}
+		}
 	}
 
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-		// Detect non interfaces call
-		if (!ifaces.stream().anyMatch(c -> c.isAssignableFrom(method.getDeclaringClass()))) {
-			return method.invoke(getAdaptee(), args);
+		Dispatcher dispatcher = dispatchers.get(method);
+		if (dispatcher == null) {
+			dispatcher = dispatchers.computeIfAbsent(method, this::newDispatcher);
 		}
+		return dispatcher.dispatch(args);
+	}
 
-		if (method.getDeclaringClass().isAssignableFrom(Coprocessor.class)
-				&& "stop".equals(method.getName())) {
-			try {
-				return method.invoke(getAdaptee(), args);
-			} finally {
-				close();
-			}
+	/**
+	 * Resolve dispatchers of the given methods, they are built once per method and reused by all calls
+	 *
+	 * @param methods proxied methods
+	 * @return dispatchers in the same order than methods
+	 */
+	public Dispatcher[] getDispatchers(@NonNull Method[] methods) {
+		Dispatcher[] result = new Dispatcher[methods.length];
+		for (int i = 0; i < methods.length; i++) {
+			result[i] = dispatchers.computeIfAbsent(methods[i], this::newDispatcher);
+		}
+		return result;
+	}
+
+	/**
+	 * Resolve once how a method is handled
+	 *
+	 * @param method proxied method
+	 * @return the method dispatcher
+	 */
+	private Dispatcher newDispatcher(@NonNull Method method) {
+		// Detect non interfaces call
+		if (!ifaces.stream().anyMatch(c -> c.isAssignableFrom(method.getDeclaringClass()))) {
+			return args -> method.invoke(getAdaptee(), args);
 		}
 
 		// Special case for protobuf services
 		if ((method.getDeclaringClass().isAssignableFrom(CoprocessorService.class)
 				|| method.getDeclaringClass().isAssignableFrom(SingletonCoprocessorService.class))
 				&& method.getReturnType().isAssignableFrom(Service.class)) {
-			Service service = (Service) method.invoke(getAdaptee(), args);
-			LOGGER.debug("Create a ServicePolicyProxy on CoprocessorService [{}]", service);
-			return new ServicePolicyProxy(service, getPolicies());
+			return args -> {
+				Service service = (Service) method.invoke(getAdaptee(), args);
+				LOGGER.debug("Create a ServicePolicyProxy on CoprocessorService [{}]", service);
+				releaseWithAdaptee(service);
+				return new ServicePolicyProxy(service, getPolicies(), getExecutor(), serviceExecutionMode);
+			};
 		}
 
+		PolicyMethod policyMethod = PolicyMethod.of(method.getName());
+		boolean throwsExceptions = method.getExceptionTypes().length > 0;
+		MethodInvoker invoker = newInvoker(method);
+		if (method.getDeclaringClass().isAssignableFrom(Coprocessor.class)
+				&& "stop".equals(method.getName())) {
+			// The verifier is closed once the adaptee is stopped, even if it fails
+			return args -> {
+				try {
+					return invokeWithPolicies(invoker, policyMethod, throwsExceptions, args);
+				} finally {
+					close();
+				}
+			};
+		}
+		return args -> invokeWithPolicies(invoker, policyMethod, throwsExceptions, args);
+	}
+
+	/**
+	 * Bind a method to the adaptee, through a {@link MethodHandle} or through reflection if it could not be bound
+	 *
+	 * @param method proxied method
+	 * @return the method invoker
+	 */
+	private MethodInvoker newInvoker(@NonNull Method method) {
 		try {
-			return runWithPolicies(method.getName(), () -> {
+			if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+				// Non public interfaces (ie: package private ones) are not accessible from this package
+				method.setAccessible(true);
+			}
+			MethodHandle handle = MethodHandles.publicLookup().unreflect(method).bindTo(getAdaptee())
+					.asSpreader(Object[].class, method.getParameterCount())
+					.asType(MethodType.methodType(Object.class, Object[].class));
+			return args -> {
+				try {
+					return (Object) handle.invokeExact(args);
+				} catch (IOException e) {
+					throw e;
+				} catch (Throwable th) {
+					throw new HBaseIOException("An unexpected error occurred while calling method with policies, see root cause for details", th);
+				}
+			};
+		} catch (IllegalAccessException | RuntimeException e) {
+			LOGGER.debug("Unable to bind a method handle on [{}], use reflection", method, e);
+			return args -> {
 				try {
 					return method.invoke(getAdaptee(), args);
-				} catch (InvocationTargetException e) {
-					if (e.getTargetException() instanceof IOException) {
-						throw (IOException) e.getCause();
+				} catch (InvocationTargetException ex) {
+					if (ex.getTargetException() instanceof IOException) {
+						throw (IOException) ex.getCause();
 					}
-					throw new HBaseIOException("An unexpected error occurred while calling method with policies, see root cause for details", e.getTargetException());
-				} catch (IllegalAccessException e) {
-					throw new HBaseIOException("An unexpected error occurred while calling method with policies, see root cause for details", e);
+					throw new HBaseIOException("An unexpected error occurred while calling method with policies, see root cause for details", ex.getTargetException());
+				} catch (IllegalAccessException ex) {
+					throw new HBaseIOException("An unexpected error occurred while calling method with policies, see root cause for details", ex);
 				}
-			}, args == null ? new Object[]{} : args);
+			};
+		}
+	}
+
+	/**
+	 * Invoke a method with policies
+	 *
+	 * @param invoker          proxied method invoker
+	 * @param policyMethod     proxied method descriptor
+	 * @param throwsExceptions indicates whenever the method declares exceptions
+	 * @param args             method arguments
+	 * @return the method result
+	 * @throws IOException if the method throws exceptions
+	 */
+	private Object invokeWithPolicies(MethodInvoker invoker, PolicyMethod policyMethod, boolean throwsExceptions,
+									  Object[] args) throws IOException {
+		Object[] arguments = args == null ? NO_ARGUMENTS : args;
+		try {
+			return runWithPolicies(policyMethod, () -> invoker.invoke(arguments), arguments);
 		} catch (IOException e) {
-			if (method.getExceptionTypes().length > 0) {
+			if (throwsExceptions) {
 				throw e;
 			}
 			LOGGER.info("An unexpected error occurred in Coprocessor method, see root cause for details", e);
 		}
 		return null;
 	}
+
+	/**
+	 * Pre-resolved handling of a proxied method
+	 */
+	@FunctionalInterface
+	public interface Dispatcher {
+
+		/**
+		 * Dispatch a method call
+		 *
+		 * @param args method arguments
+		 * @return the method result
+		 * @throws Throwable any error thrown by the proxied method
+		 */
+		Object dispatch(Object[] args) throws Throwable;
+	}
+
+	/**
+	 * Proxied method bound to the adaptee
+	 */
+	@FunctionalInterface
+	private interface MethodInvoker {
+
+		/**
+		 * Invoke the proxied method
+		 *
+		 * @param args method arguments
+		 * @return the method result
+		 * @throws IOException any error thrown by the proxied method, unexpected ones are wrapped
+		 */
+		Object invoke(Object[] args) throws IOException;
+	}
 }
@@ -0,0 +1,122 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import lombok.NonNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Descriptor of a method wrapped with policies.
+ * <p>
+ * Descriptors are registered once (when proxies are built) : each method name is given a stable id, dense from 0,
+ * for the JVM lifetime. Policies could index per method state in arrays by {@link #getId()} instead of hashing
+ * method names on each call.
+ * </p>
+ */
+public final class PolicyMethod {
+
+	/**
+	 * Registered methods by name
+	 */
+	private static final ConcurrentMap<String, PolicyMethod> METHODS_BY_NAME = new ConcurrentHashMap<>();
+
+	/**
+	 * Registered methods by id
+	 */
+	private static volatile PolicyMethod[] methodsById = new PolicyMethod[0];
+
+	/**
+	 * Method id
+	 */
+	private final int id;
+
+	/**
+	 * Method name
+	 */
+	private final String name;
+
+	/**
+	 * Constructor
+	 *
+	 * @param id   method id
+	 * @param name method name
+	 */
+	private PolicyMethod(int id, @NonNull String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	/**
+	 * Returns the descriptor of a method, registering it on first call
+	 *
+	 * @param name method name (ie: RegionObserver:prePut)
+	 * @return the method descriptor, always the same for a given name
+	 */
+	public static PolicyMethod of(@NonNull String name) {
+		PolicyMethod method = METHODS_BY_NAME.get(name);
+		return method != null ? method : register(name);
+	}
+
+	/**
+	 * Register a method
+	 *
+	 * @param name method name
+	 * @return the method descriptor
+	 */
+	private static synchronized PolicyMethod register(String name) {
+		PolicyMethod method = METHODS_BY_NAME.get(name);
+		if (method == null) {
+			PolicyMethod[] methods = methodsById;
+			PolicyMethod[] newMethods = new PolicyMethod[methods.length + 1];
+			System.arraycopy(methods, 0, newMethods, 0, methods.length);
+			method = new PolicyMethod(methods.length, name);
+			newMethods[method.id] = method;
+			methodsById = newMethods;
+			METHODS_BY_NAME.put(name, method);
+		}
+		return method;
+	}
+
+	/**
+	 * Returns a registered method
+	 *
+	 * @param id method id
+	 * @return the method descriptor
+	 * @throws IndexOutOfBoundsException if there is no registered method with that id
+	 */
+	public static PolicyMethod get(int id) {
+		return methodsById[id];
+	}
+
+	/**
+	 * Returns the number of registered methods, all ids are lower than it
+	 *
+	 * @return number of registered methods
+	 */
+	public static int count() {
+		return methodsById.length;
+	}
+
+	/**
+	 * Returns the method id
+	 *
+	 * @return stable id of the method
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the method name
+	 *
+	 * @return method name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -1,13 +1,13 @@
 package fr.poc.hbase.coprocessor.policy;
 
+import fr.poc.hbase.coprocessor.policy.executor.BoundedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
 import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
 import fr.poc.hbase.coprocessor.policy.util.RunnableWithIOException;
 import fr.poc.hbase.coprocessor.policy.util.WrappedIOException;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.hadoop.hbase.DoNotRetryIOException;
 import org.apache.hadoop.hbase.HBaseIOException;
 import org.apache.hadoop.hdfs.util.Holder;
 
@@ -15,23 +15,32 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.*;
 
 /**
  * This class is able to checks some policies
  * <ul>
  * <li>on adapted methods via
- * {@link #runWithPolicies(String, CallableWithIOException, Object...)} or
- * {@link #runWithPolicies(String, RunnableWithIOException, Object...)}</li>
+ * {@link #runWithPolicies(PolicyMethod, CallableWithIOException, Object...)} or
+ * {@link #runWithPolicies(PolicyMethod, RunnableWithIOException, Object...)}</li>
  * <li>on parameters via {@link #argumentWithPolicies(Object)}</li>
  * </ul>
  * <br>
  * This class is generic and can be applied on any kind of objects that wrap methods witch can throws {@link IOException}
+ * <br>
+ * Methods watched by policies are executed in the executor or in the caller thread (see {@link ExecutionMode}),
+ * they could poll their {@link Deadline} to stop cooperatively.
+ * <br>
+ * Policies hooks receive an {@link InvocationContext} : when methods are executed inline, contexts and arguments
+ * arrays (up to four arguments) are reused, so the wrapped call does not allocate on the steady-state path.
+ * <br>
+ * When policies are a {@link SharedPolicyChain}, their chain could be swapped at runtime : each invocation reads the
+ * current chain once and completes on it.
  *
  * @param <A> Adaptee object type
  */
 @Slf4j
-@RequiredArgsConstructor
 public class PolicyVerifier<A> implements Closeable {
 
 	/**
@@ -47,76 +56,308 @@ public class PolicyVerifier<A> implements Closeable {
 	@NonNull
 	private final List<Policy> policies;
 
+	/**
+	 * Compiled policies chain, null when policies are shared
+	 */
+	private volatile PolicyChain chain;
+
+	/**
+	 * Shared policies chain, null when policies are owned by this verifier
+	 */
+	private final SharedPolicyChain sharedChain;
+
 	/**
 	 * Executor that able to execute method in a separate thread
 	 */
-	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	@Getter
+	@NonNull
+	private final BoundedPolicyExecutor executor;
+
+	/**
+	 * How methods are executed when a policy needs to watch the execution
+	 */
+	@Getter
+	@NonNull
+	private final ExecutionMode executionMode;
 
 	/**
-	 * Call a wrapped method with current policies
+	 * Objects that use the policies on behalf of the adaptee (ie: its protobuf services), released with it
+	 */
+	private final Set<Object> dependents = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Constructor
 	 *
-	 * @param method   name of the method that will be executed
-	 * @param args     all row arguments passed from original method call (before any transformation via {@link #argumentWithPolicies(Object)}
+	 * @param adaptee  adaptee object
+	 * @param policies policies to check
+	 */
+	public PolicyVerifier(@NonNull A adaptee, @NonNull List<Policy> policies) {
+		this(adaptee, policies, SharedPolicyExecutor.getInstance().newBoundedExecutor());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param adaptee  adaptee object
+	 * @param policies policies to check
+	 * @param executor executor where methods are executed when a policy needs to watch the execution
+	 */
+	public PolicyVerifier(@NonNull A adaptee, @NonNull List<Policy> policies, @NonNull BoundedPolicyExecutor executor) {
+		this(adaptee, policies, executor, ExecutionMode.EXECUTOR);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param adaptee       adaptee object
+	 * @param policies      policies to check
+	 * @param executor      executor where methods are executed when a policy needs to watch the execution
+	 * @param executionMode how methods are executed when a policy needs to watch the execution
+	 */
+	public PolicyVerifier(@NonNull A adaptee, @NonNull List<Policy> policies, @NonNull BoundedPolicyExecutor executor,
+						  @NonNull ExecutionMode executionMode) {
+		this.adaptee = adaptee;
+		this.policies = policies;
+		this.executor = executor;
+		this.executionMode = executionMode;
+		this.sharedChain = policies instanceof SharedPolicyChain ? (SharedPolicyChain) policies : null;
+		this.chain = sharedChain == null ? new PolicyChain(policies) : null;
+	}
+
+	/**
+	 * Indicates whenever methods are executed in the caller thread
+	 *
+	 * @return true when no policy needs to watch the method execution
+	 */
+	public boolean isInline() {
+		return !getChain().hasRunningPolicies();
+	}
+
+	/**
+	 * Returns the current compiled policies chain, invocations must read it once
+	 *
+	 * @return the current chain
+	 */
+	PolicyChain getChain() {
+		return sharedChain != null ? sharedChain.getChain() : chain;
+	}
+
+	/**
+	 * Create the context of a new invocation
+	 *
+	 * @param chain  policies to apply
+	 * @param method descriptor of the method that will be executed
+	 * @return a reusable context of the caller thread when the method is executed by the caller, a new context otherwise
+	 */
+	private InvocationContext newContext(@NonNull PolicyChain chain, @NonNull PolicyMethod method) {
+		if (chain.hasRunningPolicies() && executionMode == ExecutionMode.EXECUTOR) {
+			// Method executed in the executor could outlive the caller, its context must not be reused
+			return InvocationContext.create(adaptee, method);
+		}
+		return InvocationContext.acquire(adaptee, method);
+	}
+
+	/**
+	 * Call a wrapped method with current policies, one of callable or runnable must be set
+	 *
+	 * @param chain    policies to apply
+	 * @param context  invocation context, released once the method is executed
+	 * @param callable the method to execute (with result)
+	 * @param runnable the method to execute (without result)
+	 * @param <R>      Method return type
+	 * @return the method return type
+	 * @throws IOException Returns only IOException
+	 */
+	private <R> R runMethodWithPolicies(@NonNull PolicyChain chain,
+										@NonNull InvocationContext context,
+										CallableWithIOException<R> callable,
+										RunnableWithIOException runnable) throws IOException {
+		try {
+			if (!chain.hasRunningPolicies()) {
+				return runMethodInlineWithPolicies(chain, context, callable, runnable);
+			}
+			return runMethodWatchedWithPolicies(chain, context, callable != null ? callable : () -> {
+				runnable.run();
+				return null;
+			});
+		} finally {
+			context.release();
+		}
+	}
+
+	/**
+	 * Call a wrapped method with current policies in the caller thread, one of callable or runnable must be set
+	 *
+	 * @param chain    policies to apply
+	 * @param context  invocation context
+	 * @param callable the method to execute (with result)
+	 * @param runnable the method to execute (without result)
+	 * @param <R>      Method return type
+	 * @return the method return type
+	 * @throws IOException Returns only IOException
+	 */
+	private <R> R runMethodInlineWithPolicies(@NonNull PolicyChain chain,
+											  @NonNull InvocationContext context,
+											  CallableWithIOException<R> callable,
+											  RunnableWithIOException runnable) throws IOException {
+		context.started();
+		boolean started = false;
+		R result = null;
+
+		try {
+			//Execute before handlers
+			chain.beforeRun(context);
+
+			// Execute and fetch result
+			started = true;
+			chain.beforeExecution(context);
+			context.runStarted();
+			try {
+				if (callable != null) {
+					result = callable.call();
+				} else {
+					runnable.run();
+				}
+			} finally {
+				context.runEnded();
+				chain.afterExecution(context);
+			}
+			context.setResult(result);
+		} catch (IOException ioEx) {
+			context.setError(ioEx);
+			if (started) {
+				LOGGER.trace("An error occurred while trying to execute " + context.getMethod() + " on " + adaptee, ioEx);
+				chain.onError(context, ioEx);
+			}
+			throw ioEx;
+		} catch (Throwable th) {
+			context.setError(th);
+			chain.onUnexpectedError(context, th);
+			throw new HBaseIOException("An unexpected error occurred in Coprocessor method, see root cause for details", th);
+		} finally {
+			context.ended();
+			chain.afterRun(context);
+		}
+		return result;
+	}
+
+	/**
+	 * Call a wrapped method with current policies, watched through its execution future.
+	 * According to the {@link ExecutionMode}, the method is executed in the executor thread or in the caller thread.
+	 *
+	 * @param chain    policies to apply
+	 * @param context  invocation context
 	 * @param callable the method to execute
 	 * @param <R>      Method return type
 	 * @return the method return type
 	 * @throws IOException Returns only IOException
 	 */
-	private <R> R runMethodWithPolicies(@NonNull String method,
-										@NonNull Object[] args,
-										@NonNull Callable<R> callable) throws IOException {
-		final long start = System.nanoTime();
+	private <R> R runMethodWatchedWithPolicies(@NonNull PolicyChain chain,
+											   @NonNull InvocationContext context,
+											   @NonNull CallableWithIOException<R> callable) throws IOException {
+		context.started();
 		Future<R> future = null;
-		Holder<R> resultHolder = new Holder<>(null);
+		R result = null;
 
+		// Publish the invocation deadline for policies hooks
+		final Deadline deadline = new Deadline();
+		final Deadline previousDeadline = Deadline.publish(deadline);
 		try {
 			//Execute before handlers
-			for (Policy handler : policies) {
-				handler.beforeRun(adaptee, method, args);
-			}
+			chain.beforeRun(context);
 
-			// Start the execution
-			future = executor.submit(callable);
+			if (executionMode == ExecutionMode.CALLER_THREAD) {
+				// Execute in the caller thread, the deadline is already published and the thread is never interrupted
+				CallerThreadTask<R> task = new CallerThreadTask<>(() -> {
+					chain.beforeExecution(context);
+					context.runStarted();
+					try {
+						return callable.call();
+					} catch (IOException ioEx) {
+						throw new WrappedIOException(ioEx);
+					} finally {
+						context.runEnded();
+						chain.afterExecution(context);
+					}
+				});
+				future = task;
+				deadline.setFuture(task);
 
-			// Execute 'execution' handlers
-			final Future<R> theFuture = future;
-			policies.forEach(a -> a.running(adaptee, method, args, theFuture));
+				// Execute 'execution' handlers
+				chain.running(context, future);
+				task.run();
+			} else {
+				// Start the execution
+				context.submitted();
+				future = executor.submit(() -> {
+					context.dequeued();
+					// Publish the invocation deadline for the executed method
+					Deadline previous = Deadline.publish(deadline);
+					deadline.setExecutingThread(Thread.currentThread());
+					chain.beforeExecution(context);
+					context.runStarted();
+					try {
+						return callable.call();
+					} catch (IOException ioEx) {
+						throw new WrappedIOException(ioEx);
+					} finally {
+						context.runEnded();
+						chain.afterExecution(context);
+						deadline.setExecutingThread(null);
+						Deadline.restore(previous);
+					}
+				});
+				deadline.setFuture(future);
+
+				// Execute 'execution' handlers
+				chain.running(context, future);
+			}
 
 			// Fetch result
-			resultHolder.held = future.get();
+			result = future.get();
+			context.setResult(result);
 		} catch (IOException ioe) {
+			context.setError(ioe);
 			throw ioe;
 		} catch (CancellationException cancel) {
-			throw new DoNotRetryIOException("coprocessor method has spend to much time to execute, see root cause for details", cancel);
+			context.setError(cancel);
+			if (deadline.getCancellationReason() != null) {
+				throw deadline.getCancellationReason();
+			}
+			throw new Deadline.DeadlineExceededException("coprocessor method has spend to much time to execute, see root cause for details", cancel);
 		} catch (ExecutionException executionEx) {
 			future.cancel(true);
-			LOGGER.trace("An error occurred while trying to execute " + method + " on " + adaptee, executionEx);
+			LOGGER.trace("An error occurred while trying to execute " + context.getMethod() + " on " + adaptee, executionEx);
 
 			Throwable th = executionEx.getCause();
+			context.setError(th);
 			if (th instanceof WrappedIOException) {
 				IOException ioEx = ((WrappedIOException) th).getCause();
-				policies.forEach(a -> a.onError(adaptee, method, args, ioEx));
+				context.setError(ioEx);
+				chain.onError(context, ioEx);
 				throw ioEx;
 			}
 			if (th instanceof IOException) {
 				IOException ioEx = (IOException) th;
-				policies.forEach(a -> a.onError(adaptee, method, args, ioEx));
+				chain.onError(context, ioEx);
 				throw ioEx;
 			}
 
-			policies.forEach(a -> a.onUnexpectedError(adaptee, method, args, th));
+			chain.onUnexpectedError(context, th);
 			throw new HBaseIOException("An unexpected error occurred in Coprocessor method, see root cause for details", th);
 		} catch (Throwable th) {
 			if (future != null) {
 				future.cancel(true);
 			}
-			policies.forEach(a -> a.onUnexpectedError(adaptee, method, args, th));
+			context.setError(th);
+			chain.onUnexpectedError(context, th);
 			throw new HBaseIOException("An unexpected error occurred in Coprocessor method, see root cause for details", th);
 		} finally {
-			long executionTime = System.nanoTime() - start;
-			policies.forEach(a -> a.afterRun(adaptee, method, args, resultHolder.held, executionTime));
+			context.ended();
+			chain.afterRun(context);
+			Deadline.restore(previousDeadline);
 		}
-		return resultHolder.held;
+		return result;
 	}
 
 	/**
@@ -127,54 +368,231 @@ public class PolicyVerifier<A> implements Closeable {
 	 * @return mutated argument
 	 */
 	protected final <T> T argumentWithPolicies(T arg) {
-		T argWithPolicies = arg;
-		for (Policy handler : policies) {
-			argWithPolicies = handler.onArgument(argWithPolicies);
-		}
-		return argWithPolicies;
+		return getChain().onArgument(arg);
 	}
 
 	/**
 	 * Run a method runnable (without result) with the current policies
 	 *
-	 * @param method   name of the method that will be executed
+	 * @param method   descriptor of the method that will be executed
 	 * @param runnable runnable like to execute
 	 * @param args     all row arguments passed from original method call (before any transformation via {@link #argumentWithPolicies(Object)}
 	 * @throws IOException throws for any proxied method issue
 	 */
+	protected final void runWithPolicies(@NonNull PolicyMethod method, @NonNull RunnableWithIOException runnable, Object... args) throws IOException {
+		PolicyChain currentChain = getChain();
+		runMethodWithPolicies(currentChain, newContext(currentChain, method).withArguments(args), null, runnable);
+	}
+
+	/**
+	 * Run a method runnable (without result) of one argument with the current policies, without allocating arguments array
+	 *
+	 * @param method   descriptor of the method that will be executed
+	 * @param runnable runnable like to execute
+	 * @param arg0     first argument passed from original method call
+	 * @throws IOException throws for any proxied method issue
+	 */
+	protected final void runWithPolicies(@NonNull PolicyMethod method, @NonNull RunnableWithIOException runnable, Object arg0) throws IOException {
+		PolicyChain currentChain = getChain();
+		runMethodWithPolicies(currentChain, newContext(currentChain, method).withArguments(arg0), null, runnable);
+	}
+
+	/**
+	 * Run a method runnable (without result) of two arguments with the current policies, without allocating arguments array
+	 *
+	 * @param method   descriptor of the method that will be executed
+	 * @param runnable runnable like to execute
+	 * @param arg0     first argument passed from original method call
+	 * @param arg1     second argument passed from original method call
+	 * @throws IOException throws for any proxied method issue
+	 */
+	protected final void runWithPolicies(@NonNull PolicyMethod method, @NonNull RunnableWithIOException runnable,
+										 Object arg0, Object arg1) throws IOException {
+		PolicyChain currentChain = getChain();
+		runMethodWithPolicies(currentChain, newContext(currentChain, method).withArguments(arg0, arg1), null, runnable);
+	}
+
+	/**
+	 * Run a method runnable (without result) of three arguments with the current policies, without allocating arguments array
+	 *
+	 * @param method   descriptor of the method that will be executed
+	 * @param runnable runnable like to execute
+	 * @param arg0     first argument passed from original method call
+	 * @param arg1     second argument passed from original method call
+	 * @param arg2     third argument passed from original method call
+	 * @throws IOException throws for any proxied method issue
+	 */
+	protected final void runWithPolicies(@NonNull PolicyMethod method, @NonNull RunnableWithIOException runnable,
+										 Object arg0, Object arg1, Object arg2) throws IOException {
+		PolicyChain currentChain = getChain();
+		runMethodWithPolicies(currentChain, newContext(currentChain, method).withArguments(arg0, arg1, arg2), null, runnable);
+	}
+
+	/**
+	 * Run a method runnable (without result) of four arguments with the current policies, without allocating arguments array
+	 *
+	 * @param method   descriptor of the method that will be executed
+	 * @param runnable runnable like to execute
+	 * @param arg0     first argument passed from original method call
+	 * @param arg1     second argument passed from original method call
+	 * @param arg2     third argument passed from original method call
+	 * @param arg3     fourth argument passed from original method call
+	 * @throws IOException throws for any proxied method issue
+	 */
+	protected final void runWithPolicies(@NonNull PolicyMethod method, @NonNull RunnableWithIOException runnable,
+										 Object arg0, Object arg1, Object arg2, Object arg3) throws IOException {
+		PolicyChain currentChain = getChain();
+		runMethodWithPolicies(currentChain, newContext(currentChain, method).withArguments(arg0, arg1, arg2, arg3), null, runnable);
+	}
+
+	/**
+	 * Run a method callable (with result) with the current policies
+	 *
+	 * @param method   descriptor of the method that will be executed
+	 * @param callable collable like to execute
+	 * @param args     all row arguments passed from original method call (before any transformation via {@link #argumentWithPolicies(Object)}
+	 * @param <R>      Method return type
+	 * @return the method return type
+	 * @throws IOException throws for any proxied method issue
+	 */
+	protected final <R> R runWithPolicies(@NonNull PolicyMethod method, @NonNull CallableWithIOException<R> callable, Object... args) throws IOException {
+		PolicyChain currentChain = getChain();
+		return runMethodWithPolicies(currentChain, newContext(currentChain, method).withArguments(args), callable, null);
+	}
+
+	/**
+	 * Run a method callable (with result) of one argument with the current policies, without allocating arguments array
+	 *
+	 * @param method   descriptor of the method that will be executed
+	 * @param callable collable like to execute
+	 * @param arg0     first argument passed from original method call
+	 * @param <R>      Method return type
+	 * @return the method return type
+	 * @throws IOException throws for any proxied method issue
+	 */
+	protected final <R> R runWithPolicies(@NonNull PolicyMethod method, @NonNull CallableWithIOException<R> callable, Object arg0) throws IOException {
+		PolicyChain currentChain = getChain();
+		return runMethodWithPolicies(currentChain, newContext(currentChain, method).withArguments(arg0), callable, null);
+	}
+
+	/**
+	 * Run a method callable (with result) of two arguments with the current policies, without allocating arguments array
+	 *
+	 * @param method   descriptor of the method that will be executed
+	 * @param callable collable like to execute
+	 * @param arg0     first argument passed from original method call
+	 * @param arg1     second argument passed from original method call
+	 * @param <R>      Method return type
+	 * @return the method return type
+	 * @throws IOException throws for any proxied method issue
+	 */
+	protected final <R> R runWithPolicies(@NonNull PolicyMethod method, @NonNull CallableWithIOException<R> callable,
+										  Object arg0, Object arg1) throws IOException {
+		PolicyChain currentChain = getChain();
+		return runMethodWithPolicies(currentChain, newContext(currentChain, method).withArguments(arg0, arg1), callable, null);
+	}
+
+	/**
+	 * Run a method callable (with result) of three arguments with the current policies, without allocating arguments array
+	 *
+	 * @param method   descriptor of the method that will be executed
+	 * @param callable collable like to execute
+	 * @param arg0     first argument passed from original method call
+	 * @param arg1     second argument passed from original method call
+	 * @param arg2     third argument passed from original method call
+	 * @param <R>      Method return type
+	 * @return the method return type
+	 * @throws IOException throws for any proxied method issue
+	 */
+	protected final <R> R runWithPolicies(@NonNull PolicyMethod method, @NonNull CallableWithIOException<R> callable,
+										  Object arg0, Object arg1, Object arg2) throws IOException {
+		PolicyChain currentChain = getChain();
+		return runMethodWithPolicies(currentChain, newContext(currentChain, method).withArguments(arg0, arg1, arg2), callable, null);
+	}
+
+	/**
+	 * Run a method callable (with result) of four arguments with the current policies, without allocating arguments array
+	 *
+	 * @param method   descriptor of the method that will be executed
+	 * @param callable collable like to execute
+	 * @param arg0     first argument passed from original method call
+	 * @param arg1     second argument passed from original method call
+	 * @param arg2     third argument passed from original method call
+	 * @param arg3     fourth argument passed from original method call
+	 * @param <R>      Method return type
+	 * @return the method return type
+	 * @throws IOException throws for any proxied method issue
+	 */
+	protected final <R> R runWithPolicies(@NonNull PolicyMethod method, @NonNull CallableWithIOException<R> callable,
+										  Object arg0, Object arg1, Object arg2, Object arg3) throws IOException {
+		PolicyChain currentChain = getChain();
+		return runMethodWithPolicies(currentChain, newContext(currentChain, method).withArguments(arg0, arg1, arg2, arg3), callable, null);
+	}
+
+	/**
+	 * Run a method runnable (without result) with the current policies
+	 *
+	 * @param method   name of the method that will be executed, registered on first call
+	 * @param runnable runnable like to execute
+	 * @param args     all row arguments passed from original method call (before any transformation via {@link #argumentWithPolicies(Object)}
+	 * @throws IOException throws for any proxied method issue
+	 * @see PolicyMethod#of(String)
+	 */
 	protected final void runWithPolicies(@NonNull String method, @NonNull RunnableWithIOException runnable, Object... args) throws IOException {
-		runMethodWithPolicies(method, args, () -> {
-			try {
-				runnable.run();
-			} catch (IOException ioEx) {
-				throw new WrappedIOException(ioEx);
-			}
-			return null;
-		});
+		runWithPolicies(PolicyMethod.of(method), runnable, args);
 	}
 
 	/**
 	 * Run a method callable (with result) with the current policies
 	 *
-	 * @param method   name of the method that will be executed
+	 * @param method   name of the method that will be executed, registered on first call
 	 * @param callable collable like to execute
 	 * @param args     all row arguments passed from original method call (before any transformation via {@link #argumentWithPolicies(Object)}
 	 * @param <R>      Method return type
 	 * @return the method return type
 	 * @throws IOException throws for any proxied method issue
+	 * @see PolicyMethod#of(String)
 	 */
 	protected final <R> R runWithPolicies(@NonNull String method, @NonNull CallableWithIOException<R> callable, Object... args) throws IOException {
-		return runMethodWithPolicies(method, args, () -> {
-			try {
-				return callable.call();
-			} catch (IOException ioEx) {
-				throw new WrappedIOException(ioEx);
-			}
-		});
+		return runWithPolicies(PolicyMethod.of(method), callable, args);
 	}
 
+	/**
+	 * Release the policies state of an object with the adaptee : the object uses the policies on behalf of the adaptee
+	 * (ie: a protobuf service it provides) and is never closed by itself
+	 *
+	 * @param dependent object that uses the policies on behalf of the adaptee
+	 */
+	protected final void releaseWithAdaptee(@NonNull Object dependent) {
+		if (dependent != adaptee) {
+			dependents.add(dependent);
+		}
+	}
+
+	/**
+	 * Notify policies that the adaptee and its dependents stop using them (see {@link Policy#onClose(Object)} and
+	 * {@link #releaseWithAdaptee(Object)}), then close them :
+	 * policies lists that are {@link Closeable} (ie: shared policies leases) are closed instead of each of their policies
+	 *
+	 * @throws IOException if a policy could not be closed
+	 */
 	@Override
 	public void close() throws IOException {
+		for (Policy policy : getChain().getPolicies()) {
+			try {
+				policy.onClose(adaptee);
+				for (Object dependent : dependents) {
+					policy.onClose(dependent);
+				}
+			} catch (RuntimeException e) {
+				LOGGER.error("An unexpected error occurred while releasing coprocessor policy state", e);
+			}
+		}
+		dependents.clear();
+		if (policies instanceof Closeable) {
+			((Closeable) policies).close();
+			return;
+		}
 		Holder<Throwable> errorHolder = new Holder<>(null);
 		policies.forEach(policyHandler -> {
 			try {
@@ -195,9 +613,12 @@ public class PolicyVerifier<A> implements Closeable {
 	/**
 	 * Return the current policies
 	 *
-	 * @return the current policies
+	 * @return the current policies, a live view when policies are shared
 	 */
 	public List<Policy> getPolicies() {
+		if (sharedChain != null) {
+			return sharedChain.getPolicies();
+		}
 		return Collections.unmodifiableList(policies);
 	}
 
@@ -206,11 +627,52 @@ public class PolicyVerifier<A> implements Closeable {
 	 *
 	 * @param policy the new policy
 	 * @return self
+	 * @throws UnsupportedOperationException if policies are shared
 	 */
 	public PolicyVerifier<A> addPolicy(@NonNull Policy policy) {
+		if (sharedChain != null) {
+			throw new UnsupportedOperationException("Shared policies could not be modified");
+		}
 		this.policies.add(policy);
+		this.chain = new PolicyChain(policies);
 		return this;
 	}
 
+	/**
+	 * How methods are executed when a policy needs to watch the execution (see {@link Policy#running(InvocationContext, Future)})
+	 */
+	public enum ExecutionMode {
+		/**
+		 * Methods are executed in the executor, the caller waits for the result and is released on cancellation
+		 */
+		EXECUTOR,
+		/**
+		 * Methods are executed in the caller thread, cancellation only expires the {@link Deadline} :
+		 * no other thread is involved, but the caller is released once the method stops cooperatively
+		 */
+		CALLER_THREAD
+	}
+
+	/**
+	 * Task executed in the caller thread, it could be cancelled but never interrupts its runner
+	 *
+	 * @param <R> task result type
+	 */
+	private static final class CallerThreadTask<R> extends FutureTask<R> {
+
+		/**
+		 * Constructor
+		 *
+		 * @param callable the task to execute
+		 */
+		private CallerThreadTask(Callable<R> callable) {
+			super(callable);
+		}
 
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			// The runner is the caller thread (ie: an RPC handler), it must not be interrupted
+			return super.cancel(false);
+		}
+	}
 }
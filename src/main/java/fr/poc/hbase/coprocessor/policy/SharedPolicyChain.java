@@ -0,0 +1,27 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import java.util.List;
+
+/**
+ * Policies list whose chain could be swapped at runtime (ie: shared policies rebuilt on a configuration reload).
+ * <p>
+ * The chain is published RCU style : {@link PolicyVerifier} reads it once per invocation and uses it until the
+ * invocation ends, so in-flight invocations complete on the chain they started with while new ones use the new chain.
+ * </p>
+ */
+public interface SharedPolicyChain {
+
+	/**
+	 * Returns the current chain
+	 *
+	 * @return the chain new invocations must use
+	 */
+	PolicyChain getChain();
+
+	/**
+	 * Returns a live view of the current policies
+	 *
+	 * @return unmodifiable list of the current policies, it is itself a {@link SharedPolicyChain}
+	 */
+	List<Policy> getPolicies();
+}
@@ -0,0 +1,25 @@
+package fr.poc.hbase.coprocessor.policy;
+
+/**
+ * Interface added by the policy agent to the coprocessor classes it weaves (see agent "mode=weave").
+ * <p>
+ * Each woven method calls the entry and exit hooks of the attached {@link WovenPolicyVerifier},
+ * methods are executed without policies until a verifier is attached.
+ * </p>
+ */
+public interface WovenCoprocessor {
+
+	/**
+	 * Returns the attached policy verifier
+	 *
+	 * @return the attached verifier, null if policies are not applied on this coprocessor
+	 */
+	WovenPolicyVerifier<?> getWovenPolicyVerifier();
+
+	/**
+	 * Attach a policy verifier
+	 *
+	 * @param verifier verifier that applies policies on this coprocessor
+	 */
+	void setWovenPolicyVerifier(WovenPolicyVerifier<?> verifier);
+}
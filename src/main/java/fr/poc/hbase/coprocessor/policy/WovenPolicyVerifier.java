@@ -0,0 +1,298 @@
+package fr.poc.hbase.coprocessor.policy;
+
+import com.google.protobuf.Service;
+import fr.poc.hbase.coprocessor.policy.executor.BoundedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.proxy.ServicePolicyProxy;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.Coprocessor;
+import org.apache.hadoop.hbase.HBaseIOException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Policy verifier of a coprocessor woven by the policy agent (see {@link WovenCoprocessor}).
+ * <p>
+ * Woven methods run their original code between {@link #enter(PolicyMethod, Object)} and
+ * {@link #exit(InvocationContext, Object, Throwable, boolean)} hooks : there is no proxy nor callable, arguments are
+ * given to fixed arity hooks (up to four) and methods are always executed in the caller thread.
+ * When a policy needs to watch the execution, it receives a future that only expires the invocation {@link Deadline}
+ * on cancellation (like {@link ExecutionMode#CALLER_THREAD}).
+ * </p>
+ * Calls of woven methods made by the coprocessor itself (ie: super calls) are executed without policies,
+ * like they are with a proxy.
+ *
+ * @param <T> Coprocessor type
+ */
+@Slf4j
+public class WovenPolicyVerifier<T extends Coprocessor> extends PolicyVerifier<T> {
+
+	/**
+	 * How coprocessor services are executed when a policy watches them
+	 */
+	@NonNull
+	private final ExecutionMode serviceExecutionMode;
+
+	/**
+	 * Constructor
+	 *
+	 * @param adaptee              woven coprocessor
+	 * @param policies             policies to check
+	 * @param executor             executor where services methods are executed when a policy needs to watch the execution
+	 * @param serviceExecutionMode how coprocessor services are executed when a policy watches them
+	 */
+	public WovenPolicyVerifier(@NonNull T adaptee, @NonNull List<Policy> policies, @NonNull BoundedPolicyExecutor executor,
+							   @NonNull ExecutionMode serviceExecutionMode) {
+		super(adaptee, policies, executor, ExecutionMode.CALLER_THREAD);
+		this.serviceExecutionMode = serviceExecutionMode;
+	}
+
+	/**
+	 * Entry hook of a woven method of one argument
+	 *
+	 * @param method descriptor of the woven method
+	 * @param arg0   first argument
+	 * @return the invocation context, null if the method must be executed without policies
+	 */
+	public InvocationContext enter(@NonNull PolicyMethod method, Object arg0) {
+		if (InvocationContext.isInvoking(getAdaptee())) {
+			return null;
+		}
+		return before(InvocationContext.acquire(getAdaptee(), method).withArguments(arg0));
+	}
+
+	/**
+	 * Entry hook of a woven method of two arguments
+	 *
+	 * @param method descriptor of the woven method
+	 * @param arg0   first argument
+	 * @param arg1   second argument
+	 * @return the invocation context, null if the method must be executed without policies
+	 */
+	public InvocationContext enter(@NonNull PolicyMethod method, Object arg0, Object arg1) {
+		if (InvocationContext.isInvoking(getAdaptee())) {
+			return null;
+		}
+		return before(InvocationContext.acquire(getAdaptee(), method).withArguments(arg0, arg1));
+	}
+
+	/**
+	 * Entry hook of a woven method of three arguments
+	 *
+	 * @param method descriptor of the woven method
+	 * @param arg0   first argument
+	 * @param arg1   second argument
+	 * @param arg2   third argument
+	 * @return the invocation context, null if the method must be executed without policies
+	 */
+	public InvocationContext enter(@NonNull PolicyMethod method, Object arg0, Object arg1, Object arg2) {
+		if (InvocationContext.isInvoking(getAdaptee())) {
+			return null;
+		}
+		return before(InvocationContext.acquire(getAdaptee(), method).withArguments(arg0, arg1, arg2));
+	}
+
+	/**
+	 * Entry hook of a woven method of four arguments
+	 *
+	 * @param method descriptor of the woven method
+	 * @param arg0   first argument
+	 * @param arg1   second argument
+	 * @param arg2   third argument
+	 * @param arg3   fourth argument
+	 * @return the invocation context, null if the method must be executed without policies
+	 */
+	public InvocationContext enter(@NonNull PolicyMethod method, Object arg0, Object arg1, Object arg2, Object arg3) {
+		if (InvocationContext.isInvoking(getAdaptee())) {
+			return null;
+		}
+		return before(InvocationContext.acquire(getAdaptee(), method).withArguments(arg0, arg1, arg2, arg3));
+	}
+
+	/**
+	 * Entry hook of a woven method of any arguments count
+	 *
+	 * @param method descriptor of the woven method
+	 * @param args   all arguments
+	 * @return the invocation context, null if the method must be executed without policies
+	 */
+	public InvocationContext enter(@NonNull PolicyMethod method, Object[] args) {
+		if (InvocationContext.isInvoking(getAdaptee())) {
+			return null;
+		}
+		return before(InvocationContext.acquire(getAdaptee(), method).withArguments(args));
+	}
+
+	/**
+	 * Apply policies before the method execution, a policy error is kept in the context and thrown on exit.
+	 * The chain is attached to the context (directly or through the execution), so the exit hook uses the same one
+	 *
+	 * @param context invocation context
+	 * @return the invocation context
+	 */
+	private InvocationContext before(@NonNull InvocationContext context) {
+		PolicyChain chain = getChain();
+		context.started();
+		WovenExecution execution = null;
+		if (chain.hasRunningPolicies()) {
+			// Publish the invocation deadline for policies hooks and the woven method
+			Deadline deadline = new Deadline();
+			execution = new WovenExecution(chain, Deadline.publish(deadline));
+			deadline.setFuture(execution);
+			context.attach(execution);
+		} else {
+			context.attach(chain);
+		}
+		try {
+			//Execute before handlers
+			chain.beforeRun(context);
+			if (execution != null) {
+				// Execute 'execution' handlers
+				chain.running(context, execution);
+			}
+			// The woven method is executed by the caller thread
+			chain.beforeExecution(context);
+			context.runStarted();
+		} catch (Throwable th) {
+			context.setError(th);
+		}
+		return context;
+	}
+
+	/**
+	 * Indicates whenever the woven method could be executed
+	 *
+	 * @param context invocation context returned by the entry hook
+	 * @return false if the policies rejects the execution
+	 */
+	public boolean proceed(@NonNull InvocationContext context) {
+		return context.getError() == null;
+	}
+
+	/**
+	 * Exit hook of a woven method, the context is released
+	 *
+	 * @param context          invocation context returned by the entry hook
+	 * @param result           woven method result
+	 * @param error            woven method error
+	 * @param throwsExceptions indicates whenever the woven method declares exceptions,
+	 *                         errors are only logged when it does not
+	 * @return the method result
+	 * @throws IOException the method error, unexpected ones are wrapped
+	 */
+	public Object exit(@NonNull InvocationContext context, Object result, Throwable error,
+					   boolean throwsExceptions) throws IOException {
+		Object attachment = context.getAttachment();
+		WovenExecution execution = attachment instanceof WovenExecution ? (WovenExecution) attachment : null;
+		PolicyChain chain = execution != null ? execution.chain : (PolicyChain) attachment;
+		Throwable rejection = context.getError();
+		if (rejection == null) {
+			context.runEnded();
+			chain.afterExecution(context);
+		}
+		try {
+			if (rejection instanceof IOException) {
+				throw (IOException) rejection;
+			}
+			if (rejection != null) {
+				chain.onUnexpectedError(context, rejection);
+				throw new HBaseIOException("An unexpected error occurred in Coprocessor method, see root cause for details", rejection);
+			}
+			if (execution != null && !execution.complete(result)) {
+				CancellationException cancel = new CancellationException("Woven method has been cancelled");
+				context.setError(cancel);
+				if (Deadline.current().getCancellationReason() != null) {
+					throw Deadline.current().getCancellationReason();
+				}
+				throw new Deadline.DeadlineExceededException("coprocessor method has spend to much time to execute, see root cause for details", cancel);
+			}
+			if (error instanceof IOException) {
+				context.setError(error);
+				LOGGER.trace("An error occurred while trying to execute " + context.getMethod() + " on " + getAdaptee(), error);
+				chain.onError(context, (IOException) error);
+				throw (IOException) error;
+			}
+			if (error != null) {
+				context.setError(error);
+				chain.onUnexpectedError(context, error);
+				throw new HBaseIOException("An unexpected error occurred in Coprocessor method, see root cause for details", error);
+			}
+			context.setResult(result);
+			return result;
+		} catch (IOException e) {
+			if (throwsExceptions) {
+				throw e;
+			}
+			LOGGER.info("An unexpected error occurred in Coprocessor method, see root cause for details", e);
+			return null;
+		} finally {
+			context.ended();
+			chain.afterRun(context);
+			if (execution != null) {
+				Deadline.restore(execution.previousDeadline);
+			}
+			context.release();
+		}
+	}
+
+	/**
+	 * Wrap the service returned by a woven coprocessor service
+	 *
+	 * @param service coprocessor service
+	 * @return service with policies
+	 */
+	public Service wrapService(@NonNull Service service) {
+		LOGGER.debug("Create a ServicePolicyProxy on CoprocessorService [{}]", service);
+		releaseWithAdaptee(service);
+		return new ServicePolicyProxy(service, getPolicies(), getExecutor(), serviceExecutionMode);
+	}
+
+	/**
+	 * Execution of a woven method watched by policies, it is never run : it is completed by the exit hook and its
+	 * cancellation never interrupts the caller thread
+	 */
+	private static final class WovenExecution extends FutureTask<Object> {
+
+		/**
+		 * Policies applied on the invocation
+		 */
+		private final PolicyChain chain;
+
+		/**
+		 * Deadline published before the invocation, restored on exit
+		 */
+		private final Deadline previousDeadline;
+
+		/**
+		 * Constructor
+		 *
+		 * @param chain            policies applied on the invocation
+		 * @param previousDeadline deadline published before the invocation
+		 */
+		private WovenExecution(PolicyChain chain, Deadline previousDeadline) {
+			super(() -> null);
+			this.chain = chain;
+			this.previousDeadline = previousDeadline;
+		}
+
+		/**
+		 * Complete the execution
+		 *
+		 * @param result method result
+		 * @return false if the execution has been cancelled
+		 */
+		private boolean complete(Object result) {
+			set(result);
+			return !isCancelled();
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			// The runner is the caller thread (ie: an RPC handler), it must not be interrupted
+			return super.cancel(false);
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package fr.poc.hbase.coprocessor.policy.agent;
 
 import fr.poc.hbase.coprocessor.policy.agent.transformer.CoprocessorHostWithPoliciesTransformer;
+import fr.poc.hbase.coprocessor.policy.agent.transformer.CoprocessorPolicyWeavingTransformer;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.hbase.coprocessor.CoprocessorHost;
@@ -19,6 +20,21 @@ import java.util.Map;
 @Slf4j
 public class CoprocessorPolicyAgent {
 
+	/**
+	 * parameter key that allow to specifies how policies are applied : {@link #PROXY_MODE} (default) or {@link #WEAVE_MODE}
+	 */
+	public static final String MODE_PARAM = "mode";
+
+	/**
+	 * Coprocessors are wrapped in a proxy
+	 */
+	public static final String PROXY_MODE = "proxy";
+
+	/**
+	 * Coprocessors classes are woven when they are loaded, see {@link CoprocessorPolicyWeavingTransformer}
+	 */
+	public static final String WEAVE_MODE = "weave";
+
 	/**
 	 * Agent main (dynamic loading)
 	 *
@@ -42,6 +58,11 @@ public class CoprocessorPolicyAgent {
 		ClassFileTransformer transformer = new CoprocessorHostWithPoliciesTransformer(properties);
 		instrumentation.addTransformer(transformer);
 
+		if (WEAVE_MODE.equals(properties.getOrDefault(MODE_PARAM, PROXY_MODE))) {
+			LOGGER.info("Loading coprocessor policy weaving transformer");
+			instrumentation.addTransformer(new CoprocessorPolicyWeavingTransformer(properties));
+		}
+
 		if (instrumentation.isRetransformClassesSupported()) {
 			for (Class<?> loadedClass : instrumentation.getAllLoadedClasses()) {
 				if (CoprocessorHost.class.isAssignableFrom(loadedClass)
@@ -0,0 +1,163 @@
+package fr.poc.hbase.coprocessor.policy.agent.transformer;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Reads class file headers without parsing the whole class (and without allocating),
+ * so transformers could reject classes before loading them in a javassist ClassPool.
+ */
+@UtilityClass
+class ClassFileHeader {
+
+	/**
+	 * Class file magic number
+	 */
+	private static final int MAGIC = 0xCAFEBABE;
+
+	/**
+	 * Offset of the first constant pool entry
+	 */
+	private static final int CONSTANT_POOL_OFFSET = 10;
+
+	/**
+	 * Utf8 constant tag
+	 */
+	private static final int CONSTANT_UTF8 = 1;
+
+	/**
+	 * Class constant tag
+	 */
+	private static final int CONSTANT_CLASS = 7;
+
+	/**
+	 * Indicates whenever a class could directly extend the given class.
+	 * The answer is conservative : true is returned when the class file could not be read
+	 *
+	 * @param classfile            class file bytes
+	 * @param superclassInternalName super class name, in internal form (ie: 'org/apache/hadoop/hbase/Coprocessor')
+	 * @return false only if the class does not directly extend the given class
+	 */
+	static boolean mayExtend(@NonNull byte[] classfile, @NonNull String superclassInternalName) {
+		try {
+			if (readInt(classfile, 0) != MAGIC) {
+				return true;
+			}
+			int count = readUnsignedShort(classfile, CONSTANT_POOL_OFFSET - 2);
+			// super_class follows the constant pool, access_flags and this_class
+			int end = entryOffset(classfile, count);
+			if (end < 0) {
+				return true;
+			}
+			int superIndex = readUnsignedShort(classfile, end + 4);
+			if (superIndex == 0) {
+				// java.lang.Object
+				return false;
+			}
+			int superOffset = entryOffset(classfile, superIndex);
+			if (superOffset < 0 || classfile[superOffset] != CONSTANT_CLASS) {
+				return true;
+			}
+			int nameOffset = entryOffset(classfile, readUnsignedShort(classfile, superOffset + 1));
+			if (nameOffset < 0 || classfile[nameOffset] != CONSTANT_UTF8) {
+				return true;
+			}
+			return equalsUtf8(classfile, nameOffset + 1, superclassInternalName);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Compare an Utf8 constant with a name
+	 *
+	 * @param classfile class file bytes
+	 * @param offset    offset of the Utf8 constant length
+	 * @param name      expected name
+	 * @return true if equals, or if the constant is not plain ASCII
+	 */
+	private static boolean equalsUtf8(byte[] classfile, int offset, String name) {
+		int length = readUnsignedShort(classfile, offset);
+		int start = offset + 2;
+		for (int i = 0; i < length; i++) {
+			if (classfile[start + i] < 0) {
+				// Non ASCII names are not decoded
+				return true;
+			}
+		}
+		if (length != name.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (classfile[start + i] != name.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Find a constant pool entry offset, the constant pool count gives the offset just after the constant pool
+	 *
+	 * @param classfile class file bytes
+	 * @param index     entry index
+	 * @return the entry offset, -1 if unknown tags are found
+	 */
+	private static int entryOffset(byte[] classfile, int index) {
+		int offset = CONSTANT_POOL_OFFSET;
+		for (int i = 1; i < index; i++) {
+			switch (classfile[offset]) {
+				case CONSTANT_UTF8:
+					offset += 3 + readUnsignedShort(classfile, offset + 1);
+					break;
+				case CONSTANT_CLASS:
+				case 8: // String
+				case 16: // MethodType
+				case 19: // Module
+				case 20: // Package
+					offset += 3;
+					break;
+				case 15: // MethodHandle
+					offset += 4;
+					break;
+				case 3: // Integer
+				case 4: // Float
+				case 9: // Fieldref
+				case 10: // Methodref
+				case 11: // InterfaceMethodref
+				case 12: // NameAndType
+				case 17: // Dynamic
+				case 18: // InvokeDynamic
+					offset += 5;
+					break;
+				case 5: // Long
+				case 6: // Double
+					offset += 9;
+					// Takes two entries
+					i++;
+					break;
+				default:
+					return -1;
+			}
+		}
+		return offset;
+	}
+
+	/**
+	 * @param classfile class file bytes
+	 * @param offset    value offset
+	 * @return unsigned short value
+	 */
+	private static int readUnsignedShort(byte[] classfile, int offset) {
+		return ((classfile[offset] & 0xFF) << 8) | (classfile[offset + 1] & 0xFF);
+	}
+
+	/**
+	 * @param classfile class file bytes
+	 * @param offset    value offset
+	 * @return int value
+	 */
+	private static int readInt(byte[] classfile, int offset) {
+		return (readUnsignedShort(classfile, offset) << 16) | readUnsignedShort(classfile, offset + 2);
+	}
+}
@@ -0,0 +1,49 @@
+package fr.poc.hbase.coprocessor.policy.agent.transformer;
+
+import lombok.NonNull;
+
+import java.util.Collection;
+
+/**
+ * Class names prefixes matcher working on JVM internal names (ie: 'org/apache/hadoop/hbase/Coprocessor'),
+ * it is called for each loaded class so it never allocates.
+ */
+public final class ClassNameMatcher {
+
+	/**
+	 * Prefixes in internal form
+	 */
+	private final String[] prefixes;
+
+	/**
+	 * Constructor
+	 *
+	 * @param prefixes class names prefixes, in binary form (ie: 'org.apache.hadoop.hbase')
+	 */
+	public ClassNameMatcher(@NonNull Collection<String> prefixes) {
+		this.prefixes = prefixes.stream()
+				.map(String::trim)
+				.filter(prefix -> !prefix.isEmpty())
+				.map(prefix -> prefix.replace('.', '/'))
+				.distinct()
+				.toArray(String[]::new);
+	}
+
+	/**
+	 * Indicates whenever a class name starts with one of the prefixes
+	 *
+	 * @param internalName class name in internal form, as given to transformers
+	 * @return true if a prefix matches
+	 */
+	public boolean matches(String internalName) {
+		if (internalName == null) {
+			return false;
+		}
+		for (String prefix : prefixes) {
+			if (internalName.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -4,12 +4,12 @@ import javassist.*;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
 import java.security.ProtectionDomain;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,10 +30,15 @@ public class CoprocessorHostWithPoliciesTransformer implements ClassFileTransfor
 	public static final String COPROCESSOR_HOST_PREFIX_PARAM = "host-prefixes";
 
 	/**
-	 * Host implementation classname prefix
+	 * CoprocessorHost super class internal name
+	 */
+	private static final String COPROCESSOR_HOST_SUPERCLASS_INTERNAL_NAME = COPROCESSOR_HOST_SUPERCLASS.replace('.', '/');
+
+	/**
+	 * Host implementation classname prefixes matcher
 	 */
 	@NonNull
-	private final List<String> hostsClassnamePrefixes;
+	private final ClassNameMatcher hostsClassnamePrefixes;
 
 	/**
 	 * Constructor
@@ -41,28 +46,30 @@ public class CoprocessorHostWithPoliciesTransformer implements ClassFileTransfor
 	 * @param properties input properties, only fetch {@link #COPROCESSOR_HOST_PREFIX_PARAM} on it
 	 */
 	public CoprocessorHostWithPoliciesTransformer(@NonNull Map<String, String> properties) {
-		hostsClassnamePrefixes = Arrays.asList(properties
-				.getOrDefault(COPROCESSOR_HOST_PREFIX_PARAM, "org.apache.hadoop.hbase").split(","));
+		hostsClassnamePrefixes = new ClassNameMatcher(Arrays.asList(properties
+				.getOrDefault(COPROCESSOR_HOST_PREFIX_PARAM, "org.apache.hadoop.hbase").split(",")));
 	}
 
 	@Override
 	public byte[] transform(final ClassLoader loader,
 							final String fullyQualifiedClassName, final Class<?> classBeingRedefined,
 							final ProtectionDomain protectionDomain, final byte[] classfileBuffer) throws IllegalClassFormatException {
-		// Filter classes based on their names
-		final String className = fullyQualifiedClassName.replaceAll("/", ".");
-		if (hostsClassnamePrefixes.stream().filter(className::startsWith).count() != 1) {
+		// Filter classes based on their names and their direct super class, without allocating anything
+		if (!hostsClassnamePrefixes.matches(fullyQualifiedClassName)
+				|| !ClassFileHeader.mayExtend(classfileBuffer, COPROCESSOR_HOST_SUPERCLASS_INTERNAL_NAME)) {
 			return null;
 		}
-		// Load class in a temp pool
-		final ClassPool classPool = ClassPool.getDefault();
-		classPool.appendClassPath(new ByteArrayClassPath(className, classfileBuffer));
+		final String className = fullyQualifiedClassName.replace('/', '.');
+		// Load class in a pool dedicated to this transformation, it is garbage collected once done
+		final ClassPool classPool = new ClassPool(true);
+		if (loader != null) {
+			classPool.appendClassPath(new LoaderClassPath(loader));
+		}
 
 		try {
-			CtClass currentClass = classPool.get(className);
-			CtClass superClass = currentClass.getSuperclass();
+			CtClass currentClass = classPool.makeClass(new ByteArrayInputStream(classfileBuffer));
 			// Check if the current class is a CoprocessorHost
-			if (superClass == null || !COPROCESSOR_HOST_SUPERCLASS.equals(superClass.getName())) {
+			if (!COPROCESSOR_HOST_SUPERCLASS.equals(currentClass.getClassFile2().getSuperclass())) {
 				LOGGER.trace("Class [{}] is not a CoprocessorHost", className);
 				return null;
 			}
@@ -82,7 +89,7 @@ public class CoprocessorHostWithPoliciesTransformer implements ClassFileTransfor
 
 		} catch (NotFoundException e) {
 			LOGGER.debug("Unable to load class for manipulation ", e);
-		} catch (IOException | CannotCompileException e) {
+		} catch (IOException | RuntimeException | CannotCompileException e) {
 			LOGGER.info("Unable to obtain ByteCode after modification on CoprocessorHost [{}] skip policies adapter on it", className, e);
 		}
 		return null;
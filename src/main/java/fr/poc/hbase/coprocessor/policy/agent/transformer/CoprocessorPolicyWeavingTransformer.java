@@ -0,0 +1,320 @@
+package fr.poc.hbase.coprocessor.policy.agent.transformer;
+
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.WovenCoprocessor;
+import fr.poc.hbase.coprocessor.policy.WovenPolicyVerifier;
+import javassist.*;
+import javassist.bytecode.AccessFlag;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.security.ProtectionDomain;
+import java.util.*;
+
+/**
+ * This class weaves policies into user coprocessor classes when they are loaded : each implemented method of the
+ * coprocessor interfaces is renamed (with {@link #IMPL_SUFFIX}) and replaced by a method that runs it between the
+ * entry and exit hooks of a {@link WovenPolicyVerifier}.
+ * <br>
+ * Woven classes implement {@link WovenCoprocessor}, {@link fr.poc.hbase.coprocessor.policy.util.PoliciesHelper}
+ * attaches a verifier on their instances instead of wrapping them in a proxy.
+ * Classes already loaded when the agent starts are not woven (retransformation could not add members),
+ * they are still wrapped in a proxy.
+ */
+@Slf4j
+public class CoprocessorPolicyWeavingTransformer implements ClassFileTransformer {
+
+	/**
+	 * parameter key that allow to specifies classname prefixes that are never woven, separated by ';'
+	 */
+	public static final String WEAVING_EXCLUDED_PREFIX_PARAM = "weave-excluded-prefixes";
+
+	/**
+	 * Suffix of renamed original methods
+	 */
+	public static final String IMPL_SUFFIX = "$impl";
+
+	/**
+	 * Coprocessor interface full name
+	 */
+	private static final String COPROCESSOR_CLASSNAME = "org.apache.hadoop.hbase.Coprocessor";
+
+	/**
+	 * Coprocessor services interfaces full names, their services are wrapped
+	 */
+	private static final Set<String> COPROCESSOR_SERVICE_CLASSNAMES = new HashSet<>(Arrays.asList(
+			"org.apache.hadoop.hbase.coprocessor.CoprocessorService",
+			"org.apache.hadoop.hbase.coprocessor.SingletonCoprocessorService"));
+
+	/**
+	 * Classname prefixes that are never woven : JDK, hadoop, hbase, and policies ones
+	 */
+	private static final List<String> DEFAULT_EXCLUDED_PREFIXES = Arrays.asList(
+			"java.", "javax.", "sun.", "com.sun.", "jdk.", "org.apache.hadoop.", "com.google.protobuf.",
+			"fr.poc.hbase.coprocessor.policy.");
+
+	/**
+	 * Prefix of the static fields that hold woven methods descriptors
+	 */
+	private static final String POLICY_METHOD_FIELD_PREFIX = "$$policyMethod$";
+
+	/**
+	 * Maximum arguments count of {@link WovenPolicyVerifier} fixed arity entry hooks
+	 */
+	private static final int MAX_FIXED_ARGUMENTS = 4;
+
+	/**
+	 * Name of the field that holds the attached verifier
+	 */
+	private static final String VERIFIER_FIELD = "$$policyVerifier";
+
+	/**
+	 * Classname prefixes that are never woven
+	 */
+	@NonNull
+	private final ClassNameMatcher excludedPrefixes;
+
+	/**
+	 * Constructor
+	 *
+	 * @param properties input properties, only fetch {@link #WEAVING_EXCLUDED_PREFIX_PARAM} on it
+	 */
+	public CoprocessorPolicyWeavingTransformer(@NonNull Map<String, String> properties) {
+		List<String> excluded = new ArrayList<>(DEFAULT_EXCLUDED_PREFIXES);
+		String excludedParam = properties.get(WEAVING_EXCLUDED_PREFIX_PARAM);
+		if (excludedParam != null) {
+			excluded.addAll(Arrays.asList(excludedParam.split(";")));
+		}
+		excludedPrefixes = new ClassNameMatcher(excluded);
+	}
+
+	@Override
+	public byte[] transform(final ClassLoader loader,
+							final String fullyQualifiedClassName, final Class<?> classBeingRedefined,
+							final ProtectionDomain protectionDomain, final byte[] classfileBuffer) throws IllegalClassFormatException {
+		// Bootstrap classes, already loaded classes and excluded ones are never woven
+		if (loader == null || classBeingRedefined != null || fullyQualifiedClassName == null
+				|| excludedPrefixes.matches(fullyQualifiedClassName)) {
+			return null;
+		}
+		final String className = fullyQualifiedClassName.replace('/', '.');
+
+		// Load class in a temp pool
+		final ClassPool classPool = new ClassPool(true);
+		classPool.appendClassPath(new LoaderClassPath(loader));
+		classPool.appendClassPath(new ClassClassPath(CoprocessorPolicyWeavingTransformer.class));
+		try {
+			CtClass currentClass = classPool.makeClass(new ByteArrayInputStream(classfileBuffer));
+			if (currentClass.isInterface() || !currentClass.subtypeOf(classPool.get(COPROCESSOR_CLASSNAME))) {
+				return null;
+			}
+			if (!weave(classPool, currentClass)) {
+				return null;
+			}
+			LOGGER.debug("Policies woven into coprocessor [{}]", className);
+			return currentClass.toBytecode();
+		} catch (NotFoundException e) {
+			LOGGER.debug("Unable to load class for manipulation ", e);
+		} catch (IOException | RuntimeException | CannotCompileException e) {
+			LOGGER.info("Unable to weave policies into coprocessor [{}], it will be wrapped in a proxy", className, e);
+		}
+		return null;
+	}
+
+	/**
+	 * Weave policies into a coprocessor class
+	 *
+	 * @param classPool    class pool of the coprocessor class
+	 * @param currentClass coprocessor class
+	 * @return true if the class has been modified
+	 * @throws NotFoundException      if a class could not be found
+	 * @throws CannotCompileException if woven methods could not be compiled
+	 */
+	private boolean weave(@NonNull ClassPool classPool, @NonNull CtClass currentClass) throws NotFoundException,
+			CannotCompileException {
+		Map<String, CtClass> interfacesMethods = getInterfacesMethods(currentClass);
+		List<CtMethod> methods = new ArrayList<>();
+		for (CtMethod method : currentClass.getDeclaredMethods()) {
+			int modifiers = method.getModifiers();
+			if (Modifier.isStatic(modifiers) || Modifier.isAbstract(modifiers) || Modifier.isNative(modifiers)
+					|| (method.getMethodInfo2().getAccessFlags() & (AccessFlag.BRIDGE | AccessFlag.SYNTHETIC)) != 0) {
+				continue;
+			}
+			if (interfacesMethods.containsKey(method.getName() + method.getSignature())) {
+				methods.add(method);
+			}
+		}
+		if (methods.isEmpty()) {
+			return false;
+		}
+
+		CtClass wovenInterface = classPool.get(WovenCoprocessor.class.getName());
+		if (!currentClass.getSuperclass().subtypeOf(wovenInterface)) {
+			addVerifierAccessors(classPool, currentClass, wovenInterface);
+		}
+
+		int index = 0;
+		for (CtMethod method : methods) {
+			CtClass iface = interfacesMethods.get(method.getName() + method.getSignature());
+			weaveMethod(classPool, currentClass, method, iface, index++);
+		}
+		return true;
+	}
+
+	/**
+	 * Collect all methods of the interfaces implemented by a class
+	 *
+	 * @param currentClass a class
+	 * @return interface declaring the method, by method name and signature
+	 * @throws NotFoundException if a class could not be found
+	 */
+	private static Map<String, CtClass> getInterfacesMethods(@NonNull CtClass currentClass) throws NotFoundException {
+		Map<String, CtClass> methods = new HashMap<>();
+		for (CtClass type = currentClass; type != null; type = type.getSuperclass()) {
+			for (CtClass iface : type.getInterfaces()) {
+				for (CtMethod method : iface.getMethods()) {
+					if (method.getDeclaringClass().isInterface() && !Modifier.isStatic(method.getModifiers())) {
+						methods.putIfAbsent(method.getName() + method.getSignature(), method.getDeclaringClass());
+					}
+				}
+			}
+		}
+		return methods;
+	}
+
+	/**
+	 * Implements {@link WovenCoprocessor} on a class
+	 *
+	 * @param classPool      class pool of the coprocessor class
+	 * @param currentClass   coprocessor class
+	 * @param wovenInterface woven coprocessor interface
+	 * @throws NotFoundException      if a class could not be found
+	 * @throws CannotCompileException if accessors could not be compiled
+	 */
+	private static void addVerifierAccessors(@NonNull ClassPool classPool, @NonNull CtClass currentClass,
+											 @NonNull CtClass wovenInterface) throws NotFoundException, CannotCompileException {
+		CtClass verifierType = classPool.get(WovenPolicyVerifier.class.getName());
+		CtField field = new CtField(verifierType, VERIFIER_FIELD, currentClass);
+		field.setModifiers(Modifier.PRIVATE | Modifier.VOLATILE | Modifier.TRANSIENT);
+		currentClass.addField(field);
+		currentClass.addInterface(wovenInterface);
+		currentClass.addMethod(CtNewMethod.make(Modifier.PUBLIC, verifierType, "getWovenPolicyVerifier",
+				new CtClass[0], new CtClass[0], "{ return this." + VERIFIER_FIELD + "; }", currentClass));
+		currentClass.addMethod(CtNewMethod.make(Modifier.PUBLIC, CtClass.voidType, "setWovenPolicyVerifier",
+				new CtClass[]{verifierType}, new CtClass[0], "{ this." + VERIFIER_FIELD + " = $1; }", currentClass));
+	}
+
+	/**
+	 * Weave policies into a method : the original method is renamed and replaced
+	 *
+	 * @param classPool    class pool of the coprocessor class
+	 * @param currentClass coprocessor class
+	 * @param method       method to weave
+	 * @param iface        interface that declares the method
+	 * @param index        woven method index in the class
+	 * @throws NotFoundException      if a class could not be found
+	 * @throws CannotCompileException if the woven method could not be compiled
+	 */
+	private static void weaveMethod(@NonNull ClassPool classPool, @NonNull CtClass currentClass, @NonNull CtMethod method,
+									@NonNull CtClass iface, int index) throws NotFoundException, CannotCompileException {
+		String name = method.getName();
+		String implName = name + IMPL_SUFFIX;
+		String body;
+		if ("getService".equals(name) && COPROCESSOR_SERVICE_CLASSNAMES.contains(iface.getName())) {
+			body = getServiceBody(implName);
+		} else {
+			String policyMethodField = POLICY_METHOD_FIELD_PREFIX + index;
+			CtField field = new CtField(classPool.get(PolicyMethod.class.getName()), policyMethodField, currentClass);
+			field.setModifiers(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL);
+			currentClass.addField(field, CtField.Initializer.byExpr(
+					PolicyMethod.class.getName() + ".of(\"" + name + "\")"));
+			body = getPolicyBody(method, implName, policyMethodField);
+			if ("stop".equals(name) && COPROCESSOR_CLASSNAME.equals(iface.getName())) {
+				body = getStopBody(body);
+			}
+		}
+
+		// Keep the original code in a private method, and replace the original one
+		CtMethod wrapper = CtNewMethod.copy(method, name, currentClass, null);
+		method.setName(implName);
+		method.setModifiers(Modifier.setPrivate(method.getModifiers()));
+		method.getMethodInfo().setAccessFlags(method.getMethodInfo().getAccessFlags() | AccessFlag.SYNTHETIC);
+		wrapper.setBody(body);
+		currentClass.addMethod(wrapper);
+	}
+
+	/**
+	 * Generate the body of a method wrapped with policies
+	 *
+	 * @param method            woven method
+	 * @param implName          original method name
+	 * @param policyMethodField name of the static field that holds the method descriptor
+	 * @return the woven method body
+	 * @throws NotFoundException if a class could not be found
+	 */
+	private static String getPolicyBody(@NonNull CtMethod method, @NonNull String implName,
+										@NonNull String policyMethodField) throws NotFoundException {
+		int argsCount = method.getParameterTypes().length;
+		StringBuilder enter = new StringBuilder("verifier.enter(").append(policyMethodField);
+		if (argsCount > MAX_FIXED_ARGUMENTS || argsCount == 0) {
+			enter.append(", $args");
+		} else {
+			for (int i = 1; i <= argsCount; i++) {
+				enter.append(", ($w) $").append(i);
+			}
+		}
+		enter.append(')');
+		boolean throwsExceptions = method.getExceptionTypes().length > 0;
+		boolean isVoid = CtClass.voidType.equals(method.getReturnType());
+
+		StringBuilder body = new StringBuilder("{ ")
+				.append(WovenPolicyVerifier.class.getName()).append(" verifier = getWovenPolicyVerifier(); ")
+				.append(InvocationContext.class.getName()).append(" context = null; ")
+				.append("if (verifier != null) { context = ").append(enter).append("; } ");
+		if (isVoid) {
+			body.append("if (context == null) { ").append(implName).append("($$); return; } ")
+					.append("java.lang.Throwable error = null; ")
+					.append("if (verifier.proceed(context)) { try { ").append(implName).append("($$); } ")
+					.append("catch (java.lang.Throwable th) { error = th; } } ")
+					.append("verifier.exit(context, null, error, ").append(throwsExceptions).append("); }");
+		} else {
+			body.append("if (context == null) { return ").append(implName).append("($$); } ")
+					.append("java.lang.Object result = null; java.lang.Throwable error = null; ")
+					.append("if (verifier.proceed(context)) { try { result = ($w) ").append(implName).append("($$); } ")
+					.append("catch (java.lang.Throwable th) { error = th; } } ")
+					.append("return ($r) verifier.exit(context, result, error, ").append(throwsExceptions).append("); }");
+		}
+		return body.toString();
+	}
+
+	/**
+	 * Generate the body of the coprocessor stop method : it runs with policies like any other method, then the
+	 * verifier is closed once the coprocessor is stopped
+	 *
+	 * @param policyBody body of the stop method wrapped with policies
+	 * @return the woven method body
+	 */
+	private static String getStopBody(@NonNull String policyBody) {
+		return "{ try " + policyBody + " finally { "
+				+ WovenPolicyVerifier.class.getName() + " verifier = getWovenPolicyVerifier(); "
+				+ "if (verifier != null) { verifier.close(); } } }";
+	}
+
+	/**
+	 * Generate the body of the coprocessor getService method, the returned service is wrapped with policies
+	 *
+	 * @param implName original method name
+	 * @return the woven method body
+	 */
+	private static String getServiceBody(@NonNull String implName) {
+		return "{ " + WovenPolicyVerifier.class.getName() + " verifier = getWovenPolicyVerifier(); "
+				+ "com.google.protobuf.Service service = " + implName + "($$); "
+				+ "if (verifier == null || service == null) { return service; } "
+				+ "return verifier.wrapService(service); }";
+	}
+}
@@ -1,6 +1,9 @@
 package fr.poc.hbase.coprocessor.policy.config;
 
 import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.executor.BoundedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
 import fr.poc.hbase.coprocessor.policy.proxy.CoprocessorPolicyProxy;
 import fr.poc.hbase.coprocessor.policy.impl.*;
 import lombok.NonNull;
@@ -9,10 +12,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.Coprocessor;
 import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+import org.apache.hadoop.util.ReflectionUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Policies configurer class that allow instanciate policies from hbase configuration
@@ -31,7 +39,171 @@ public class PoliciesConfigurer {
 	public static final String COPROCESSOR_POLICY_WITHE_LIST_DEFAULT =
 		"org.apache.hadoop.hbase.security.access.SecureBulkLoadEndpoint,"+
 		"org.apache.hadoop.hbase.coprocessor.MultiRowMutationEndpoint,"+
-		"org.apache.hadoop.hbase.backup.master.BackupController";
+		"org.apache.hadoop.hbase.backup.master.BackupController,"+
+		"fr.poc.hbase.coprocessor.policy.stats.PolicyStatisticsEndpoint";
+
+	/**
+	 * How coprocessor services (endpoints) are executed when a policy watches them : EXECUTOR or CALLER_THREAD
+	 */
+	public static final String COPROCESSOR_POLICY_SERVICE_EXECUTION_MODE_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.service.execution-mode";
+
+	/**
+	 * Prefix of all policies configuration names, policies are shared by configurations with the same values
+	 */
+	public static final String COPROCESSOR_POLICY_CONFIGURATION_PREFIX = "hbase.coprocessors.policy.";
+
+	/**
+	 * Policies to apply, in execution order : built-in policies names or policies classes names
+	 * (with a no-arg constructor, configured when they are {@link org.apache.hadoop.conf.Configurable})
+	 */
+	public static final String COPROCESSOR_POLICY_POLICIES_CONFIGURATION_NAME = "hbase.coprocessors.policy.policies";
+	/**
+	 * Default policies
+	 */
+	public static final String COPROCESSOR_POLICY_POLICIES_DEFAULT = "timeout,logging,metrics,limit-retry,no-bypass-or-complete";
+
+	/**
+	 * Execution timeout (in ms) of the "timeout" policy
+	 */
+	public static final String COPROCESSOR_POLICY_TIMEOUT_CONFIGURATION_NAME = "hbase.coprocessors.policy.timeout.ms";
+	/**
+	 * Default execution timeout
+	 */
+	public static final long COPROCESSOR_POLICY_TIMEOUT_DEFAULT = 3000L;
+
+	/**
+	 * Delay (in ms) before interrupting a timed out execution of the "timeout" policy, negative to never interrupt
+	 * (the timeout by default)
+	 */
+	public static final String COPROCESSOR_POLICY_TIMEOUT_GRACE_PERIOD_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.timeout.grace-period.ms";
+
+	/**
+	 * Metrics context of the "metrics" and "resources" policies, JMX name of the "stack-sampler" policy
+	 */
+	public static final String COPROCESSOR_POLICY_METRICS_CONTEXT_CONFIGURATION_NAME = "hbase.coprocessors.policy.metrics.context";
+	/**
+	 * Default metrics context
+	 */
+	public static final String COPROCESSOR_POLICY_METRICS_CONTEXT_DEFAULT = "Coprocessors";
+
+	/**
+	 * How metrics of the "metrics" policy are rolled-up (region, table, namespace or coprocessor)
+	 */
+	public static final String COPROCESSOR_POLICY_METRICS_SCOPE_CONFIGURATION_NAME = "hbase.coprocessors.policy.metrics.scope";
+	/**
+	 * Default metrics roll-up
+	 */
+	public static final MetricsPolicy.Scope COPROCESSOR_POLICY_METRICS_SCOPE_DEFAULT = MetricsPolicy.Scope.REGION;
+
+	/**
+	 * Maximum number of metrics of the "metrics" policy context
+	 */
+	public static final String COPROCESSOR_POLICY_METRICS_MAX_CONFIGURATION_NAME = "hbase.coprocessors.policy.metrics.max-metrics";
+
+	/**
+	 * Number of failures before rejecting executions of the "limit-retry" policy
+	 */
+	public static final String COPROCESSOR_POLICY_LIMIT_RETRY_THRESHOLD_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.limit-retry.threshold";
+	/**
+	 * Default failures threshold
+	 */
+	public static final int COPROCESSOR_POLICY_LIMIT_RETRY_THRESHOLD_DEFAULT = 2;
+
+	/**
+	 * Duration (in ms) a failure is remembered by the "limit-retry" policy
+	 */
+	public static final String COPROCESSOR_POLICY_LIMIT_RETRY_WINDOW_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.limit-retry.window.ms";
+	/**
+	 * Default failures window
+	 */
+	public static final long COPROCESSOR_POLICY_LIMIT_RETRY_WINDOW_DEFAULT = TimeUnit.MINUTES.toMillis(10);
+
+	/**
+	 * Allocation budget (in bytes, with an optional binary prefix like 256m) of an execution of the "memory-budget"
+	 * policy, a coprocessor could have its own budget with the coprocessor class name as suffix
+	 * (ie: hbase.coprocessors.policy.memory-budget.bytes.com.acme.MyEndpoint)
+	 */
+	public static final String COPROCESSOR_POLICY_MEMORY_BUDGET_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.memory-budget.bytes";
+	/**
+	 * Default allocation budget
+	 */
+	public static final long COPROCESSOR_POLICY_MEMORY_BUDGET_DEFAULT = 256L * 1024 * 1024;
+
+	/**
+	 * Delay (in ms) between two samples of the allocated bytes of the "memory-budget" policy
+	 */
+	public static final String COPROCESSOR_POLICY_MEMORY_BUDGET_SAMPLE_PERIOD_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.memory-budget.sample-period.ms";
+	/**
+	 * Default sample period
+	 */
+	public static final long COPROCESSOR_POLICY_MEMORY_BUDGET_SAMPLE_PERIOD_DEFAULT = 100L;
+
+	/**
+	 * Delay (in ms) between the cancellation and the interruption of a still running execution of the
+	 * "memory-budget" policy, negative to never interrupt
+	 */
+	public static final String COPROCESSOR_POLICY_MEMORY_BUDGET_GRACE_PERIOD_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.memory-budget.grace-period.ms";
+	/**
+	 * Default grace period
+	 */
+	public static final long COPROCESSOR_POLICY_MEMORY_BUDGET_GRACE_PERIOD_DEFAULT = 1000L;
+
+	/**
+	 * Execution time (in ms) before sampling the stack of an execution of the "stack-sampler" policy
+	 */
+	public static final String COPROCESSOR_POLICY_STACK_SAMPLER_THRESHOLD_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.stack-sampler.threshold.ms";
+	/**
+	 * Default sampling threshold
+	 */
+	public static final long COPROCESSOR_POLICY_STACK_SAMPLER_THRESHOLD_DEFAULT = 1000L;
+
+	/**
+	 * Delay (in ms) between two stack samples of the "stack-sampler" policy
+	 */
+	public static final String COPROCESSOR_POLICY_STACK_SAMPLER_PERIOD_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.stack-sampler.period.ms";
+	/**
+	 * Default sample period
+	 */
+	public static final long COPROCESSOR_POLICY_STACK_SAMPLER_PERIOD_DEFAULT = 50L;
+
+	/**
+	 * Number of slow calls kept by the "stack-sampler" policy
+	 */
+	public static final String COPROCESSOR_POLICY_STACK_SAMPLER_CAPACITY_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.stack-sampler.capacity";
+	/**
+	 * Default number of slow calls
+	 */
+	public static final int COPROCESSOR_POLICY_STACK_SAMPLER_CAPACITY_DEFAULT = 64;
+
+	/**
+	 * Execution time (in ms) from which invocations are always recorded by the "jfr" policy
+	 */
+	public static final String COPROCESSOR_POLICY_JFR_THRESHOLD_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.jfr.threshold.ms";
+	/**
+	 * Default recording threshold
+	 */
+	public static final long COPROCESSOR_POLICY_JFR_THRESHOLD_DEFAULT = 20L;
+
+	/**
+	 * Faster invocations are recorded once every sampling-ratio invocations by the "jfr" policy
+	 */
+	public static final String COPROCESSOR_POLICY_JFR_SAMPLING_RATIO_CONFIGURATION_NAME =
+			"hbase.coprocessors.policy.jfr.sampling-ratio";
+	/**
+	 * Default sampling ratio
+	 */
+	public static final int COPROCESSOR_POLICY_JFR_SAMPLING_RATIO_DEFAULT = 100;
 
 	/**
 	 * Hbase configuration where policies are extracted in
@@ -70,20 +242,126 @@ public class PoliciesConfigurer {
 	}
 
 	/**
-	 * Build policies from the current configuration
+	 * Build an executor for a coprocessor instance, backed by the JVM shared pool
 	 *
-	 * @return configured list of policies
+	 * @return configured executor
+	 */
+	public BoundedPolicyExecutor getExecutor() {
+		return SharedPolicyExecutor.getInstance(configuration).newBoundedExecutor();
+	}
+
+	/**
+	 * Fetch how coprocessor services are executed from the current configuration
+	 *
+	 * @return configured services execution mode, {@link PolicyVerifier.ExecutionMode#EXECUTOR} by default
+	 */
+	public PolicyVerifier.ExecutionMode getServiceExecutionMode() {
+		return configuration.getEnum(COPROCESSOR_POLICY_SERVICE_EXECUTION_MODE_CONFIGURATION_NAME,
+				PolicyVerifier.ExecutionMode.EXECUTOR);
+	}
+
+	/**
+	 * Lease policies of the current configuration, they are built once and shared by all coprocessors
+	 * that use the same policies configuration, and rebuilt on configuration reloads (see {@link PolicyRegistry})
+	 *
+	 * @return configured list of policies, the list must be closed once policies are no more used
 	 */
-	public List<Policy> getPolicies() {
-		// TODO Implements me !!!
-		return Arrays.asList(
-				new TimeoutPolicy(3, TimeUnit.SECONDS),
-				new LoggingPolicy(),
-				new MetricsPolicy(DefaultMetricsSystem.instance(), "Coprocessors"),
-				new LimitRetryPolicy(2, new LimitRetryPolicy.RollingInMemoryCache(10, TimeUnit.MINUTES)),
-				new NoBypassOrCompletePolicy()
-		);
+	public PolicyRegistry.Lease getPolicies() {
+		return PolicyRegistry.getInstance().acquire(configuration, PoliciesConfigurer::createPolicies);
 	}
 
+	/**
+	 * Build policies from a configuration
+	 *
+	 * @param configuration policies configuration
+	 * @return configured list of policies
+	 * @throws IllegalArgumentException if a policy is unknown
+	 */
+	static List<Policy> createPolicies(@NonNull Configuration configuration) {
+		String[] names = configuration.getTrimmedStrings(COPROCESSOR_POLICY_POLICIES_CONFIGURATION_NAME,
+				COPROCESSOR_POLICY_POLICIES_DEFAULT.split(","));
+		List<Policy> policies = new ArrayList<>(names.length);
+		for (String name : names) {
+			policies.add(createPolicy(name, configuration));
+		}
+		return policies;
+	}
 
+	/**
+	 * Build a policy from a configuration
+	 *
+	 * @param name          built-in policy name or policy class name
+	 * @param configuration policies configuration
+	 * @return the configured policy
+	 * @throws IllegalArgumentException if the policy is unknown
+	 */
+	private static Policy createPolicy(@NonNull String name, @NonNull Configuration configuration) {
+		switch (name) {
+			case "timeout":
+				long timeout = configuration.getLong(COPROCESSOR_POLICY_TIMEOUT_CONFIGURATION_NAME,
+						COPROCESSOR_POLICY_TIMEOUT_DEFAULT);
+				return new TimeoutPolicy(timeout, TimeUnit.MILLISECONDS,
+						configuration.getLong(COPROCESSOR_POLICY_TIMEOUT_GRACE_PERIOD_CONFIGURATION_NAME, timeout));
+			case "logging":
+				return new LoggingPolicy();
+			case "metrics":
+				return new MetricsPolicy(DefaultMetricsSystem.instance(),
+						configuration.get(COPROCESSOR_POLICY_METRICS_CONTEXT_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_METRICS_CONTEXT_DEFAULT),
+						configuration.getEnum(COPROCESSOR_POLICY_METRICS_SCOPE_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_METRICS_SCOPE_DEFAULT),
+						configuration.getInt(COPROCESSOR_POLICY_METRICS_MAX_CONFIGURATION_NAME,
+								MetricsPolicy.MAX_METRICS_DEFAULT));
+			case "resources":
+				return new ResourceUsagePolicy(DefaultMetricsSystem.instance(),
+						configuration.get(COPROCESSOR_POLICY_METRICS_CONTEXT_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_METRICS_CONTEXT_DEFAULT));
+			case "memory-budget":
+				Map<String, Long> budgets = new HashMap<>();
+				String budgetPrefix = COPROCESSOR_POLICY_MEMORY_BUDGET_CONFIGURATION_NAME + ".";
+				for (String key : configuration.getValByRegex(Pattern.quote(budgetPrefix) + ".+").keySet()) {
+					budgets.put(key.substring(budgetPrefix.length()),
+							configuration.getLongBytes(key, COPROCESSOR_POLICY_MEMORY_BUDGET_DEFAULT));
+				}
+				return new MemoryBudgetPolicy(
+						configuration.getLongBytes(COPROCESSOR_POLICY_MEMORY_BUDGET_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_MEMORY_BUDGET_DEFAULT), budgets,
+						configuration.getLong(COPROCESSOR_POLICY_MEMORY_BUDGET_SAMPLE_PERIOD_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_MEMORY_BUDGET_SAMPLE_PERIOD_DEFAULT), TimeUnit.MILLISECONDS,
+						configuration.getLong(COPROCESSOR_POLICY_MEMORY_BUDGET_GRACE_PERIOD_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_MEMORY_BUDGET_GRACE_PERIOD_DEFAULT));
+			case "stack-sampler":
+				return new StackSamplingPolicy(
+						configuration.get(COPROCESSOR_POLICY_METRICS_CONTEXT_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_METRICS_CONTEXT_DEFAULT),
+						configuration.getInt(COPROCESSOR_POLICY_STACK_SAMPLER_CAPACITY_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_STACK_SAMPLER_CAPACITY_DEFAULT),
+						configuration.getLong(COPROCESSOR_POLICY_STACK_SAMPLER_THRESHOLD_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_STACK_SAMPLER_THRESHOLD_DEFAULT),
+						configuration.getLong(COPROCESSOR_POLICY_STACK_SAMPLER_PERIOD_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_STACK_SAMPLER_PERIOD_DEFAULT), TimeUnit.MILLISECONDS);
+			case "jfr":
+				return new FlightRecorderPolicy(
+						configuration.getLong(COPROCESSOR_POLICY_JFR_THRESHOLD_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_JFR_THRESHOLD_DEFAULT), TimeUnit.MILLISECONDS,
+						configuration.getInt(COPROCESSOR_POLICY_JFR_SAMPLING_RATIO_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_JFR_SAMPLING_RATIO_DEFAULT));
+			case "limit-retry":
+				return new LimitRetryPolicy(
+						configuration.getInt(COPROCESSOR_POLICY_LIMIT_RETRY_THRESHOLD_CONFIGURATION_NAME,
+								COPROCESSOR_POLICY_LIMIT_RETRY_THRESHOLD_DEFAULT),
+						new LimitRetryPolicy.RollingInMemoryCache(
+								configuration.getLong(COPROCESSOR_POLICY_LIMIT_RETRY_WINDOW_CONFIGURATION_NAME,
+										COPROCESSOR_POLICY_LIMIT_RETRY_WINDOW_DEFAULT), TimeUnit.MILLISECONDS));
+			case "no-bypass-or-complete":
+				return new NoBypassOrCompletePolicy();
+			default:
+				try {
+					return ReflectionUtils.newInstance(configuration.getClassByName(name).asSubclass(Policy.class),
+							configuration);
+				} catch (ClassNotFoundException | ClassCastException e) {
+					throw new IllegalArgumentException("Unknown coprocessor policy [" + name + "]", e);
+				}
+		}
+	}
 }
@@ -0,0 +1,535 @@
+package fr.poc.hbase.coprocessor.policy.config;
+
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyChain;
+import fr.poc.hbase.coprocessor.policy.SharedPolicyChain;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.HBaseIOException;
+import org.apache.hadoop.hbase.conf.ConfigurationObserver;
+import org.apache.hadoop.hbase.util.Threads;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Policies shared by all coprocessors of the JVM (ie. of the RegionServer or the Master).
+ * <p>
+ * Policies are built once per policies configuration (all {@link PoliciesConfigurer#COPROCESSOR_POLICY_CONFIGURATION_PREFIX}
+ * values), and leased to each coprocessor instance (ie. a coprocessor on a region) : their thread pools and states
+ * are shared by all instances that use the same configuration.
+ * Leases are reference counted, policies are closed when the last lease is closed (ie. when the last coprocessor stops),
+ * and built again on the next acquisition.
+ * </p>
+ * <p>
+ * Policies are reloaded without restart : on a configuration change (see {@link #onConfigurationChange(Configuration)}),
+ * or when the configuration resources (ie. hbase-site.xml) are changed. Each shared policies keeps the server values it
+ * was derived from : the values it overrides (ie. table or coprocessor values) are kept, the other ones are replaced by
+ * the new server values. Only the shared policies whose values change are rebuilt, their new chain is published through
+ * a volatile reference and they are registered again under their new key. In-flight invocations complete on the
+ * previous chain, its policies are closed after a grace period by the registry thread.
+ * </p>
+ */
+@Slf4j
+public final class PolicyRegistry implements ConfigurationObserver {
+
+	/**
+	 * Period between two checks of the configuration resources, zero or negative to disable the watch
+	 */
+	public static final String RELOAD_PERIOD_CONFIGURATION_NAME = "hbase.coprocessors.policy.reload.period.ms";
+	/**
+	 * Default configuration resources check period
+	 */
+	public static final long RELOAD_PERIOD_DEFAULT = 60000L;
+	/**
+	 * Delay before closing the policies replaced by a reload, in-flight invocations may still use them
+	 */
+	public static final String RELOAD_GRACE_PERIOD_CONFIGURATION_NAME = "hbase.coprocessors.policy.reload.grace-period.ms";
+	/**
+	 * Default replaced policies close delay
+	 */
+	public static final long RELOAD_GRACE_PERIOD_DEFAULT = 60000L;
+
+	/**
+	 * Shared instance
+	 */
+	private static final PolicyRegistry INSTANCE = new PolicyRegistry();
+
+	/**
+	 * Shared policies by configuration key (guarded by this)
+	 */
+	private final Map<String, SharedPolicies> sharedPolicies = new HashMap<>();
+
+	/**
+	 * Thread that watches the configuration resources and closes replaced policies, null without shared policies
+	 * (guarded by this)
+	 */
+	private ScheduledExecutorService watcher;
+
+	/**
+	 * Policies values of the server configuration, null until the first acquisition (guarded by this)
+	 */
+	private SortedMap<String, String> serverValues;
+
+	/**
+	 * Returns the registry of the JVM
+	 *
+	 * @return the shared registry
+	 */
+	public static PolicyRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Extract policies values from a configuration
+	 *
+	 * @param configuration hbase configuration
+	 * @return all policies configuration values, sorted by name
+	 */
+	static SortedMap<String, String> getPoliciesValues(@NonNull Configuration configuration) {
+		return new TreeMap<>(configuration.getValByRegex(
+				"^" + Pattern.quote(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX)));
+	}
+
+	/**
+	 * Build a configuration from policies values
+	 *
+	 * @param values policies configuration values
+	 * @return a configuration that only contains the given values
+	 */
+	private static Configuration toConfiguration(@NonNull Map<String, String> values) {
+		Configuration configuration = new Configuration(false);
+		values.forEach(configuration::set);
+		return configuration;
+	}
+
+	/**
+	 * Apply new server values to policies values, values that differ from the previous server values are kept
+	 *
+	 * @param values       policies values
+	 * @param serverValues server values the policies values are derived from
+	 * @param newValues    new server values
+	 * @return the new policies values
+	 */
+	private static SortedMap<String, String> rebase(@NonNull SortedMap<String, String> values,
+													@NonNull SortedMap<String, String> serverValues,
+													@NonNull SortedMap<String, String> newValues) {
+		SortedMap<String, String> result = new TreeMap<>(newValues);
+		Set<String> names = new HashSet<>(values.keySet());
+		names.addAll(serverValues.keySet());
+		for (String name : names) {
+			String value = values.get(name);
+			if (!Objects.equals(value, serverValues.get(name))) {
+				if (value == null) {
+					result.remove(name);
+				} else {
+					result.put(name, value);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Lease policies of a configuration, build them if they are not shared yet
+	 *
+	 * @param configuration hbase configuration, policies are built once per policies configuration
+	 * @param factory       policies factory, called with a configuration that only contains policies values,
+	 *                      once per policies configuration and on each reload
+	 * @return a lease on the policies, it must be closed once they are no more used
+	 */
+	public synchronized Lease acquire(@NonNull Configuration configuration,
+									  @NonNull Function<Configuration, List<Policy>> factory) {
+		SortedMap<String, String> values = getPoliciesValues(configuration);
+		String key = values.toString();
+		SharedPolicies shared = sharedPolicies.get(key);
+		if (shared == null) {
+			LOGGER.info("Build shared coprocessor policies for configuration [{}]", key);
+			if (serverValues == null) {
+				serverValues = getPoliciesValues(HBaseConfiguration.create());
+			}
+			shared = new SharedPolicies(key, values, serverValues, factory);
+			sharedPolicies.put(key, shared);
+			startWatch(configuration);
+		}
+		shared.references++;
+		return new Lease(shared);
+	}
+
+	/**
+	 * Release a lease, close the policies once they are no more leased
+	 *
+	 * @param shared leased policies
+	 * @throws IOException if a policy could not be closed
+	 */
+	private void release(@NonNull SharedPolicies shared) throws IOException {
+		String key;
+		synchronized (this) {
+			if (--shared.references > 0) {
+				return;
+			}
+			key = shared.key;
+			sharedPolicies.remove(key, shared);
+			if (sharedPolicies.isEmpty()) {
+				stopWatch();
+			}
+		}
+		LOGGER.info("Close shared coprocessor policies for configuration [{}]", key);
+		close(shared.close());
+	}
+
+	/**
+	 * Rebuild the shared policies whose values change with the new configuration
+	 *
+	 * @param configuration the new configuration
+	 */
+	@Override
+	public void onConfigurationChange(@NonNull Configuration configuration) {
+		reload(getPoliciesValues(configuration));
+	}
+
+	/**
+	 * Rebuild the shared policies whose values change with new server values, re-register them under their new key,
+	 * replaced policies are closed after the grace period
+	 *
+	 * @param values new server policies values
+	 */
+	private void reload(@NonNull SortedMap<String, String> values) {
+		List<SharedPolicies> all;
+		synchronized (this) {
+			serverValues = values;
+			all = new ArrayList<>(sharedPolicies.values());
+		}
+		long gracePeriod = toConfiguration(values).getLong(RELOAD_GRACE_PERIOD_CONFIGURATION_NAME,
+				RELOAD_GRACE_PERIOD_DEFAULT);
+		for (SharedPolicies shared : all) {
+			List<Policy> replaced = shared.reload(values);
+			if (replaced != null) {
+				String key = rekey(shared);
+				scheduleClose(key, replaced, gracePeriod);
+			}
+		}
+	}
+
+	/**
+	 * Register reloaded policies under the key of their new values, a policies already registered with this key is
+	 * kept (guarded by this)
+	 *
+	 * @param shared reloaded policies
+	 * @return the key of the policies
+	 */
+	private synchronized String rekey(@NonNull SharedPolicies shared) {
+		String newKey = shared.getValues().toString();
+		if (!newKey.equals(shared.key) && sharedPolicies.remove(shared.key, shared)) {
+			if (sharedPolicies.putIfAbsent(newKey, shared) == null) {
+				shared.key = newKey;
+			} else {
+				LOGGER.info("Coprocessor policies for configuration [{}] are already shared, keep the reloaded ones under [{}]",
+						newKey, shared.key);
+				sharedPolicies.put(shared.key, shared);
+			}
+		}
+		return shared.key;
+	}
+
+	/**
+	 * Close replaced policies on the registry thread once the grace period has elapsed, immediately if the registry
+	 * has no more shared policies
+	 *
+	 * @param key         key of the reloaded policies
+	 * @param replaced    replaced policies
+	 * @param gracePeriod delay (in ms) before closing the policies
+	 */
+	private void scheduleClose(@NonNull String key, @NonNull List<Policy> replaced, long gracePeriod) {
+		Runnable task = () -> {
+			try {
+				close(replaced);
+			} catch (IOException e) {
+				LOGGER.warn("Unable to close replaced coprocessor policies of [{}]", key, e);
+			}
+		};
+		synchronized (this) {
+			if (watcher != null) {
+				try {
+					watcher.schedule(task, Math.max(0L, gracePeriod), TimeUnit.MILLISECONDS);
+					return;
+				} catch (RejectedExecutionException e) {
+					LOGGER.debug("Registry thread is stopped, close replaced coprocessor policies of [{}] now", key, e);
+				}
+			}
+		}
+		task.run();
+	}
+
+	/**
+	 * Start the registry thread if it is not already started, and watch the configuration resources if it is enabled
+	 * (guarded by this)
+	 *
+	 * @param configuration hbase configuration
+	 */
+	private void startWatch(@NonNull Configuration configuration) {
+		if (watcher != null) {
+			return;
+		}
+		watcher = Executors.newSingleThreadScheduledExecutor(
+				Threads.newDaemonThreadFactory("coprocessor-policy-reload"));
+		long period = configuration.getLong(RELOAD_PERIOD_CONFIGURATION_NAME, RELOAD_PERIOD_DEFAULT);
+		if (period > 0) {
+			LOGGER.info("Watch coprocessor policies configuration resources every [{}] ms", period);
+			watcher.scheduleWithFixedDelay(new ResourcesWatch(), 0L, period, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Stop watching the configuration resources, pending closes of replaced policies are still run (guarded by this)
+	 */
+	private void stopWatch() {
+		if (watcher != null) {
+			watcher.shutdown();
+			watcher = null;
+		}
+	}
+
+	/**
+	 * Close policies
+	 *
+	 * @param policies policies to close
+	 * @throws IOException if a policy could not be closed
+	 */
+	private static void close(@NonNull List<Policy> policies) throws IOException {
+		Throwable error = null;
+		for (Policy policy : policies) {
+			try {
+				policy.close();
+			} catch (Throwable th) {
+				LOGGER.error("An unexpected error occurred while closing coprocessor policy", th);
+				error = th;
+			}
+		}
+		if (error instanceof IOException) {
+			throw (IOException) error;
+		}
+		if (error != null) {
+			throw new HBaseIOException("An unexpected error occurred while closing coprocessor policies, see root cause for details", error);
+		}
+	}
+
+	/**
+	 * Watch of the configuration resources : policies are reloaded when their values differ from the previous check,
+	 * values set programmatically are not overridden until the resources change
+	 */
+	private final class ResourcesWatch implements Runnable {
+
+		/**
+		 * Policies values read by the previous check, null before the first one (only used by the watcher thread)
+		 */
+		private SortedMap<String, String> previousValues;
+
+		@Override
+		public void run() {
+			try {
+				SortedMap<String, String> values = getPoliciesValues(HBaseConfiguration.create());
+				if (previousValues != null && !previousValues.equals(values)) {
+					LOGGER.info("Coprocessor policies configuration resources have changed, reload policies");
+					reload(values);
+				}
+				previousValues = values;
+			} catch (RuntimeException e) {
+				LOGGER.warn("Unable to check coprocessor policies configuration resources", e);
+			}
+		}
+	}
+
+	/**
+	 * Policies shared for a configuration key, a live view of the current policies
+	 */
+	private static final class SharedPolicies extends AbstractList<Policy> implements SharedPolicyChain {
+
+		/**
+		 * Configuration key (guarded by the registry)
+		 */
+		private String key;
+
+		/**
+		 * Policies factory
+		 */
+		private final Function<Configuration, List<Policy>> factory;
+
+		/**
+		 * Policies values of the current chain (guarded by this)
+		 */
+		private SortedMap<String, String> values;
+
+		/**
+		 * Server values the policies values are derived from (guarded by this)
+		 */
+		private SortedMap<String, String> serverValues;
+
+		/**
+		 * Current chain, read once per invocation (written under this)
+		 */
+		private volatile PolicyChain chain;
+
+		/**
+		 * Indicates whenever the policies have been closed (guarded by this)
+		 */
+		private boolean closed;
+
+		/**
+		 * Number of opened leases (guarded by the registry)
+		 */
+		private int references;
+
+		/**
+		 * Constructor, build the policies
+		 *
+		 * @param key          configuration key
+		 * @param values       policies configuration values
+		 * @param serverValues server values the policies values are derived from
+		 * @param factory      policies factory
+		 */
+		private SharedPolicies(String key, SortedMap<String, String> values, SortedMap<String, String> serverValues,
+							   Function<Configuration, List<Policy>> factory) {
+			this.key = key;
+			this.values = values;
+			this.serverValues = serverValues;
+			this.factory = factory;
+			this.chain = new PolicyChain(factory.apply(toConfiguration(values)));
+		}
+
+		/**
+		 * Returns the policies values of the current chain
+		 *
+		 * @return policies values
+		 */
+		private synchronized SortedMap<String, String> getValues() {
+			return values;
+		}
+
+		/**
+		 * Apply new server values, rebuild and publish the chain if policies values change, a build error keeps the
+		 * current chain
+		 *
+		 * @param newServerValues new server policies values
+		 * @return replaced policies, null if they have not been replaced
+		 */
+		private synchronized List<Policy> reload(SortedMap<String, String> newServerValues) {
+			if (closed) {
+				return null;
+			}
+			SortedMap<String, String> newValues = rebase(values, serverValues, newServerValues);
+			if (values.equals(newValues)) {
+				serverValues = newServerValues;
+				return null;
+			}
+			PolicyChain newChain;
+			try {
+				newChain = new PolicyChain(factory.apply(toConfiguration(newValues)));
+			} catch (RuntimeException e) {
+				LOGGER.error("Unable to rebuild coprocessor policies of [{}], keep the current ones", key, e);
+				return null;
+			}
+			List<Policy> replaced = chain.getPolicies();
+			values = newValues;
+			serverValues = newServerValues;
+			chain = newChain;
+			LOGGER.info("Shared coprocessor policies of [{}] reloaded with configuration [{}]", key, newValues);
+			return replaced;
+		}
+
+		/**
+		 * Mark policies as closed, they could no more be reloaded
+		 *
+		 * @return policies to close
+		 */
+		private synchronized List<Policy> close() {
+			closed = true;
+			return chain.getPolicies();
+		}
+
+		@Override
+		public PolicyChain getChain() {
+			return chain;
+		}
+
+		@Override
+		public List<Policy> getPolicies() {
+			return this;
+		}
+
+		@Override
+		public Policy get(int index) {
+			return chain.getPolicies().get(index);
+		}
+
+		@Override
+		public int size() {
+			return chain.getPolicies().size();
+		}
+	}
+
+	/**
+	 * Lease on shared policies, the list of leased policies is an unmodifiable view of the current ones.
+	 * Closing the lease (once) releases the policies, {@link fr.poc.hbase.coprocessor.policy.PolicyVerifier}
+	 * closes it instead of closing each policy.
+	 */
+	public final class Lease extends AbstractList<Policy> implements SharedPolicyChain, Closeable {
+
+		/**
+		 * Leased policies
+		 */
+		private final SharedPolicies shared;
+
+		/**
+		 * Indicates whenever the lease has been closed
+		 */
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		/**
+		 * Constructor
+		 *
+		 * @param shared leased policies
+		 */
+		private Lease(SharedPolicies shared) {
+			this.shared = shared;
+		}
+
+		@Override
+		public PolicyChain getChain() {
+			return shared.chain;
+		}
+
+		@Override
+		public List<Policy> getPolicies() {
+			return shared;
+		}
+
+		@Override
+		public Policy get(int index) {
+			return shared.get(index);
+		}
+
+		@Override
+		public int size() {
+			return shared.size();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed.compareAndSet(false, true)) {
+				release(shared);
+			}
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package fr.poc.hbase.coprocessor.policy.executor;
+
+import lombok.NonNull;
+import org.apache.hadoop.hbase.CallQueueTooBigException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * View of the {@link SharedPolicyExecutor} for a coprocessor instance (ie. a coprocessor on a region).
+ * <p>
+ * It limits the number of concurrent executions of the coprocessor instance, callers wait for a permit
+ * once the limit is reached. The wait is bounded : executions that ignore their deadline must not park callers
+ * (ie: RPC handlers) forever, a caller that waits too long is rejected with a {@link CallQueueTooBigException}.
+ * </p>
+ */
+public final class BoundedPolicyExecutor {
+
+	/**
+	 * Shared executor
+	 */
+	@NonNull
+	private final SharedPolicyExecutor sharedExecutor;
+
+	/**
+	 * Concurrent executions permits
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * Maximum time (in ms) a caller waits for a permit
+	 */
+	private final long maxWait;
+
+	/**
+	 * Constructor
+	 *
+	 * @param sharedExecutor shared executor
+	 * @param maxConcurrency maximum number of concurrent executions
+	 * @param maxWait        maximum time (in ms) a caller waits for a permit
+	 */
+	BoundedPolicyExecutor(@NonNull SharedPolicyExecutor sharedExecutor, int maxConcurrency, long maxWait) {
+		this.sharedExecutor = sharedExecutor;
+		this.permits = new Semaphore(maxConcurrency);
+		this.maxWait = maxWait;
+	}
+
+	/**
+	 * Submit a task in the shared pool, wait until the concurrency limit allows it (at most the configured
+	 * maximum wait)
+	 *
+	 * @param callable the task to execute
+	 * @param <R>      task result type
+	 * @return the task future
+	 * @throws IOException if the caller is interrupted while waiting, if it has waited too long or if the shared pool
+	 *                     is saturated
+	 */
+	public <R> Future<R> submit(@NonNull Callable<R> callable) throws IOException {
+		return submit(callable, maxWait, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Submit a task in the shared pool, wait until the concurrency limit allows it
+	 *
+	 * @param callable the task to execute
+	 * @param maxWait  maximum time to wait for a permit
+	 * @param unit     maximum wait unit
+	 * @param <R>      task result type
+	 * @return the task future
+	 * @throws IOException if the caller is interrupted while waiting, if it has waited too long
+	 *                     ({@link CallQueueTooBigException}) or if the shared pool is saturated
+	 */
+	public <R> Future<R> submit(@NonNull Callable<R> callable, long maxWait, @NonNull TimeUnit unit) throws IOException {
+		if (!permits.tryAcquire()) {
+			sharedExecutor.throttled();
+			try {
+				if (!permits.tryAcquire(maxWait, unit)) {
+					throw sharedExecutor.waitExpired();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw (IOException) new InterruptedIOException("Interrupted while waiting for coprocessor concurrency limit").initCause(e);
+			}
+		}
+		FutureTask<R> task = new PermitReleasingTask<>(callable);
+		try {
+			sharedExecutor.execute(task);
+		} catch (IOException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+		return task;
+	}
+
+	/**
+	 * Returns the number of executions that could be started without waiting
+	 *
+	 * @return available permits
+	 */
+	public int availablePermits() {
+		return permits.availablePermits();
+	}
+
+	/**
+	 * Task that release its permit once dequeued from the pool, even if it has been cancelled before
+	 *
+	 * @param <R> task result type
+	 */
+	private final class PermitReleasingTask<R> extends FutureTask<R> {
+
+		/**
+		 * Constructor
+		 *
+		 * @param callable the task to execute
+		 */
+		private PermitReleasingTask(Callable<R> callable) {
+			super(callable);
+		}
+
+		@Override
+		public void run() {
+			try {
+				super.run();
+			} finally {
+				permits.release();
+			}
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package fr.poc.hbase.coprocessor.policy.executor;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.CallQueueTooBigException;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.util.Threads;
+import org.apache.hadoop.metrics2.MetricsCollector;
+import org.apache.hadoop.metrics2.MetricsSource;
+import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.hadoop.metrics2.lib.Interns.info;
+
+/**
+ * Bounded thread pool shared by all policy verifiers of the JVM (ie. of the RegionServer or the Master).
+ * <p>
+ * Each coprocessor instance obtains its own {@link BoundedPolicyExecutor} through {@link #newBoundedExecutor()},
+ * that limits the number of concurrent executions of this coprocessor instance on this pool.
+ * </p>
+ * The pool is sized from the configuration used the first time the shared instance is requested
+ * (see {@link #getInstance(Configuration)}, the HBase configuration of the classpath when none is given), later
+ * configurations that ask for other sizes are reported but ignored. It publishes its usage as an Hadoop metrics2
+ * source.
+ */
+@Slf4j
+public final class SharedPolicyExecutor implements MetricsSource {
+
+	/**
+	 * Number of threads of the shared pool
+	 */
+	public static final String POOL_SIZE_CONFIGURATION_NAME = "hbase.coprocessors.policy.executor.pool-size";
+	/**
+	 * Default number of threads of the shared pool
+	 */
+	public static final int POOL_SIZE_DEFAULT = Math.max(16, Runtime.getRuntime().availableProcessors() * 2);
+	/**
+	 * Maximum number of pending executions in the shared pool queue
+	 */
+	public static final String QUEUE_SIZE_CONFIGURATION_NAME = "hbase.coprocessors.policy.executor.queue-size";
+	/**
+	 * Default maximum number of pending executions in the shared pool queue
+	 */
+	public static final int QUEUE_SIZE_DEFAULT = 1000;
+	/**
+	 * Maximum number of concurrent executions for a coprocessor instance (ie. a coprocessor on a region)
+	 */
+	public static final String MAX_CONCURRENCY_CONFIGURATION_NAME = "hbase.coprocessors.policy.executor.max-concurrency";
+	/**
+	 * Default maximum number of concurrent executions for a coprocessor instance
+	 */
+	public static final int MAX_CONCURRENCY_DEFAULT = 4;
+	/**
+	 * Maximum time (in ms) a caller waits for a coprocessor instance concurrency permit, before its execution is
+	 * rejected : executions that ignore their deadline must not park RPC handlers forever
+	 */
+	public static final String MAX_WAIT_CONFIGURATION_NAME = "hbase.coprocessors.policy.executor.max-wait.ms";
+	/**
+	 * Default maximum time (in ms) a caller waits for a coprocessor instance concurrency permit
+	 */
+	public static final long MAX_WAIT_DEFAULT = 3000L;
+	/**
+	 * Metric source name
+	 */
+	private static final String METRICS_NAME = "PolicyExecutor,sub=Coprocessors";
+
+	/**
+	 * Shared instance
+	 */
+	private static volatile SharedPolicyExecutor instance;
+
+	/**
+	 * Shared thread pool
+	 */
+	private final ThreadPoolExecutor pool;
+
+	/**
+	 * Maximum number of pending executions in the shared pool queue
+	 */
+	@Getter
+	private final int queueSize;
+
+	/**
+	 * Maximum number of concurrent executions for a coprocessor instance
+	 */
+	@Getter
+	private final int maxConcurrency;
+
+	/**
+	 * Maximum time (in ms) a caller waits for a coprocessor instance concurrency permit
+	 */
+	@Getter
+	private final long maxWait;
+
+	/**
+	 * Number of rejected executions (pool queue full)
+	 */
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * Number of executions that have waited for a coprocessor instance concurrency permit
+	 */
+	private final LongAdder throttled = new LongAdder();
+
+	/**
+	 * Number of executions rejected because their coprocessor instance concurrency permit wait expired
+	 */
+	private final LongAdder waitExpired = new LongAdder();
+
+	/**
+	 * Constructor
+	 *
+	 * @param poolSize       number of threads
+	 * @param queueSize      maximum number of pending executions
+	 * @param maxConcurrency maximum number of concurrent executions for a coprocessor instance
+	 * @param maxWait        maximum time (in ms) a caller waits for a coprocessor instance concurrency permit
+	 */
+	SharedPolicyExecutor(int poolSize, int queueSize, int maxConcurrency, long maxWait) {
+		if (poolSize <= 0 || queueSize <= 0 || maxConcurrency <= 0) {
+			throw new IllegalArgumentException("Policy executor sizes must be positives");
+		}
+		if (maxWait < 0) {
+			throw new IllegalArgumentException("Policy executor maximum wait must not be negative");
+		}
+		this.queueSize = queueSize;
+		this.maxConcurrency = maxConcurrency;
+		this.maxWait = maxWait;
+		this.pool = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(queueSize), Threads.newDaemonThreadFactory("coprocessor-policy"));
+		this.pool.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Returns the shared executor, create it from the HBase configuration of the classpath if needed
+	 *
+	 * @return the shared executor
+	 */
+	public static SharedPolicyExecutor getInstance() {
+		SharedPolicyExecutor result = instance;
+		return result != null ? result : getInstance(HBaseConfiguration.create());
+	}
+
+	/**
+	 * Returns the shared executor, create it from the given configuration if needed.
+	 * Once created, the executor is never resized : a configuration that asks for other sizes is only reported
+	 *
+	 * @param configuration Hbase configuration where executor sizes are read in (could be null)
+	 * @return the shared executor
+	 */
+	public static SharedPolicyExecutor getInstance(Configuration configuration) {
+		SharedPolicyExecutor result = instance;
+		if (result == null) {
+			synchronized (SharedPolicyExecutor.class) {
+				result = instance;
+				if (result == null) {
+					result = new SharedPolicyExecutor(getPoolSize(configuration), getQueueSize(configuration),
+							getMaxConcurrency(configuration), getMaxWait(configuration));
+					LOGGER.info("Create the shared policy executor with [{}] threads, [{}] queue size, [{}] maximum concurrency per coprocessor and [{}]ms maximum wait",
+							result.pool.getMaximumPoolSize(), result.queueSize, result.maxConcurrency, result.maxWait);
+					DefaultMetricsSystem.instance().register(METRICS_NAME, "Coprocessor policies shared executor", result);
+					instance = result;
+					return result;
+				}
+			}
+		}
+		if (configuration != null && (result.getPoolSize() != getPoolSize(configuration)
+				|| result.queueSize != getQueueSize(configuration)
+				|| result.maxConcurrency != getMaxConcurrency(configuration)
+				|| result.maxWait != getMaxWait(configuration))) {
+			LOGGER.warn("The shared policy executor is already created with [{}] threads, [{}] queue size, [{}] maximum concurrency per coprocessor and [{}]ms maximum wait, the requested [{}] threads, [{}] queue size, [{}] maximum concurrency and [{}]ms maximum wait are ignored",
+					result.getPoolSize(), result.queueSize, result.maxConcurrency, result.maxWait,
+					getPoolSize(configuration), getQueueSize(configuration), getMaxConcurrency(configuration),
+					getMaxWait(configuration));
+		}
+		return result;
+	}
+
+	/**
+	 * Read the pool size of the shared executor
+	 *
+	 * @param configuration Hbase configuration (could be null)
+	 * @return the configured pool size, or its default value
+	 */
+	private static int getPoolSize(Configuration configuration) {
+		return configuration == null ? POOL_SIZE_DEFAULT
+				: configuration.getInt(POOL_SIZE_CONFIGURATION_NAME, POOL_SIZE_DEFAULT);
+	}
+
+	/**
+	 * Read the queue size of the shared executor
+	 *
+	 * @param configuration Hbase configuration (could be null)
+	 * @return the configured queue size, or its default value
+	 */
+	private static int getQueueSize(Configuration configuration) {
+		return configuration == null ? QUEUE_SIZE_DEFAULT
+				: configuration.getInt(QUEUE_SIZE_CONFIGURATION_NAME, QUEUE_SIZE_DEFAULT);
+	}
+
+	/**
+	 * Read the maximum concurrency of a coprocessor instance of the shared executor
+	 *
+	 * @param configuration Hbase configuration (could be null)
+	 * @return the configured maximum concurrency, or its default value
+	 */
+	private static int getMaxConcurrency(Configuration configuration) {
+		return configuration == null ? MAX_CONCURRENCY_DEFAULT
+				: configuration.getInt(MAX_CONCURRENCY_CONFIGURATION_NAME, MAX_CONCURRENCY_DEFAULT);
+	}
+
+	/**
+	 * Read the maximum wait (in ms) of a concurrency permit of the shared executor
+	 *
+	 * @param configuration Hbase configuration (could be null)
+	 * @return the configured maximum wait, or its default value
+	 */
+	private static long getMaxWait(Configuration configuration) {
+		return configuration == null ? MAX_WAIT_DEFAULT
+				: configuration.getLong(MAX_WAIT_CONFIGURATION_NAME, MAX_WAIT_DEFAULT);
+	}
+
+	/**
+	 * Returns the number of threads of the shared pool
+	 *
+	 * @return the pool size
+	 */
+	public int getPoolSize() {
+		return pool.getMaximumPoolSize();
+	}
+
+	/**
+	 * Create a new executor for a coprocessor instance, bounded to {@link #getMaxConcurrency()} concurrent executions
+	 * and {@link #getMaxWait()} waiting time
+	 *
+	 * @return a new bounded executor
+	 */
+	public BoundedPolicyExecutor newBoundedExecutor() {
+		return new BoundedPolicyExecutor(this, maxConcurrency, maxWait);
+	}
+
+	/**
+	 * Submit a task in the shared pool
+	 *
+	 * @param task the task to execute
+	 * @throws IOException if the pool is saturated
+	 */
+	void execute(@NonNull Runnable task) throws IOException {
+		try {
+			pool.execute(task);
+		} catch (RejectedExecutionException rejectedEx) {
+			rejected.increment();
+			throw new CallQueueTooBigException();
+		}
+	}
+
+	/**
+	 * Notify that an execution has waited for a coprocessor instance concurrency permit
+	 */
+	void throttled() {
+		throttled.increment();
+	}
+
+	/**
+	 * Reject an execution that has waited too long for a coprocessor instance concurrency permit
+	 *
+	 * @return the error to throw to the caller
+	 */
+	IOException waitExpired() {
+		waitExpired.increment();
+		return new CallQueueTooBigException();
+	}
+
+	@Override
+	public void getMetrics(@NonNull MetricsCollector collector, boolean all) {
+		collector.addRecord(METRICS_NAME)
+				.addGauge(info("PoolSize", "Number of threads in the shared pool"), pool.getPoolSize())
+				.addGauge(info("ActiveThreads", "Number of threads that are executing coprocessor methods"), pool.getActiveCount())
+				.addGauge(info("QueueDepth", "Number of coprocessor methods waiting for a thread"), pool.getQueue().size())
+				.addGauge(info("QueueCapacity", "Maximum number of coprocessor methods waiting for a thread"), queueSize)
+				.addCounter(info("CompletedCount", "Number of executed coprocessor methods"), pool.getCompletedTaskCount())
+				.addCounter(info("RejectedCount", "Number of coprocessor methods rejected because of a full queue"), rejected.sum())
+				.addCounter(info("ThrottledCount", "Number of coprocessor methods that waited for their coprocessor concurrency limit"), throttled.sum())
+				.addCounter(info("WaitExpiredCount", "Number of coprocessor methods rejected after waiting too long for their coprocessor concurrency limit"), waitExpired.sum());
+	}
+}
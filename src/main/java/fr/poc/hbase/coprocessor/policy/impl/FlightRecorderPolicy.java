@@ -0,0 +1,169 @@
+package fr.poc.hbase.coprocessor.policy.impl;
+
+import fr.poc.hbase.coprocessor.policy.Deadline;
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDK Flight Recorder policy
+ * <p>
+ * Each invocation is recorded as a {@value InvocationEvent#NAME} event with its coprocessor, method, region,
+ * queue time, run time, execution time, outcome and the policy that rejected it : coprocessors latency could be correlated with
+ * GC pauses and I/O of the same recording.
+ * Invocations faster than a threshold are sampled, others (and failed ones) are always recorded.
+ * The event threshold of the recording settings is also applied.
+ * </p>
+ * When no recording enables the event, or when the JVM has no Flight Recorder ({@code jdk.jfr}), the policy only
+ * checks a flag per invocation. Put it first in the policies to record invocations rejected by other policies.
+ */
+@Slf4j
+public class FlightRecorderPolicy implements Policy {
+
+	/**
+	 * Indicates whenever the JVM provides Flight Recorder events
+	 */
+	private static final boolean AVAILABLE = isFlightRecorderAvailable();
+
+	/**
+	 * Event of the current invocation
+	 */
+	private static final InvocationContext.Key<Object> INVOCATION_EVENT = InvocationContext.newKey("flight-recorder");
+
+	/**
+	 * Execution time (in nanoseconds) from which invocations are always recorded
+	 */
+	private final long threshold;
+
+	/**
+	 * Faster invocations are recorded once every samplingRatio invocations (in average), never if not positive
+	 */
+	private final int samplingRatio;
+
+	/**
+	 * Constructor
+	 *
+	 * @param threshold     execution time from which invocations are always recorded
+	 * @param unit          threshold unit
+	 * @param samplingRatio faster invocations are recorded once every samplingRatio invocations (1 to record all,
+	 *                      not positive to record none)
+	 */
+	public FlightRecorderPolicy(long threshold, @NonNull TimeUnit unit, int samplingRatio) {
+		this.threshold = unit.toNanos(threshold);
+		this.samplingRatio = samplingRatio;
+		if (!AVAILABLE) {
+			LOGGER.warn("Flight Recorder is not available in this JVM, coprocessor invocations will not be recorded");
+		}
+	}
+
+	/**
+	 * Check whenever the JVM provides Flight Recorder events
+	 *
+	 * @return true if jdk.jfr is available
+	 */
+	private static boolean isFlightRecorderAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event", false, FlightRecorderPolicy.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Indicates whenever invocations are currently recorded
+	 *
+	 * @return true if Flight Recorder is available and a recording enables invocation events
+	 */
+	public static boolean isRecording() {
+		return AVAILABLE && InvocationEvent.enabled();
+	}
+
+	@Override
+	public void beforeRun(@NonNull InvocationContext context) throws IOException {
+		if (isRecording()) {
+			context.set(INVOCATION_EVENT, InvocationEvent.start());
+		}
+	}
+
+	@Override
+	public void afterRun(@NonNull InvocationContext context) {
+		Object event = context.get(INVOCATION_EVENT);
+		Outcome outcome = Outcome.of(context);
+		if (event == null) {
+			// Rejected by a previous policy
+			if (outcome != Outcome.REJECTED || !isRecording()) {
+				return;
+			}
+			event = InvocationEvent.start();
+		}
+		if (outcome == Outcome.SUCCESS && context.getExecutionTime() < threshold && !sampled()) {
+			return;
+		}
+		InvocationEvent.commit(event, context, outcome.name());
+	}
+
+	/**
+	 * Draw whenever a fast invocation is recorded
+	 *
+	 * @return true if the invocation is recorded
+	 */
+	private boolean sampled() {
+		return samplingRatio == 1 || (samplingRatio > 1 && ThreadLocalRandom.current().nextInt(samplingRatio) == 0);
+	}
+
+	/**
+	 * Invocation outcome
+	 */
+	enum Outcome {
+		/**
+		 * Executed without error
+		 */
+		SUCCESS,
+		/**
+		 * Executed with an {@link IOException}
+		 */
+		ERROR,
+		/**
+		 * Executed with an unexpected error
+		 */
+		UNEXPECTED_ERROR,
+		/**
+		 * Cancelled through its deadline (ie: timed out or over its memory budget)
+		 */
+		CANCELLED,
+		/**
+		 * Rejected by a policy before its execution
+		 */
+		REJECTED;
+
+		/**
+		 * Compute the outcome of an executed invocation. An invocation is cancelled whenever its deadline has expired,
+		 * or when its error is a cancellation one : the reason given to a deadline cancellation could be returned as is
+		 * (ie: by a nested verifier)
+		 *
+		 * @param context invocation context
+		 * @return the invocation outcome
+		 */
+		static Outcome of(@NonNull InvocationContext context) {
+			Throwable error = context.getError();
+			if (context.getRejectingPolicy() != null) {
+				return REJECTED;
+			}
+			if (error == null) {
+				return SUCCESS;
+			}
+			if (error instanceof CancellationException || error instanceof Deadline.DeadlineExceededException
+					|| error instanceof MemoryBudgetPolicy.MemoryBudgetExceededException || Deadline.current().isExpired()) {
+				return CANCELLED;
+			}
+			return error instanceof IOException ? ERROR : UNEXPECTED_ERROR;
+		}
+	}
+}
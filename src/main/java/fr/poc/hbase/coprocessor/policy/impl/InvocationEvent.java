@@ -0,0 +1,159 @@
+package fr.poc.hbase.coprocessor.policy.impl;
+
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.apache.hadoop.hbase.CoprocessorEnvironment;
+import org.apache.hadoop.hbase.coprocessor.ObserverContext;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+
+/**
+ * Flight Recorder event of a policy-wrapped invocation, see {@link FlightRecorderPolicy}.
+ * <p>
+ * Only {@link FlightRecorderPolicy} references this class, once it has checked that Flight Recorder is available.
+ * </p>
+ */
+@Name(InvocationEvent.NAME)
+@Label("Coprocessor Invocation")
+@Description("Coprocessor method invocation wrapped by policies")
+@Category({"HBase", "Coprocessor"})
+@StackTrace(false)
+final class InvocationEvent extends Event {
+
+	/**
+	 * Event name
+	 */
+	static final String NAME = "fr.poc.hbase.coprocessor.Invocation";
+
+	/**
+	 * Event used to check whenever invocation events are recorded
+	 */
+	private static final InvocationEvent PROBE = new InvocationEvent();
+
+	/**
+	 * Coprocessor class name
+	 */
+	@Label("Coprocessor")
+	String coprocessor;
+
+	/**
+	 * Coprocessor method
+	 */
+	@Label("Method")
+	String method;
+
+	/**
+	 * Coprocessor method id
+	 */
+	@Label("Method Id")
+	int methodId;
+
+	/**
+	 * Encoded name of the invocation region, null if the invocation is not on a region
+	 */
+	@Label("Region")
+	String region;
+
+	/**
+	 * Time spent waiting for an executor thread
+	 */
+	@Label("Queue Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long queueTime;
+
+	/**
+	 * Method run time, without policies and queue times
+	 */
+	@Label("Run Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long runTime;
+
+	/**
+	 * Invocation time, including the policies, queue and run times
+	 */
+	@Label("Execution Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long executionTime;
+
+	/**
+	 * Invocation outcome
+	 */
+	@Label("Outcome")
+	String outcome;
+
+	/**
+	 * Class name of the policy that rejected the invocation, null if the method has been executed
+	 */
+	@Label("Rejected By")
+	String rejectedBy;
+
+	/**
+	 * Indicates whenever invocation events are recorded
+	 *
+	 * @return true if a recording enables invocation events
+	 */
+	static boolean enabled() {
+		return PROBE.isEnabled();
+	}
+
+	/**
+	 * Start an event
+	 *
+	 * @return the started event
+	 */
+	static Object start() {
+		InvocationEvent event = new InvocationEvent();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * End and commit an event, if it passes the recording threshold
+	 *
+	 * @param event   event returned by {@link #start()}
+	 * @param context invocation context
+	 * @param outcome invocation outcome
+	 */
+	static void commit(Object event, InvocationContext context, String outcome) {
+		InvocationEvent invocation = (InvocationEvent) event;
+		invocation.end();
+		if (invocation.shouldCommit()) {
+			invocation.coprocessor = context.getTarget().getClass().getName();
+			invocation.method = context.getMethod();
+			invocation.methodId = context.getMethodId();
+			invocation.region = getRegion(context);
+			invocation.queueTime = context.getQueueTime();
+			invocation.runTime = context.getRunTime();
+			invocation.executionTime = context.getExecutionTime();
+			invocation.outcome = outcome;
+			invocation.rejectedBy = context.getRejectingPolicy() == null ? null
+					: context.getRejectingPolicy().getClass().getName();
+			invocation.commit();
+		}
+	}
+
+	/**
+	 * Extract the region of an invocation
+	 *
+	 * @param context invocation context
+	 * @return the encoded name of the coprocessor environment region, null if the invocation is not on a region
+	 */
+	private static String getRegion(InvocationContext context) {
+		Object arg = context.getFirstArgument();
+		CoprocessorEnvironment env = null;
+		if (arg instanceof CoprocessorEnvironment) {
+			env = (CoprocessorEnvironment) arg;
+		} else if (arg instanceof ObserverContext) {
+			env = ((ObserverContext) arg).getEnvironment();
+		}
+		if (env instanceof RegionCoprocessorEnvironment) {
+			return ((RegionCoprocessorEnvironment) env).getRegionInfo().getEncodedName();
+		}
+		return null;
+	}
+}
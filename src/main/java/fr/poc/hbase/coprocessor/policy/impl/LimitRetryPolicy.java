@@ -1,10 +1,12 @@
 package fr.poc.hbase.coprocessor.policy.impl;
 
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
 import fr.poc.hbase.coprocessor.policy.Policy;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.util.Threads;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -31,15 +33,15 @@ public class LimitRetryPolicy implements Policy {
 	private final FailedExecutionCache failedExecutionCache;
 
 	@Override
-	public <T> void beforeRun(@NonNull T object, @NonNull String method, @NonNull Object[] args) throws IOException {
-		if (failedExecutionCache.get(getHash(object, method, args)) > retryThreshold) {
-			throw new ServerSideRetriesExhaustedException("Method [" + method + "] has already failed on [" + object + "]");
+	public void beforeRun(@NonNull InvocationContext context) throws IOException {
+		if (failedExecutionCache.get(getHash(context)) > retryThreshold) {
+			throw new ServerSideRetriesExhaustedException("Method [" + context.getMethod() + "] has already failed on [" + context.getTarget() + "]");
 		}
 	}
 
 	@Override
-	public <T> void onUnexpectedError(@NonNull T object, @NonNull String method, @NonNull Object[] args, @NonNull Throwable throwable) {
-		long hash = getHash(object, method, args);
+	public void onUnexpectedError(@NonNull InvocationContext context, @NonNull Throwable throwable) {
+		long hash = getHash(context);
 		LOGGER.debug("Add failed execution in cache with identifier [{}]", hash);
 		failedExecutionCache.add(hash);
 	}
@@ -52,19 +54,20 @@ public class LimitRetryPolicy implements Policy {
 	/**
 	 * Compute the cache key from an coprocessor method call
 	 *
-	 * @param object coprocessor object instance
-	 * @param method coprocessor method
-	 * @param args   method arguments
-	 * @param <T>    coprocessor type
+	 * @param context invocation context of the coprocessor method
 	 * @return the cache key that identifies all input arguments
 	 */
-	private <T> long getHash(@NonNull T object, @NonNull String method, @NonNull Object[] args) {
+	private long getHash(@NonNull InvocationContext context) {
 		long hash = 0L;
 		int idx = 1;
-		for (Object arg : args) {
+		for (Object arg : context.getArguments()) {
 			hash += (arg == null ? 1 : arg.getClass().hashCode()) * idx++;
 		}
-		return object.getClass().hashCode() * (idx + 2) + method.hashCode() * (idx + 1) + hash;
+		// Method ids are dense, spread them like string hashes were
+		long methodHash = context.getMethodId() * 0x9E3779B9L;
+		// The policy could be shared by several coprocessor instances, failures are counted per instance
+		long targetHash = context.getTarget().getClass().hashCode() * 31L + System.identityHashCode(context.getTarget());
+		return targetHash * (idx + 2) + methodHash * (idx + 1) + hash;
 	}
 
 	/**
@@ -148,7 +151,8 @@ public class LimitRetryPolicy implements Policy {
 		/**
 		 * Scheduled service able to timeout cleanup outdated fails
 		 */
-		private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+		private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1,
+				Threads.newDaemonThreadFactory("coprocessor-policy-retry-cache"));
 		/**
 		 * Row cache
 		 */
@@ -1,5 +1,6 @@
 package fr.poc.hbase.coprocessor.policy.impl;
 
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
 import fr.poc.hbase.coprocessor.policy.Policy;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -35,8 +36,12 @@ public class LoggingPolicy implements Policy {
 	}
 
 	@Override
-	public <T> void afterRun(@NonNull T object, @NonNull String method, @NonNull Object[] args, Object result, long executionTime) {
-		LOGGER.info("Method [{}] has been executed on [{}] in [{}]ms with [{}] as result", method, object,
-				TimeUnit.MILLISECONDS.convert(executionTime, TimeUnit.NANOSECONDS), result);
+	public void afterRun(@NonNull InvocationContext context) {
+		LOGGER.info("Method [{}] has been executed on [{}] in [{}]ms (policies [{}]us, queue [{}]us, run [{}]us) with [{}] as result",
+				context.getMethod(), context.getTarget(),
+				TimeUnit.MILLISECONDS.convert(context.getExecutionTime(), TimeUnit.NANOSECONDS),
+				TimeUnit.MICROSECONDS.convert(context.getPolicyTime(), TimeUnit.NANOSECONDS),
+				TimeUnit.MICROSECONDS.convert(context.getQueueTime(), TimeUnit.NANOSECONDS),
+				TimeUnit.MICROSECONDS.convert(context.getRunTime(), TimeUnit.NANOSECONDS), context.getResult());
 	}
 }
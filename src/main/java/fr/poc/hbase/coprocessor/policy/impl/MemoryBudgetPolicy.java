@@ -0,0 +1,293 @@
+package fr.poc.hbase.coprocessor.policy.impl;
+
+import fr.poc.hbase.coprocessor.policy.Deadline;
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.util.HashedWheelTimer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation budget policy
+ * <p>
+ * While a method is executed, the bytes allocated by its executing thread are sampled on the shared
+ * {@link HashedWheelTimer}. Once they exceed the budget of the coprocessor, the invocation is cancelled : its
+ * {@link Deadline} is expired and the caller immediately receives a {@link MemoryBudgetExceededException}.
+ * The executing thread is expected to stop cooperatively by polling its {@link Deadline},
+ * it is only interrupted if it is still running after a grace period.
+ * </p>
+ * Allocated bytes are the ones of the executing thread (see {@link com.sun.management.ThreadMXBean}) : they include
+ * garbage, so the budget bounds the allocation pressure of a call, not its live heap.
+ */
+@Slf4j
+public class MemoryBudgetPolicy implements Policy {
+
+	/**
+	 * Thread allocations management bean, null if not supported
+	 */
+	private static final com.sun.management.ThreadMXBean ALLOCATIONS = getAllocationsBean();
+
+	/**
+	 * Watch of the current invocation
+	 */
+	private static final InvocationContext.Key<Watch> INVOCATION_WATCH = InvocationContext.newKey("memory-budget");
+
+	/**
+	 * Default budget (in bytes) of coprocessors, zero or negative for no budget
+	 */
+	private final long defaultBudget;
+
+	/**
+	 * Budgets (in bytes) by coprocessor class name, zero or negative for no budget
+	 */
+	@NonNull
+	private final Map<String, Long> budgets;
+
+	/**
+	 * Delay between two samples of the allocated bytes
+	 */
+	private final long samplePeriod;
+
+	/**
+	 * the time unit of the sample period and the grace period
+	 */
+	@NonNull
+	private final TimeUnit unit;
+
+	/**
+	 * Delay (in unit) between the cancellation and the interruption of a still running execution,
+	 * negative to never interrupt
+	 */
+	private final long gracePeriod;
+
+	/**
+	 * Timer sampling executions
+	 */
+	private final HashedWheelTimer timer = HashedWheelTimer.getShared();
+
+	/**
+	 * Budget by coprocessor class
+	 */
+	private final ClassValue<Long> resolvedBudgets = new ClassValue<Long>() {
+		@Override
+		protected Long computeValue(Class<?> type) {
+			return budgets.getOrDefault(type.getName(), defaultBudget);
+		}
+	};
+
+	/**
+	 * Constructor, all coprocessors have the same budget
+	 *
+	 * @param budget       budget (in bytes) of an execution
+	 * @param samplePeriod delay between two samples of the allocated bytes
+	 * @param unit         the time unit of the sample period and the grace period
+	 * @param gracePeriod  delay before interrupting a still running execution, negative to never interrupt
+	 */
+	public MemoryBudgetPolicy(long budget, long samplePeriod, @NonNull TimeUnit unit, long gracePeriod) {
+		this(budget, Collections.emptyMap(), samplePeriod, unit, gracePeriod);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param defaultBudget default budget (in bytes) of an execution, zero or negative for no budget
+	 * @param budgets       budgets by coprocessor class name, zero or negative for no budget
+	 * @param samplePeriod  delay between two samples of the allocated bytes
+	 * @param unit          the time unit of the sample period and the grace period
+	 * @param gracePeriod   delay before interrupting a still running execution, negative to never interrupt
+	 */
+	public MemoryBudgetPolicy(long defaultBudget, @NonNull Map<String, Long> budgets, long samplePeriod,
+							  @NonNull TimeUnit unit, long gracePeriod) {
+		if (samplePeriod <= 0) {
+			throw new IllegalArgumentException("Sample period must be positive, was [" + samplePeriod + "]");
+		}
+		this.defaultBudget = defaultBudget;
+		this.budgets = new HashMap<>(budgets);
+		this.samplePeriod = samplePeriod;
+		this.unit = unit;
+		this.gracePeriod = gracePeriod;
+		if (ALLOCATIONS == null) {
+			LOGGER.warn("Thread allocated bytes are not measured by this JVM, coprocessors allocation budgets are disabled");
+		}
+	}
+
+	/**
+	 * Returns the thread allocations management bean
+	 *
+	 * @return the bean, null if thread allocated bytes are not supported
+	 */
+	private static com.sun.management.ThreadMXBean getAllocationsBean() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+			return (com.sun.management.ThreadMXBean) threads;
+		}
+		return null;
+	}
+
+	@Override
+	public boolean watchesExecution() {
+		// Executions are cancelled through their deadline
+		return true;
+	}
+
+	@Override
+	public void beforeExecution(@NonNull InvocationContext context) {
+		long budget = resolvedBudgets.get(context.getTarget().getClass());
+		if (budget <= 0 || ALLOCATIONS == null || !ALLOCATIONS.isThreadAllocatedMemoryEnabled()) {
+			return;
+		}
+		Watch watch = new Watch(context.getTarget(), context.getMethod(), Deadline.current(), budget);
+		context.set(INVOCATION_WATCH, watch);
+		watch.schedule();
+	}
+
+	@Override
+	public void afterExecution(@NonNull InvocationContext context) {
+		Watch watch = context.get(INVOCATION_WATCH);
+		if (watch != null) {
+			watch.stop();
+		}
+	}
+
+	/**
+	 * Error returned to the caller of an execution that exceeded its allocation budget
+	 */
+	public static final class MemoryBudgetExceededException extends DoNotRetryIOException {
+
+		/**
+		 * Serial Version UID
+		 */
+		private static final long serialVersionUID = 5170472264386416254L;
+
+		/**
+		 * Constructor
+		 *
+		 * @param message error description
+		 */
+		public MemoryBudgetExceededException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Periodic sampling of an execution, run by the timer
+	 */
+	private final class Watch implements Runnable {
+
+		/**
+		 * Proxied object
+		 */
+		private final Object target;
+
+		/**
+		 * Proxied method
+		 */
+		private final String method;
+
+		/**
+		 * Invocation deadline
+		 */
+		private final Deadline deadline;
+
+		/**
+		 * Execution budget (in bytes)
+		 */
+		private final long budget;
+
+		/**
+		 * Executing thread identifier
+		 */
+		private final long threadId;
+
+		/**
+		 * Allocated bytes of the executing thread at the execution start
+		 */
+		private final long startAllocatedBytes;
+
+		/**
+		 * Next sample
+		 */
+		private volatile HashedWheelTimer.Timeout next;
+
+		/**
+		 * Indicates whenever the execution has ended
+		 */
+		private volatile boolean stopped;
+
+		/**
+		 * Constructor, must be called by the executing thread
+		 *
+		 * @param target   proxied object
+		 * @param method   proxied method
+		 * @param deadline invocation deadline
+		 * @param budget   execution budget (in bytes)
+		 */
+		private Watch(Object target, String method, Deadline deadline, long budget) {
+			this.target = target;
+			this.method = method;
+			this.deadline = deadline;
+			this.budget = budget;
+			this.threadId = Thread.currentThread().getId();
+			this.startAllocatedBytes = ALLOCATIONS.getThreadAllocatedBytes(threadId);
+		}
+
+		/**
+		 * Schedule the next sample
+		 */
+		private void schedule() {
+			next = timer.schedule(this, samplePeriod, unit);
+			if (stopped) {
+				next.cancel();
+			}
+		}
+
+		/**
+		 * Stop sampling, the execution has ended
+		 */
+		private void stop() {
+			stopped = true;
+			HashedWheelTimer.Timeout current = next;
+			if (current != null) {
+				current.cancel();
+			}
+		}
+
+		@Override
+		public void run() {
+			if (stopped) {
+				return;
+			}
+			long allocatedBytes = ALLOCATIONS.getThreadAllocatedBytes(threadId) - startAllocatedBytes;
+			if (allocatedBytes <= budget) {
+				schedule();
+				return;
+			}
+			if (stopped) {
+				// The thread may already execute another invocation
+				return;
+			}
+			if (deadline.cancel(new MemoryBudgetExceededException("Coprocessor method has allocated [" + allocatedBytes
+					+ "] bytes, more than its budget of [" + budget + "] bytes"))) {
+				LOGGER.info("Method [{}] on [{}] has been cancelled after allocating [{}] bytes (budget [{}] bytes)",
+						method, target, allocatedBytes, budget);
+				if (gracePeriod >= 0) {
+					timer.schedule(() -> {
+						if (deadline.interrupt()) {
+							LOGGER.warn("Method [{}] on [{}] has been interrupted, it didn't stop [{} {}] after its cancellation",
+									method, target, gracePeriod, unit.toString());
+						}
+					}, gracePeriod, unit);
+				}
+			}
+		}
+	}
+}
@@ -1,113 +1,456 @@
 package fr.poc.hbase.coprocessor.policy.impl;
 
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
 import fr.poc.hbase.coprocessor.policy.Policy;
-import lombok.Getter;
+import fr.poc.hbase.coprocessor.policy.stats.MethodStatistics;
+import fr.poc.hbase.coprocessor.policy.util.DecayingRate;
+import fr.poc.hbase.coprocessor.policy.util.LatencyHistogram;
+import fr.poc.hbase.coprocessor.policy.util.MethodTable;
+import fr.poc.hbase.coprocessor.policy.util.WindowedLatencyHistogram;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
-import org.apache.commons.math3.stat.descriptive.StatisticalSummary;
-import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.hbase.CoprocessorEnvironment;
+import org.apache.hadoop.hbase.HRegionInfo;
 import org.apache.hadoop.hbase.coprocessor.ObserverContext;
 import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
 import org.apache.hadoop.metrics2.MetricsCollector;
+import org.apache.hadoop.metrics2.MetricsRecordBuilder;
 import org.apache.hadoop.metrics2.MetricsSource;
 import org.apache.hadoop.metrics2.MetricsSystem;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.apache.hadoop.metrics2.lib.Interns.info;
 
 /**
- * Hadoop Metrics2 instrumentation policy
+ * Hadoop Metrics2 instrumentation policy.
+ * <p>
+ * Like HBase region metrics, all metrics of a context are reported by a single metrics source
+ * ({@value #SOURCE_NAME},sub=&lt;context&gt;) : metrics2 sources could not be unregistered, metrics are.
+ * A metric is kept while a coprocessor uses it, it is removed once all coprocessors using it are stopped
+ * (ie: once its region is closed). Metrics are rolled-up by {@link Scope}, and their number is capped :
+ * beyond the cap, new metrics are rolled-up per coprocessor.
+ * <br>
+ * Besides cumulative values, each metric reports its current behavior : exponentially decaying 1, 5 and 15 minutes
+ * call and error rates, and execution time percentiles over the last minute.
+ * Execution times are also split in queue time (waiting for an executor thread), run time and policies overhead,
+ * to tell executor saturation apart from a slow coprocessor.
+ * </p>
+ * Metrics of all contexts of the JVM are also available as mergeable {@link MethodStatistics}, see
+ * {@link #getStatistics()}.
  */
-@RequiredArgsConstructor
+@Slf4j
 public class MetricsPolicy implements Policy {
 
 	/**
-	 * Metric system where metrics will be registered
+	 * Metrics source name
 	 */
-	@NonNull
-	private final MetricsSystem metricsSystem;
+	public static final String SOURCE_NAME = "CoprocessorPolicy";
+
+	/**
+	 * Default maximum number of metrics of a context.
+	 * <p>
+	 * Histogram stripes of a metric hold about 4 KB each : up to 4 for its execution times, and 2 for each of the 6
+	 * slots of its recent window, so a metric may hold up to about 70 KB. Stripes and slots are allocated on use, but
+	 * a busy context at this cap may hold up to about 70 MB.
+	 * </p>
+	 */
+	public static final int MAX_METRICS_DEFAULT = 1000;
+
+	/**
+	 * Registered sources of the JVM, kept while their metrics system references them
+	 */
+	private static final Set<MetricsPolicySource> SOURCES = Collections.synchronizedSet(
+			Collections.newSetFromMap(new WeakHashMap<>()));
 
 	/**
-	 * Metric context name
+	 * Metric of the current invocation, resolved before the method execution
+	 */
+	private static final InvocationContext.Key<MetricInfo> INVOCATION_METRIC = InvocationContext.newKey("metrics");
+
+	/**
+	 * How metrics are rolled-up
 	 */
 	@NonNull
-	private final String metricsContext;
+	private final Scope scope;
 
+	/**
+	 * Source that reports the metrics of the context, shared by all policies of the same context
+	 */
+	private final MetricsPolicySource source;
 
 	/**
-	 * Metrics tmp store
+	 * Metrics resolved by proxied object (ie: a coprocessor instance, bound to a single region), then by method
 	 */
-	private final ConcurrentMap<String, MetricInfo> metrics = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Object, TargetMetrics> resolvedMetrics = new ConcurrentHashMap<>();
 
-	@Override
-	public <T> void beforeRun(@NonNull T object, @NonNull String method, @NonNull Object[] args) throws IOException {
-		String metricName = getMetricName(object, method, args.length >= 1 ? args[0] : null);
-
-		if (!metrics.containsKey(metricName)) {
-			MetricsSource source = metricsSystem.getSource(metricName);
-			if (source != null && source instanceof MetricInfo) {
-				metrics.put(metricName, (MetricInfo) source);
-			} else {
-				metrics.put(metricName, new MetricInfo(metricName));
-				metricsSystem.register(metricName, "", metrics.get(metricName));
+	/**
+	 * Constructor, metrics are reported per region
+	 *
+	 * @param metricsSystem  metric system where metrics will be registered
+	 * @param metricsContext metric context name
+	 */
+	public MetricsPolicy(@NonNull MetricsSystem metricsSystem, @NonNull String metricsContext) {
+		this(metricsSystem, metricsContext, Scope.REGION, MAX_METRICS_DEFAULT);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param metricsSystem  metric system where metrics will be registered
+	 * @param metricsContext metric context name
+	 * @param scope          how metrics are rolled-up
+	 * @param maxMetrics     maximum number of metrics of the context, beyond it metrics are rolled-up per coprocessor
+	 *                       (the context is shared : its greatest requested maximum is kept)
+	 */
+	public MetricsPolicy(@NonNull MetricsSystem metricsSystem, @NonNull String metricsContext, @NonNull Scope scope,
+						 int maxMetrics) {
+		this.scope = scope;
+		this.source = MetricsPolicySource.register(metricsSystem, SOURCE_NAME + ",sub=" + metricsContext);
+		this.source.requestMaxMetrics(maxMetrics);
+	}
+
+	/**
+	 * Returns the statistics of all metrics of the JVM, in all contexts
+	 *
+	 * @return statistics by metric, a coprocessor method may have several metrics (ie: one per region)
+	 */
+	public static List<MethodStatistics> getStatistics() {
+		List<MetricsPolicySource> sources;
+		synchronized (SOURCES) {
+			sources = new ArrayList<>(SOURCES);
+		}
+		List<MethodStatistics> statistics = new ArrayList<>();
+		long now = System.nanoTime();
+		for (MetricsPolicySource source : sources) {
+			for (MetricInfo metric : source.metrics.values()) {
+				statistics.add(metric.toStatistics(now));
 			}
 		}
+		return statistics;
+	}
+
+	@Override
+	public void beforeRun(@NonNull InvocationContext context) throws IOException {
+		context.set(INVOCATION_METRIC, resolveMetric(context));
+	}
+
+	@Override
+	public void onError(@NonNull InvocationContext context, @NonNull IOException ioException) {
+		getMetric(context).addError(context.getStartTime());
 	}
 
 	@Override
-	public <T> void onError(@NonNull T object, @NonNull String method, @NonNull Object[] args, @NonNull IOException ioException) {
-		metrics.get(getMetricName(object, method, args.length >= 1 ? args[0] : null)).addError();
+	public void onUnexpectedError(@NonNull InvocationContext context, @NonNull Throwable throwable) {
+		getMetric(context).addUnexpectedError(context.getStartTime());
 	}
 
 	@Override
-	public <T> void onUnexpectedError(@NonNull T object, @NonNull String method, @NonNull Object[] args, @NonNull Throwable throwable) {
-		metrics.get(getMetricName(object, method, args.length >= 1 ? args[0] : null)).addUnexpectedError();
+	public void afterRun(@NonNull InvocationContext context) {
+		getMetric(context).addExecution(context.getExecutionTime(), context.getQueueTime(), context.getRunTime(),
+				context.getStartTime() + context.getExecutionTime());
 	}
 
 	@Override
-	public <T> void afterRun(@NonNull T object, @NonNull String method, @NonNull Object[] args, Object result, long executionTime) {
-		metrics.get(getMetricName(object, method, args.length >= 1 ? args[0] : null)).getExecutionStats().addValue(TimeUnit.NANOSECONDS.toMillis(executionTime));
+	public void onClose(@NonNull Object object) {
+		TargetMetrics targetMetrics = resolvedMetrics.remove(object);
+		if (targetMetrics != null) {
+			targetMetrics.release(source);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (Object target : new ArrayList<>(resolvedMetrics.keySet())) {
+			onClose(target);
+		}
+	}
+
+	/**
+	 * Returns the metric of the invocation
+	 *
+	 * @param context invocation context
+	 * @return the metric resolved before the execution, resolved now if {@link #beforeRun(InvocationContext)} was
+	 * not called (ie: a previous policy rejected the invocation)
+	 */
+	private MetricInfo getMetric(@NonNull InvocationContext context) {
+		MetricInfo metric = context.get(INVOCATION_METRIC);
+		return metric != null ? metric : resolveMetric(context);
+	}
+
+	/**
+	 * Resolve the metric of an invocation, metrics are resolved once per proxied object and method
+	 *
+	 * @param context invocation context
+	 * @return the invocation metric
+	 */
+	private MetricInfo resolveMetric(@NonNull InvocationContext context) {
+		TargetMetrics targetMetrics = resolvedMetrics.get(context.getTarget());
+		if (targetMetrics == null) {
+			targetMetrics = resolvedMetrics.computeIfAbsent(context.getTarget(), t -> new TargetMetrics());
+		}
+		MetricInfo metric = targetMetrics.methods.get(context.getPolicyMethod());
+		if (metric == null) {
+			TargetMetrics resolved = targetMetrics;
+			metric = targetMetrics.methods.computeIfAbsent(context.getPolicyMethod(), m -> resolved.add(source.acquire(
+					getMetricName(context, getScope(context)), getMetricName(context, null),
+					context.getTarget().getClass().getName(), context.getMethod())));
+		}
+		return metric;
+	}
+
+	/**
+	 * Compute the scope of an invocation
+	 *
+	 * @param context invocation context
+	 * @return the scope name of the invocation region, null if the invocation is not on a region
+	 */
+	private String getScope(@NonNull InvocationContext context) {
+		Object arg = context.getFirstArgument();
+		CoprocessorEnvironment env = null;
+		if (arg instanceof CoprocessorEnvironment) {
+			env = (CoprocessorEnvironment) arg;
+		} else if (arg instanceof ObserverContext) {
+			env = ((ObserverContext) arg).getEnvironment();
+		}
+		if (!(env instanceof RegionCoprocessorEnvironment)) {
+			return null;
+		}
+		HRegionInfo region = ((RegionCoprocessorEnvironment) env).getRegionInfo();
+		switch (scope) {
+			case REGION:
+				return "region_" + region.getEncodedName();
+			case TABLE:
+				return "table_" + region.getTable().getNameAsString().replace(':', '_');
+			case NAMESPACE:
+				return "namespace_" + region.getTable().getNamespaceAsString();
+			default:
+				return null;
+		}
 	}
 
 	/**
 	 * Compute metric name
 	 *
-	 * @param object proxied object
-	 * @param method currently executed method
-	 * @param <T>    type of object
+	 * @param context    invocation context
+	 * @param scopeName  invocation scope name, null to roll-up the metric per coprocessor
 	 * @return the metric name
 	 */
-	private <T> String getMetricName(@NonNull T object, @NonNull String method, Object arg) {
-		String on = null;
-		if (arg != null) {
-			CoprocessorEnvironment env = null;
-			if (arg instanceof CoprocessorEnvironment) {
-				env = (CoprocessorEnvironment) arg;
-			} else if (arg instanceof ObserverContext) {
-				env = ((ObserverContext) arg).getEnvironment();
+	private String getMetricName(@NonNull InvocationContext context, String scopeName) {
+		String name = "coprocessor_" + context.getTarget().getClass().getSimpleName()
+				+ "_method_" + context.getMethod().replaceAll("[:()]", "-");
+		if (scopeName != null) {
+			name += "_" + scopeName;
+		}
+		return name;
+	}
+
+	/**
+	 * How metrics are rolled-up
+	 */
+	public enum Scope {
+		/**
+		 * Metrics per coprocessor, method and region
+		 */
+		REGION,
+		/**
+		 * Metrics per coprocessor, method and table
+		 */
+		TABLE,
+		/**
+		 * Metrics per coprocessor, method and namespace
+		 */
+		NAMESPACE,
+		/**
+		 * Metrics per coprocessor and method
+		 */
+		COPROCESSOR
+	}
+
+	/**
+	 * Metrics resolved for a proxied object
+	 */
+	private static final class TargetMetrics {
+
+		/**
+		 * Metrics by method
+		 */
+		private final MethodTable<MetricInfo> methods = new MethodTable<>();
+
+		/**
+		 * All resolved metrics (guarded by this)
+		 */
+		private final List<MetricInfo> metrics = new ArrayList<>();
+
+		/**
+		 * Keep a resolved metric
+		 *
+		 * @param metric resolved metric
+		 * @return the metric
+		 */
+		private synchronized MetricInfo add(MetricInfo metric) {
+			metrics.add(metric);
+			return metric;
+		}
+
+		/**
+		 * Release all resolved metrics
+		 *
+		 * @param source metrics source
+		 */
+		private synchronized void release(MetricsPolicySource source) {
+			metrics.forEach(source::release);
+			metrics.clear();
+		}
+	}
+
+	/**
+	 * Source that reports all metrics of a context, metrics are reference counted by the proxied objects using them
+	 */
+	private static final class MetricsPolicySource implements MetricsSource {
+
+		/**
+		 * Source name
+		 */
+		private final String name;
+
+		/**
+		 * Metrics by name (written under this)
+		 */
+		private final ConcurrentMap<String, MetricInfo> metrics = new ConcurrentHashMap<>();
+
+		/**
+		 * Maximum number of metrics, negative until a policy requests it (guarded by this)
+		 */
+		private int maxMetrics = -1;
+
+		/**
+		 * Indicates whenever the metrics cap has been reached once (guarded by this)
+		 */
+		private boolean capReached;
+
+		/**
+		 * Constructor
+		 *
+		 * @param name source name
+		 */
+		private MetricsPolicySource(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Returns the source of a context, register it if needed
+		 *
+		 * @param metricsSystem metric system where the source is registered
+		 * @param name          source name
+		 * @return the registered source
+		 */
+		private static MetricsPolicySource register(@NonNull MetricsSystem metricsSystem, @NonNull String name) {
+			synchronized (metricsSystem) {
+				MetricsSource source = metricsSystem.getSource(name);
+				if (source instanceof MetricsPolicySource) {
+					return (MetricsPolicySource) source;
+				}
+				MetricsPolicySource registered = metricsSystem.register(name, "Coprocessors policies metrics",
+						new MetricsPolicySource(name));
+				SOURCES.add(registered);
+				return registered;
 			}
-			if (env != null && env instanceof RegionCoprocessorEnvironment) {
-				on = ((RegionCoprocessorEnvironment) env).getRegionInfo().getRegionNameAsString();
+		}
+
+		/**
+		 * Request a maximum number of metrics : policies of a context share its source, so the greatest requested
+		 * maximum is kept and a conflicting request is reported
+		 *
+		 * @param requested requested maximum number of metrics
+		 */
+		private synchronized void requestMaxMetrics(int requested) {
+			if (maxMetrics >= 0 && maxMetrics != requested) {
+				LOGGER.warn("Coprocessor policy metrics [{}] is already capped to [{}] metrics, the requested maximum of [{}] metrics is merged, the greatest one is kept",
+						name, maxMetrics, requested);
 			}
+			maxMetrics = Math.max(maxMetrics, requested);
 		}
-		String name = method.replaceAll("[:()]", "-") + ",sub=" + metricsContext + ",coprocessor=" + object.getClass().getSimpleName();
-		if (on != null) {
-			name += ",on=" + on;
+
+		/**
+		 * Acquire a metric, create it if needed
+		 *
+		 * @param metricName   metric name
+		 * @param rollUpName   name of the metric to use once the cap is reached
+		 * @param coprocessor  coprocessor class name
+		 * @param method       coprocessor method
+		 * @return the acquired metric, it must be released once no more used
+		 */
+		private synchronized MetricInfo acquire(@NonNull String metricName, @NonNull String rollUpName,
+												@NonNull String coprocessor, @NonNull String method) {
+			MetricInfo metric = metrics.get(metricName);
+			if (metric == null && metrics.size() >= maxMetrics && !metricName.equals(rollUpName)) {
+				if (!capReached) {
+					capReached = true;
+					LOGGER.warn("Coprocessor policy metrics [{}] reached its maximum of [{}] metrics, new metrics are rolled-up per coprocessor",
+							name, maxMetrics);
+				}
+				return acquire(rollUpName, rollUpName, coprocessor, method);
+			}
+			if (metric == null) {
+				metric = new MetricInfo(metricName, coprocessor, method);
+				metrics.put(metricName, metric);
+			}
+			metric.references++;
+			return metric;
+		}
+
+		/**
+		 * Release a metric, remove it once no more used
+		 *
+		 * @param metric metric to release
+		 */
+		private synchronized void release(@NonNull MetricInfo metric) {
+			if (--metric.references == 0) {
+				metrics.remove(metric.name, metric);
+			}
+		}
+
+		@Override
+		public void getMetrics(@NonNull MetricsCollector collector, boolean all) {
+			MetricsRecordBuilder record = collector.addRecord(name);
+			for (MetricInfo metric : metrics.values()) {
+				metric.snapshot(record);
+			}
 		}
-		return name;
 	}
 
 	/**
-	 * Metric informations
+	 * Metric informations, recorded without locks by handler threads.
+	 * Execution times are kept in microseconds and reported in milliseconds.
 	 */
-	@Getter
-	@RequiredArgsConstructor
-	private static final class MetricInfo implements MetricsSource {
+	private static final class MetricInfo {
+
+		/**
+		 * Microseconds in a millisecond
+		 */
+		private static final double MICROS_PER_MILLI = 1000d;
+
+		/**
+		 * Duration of the recent execution times window (in seconds)
+		 */
+		private static final long RECENT_WINDOW_SECONDS = 60L;
+
+		/**
+		 * Number of rotating slots of the recent execution times window
+		 */
+		private static final int RECENT_WINDOW_SLOTS = 6;
 
 		/**
 		 * Metric name
@@ -115,50 +458,221 @@ public class MetricsPolicy implements Policy {
 		private final String name;
 
 		/**
-		 * Execution statistics
+		 * Coprocessor class name
+		 */
+		private final String coprocessor;
+
+		/**
+		 * Coprocessor method
+		 */
+		private final String method;
+
+		/**
+		 * Number of proxied objects using the metric (guarded by the source)
+		 */
+		private int references;
+
+		/**
+		 * Execution count
+		 */
+		private final LongAdder count = new LongAdder();
+
+		/**
+		 * Total execution time (in microseconds)
+		 */
+		private final LongAdder totalTime = new LongAdder();
+
+		/**
+		 * Sum of squared execution times (in square milliseconds)
+		 */
+		private final DoubleAdder totalSquaredTime = new DoubleAdder();
+
+		/**
+		 * Minimum execution time (in microseconds)
+		 */
+		private final LongAccumulator minTime = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+		/**
+		 * Maximum execution time (in microseconds)
+		 */
+		private final LongAccumulator maxTime = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+		/**
+		 * Execution time distribution
+		 */
+		private final LatencyHistogram executionTimes = new LatencyHistogram();
+
+		/**
+		 * Total queue time (in microseconds)
+		 */
+		private final LongAdder totalQueueTime = new LongAdder();
+
+		/**
+		 * Maximum queue time (in microseconds)
+		 */
+		private final LongAccumulator maxQueueTime = new LongAccumulator(Math::max, 0L);
+
+		/**
+		 * Total run time (in microseconds)
+		 */
+		private final LongAdder totalRunTime = new LongAdder();
+
+		/**
+		 * Maximum run time (in microseconds)
 		 */
-		@NonNull
-		private final SummaryStatistics executionStats = new SummaryStatistics();
+		private final LongAccumulator maxRunTime = new LongAccumulator(Math::max, 0L);
 
 		/**
 		 * error count
 		 */
-		private long error = 0L;
+		private final LongAdder error = new LongAdder();
 
 		/**
 		 * unexpected error count
 		 */
-		private long unexpectedError = 0L;
+		private final LongAdder unexpectedError = new LongAdder();
+
+		/**
+		 * Decaying execution rates
+		 */
+		private final DecayingRate callRate;
+
+		/**
+		 * Decaying error (expected or not) rates
+		 */
+		private final DecayingRate errorRate;
+
+		/**
+		 * Execution time distribution over the last minute
+		 */
+		private final WindowedLatencyHistogram recentExecutionTimes =
+				new WindowedLatencyHistogram(RECENT_WINDOW_SECONDS, TimeUnit.SECONDS, RECENT_WINDOW_SLOTS);
+
+		/**
+		 * Constructor
+		 *
+		 * @param name        metric name
+		 * @param coprocessor coprocessor class name
+		 * @param method      coprocessor method
+		 */
+		private MetricInfo(String name, String coprocessor, String method) {
+			this.name = name;
+			this.coprocessor = coprocessor;
+			this.method = method;
+			long now = System.nanoTime();
+			this.callRate = new DecayingRate(now);
+			this.errorRate = new DecayingRate(now);
+		}
+
+		/**
+		 * Add an execution
+		 *
+		 * @param executionTime execution time in nanoseconds
+		 * @param queueTime     part of the execution time spent waiting for an executor thread, in nanoseconds
+		 * @param runTime       part of the execution time spent running the method, in nanoseconds
+		 * @param endTime       execution end time in {@link System#nanoTime()} reference
+		 */
+		public void addExecution(long executionTime, long queueTime, long runTime, long endTime) {
+			long queueMicros = TimeUnit.NANOSECONDS.toMicros(queueTime);
+			long runMicros = TimeUnit.NANOSECONDS.toMicros(runTime);
+			totalQueueTime.add(queueMicros);
+			maxQueueTime.accumulate(queueMicros);
+			totalRunTime.add(runMicros);
+			maxRunTime.accumulate(runMicros);
+			long micros = TimeUnit.NANOSECONDS.toMicros(executionTime);
+			double millis = micros / MICROS_PER_MILLI;
+			count.increment();
+			totalTime.add(micros);
+			totalSquaredTime.add(millis * millis);
+			minTime.accumulate(micros);
+			maxTime.accumulate(micros);
+			executionTimes.recordMicros(micros);
+			recentExecutionTimes.recordMicros(micros, endTime);
+			callRate.mark(endTime);
+		}
 
 		/**
 		 * Add an unexpected error
+		 *
+		 * @param time error time in {@link System#nanoTime()} reference
 		 */
-		public void addUnexpectedError() {
-			++unexpectedError;
+		public void addUnexpectedError(long time) {
+			unexpectedError.increment();
+			errorRate.mark(time);
 		}
 
 		/**
 		 * Add an error
+		 *
+		 * @param time error time in {@link System#nanoTime()} reference
 		 */
-		public void addError() {
-			++error;
+		public void addError(long time) {
+			error.increment();
+			errorRate.mark(time);
 		}
 
-		@Override
-		public void getMetrics(@NonNull MetricsCollector collector, boolean all) {
-			// Fetch stats
-			StatisticalSummary stats = executionStats.getSummary();
+		/**
+		 * Take a mergeable snapshot of the metric values
+		 *
+		 * @param now snapshot time in {@link System#nanoTime()} reference
+		 * @return the metric statistics
+		 */
+		public MethodStatistics toStatistics(long now) {
+			long n = count.sum();
+			return new MethodStatistics(coprocessor, method, n, error.sum(), unexpectedError.sum(), totalTime.sum(),
+					n == 0 ? 0L : minTime.get(), n == 0 ? 0L : maxTime.get(), executionTimes.snapshot(),
+					recentExecutionTimes.snapshot(now));
+		}
+
+		/**
+		 * Report the metric values, prefixed by the metric name
+		 *
+		 * @param record record where values are reported
+		 */
+		public void snapshot(@NonNull MetricsRecordBuilder record) {
+			// Fetch stats, writers are not blocked so values may be slightly inconsistent with each other
+			long n = count.sum();
+			long errors = error.sum();
+			long unexpectedErrors = unexpectedError.sum();
+			long total = totalTime.sum();
+			long queue = totalQueueTime.sum();
+			long run = totalRunTime.sum();
+			double avg = n == 0 ? 0d : total / MICROS_PER_MILLI / n;
+			double variance = n < 2 ? 0d : (totalSquaredTime.sum() - avg * avg * n) / (n - 1);
+			LatencyHistogram.Snapshot snapshot = executionTimes.snapshot();
+			long now = System.nanoTime();
+			LatencyHistogram.Snapshot recent = recentExecutionTimes.snapshot(now);
 
 			// Report metric
-			collector.addRecord(name)
-					.addCounter(info("ErrorCount", "Number of coprocessor method that end with an error"), error)
-					.addCounter(info("UncatchedErrorsCount", "Number of coprocessor method that end with an uncatched error"), unexpectedError)
-					.addCounter(info("Count", "Number of coprocessor method count"), stats.getN())
-					.addGauge(info("ErrorRatio", "Ration of execution error"), stats.getN() == 0 ? 0 : (error + unexpectedError) / stats.getN())
-					.addGauge(info("Min", "Minimum execution time of coprocessor method"), stats.getMin())
-					.addGauge(info("Max", "Maximum execution time of coprocessor method"), stats.getMax())
-					.addGauge(info("Avg", "Average execution time of coprocessor method"), stats.getMean())
-					.addGauge(info("Std", "Standard deviation in coprocessor execution time"), stats.getStandardDeviation());
+			String prefix = name + "_";
+			record.addCounter(info(prefix + "ErrorCount", "Number of coprocessor method that end with an error"), errors)
+					.addCounter(info(prefix + "UncatchedErrorsCount", "Number of coprocessor method that end with an uncatched error"), unexpectedErrors)
+					.addCounter(info(prefix + "Count", "Number of coprocessor method count"), n)
+					.addGauge(info(prefix + "ErrorRatio", "Ration of execution error"), n == 0 ? 0d : (double) (errors + unexpectedErrors) / n)
+					.addGauge(info(prefix + "Min", "Minimum execution time of coprocessor method"), n == 0 ? 0d : minTime.get() / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "Max", "Maximum execution time of coprocessor method"), n == 0 ? 0d : maxTime.get() / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "Avg", "Average execution time of coprocessor method"), avg)
+					.addGauge(info(prefix + "Std", "Standard deviation in coprocessor execution time"), Math.sqrt(Math.max(variance, 0d)))
+					.addGauge(info(prefix + "QueueAvg", "Average time spent by coprocessor method waiting for an executor thread"), n == 0 ? 0d : queue / MICROS_PER_MILLI / n)
+					.addGauge(info(prefix + "QueueMax", "Maximum time spent by coprocessor method waiting for an executor thread"), maxQueueTime.get() / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "RunAvg", "Average run time of coprocessor method, without queue time and policies overhead"), n == 0 ? 0d : run / MICROS_PER_MILLI / n)
+					.addGauge(info(prefix + "RunMax", "Maximum run time of coprocessor method, without queue time and policies overhead"), maxRunTime.get() / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "PolicyOverheadAvg", "Average time spent by coprocessor method in policies"), n == 0 ? 0d : Math.max(total - queue - run, 0L) / MICROS_PER_MILLI / n)
+					.addGauge(info(prefix + "P50", "Median execution time of coprocessor method"), snapshot.getPercentileMicros(50d) / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "P95", "95th percentile execution time of coprocessor method"), snapshot.getPercentileMicros(95d) / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "P99", "99th percentile execution time of coprocessor method"), snapshot.getPercentileMicros(99d) / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "P999", "99.9th percentile execution time of coprocessor method"), snapshot.getPercentileMicros(99.9d) / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "CallRate1m", "One minute decaying rate of coprocessor method calls (per second)"), callRate.getOneMinuteRate(now))
+					.addGauge(info(prefix + "CallRate5m", "Five minutes decaying rate of coprocessor method calls (per second)"), callRate.getFiveMinutesRate(now))
+					.addGauge(info(prefix + "CallRate15m", "Fifteen minutes decaying rate of coprocessor method calls (per second)"), callRate.getFifteenMinutesRate(now))
+					.addGauge(info(prefix + "ErrorRate1m", "One minute decaying rate of coprocessor method errors (per second)"), errorRate.getOneMinuteRate(now))
+					.addGauge(info(prefix + "ErrorRate5m", "Five minutes decaying rate of coprocessor method errors (per second)"), errorRate.getFiveMinutesRate(now))
+					.addGauge(info(prefix + "ErrorRate15m", "Fifteen minutes decaying rate of coprocessor method errors (per second)"), errorRate.getFifteenMinutesRate(now))
+					.addGauge(info(prefix + "RecentCount", "Number of coprocessor method executions over the last minute"), recent.getCount())
+					.addGauge(info(prefix + "RecentP50", "Median execution time of coprocessor method over the last minute"), recent.getPercentileMicros(50d) / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "RecentP95", "95th percentile execution time of coprocessor method over the last minute"), recent.getPercentileMicros(95d) / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "RecentP99", "99th percentile execution time of coprocessor method over the last minute"), recent.getPercentileMicros(99d) / MICROS_PER_MILLI)
+					.addGauge(info(prefix + "RecentP999", "99.9th percentile execution time of coprocessor method over the last minute"), recent.getPercentileMicros(99.9d) / MICROS_PER_MILLI);
 		}
 	}
 
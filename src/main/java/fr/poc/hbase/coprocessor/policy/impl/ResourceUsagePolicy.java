@@ -0,0 +1,341 @@
+package fr.poc.hbase.coprocessor.policy.impl;
+
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.util.MethodTable;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.metrics2.MetricsCollector;
+import org.apache.hadoop.metrics2.MetricsRecordBuilder;
+import org.apache.hadoop.metrics2.MetricsSource;
+import org.apache.hadoop.metrics2.MetricsSystem;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.hadoop.metrics2.lib.Interns.info;
+
+/**
+ * CPU time and allocated bytes accounting policy.
+ * <p>
+ * Thread CPU time and allocated bytes are sampled around each method execution, on the thread that executes it
+ * (see {@link Policy#beforeExecution(InvocationContext)}), and reported per coprocessor and method by a single metrics
+ * source ({@value #SOURCE_NAME},sub=&lt;context&gt;). Measures not supported or disabled by the JVM are not reported.
+ * </p>
+ */
+@Slf4j
+public class ResourceUsagePolicy implements Policy {
+
+	/**
+	 * Metrics source name
+	 */
+	public static final String SOURCE_NAME = "CoprocessorPolicyResources";
+
+	/**
+	 * Thread management bean
+	 */
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Thread allocations management bean, null if not supported
+	 */
+	private static final com.sun.management.ThreadMXBean ALLOCATIONS =
+			THREADS instanceof com.sun.management.ThreadMXBean
+					&& ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported()
+					? (com.sun.management.ThreadMXBean) THREADS : null;
+
+	/**
+	 * Samples of the executions in progress, by executing thread
+	 */
+	private static final ThreadLocal<Samples> SAMPLES = ThreadLocal.withInitial(Samples::new);
+
+	/**
+	 * Source that reports the metrics of the context, shared by all policies of the same context
+	 */
+	private final ResourceUsageSource source;
+
+	/**
+	 * Indicates whenever thread CPU time is measured
+	 */
+	private final boolean cpuTimeEnabled;
+
+	/**
+	 * Indicates whenever thread allocated bytes are measured
+	 */
+	private final boolean allocatedBytesEnabled;
+
+	/**
+	 * Metrics resolved by coprocessor class, then by method
+	 */
+	private final ClassValue<MethodTable<ResourceUsage>> resolvedMetrics = new ClassValue<MethodTable<ResourceUsage>>() {
+		@Override
+		protected MethodTable<ResourceUsage> computeValue(Class<?> type) {
+			return new MethodTable<>();
+		}
+	};
+
+	/**
+	 * Constructor
+	 *
+	 * @param metricsSystem  metric system where metrics will be registered
+	 * @param metricsContext metric context name
+	 */
+	public ResourceUsagePolicy(@NonNull MetricsSystem metricsSystem, @NonNull String metricsContext) {
+		this.source = ResourceUsageSource.register(metricsSystem, SOURCE_NAME + ",sub=" + metricsContext);
+		this.cpuTimeEnabled = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+		this.allocatedBytesEnabled = ALLOCATIONS != null && ALLOCATIONS.isThreadAllocatedMemoryEnabled();
+		if (!cpuTimeEnabled || !allocatedBytesEnabled) {
+			LOGGER.warn("Coprocessor resource usage is partially measured : CPU time [{}], allocated bytes [{}]",
+					cpuTimeEnabled ? "enabled" : "disabled", allocatedBytesEnabled ? "enabled" : "disabled");
+		}
+	}
+
+	@Override
+	public void beforeExecution(@NonNull InvocationContext context) {
+		SAMPLES.get().push(cpuTime(), allocatedBytes());
+	}
+
+	@Override
+	public void afterExecution(@NonNull InvocationContext context) {
+		long cpuTime = cpuTime();
+		long allocatedBytes = allocatedBytes();
+		Samples samples = SAMPLES.get();
+		samples.pop();
+		resolveMetric(context).addExecution(cpuTime - samples.cpuTime(), allocatedBytes - samples.allocatedBytes());
+	}
+
+	/**
+	 * Returns the CPU time of the current thread
+	 *
+	 * @return CPU time in nanoseconds, zero if not measured
+	 */
+	private long cpuTime() {
+		return cpuTimeEnabled ? THREADS.getCurrentThreadCpuTime() : 0L;
+	}
+
+	/**
+	 * Returns the bytes allocated by the current thread
+	 *
+	 * @return allocated bytes, zero if not measured
+	 */
+	private long allocatedBytes() {
+		return allocatedBytesEnabled ? ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0L;
+	}
+
+	/**
+	 * Resolve the metric of an invocation, metrics are resolved once per coprocessor class and method
+	 *
+	 * @param context invocation context
+	 * @return the invocation metric
+	 */
+	private ResourceUsage resolveMetric(@NonNull InvocationContext context) {
+		MethodTable<ResourceUsage> methods = resolvedMetrics.get(context.getTarget().getClass());
+		ResourceUsage metric = methods.get(context.getPolicyMethod());
+		if (metric == null) {
+			metric = methods.computeIfAbsent(context.getPolicyMethod(), m -> source.register(
+					"coprocessor_" + context.getTarget().getClass().getSimpleName()
+							+ "_method_" + context.getMethod().replaceAll("[:()]", "-")));
+		}
+		return metric;
+	}
+
+	/**
+	 * Samples of the executions in progress on a thread, executions of a thread are nested
+	 */
+	private static final class Samples {
+
+		/**
+		 * CPU time and allocated bytes pairs, by nesting depth
+		 */
+		private long[] values = new long[4];
+
+		/**
+		 * Number of executions in progress
+		 */
+		private int depth;
+
+		/**
+		 * Sample an execution start
+		 *
+		 * @param cpuTime        thread CPU time
+		 * @param allocatedBytes thread allocated bytes
+		 */
+		private void push(long cpuTime, long allocatedBytes) {
+			if (2 * depth + 2 > values.length) {
+				values = Arrays.copyOf(values, values.length * 2);
+			}
+			values[2 * depth] = cpuTime;
+			values[2 * depth + 1] = allocatedBytes;
+			depth++;
+		}
+
+		/**
+		 * Remove the last execution start, its values stay readable until the next push
+		 */
+		private void pop() {
+			depth--;
+		}
+
+		/**
+		 * Returns the thread CPU time of the last removed execution
+		 *
+		 * @return thread CPU time at the execution start
+		 */
+		private long cpuTime() {
+			return values[2 * depth];
+		}
+
+		/**
+		 * Returns the thread allocated bytes of the last removed execution
+		 *
+		 * @return thread allocated bytes at the execution start
+		 */
+		private long allocatedBytes() {
+			return values[2 * depth + 1];
+		}
+	}
+
+	/**
+	 * Source that reports all metrics of a context
+	 */
+	private static final class ResourceUsageSource implements MetricsSource {
+
+		/**
+		 * Source name
+		 */
+		private final String name;
+
+		/**
+		 * Metrics by name
+		 */
+		private final ConcurrentMap<String, ResourceUsage> metrics = new ConcurrentHashMap<>();
+
+		/**
+		 * Constructor
+		 *
+		 * @param name source name
+		 */
+		private ResourceUsageSource(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Returns the source of a context, register it if needed
+		 *
+		 * @param metricsSystem metric system where the source is registered
+		 * @param name          source name
+		 * @return the registered source
+		 */
+		private static ResourceUsageSource register(@NonNull MetricsSystem metricsSystem, @NonNull String name) {
+			synchronized (metricsSystem) {
+				MetricsSource source = metricsSystem.getSource(name);
+				if (source instanceof ResourceUsageSource) {
+					return (ResourceUsageSource) source;
+				}
+				return metricsSystem.register(name, "Coprocessors resource usage", new ResourceUsageSource(name));
+			}
+		}
+
+		/**
+		 * Returns the metric of a name, create it if needed
+		 *
+		 * @param metricName metric name
+		 * @return the metric
+		 */
+		private ResourceUsage register(@NonNull String metricName) {
+			return metrics.computeIfAbsent(metricName, ResourceUsage::new);
+		}
+
+		@Override
+		public void getMetrics(@NonNull MetricsCollector collector, boolean all) {
+			MetricsRecordBuilder record = collector.addRecord(name);
+			for (ResourceUsage metric : metrics.values()) {
+				metric.snapshot(record);
+			}
+		}
+	}
+
+	/**
+	 * Resource usage of a coprocessor method, recorded without locks by executing threads
+	 */
+	private static final class ResourceUsage {
+
+		/**
+		 * Metric name
+		 */
+		private final String name;
+
+		/**
+		 * Execution count
+		 */
+		private final LongAdder count = new LongAdder();
+
+		/**
+		 * Total CPU time (in nanoseconds)
+		 */
+		private final LongAdder cpuTime = new LongAdder();
+
+		/**
+		 * Maximum CPU time of an execution (in nanoseconds)
+		 */
+		private final LongAccumulator maxCpuTime = new LongAccumulator(Math::max, 0L);
+
+		/**
+		 * Total allocated bytes
+		 */
+		private final LongAdder allocatedBytes = new LongAdder();
+
+		/**
+		 * Maximum allocated bytes of an execution
+		 */
+		private final LongAccumulator maxAllocatedBytes = new LongAccumulator(Math::max, 0L);
+
+		/**
+		 * Constructor
+		 *
+		 * @param name metric name
+		 */
+		private ResourceUsage(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Add an execution
+		 *
+		 * @param executionCpuTime        CPU time of the execution (in nanoseconds)
+		 * @param executionAllocatedBytes bytes allocated by the execution
+		 */
+		public void addExecution(long executionCpuTime, long executionAllocatedBytes) {
+			count.increment();
+			cpuTime.add(executionCpuTime);
+			maxCpuTime.accumulate(executionCpuTime);
+			allocatedBytes.add(executionAllocatedBytes);
+			maxAllocatedBytes.accumulate(executionAllocatedBytes);
+		}
+
+		/**
+		 * Report the metric values, prefixed by the metric name
+		 *
+		 * @param record record where values are reported
+		 */
+		public void snapshot(@NonNull MetricsRecordBuilder record) {
+			long n = count.sum();
+			long cpu = cpuTime.sum();
+			long allocated = allocatedBytes.sum();
+
+			String prefix = name + "_";
+			record.addCounter(info(prefix + "Count", "Number of coprocessor method executions"), n)
+					.addCounter(info(prefix + "CpuTimeNs", "CPU time spent by coprocessor method (in nanoseconds)"), cpu)
+					.addGauge(info(prefix + "AvgCpuTimeNs", "Average CPU time of coprocessor method (in nanoseconds)"), n == 0 ? 0L : cpu / n)
+					.addGauge(info(prefix + "MaxCpuTimeNs", "Maximum CPU time of coprocessor method (in nanoseconds)"), maxCpuTime.get())
+					.addCounter(info(prefix + "AllocatedBytes", "Bytes allocated by coprocessor method"), allocated)
+					.addGauge(info(prefix + "AvgAllocatedBytes", "Average bytes allocated by coprocessor method"), n == 0 ? 0L : allocated / n)
+					.addGauge(info(prefix + "MaxAllocatedBytes", "Maximum bytes allocated by coprocessor method"), maxAllocatedBytes.get());
+		}
+	}
+}
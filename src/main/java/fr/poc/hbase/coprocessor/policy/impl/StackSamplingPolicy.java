@@ -0,0 +1,558 @@
+package fr.poc.hbase.coprocessor.policy.impl;
+
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.util.Threads;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slow calls stack sampling policy
+ * <p>
+ * Each executing thread publishes its current execution in a reusable slot, without allocation. A dedicated sampler
+ * thread periodically scans the slots : once an execution lasts more than a threshold, the stack of its executing
+ * thread is sampled at each scan until the execution ends. Samples are folded by stack and the slow call is kept in
+ * a bounded ring buffer, shared by policies of the same context and exposed through JMX
+ * ({@value #MBEAN_DOMAIN}:type=SlowCalls,name=&lt;context&gt;). Folded stacks are dumped in the flame-graph
+ * collapsed format (one "frame;frame;frame count" line per stack, root frame first).
+ * </p>
+ * {@link Thread#getStackTrace()} of an other thread needs a safepoint : keep the threshold well above usual execution
+ * times. Nested executions on the same thread are sampled as part of the outermost one.
+ */
+@Slf4j
+public class StackSamplingPolicy implements Policy {
+
+	/**
+	 * JMX domain of the slow calls buffers
+	 */
+	public static final String MBEAN_DOMAIN = "fr.poc.hbase.coprocessor";
+
+	/**
+	 * Maximum sampled frames of a stack, deeper frames (the nearest of the thread root) are dropped
+	 */
+	private static final int MAX_FRAMES = 128;
+
+	/**
+	 * Maximum distinct stacks of a slow call, other samples are counted as truncated
+	 */
+	private static final int MAX_STACKS = 256;
+
+	/**
+	 * Registered slow calls buffers, by JMX name (guarded by itself)
+	 */
+	private static final Map<String, SlowCalls> BUFFERS = new HashMap<>();
+
+	/**
+	 * Delay before sampling an execution
+	 */
+	private final long threshold;
+
+	/**
+	 * Delay between two samples
+	 */
+	private final long samplePeriod;
+
+	/**
+	 * the time unit of the threshold and the sample period
+	 */
+	@NonNull
+	private final TimeUnit unit;
+
+	/**
+	 * Slow calls of the policy context
+	 */
+	private final SlowCalls slowCalls;
+
+	/**
+	 * Indicates whenever the policy is closed
+	 */
+	private boolean closed;
+
+	/**
+	 * Execution slots of the threads that have executed a method
+	 */
+	private final Set<Slot> slots = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Execution slot of the current thread
+	 */
+	private final ThreadLocal<Slot> currentSlot = ThreadLocal.withInitial(() -> {
+		Slot slot = new Slot(Thread.currentThread());
+		slots.add(slot);
+		return slot;
+	});
+
+	/**
+	 * Sampler of the slow executions
+	 */
+	private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(
+			Threads.newDaemonThreadFactory("coprocessor-policy-stack-sampler"));
+
+	/**
+	 * Constructor
+	 *
+	 * @param context      context name, the JMX name of the slow calls buffer
+	 * @param capacity     number of slow calls kept by the context
+	 * @param threshold    delay before sampling an execution
+	 * @param samplePeriod delay between two samples
+	 * @param unit         the time unit of the threshold and the sample period
+	 */
+	public StackSamplingPolicy(@NonNull String context, int capacity, long threshold, long samplePeriod,
+							   @NonNull TimeUnit unit) {
+		if (capacity <= 0 || threshold < 0 || samplePeriod <= 0) {
+			throw new IllegalArgumentException("Invalid stack sampling capacity [" + capacity + "], threshold ["
+					+ threshold + "] or sample period [" + samplePeriod + "]");
+		}
+		this.threshold = threshold;
+		this.samplePeriod = samplePeriod;
+		this.unit = unit;
+		this.slowCalls = SlowCalls.acquire(MBEAN_DOMAIN + ":type=SlowCalls,name=" + ObjectName.quote(context), capacity);
+		sampler.scheduleWithFixedDelay(this::sample, samplePeriod, samplePeriod, unit);
+	}
+
+	/**
+	 * Returns the slow calls buffer of the policy
+	 *
+	 * @return the buffer, shared by policies of the same context
+	 */
+	public SlowCallsMXBean getSlowCalls() {
+		return slowCalls;
+	}
+
+	@Override
+	public void beforeExecution(@NonNull InvocationContext context) {
+		currentSlot.get().start(context.getTarget(), context.getMethod());
+	}
+
+	@Override
+	public void afterExecution(@NonNull InvocationContext context) {
+		SlowCall call = currentSlot.get().stop();
+		if (call != null) {
+			slowCalls.add(call);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			sampler.shutdownNow();
+			slowCalls.release();
+		}
+	}
+
+	/**
+	 * Scan the execution slots and sample the executions that last more than the threshold, run by the sampler
+	 */
+	private void sample() {
+		try {
+			long thresholdNanos = unit.toNanos(threshold);
+			for (Slot slot : slots) {
+				Thread thread = slot.thread.get();
+				if (thread == null || !thread.isAlive()) {
+					slots.remove(slot);
+				} else {
+					slot.sample(thread, thresholdNanos);
+				}
+			}
+		} catch (RuntimeException e) {
+			LOGGER.warn("Unable to sample slow executions", e);
+		}
+	}
+
+	/**
+	 * JMX view of the slow calls of a context
+	 */
+	public interface SlowCallsMXBean {
+
+		/**
+		 * Returns the number of slow calls the buffer keeps
+		 *
+		 * @return buffer capacity
+		 */
+		int getCapacity();
+
+		/**
+		 * Returns the slow calls in the buffer
+		 *
+		 * @return one description per slow call, from the oldest to the newest
+		 */
+		List<String> getSlowCalls();
+
+		/**
+		 * Dump the sampled stacks of all slow calls, aggregated by coprocessor method
+		 *
+		 * @return folded stacks in flame-graph collapsed format, rooted by the coprocessor method
+		 */
+		String dumpCollapsedStacks();
+
+		/**
+		 * Remove all slow calls
+		 */
+		void clear();
+	}
+
+	/**
+	 * Sampled slow call
+	 */
+	private static final class SlowCall {
+
+		/**
+		 * End time (in ms since epoch)
+		 */
+		private final long endTime;
+
+		/**
+		 * Coprocessor class name
+		 */
+		private final String coprocessor;
+
+		/**
+		 * Coprocessor method
+		 */
+		private final String method;
+
+		/**
+		 * Execution time (in ms)
+		 */
+		private final long executionTime;
+
+		/**
+		 * Samples by folded stack
+		 */
+		private final Map<String, Integer> stacks;
+
+		/**
+		 * Constructor
+		 *
+		 * @param coprocessor   coprocessor class name
+		 * @param method        coprocessor method
+		 * @param executionTime execution time (in ms)
+		 * @param stacks        samples by folded stack
+		 */
+		private SlowCall(String coprocessor, String method, long executionTime, Map<String, Integer> stacks) {
+			this.endTime = System.currentTimeMillis();
+			this.coprocessor = coprocessor;
+			this.method = method;
+			this.executionTime = executionTime;
+			this.stacks = stacks;
+		}
+
+		@Override
+		public String toString() {
+			int samples = 0;
+			for (int count : stacks.values()) {
+				samples += count;
+			}
+			return String.format("%tFT%<tT.%<tL %s %s %dms %d samples", endTime, coprocessor, method, executionTime,
+					samples);
+		}
+	}
+
+	/**
+	 * Ring buffer of the slow calls of a context, registered in JMX while a policy uses it
+	 */
+	private static final class SlowCalls implements SlowCallsMXBean {
+
+		/**
+		 * JMX name
+		 */
+		private final String name;
+
+		/**
+		 * Slow calls, ring buffer (guarded by this)
+		 */
+		private SlowCall[] calls;
+
+		/**
+		 * Index of the next slow call (guarded by this)
+		 */
+		private long next;
+
+		/**
+		 * Number of policies using the buffer (guarded by {@link #BUFFERS})
+		 */
+		private int references;
+
+		/**
+		 * Constructor
+		 *
+		 * @param name     JMX name
+		 * @param capacity number of slow calls kept
+		 */
+		private SlowCalls(String name, int capacity) {
+			this.name = name;
+			this.calls = new SlowCall[capacity];
+		}
+
+		/**
+		 * Returns the buffer of a JMX name, create and register it if needed
+		 *
+		 * @param name     JMX name
+		 * @param capacity number of slow calls kept
+		 * @return the buffer, it must be released once no more used
+		 */
+		private static SlowCalls acquire(String name, int capacity) {
+			synchronized (BUFFERS) {
+				SlowCalls buffer = BUFFERS.get(name);
+				if (buffer == null) {
+					buffer = new SlowCalls(name, capacity);
+					try {
+						ManagementFactory.getPlatformMBeanServer().registerMBean(buffer, new ObjectName(name));
+					} catch (JMException e) {
+						LOGGER.warn("Unable to register slow calls MBean [{}]", name, e);
+					}
+					BUFFERS.put(name, buffer);
+				} else {
+					buffer.resize(capacity);
+				}
+				buffer.references++;
+				return buffer;
+			}
+		}
+
+		/**
+		 * Release the buffer, unregister it once no more used
+		 */
+		private void release() {
+			synchronized (BUFFERS) {
+				if (--references == 0) {
+					BUFFERS.remove(name);
+					try {
+						ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(name));
+					} catch (JMException e) {
+						LOGGER.debug("Unable to unregister slow calls MBean [{}]", name, e);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Change the buffer capacity, keep the newest slow calls
+		 *
+		 * @param capacity number of slow calls kept
+		 */
+		private synchronized void resize(int capacity) {
+			if (capacity != calls.length) {
+				List<SlowCall> current = getCalls();
+				calls = new SlowCall[capacity];
+				next = 0L;
+				for (SlowCall call : current.subList(Math.max(0, current.size() - capacity), current.size())) {
+					add(call);
+				}
+			}
+		}
+
+		/**
+		 * Add a slow call, the oldest one is dropped when the buffer is full
+		 *
+		 * @param call slow call
+		 */
+		private synchronized void add(SlowCall call) {
+			calls[(int) (next++ % calls.length)] = call;
+		}
+
+		/**
+		 * Returns the slow calls
+		 *
+		 * @return slow calls, from the oldest to the newest
+		 */
+		private synchronized List<SlowCall> getCalls() {
+			List<SlowCall> result = new ArrayList<>(calls.length);
+			for (long i = Math.max(0L, next - calls.length); i < next; i++) {
+				result.add(calls[(int) (i % calls.length)]);
+			}
+			return result;
+		}
+
+		@Override
+		public synchronized int getCapacity() {
+			return calls.length;
+		}
+
+		@Override
+		public List<String> getSlowCalls() {
+			List<String> result = new ArrayList<>();
+			for (SlowCall call : getCalls()) {
+				result.add(call.toString());
+			}
+			return result;
+		}
+
+		@Override
+		public String dumpCollapsedStacks() {
+			Map<String, Long> folded = new TreeMap<>();
+			for (SlowCall call : getCalls()) {
+				String root = call.coprocessor + ":" + call.method;
+				for (Map.Entry<String, Integer> stack : call.stacks.entrySet()) {
+					folded.merge(root + ";" + stack.getKey(), (long) stack.getValue(), Long::sum);
+				}
+			}
+			StringBuilder result = new StringBuilder();
+			for (Map.Entry<String, Long> stack : folded.entrySet()) {
+				result.append(stack.getKey()).append(' ').append(stack.getValue()).append('\n');
+			}
+			return result.toString();
+		}
+
+		@Override
+		public synchronized void clear() {
+			calls = new SlowCall[calls.length];
+			next = 0L;
+		}
+	}
+
+	/**
+	 * Execution slot of a thread : the execution the thread is running, reused by its successive executions.
+	 * Static, so the thread local value does not retain the policy
+	 */
+	private static final class Slot {
+
+		/**
+		 * Executing thread, weakly referenced so ended threads could be collected
+		 */
+		private final WeakReference<Thread> thread;
+
+		/**
+		 * Nested executions depth, only accessed by the executing thread
+		 */
+		private int depth;
+
+		/**
+		 * Current execution identifier, changes at each execution start (guarded by this)
+		 */
+		private long execution;
+
+		/**
+		 * Indicates whenever an execution is running (guarded by this)
+		 */
+		private boolean running;
+
+		/**
+		 * Coprocessor of the current execution (guarded by this)
+		 */
+		private Object coprocessor;
+
+		/**
+		 * Method of the current execution (guarded by this)
+		 */
+		private String method;
+
+		/**
+		 * Start time of the current execution (in {@link System#nanoTime()} reference, guarded by this)
+		 */
+		private long startTime;
+
+		/**
+		 * Samples by folded stack of the current execution, null until it has been sampled (guarded by this)
+		 */
+		private Map<String, Integer> stacks;
+
+		/**
+		 * Constructor
+		 *
+		 * @param thread executing thread
+		 */
+		private Slot(Thread thread) {
+			this.thread = new WeakReference<>(thread);
+		}
+
+		/**
+		 * Publish an execution start, must be called by the executing thread
+		 *
+		 * @param coprocessor coprocessor
+		 * @param method      coprocessor method
+		 */
+		private void start(Object coprocessor, String method) {
+			if (depth++ > 0) {
+				return;
+			}
+			synchronized (this) {
+				this.execution++;
+				this.running = true;
+				this.coprocessor = coprocessor;
+				this.method = method;
+				this.startTime = System.nanoTime();
+			}
+		}
+
+		/**
+		 * Publish an execution end, must be called by the executing thread
+		 *
+		 * @return the slow call if the execution has been sampled, null otherwise
+		 */
+		private SlowCall stop() {
+			if (depth == 0 || --depth > 0) {
+				return null;
+			}
+			String coprocessorName;
+			String methodName;
+			long executionTime;
+			Map<String, Integer> sampled;
+			synchronized (this) {
+				running = false;
+				sampled = stacks;
+				coprocessorName = coprocessor.getClass().getName();
+				methodName = method;
+				executionTime = System.nanoTime() - startTime;
+				stacks = null;
+				coprocessor = null;
+				method = null;
+			}
+			return sampled == null ? null
+					: new SlowCall(coprocessorName, methodName, TimeUnit.NANOSECONDS.toMillis(executionTime), sampled);
+		}
+
+		/**
+		 * Sample the stack of the current execution if it lasts more than the threshold, run by the sampler
+		 *
+		 * @param thread         executing thread
+		 * @param thresholdNanos threshold (in ns)
+		 */
+		private void sample(Thread thread, long thresholdNanos) {
+			long sampled;
+			synchronized (this) {
+				if (!running || System.nanoTime() - startTime < thresholdNanos) {
+					return;
+				}
+				sampled = execution;
+			}
+			StackTraceElement[] frames = thread.getStackTrace();
+			StringBuilder folded = new StringBuilder();
+			for (int i = Math.min(frames.length, MAX_FRAMES) - 1; i >= 0; i--) {
+				if (folded.length() > 0) {
+					folded.append(';');
+				}
+				folded.append(frames[i].getClassName()).append('.').append(frames[i].getMethodName());
+			}
+			synchronized (this) {
+				if (!running || execution != sampled) {
+					// The thread already executes something else
+					return;
+				}
+				if (stacks == null) {
+					stacks = new HashMap<>();
+				}
+				String stack = stacks.size() < MAX_STACKS || stacks.containsKey(folded.toString())
+						? folded.toString() : "[truncated]";
+				stacks.merge(stack, 1, Integer::sum);
+			}
+		}
+	}
+}
@@ -1,22 +1,33 @@
 package fr.poc.hbase.coprocessor.policy.impl;
 
+import fr.poc.hbase.coprocessor.policy.Deadline;
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
 import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.util.HashedWheelTimer;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Execution Timeout policy
+ * <p>
+ * Timeouts are scheduled on the shared {@link HashedWheelTimer} and cancelled as soon as the execution ends.
+ * </p>
+ * Once the timeout expires, the invocation {@link Deadline} is expired and the caller immediately receives an error.
+ * The executing thread is expected to stop cooperatively by polling its {@link Deadline},
+ * it is only interrupted if it is still running after a grace period.
  */
 @Slf4j
-@RequiredArgsConstructor
 public class TimeoutPolicy implements Policy {
 
+	/**
+	 * Timeout of the current invocation
+	 */
+	private static final InvocationContext.Key<HashedWheelTimer.Timeout> INVOCATION_TIMEOUT =
+			InvocationContext.newKey("timeout");
+
 	/**
 	 * the execution timeout
 	 */
@@ -29,16 +40,67 @@ public class TimeoutPolicy implements Policy {
 	private final TimeUnit timeoutUnit;
 
 	/**
-	 * Scheduled service able to timeout too long tasks
+	 * Delay (in timeout unit) between the timeout and the interruption of a still running execution,
+	 * negative to never interrupt
 	 */
-	private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+	private final long gracePeriod;
+
+	/**
+	 * Timer able to timeout too long tasks
+	 */
+	private final HashedWheelTimer timer = HashedWheelTimer.getShared();
+
+	/**
+	 * Constructor, still running executions are interrupted after a grace period equals to the timeout
+	 *
+	 * @param timeout     the execution timeout
+	 * @param timeoutUnit the time unit of the timeout
+	 */
+	public TimeoutPolicy(long timeout, @NonNull TimeUnit timeoutUnit) {
+		this(timeout, timeoutUnit, timeout);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param timeout     the execution timeout
+	 * @param timeoutUnit the time unit of the timeout
+	 * @param gracePeriod delay (in timeout unit) before interrupting a still running execution, negative to never interrupt
+	 */
+	public TimeoutPolicy(long timeout, @NonNull TimeUnit timeoutUnit, long gracePeriod) {
+		this.timeout = timeout;
+		this.timeoutUnit = timeoutUnit;
+		this.gracePeriod = gracePeriod;
+	}
 
 	@Override
-	public <T> void running(@NonNull T object, @NonNull String method, @NonNull Object[] args, @NonNull Future<?> future) {
-		executor.schedule(() -> {
-			if (future.cancel(true)) {
+	public void running(@NonNull InvocationContext context, @NonNull Future<?> future) {
+		Object object = context.getTarget();
+		String method = context.getMethod();
+		Deadline deadline = Deadline.current();
+		deadline.expireIn(timeout, timeoutUnit);
+		context.set(INVOCATION_TIMEOUT, timer.schedule(() -> {
+			deadline.expire();
+			if (future.cancel(false)) {
 				LOGGER.info("Method [{}] on [{}] has been cancelled after [{} {}]", method, object, timeout, timeoutUnit.toString());
+				if (gracePeriod >= 0) {
+					timer.schedule(() -> {
+						if (deadline.interrupt()) {
+							LOGGER.warn("Method [{}] on [{}] has been interrupted, it didn't stop [{} {}] after its deadline",
+									method, object, gracePeriod, timeoutUnit.toString());
+						}
+					}, gracePeriod, timeoutUnit);
+				}
 			}
-		}, timeout, timeoutUnit);
+		}, timeout, timeoutUnit));
+	}
+
+	@Override
+	public void afterRun(@NonNull InvocationContext context) {
+		HashedWheelTimer.Timeout current = context.get(INVOCATION_TIMEOUT);
+		if (current != null) {
+			context.set(INVOCATION_TIMEOUT, null);
+			current.cancel();
+		}
 	}
 }
@@ -1,6 +1,7 @@
 package fr.poc.hbase.coprocessor.policy.proxy;
 
 import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
 import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +21,10 @@ import java.util.List;
 @Slf4j
 public class CoprocessorPolicyProxy<T extends Coprocessor> extends PolicyVerifier<T> implements Coprocessor {
 
+	// Descriptors of all methods wrapped with policies
+	private static final PolicyMethod START = PolicyMethod.of("start");
+	private static final PolicyMethod STOP = PolicyMethod.of("stop");
+
 	/**
 	 * Constructor
 	 *
@@ -32,13 +37,13 @@ public class CoprocessorPolicyProxy<T extends Coprocessor> extends PolicyVerifie
 
 	@Override
 	public void start(CoprocessorEnvironment env) throws IOException {
-		runWithPolicies("start", () -> getAdaptee().start(env), env);
+		runWithPolicies(START, () -> getAdaptee().start(env), env);
 	}
 
 	@Override
 	public void stop(CoprocessorEnvironment env) throws IOException {
 		try {
-			runWithPolicies("stop", () -> getAdaptee().stop(env), env);
+			runWithPolicies(STOP, () -> getAdaptee().stop(env), env);
 		} finally {
 			close();
 		}
@@ -29,7 +29,7 @@ public class CoprocessorServicePolicyProxy<T extends CoprocessorService & Coproc
 
 	@Override
 	public Service getService() {
-		return new ServicePolicyProxy(getAdaptee().getService(), getPolicies());
+		return new ServicePolicyProxy(getAdaptee().getService(), getPolicies(), getExecutor());
 	}
 
 
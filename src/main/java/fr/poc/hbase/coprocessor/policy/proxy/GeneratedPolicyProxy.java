@@ -0,0 +1,70 @@
+package fr.poc.hbase.coprocessor.policy.proxy;
+
+import com.google.protobuf.Service;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyInvocationHandler;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.executor.BoundedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.util.PolicyProxyFactory;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.Coprocessor;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Base class of the proxies generated by {@link PolicyProxyFactory} (agent path).
+ * <p>
+ * Generated proxies are written like the hand-written ones : each method calls the fixed arity
+ * {@link #runWithPolicies} with its own {@link fr.poc.hbase.coprocessor.policy.PolicyMethod} and a callable that
+ * directly calls the adaptee method. This class holds the parts that are not generated, they behave like
+ * {@link PolicyInvocationHandler}.
+ * </p>
+ *
+ * @param <T> Coprocessor type
+ */
+@Slf4j
+public abstract class GeneratedPolicyProxy<T extends Coprocessor> extends PolicyVerifier<T> {
+
+	/**
+	 * How coprocessor services are executed when a policy watches them
+	 */
+	@NonNull
+	private final ExecutionMode serviceExecutionMode;
+
+	/**
+	 * Constructor
+	 *
+	 * @param adaptee              coprocessor adaptee
+	 * @param policies             policies to check
+	 * @param executor             executor where methods are executed when a policy needs to watch the execution
+	 * @param serviceExecutionMode how coprocessor services are executed when a policy watches them
+	 */
+	protected GeneratedPolicyProxy(@NonNull T adaptee, @NonNull List<Policy> policies,
+								   @NonNull BoundedPolicyExecutor executor, @NonNull ExecutionMode serviceExecutionMode) {
+		super(adaptee, policies, executor);
+		this.serviceExecutionMode = serviceExecutionMode;
+	}
+
+	/**
+	 * Wrap a service provided by the adaptee
+	 *
+	 * @param service coprocessor service
+	 * @return service with policies
+	 */
+	protected final Service wrapService(@NonNull Service service) {
+		LOGGER.debug("Create a ServicePolicyProxy on CoprocessorService [{}]", service);
+		releaseWithAdaptee(service);
+		return new ServicePolicyProxy(service, getPolicies(), getExecutor(), serviceExecutionMode);
+	}
+
+	/**
+	 * Log an error of a method that does not declare exceptions, the method returns its default value
+	 *
+	 * @param ioException method error
+	 */
+	protected static void onUndeclaredError(IOException ioException) {
+		LOGGER.info("An unexpected error occurred in Coprocessor method, see root cause for details", ioException);
+	}
+}
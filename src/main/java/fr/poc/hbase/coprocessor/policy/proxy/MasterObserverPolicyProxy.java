@@ -1,6 +1,7 @@
 package fr.poc.hbase.coprocessor.policy.proxy;
 
 import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
 import lombok.NonNull;
 import org.apache.hadoop.hbase.*;
 import org.apache.hadoop.hbase.coprocessor.MasterCoprocessorEnvironment;
@@ -23,6 +24,102 @@ import java.util.List;
  */
 public class MasterObserverPolicyProxy<T extends MasterObserver> extends CoprocessorPolicyProxy<T> implements MasterObserver {
 
+	// Descriptors of all methods wrapped with policies
+	private static final PolicyMethod PRE_CREATE_TABLE = PolicyMethod.of("MasterObserver:preCreateTable");
+	private static final PolicyMethod POST_CREATE_TABLE = PolicyMethod.of("MasterObserver:postCreateTable");
+	private static final PolicyMethod PRE_CREATE_TABLE_HANDLER = PolicyMethod.of("MasterObserver:preCreateTableHandler");
+	private static final PolicyMethod POST_CREATE_TABLE_HANDLER = PolicyMethod.of("MasterObserver:postCreateTableHandler");
+	private static final PolicyMethod PRE_DELETE_TABLE = PolicyMethod.of("MasterObserver:preDeleteTable");
+	private static final PolicyMethod POST_DELETE_TABLE = PolicyMethod.of("MasterObserver:postDeleteTable");
+	private static final PolicyMethod PRE_DELETE_TABLE_HANDLER = PolicyMethod.of("MasterObserver:preDeleteTableHandler");
+	private static final PolicyMethod POST_DELETE_TABLE_HANDLER = PolicyMethod.of("MasterObserver:postDeleteTableHandler");
+	private static final PolicyMethod PRE_TRUNCATE_TABLE = PolicyMethod.of("MasterObserver:preTruncateTable");
+	private static final PolicyMethod POST_TRUNCATE_TABLE = PolicyMethod.of("MasterObserver:postTruncateTable");
+	private static final PolicyMethod PRE_TRUNCATE_TABLE_HANDLER = PolicyMethod.of("MasterObserver:preTruncateTableHandler");
+	private static final PolicyMethod POST_TRUNCATE_TABLE_HANDLER = PolicyMethod.of("MasterObserver:postTruncateTableHandler");
+	private static final PolicyMethod PRE_MODIFY_TABLE = PolicyMethod.of("MasterObserver:preModifyTable");
+	private static final PolicyMethod POST_MODIFY_TABLE = PolicyMethod.of("MasterObserver:postModifyTable");
+	private static final PolicyMethod PRE_MODIFY_TABLE_HANDLER = PolicyMethod.of("MasterObserver:preModifyTableHandler");
+	private static final PolicyMethod POST_MODIFY_TABLE_HANDLER = PolicyMethod.of("MasterObserver:postModifyTableHandler");
+	private static final PolicyMethod PRE_ADD_COLUMN = PolicyMethod.of("MasterObserver:preAddColumn");
+	private static final PolicyMethod POST_ADD_COLUMN = PolicyMethod.of("MasterObserver:postAddColumn");
+	private static final PolicyMethod PRE_ADD_COLUMN_HANDLER = PolicyMethod.of("MasterObserver:preAddColumnHandler");
+	private static final PolicyMethod POST_ADD_COLUMN_HANDLER = PolicyMethod.of("MasterObserver:postAddColumnHandler");
+	private static final PolicyMethod PRE_MODIFY_COLUMN = PolicyMethod.of("MasterObserver:preModifyColumn");
+	private static final PolicyMethod POST_MODIFY_COLUMN = PolicyMethod.of("MasterObserver:postModifyColumn");
+	private static final PolicyMethod PRE_MODIFY_COLUMN_HANDLER = PolicyMethod.of("MasterObserver:preModifyColumnHandler");
+	private static final PolicyMethod POST_MODIFY_COLUMN_HANDLER = PolicyMethod.of("MasterObserver:postModifyColumnHandler");
+	private static final PolicyMethod PRE_DELETE_COLUMN = PolicyMethod.of("MasterObserver:preDeleteColumn");
+	private static final PolicyMethod POST_DELETE_COLUMN = PolicyMethod.of("MasterObserver:postDeleteColumn");
+	private static final PolicyMethod PRE_DELETE_COLUMN_HANDLER = PolicyMethod.of("MasterObserver:preDeleteColumnHandler");
+	private static final PolicyMethod POST_DELETE_COLUMN_HANDLER = PolicyMethod.of("MasterObserver:postDeleteColumnHandler");
+	private static final PolicyMethod PRE_ENABLE_TABLE = PolicyMethod.of("MasterObserver:preEnableTable");
+	private static final PolicyMethod POST_ENABLE_TABLE = PolicyMethod.of("MasterObserver:postEnableTable");
+	private static final PolicyMethod PRE_ENABLE_TABLE_HANDLER = PolicyMethod.of("MasterObserver:preEnableTableHandler");
+	private static final PolicyMethod POST_ENABLE_TABLE_HANDLER = PolicyMethod.of("MasterObserver:postEnableTableHandler");
+	private static final PolicyMethod PRE_DISABLE_TABLE = PolicyMethod.of("MasterObserver:preDisableTable");
+	private static final PolicyMethod POST_DISABLE_TABLE = PolicyMethod.of("MasterObserver:postDisableTable");
+	private static final PolicyMethod PRE_DISABLE_TABLE_HANDLER = PolicyMethod.of("MasterObserver:preDisableTableHandler");
+	private static final PolicyMethod POST_DISABLE_TABLE_HANDLER = PolicyMethod.of("MasterObserver:postDisableTableHandler");
+	private static final PolicyMethod PRE_MOVE = PolicyMethod.of("MasterObserver:preMove");
+	private static final PolicyMethod POST_MOVE = PolicyMethod.of("MasterObserver:postMove");
+	private static final PolicyMethod PRE_ABORT_PROCEDURE = PolicyMethod.of("MasterObserver:preAbortProcedure");
+	private static final PolicyMethod POST_ABORT_PROCEDURE = PolicyMethod.of("MasterObserver:postAbortProcedure");
+	private static final PolicyMethod PRE_LIST_PROCEDURES = PolicyMethod.of("MasterObserver:preListProcedures");
+	private static final PolicyMethod POST_LIST_PROCEDURES = PolicyMethod.of("MasterObserver:postListProcedures");
+	private static final PolicyMethod PRE_ASSIGN = PolicyMethod.of("MasterObserver:preAssign");
+	private static final PolicyMethod POST_ASSIGN = PolicyMethod.of("MasterObserver:postAssign");
+	private static final PolicyMethod PRE_UNASSIGN = PolicyMethod.of("MasterObserver:preUnassign");
+	private static final PolicyMethod POST_UNASSIGN = PolicyMethod.of("MasterObserver:postUnassign");
+	private static final PolicyMethod PRE_REGION_OFFLINE = PolicyMethod.of("MasterObserver:preRegionOffline");
+	private static final PolicyMethod POST_REGION_OFFLINE = PolicyMethod.of("MasterObserver:postRegionOffline");
+	private static final PolicyMethod PRE_BALANCE = PolicyMethod.of("MasterObserver:preBalance");
+	private static final PolicyMethod POST_BALANCE = PolicyMethod.of("MasterObserver:postBalance");
+	private static final PolicyMethod PRE_BALANCE_SWITCH = PolicyMethod.of("MasterObserver:preBalanceSwitch");
+	private static final PolicyMethod POST_BALANCE_SWITCH = PolicyMethod.of("MasterObserver:postBalanceSwitch");
+	private static final PolicyMethod PRE_SHUTDOWN = PolicyMethod.of("MasterObserver:preShutdown");
+	private static final PolicyMethod PRE_STOP_MASTER = PolicyMethod.of("MasterObserver:preStopMaster");
+	private static final PolicyMethod POST_START_MASTER = PolicyMethod.of("MasterObserver:postStartMaster");
+	private static final PolicyMethod PRE_MASTER_INITIALIZATION = PolicyMethod.of("MasterObserver:preMasterInitialization");
+	private static final PolicyMethod PRE_SNAPSHOT = PolicyMethod.of("MasterObserver:preSnapshot");
+	private static final PolicyMethod POST_SNAPSHOT = PolicyMethod.of("MasterObserver:postSnapshot");
+	private static final PolicyMethod PRE_LIST_SNAPSHOT = PolicyMethod.of("MasterObserver:preListSnapshot");
+	private static final PolicyMethod POST_LIST_SNAPSHOT = PolicyMethod.of("MasterObserver:postListSnapshot");
+	private static final PolicyMethod PRE_CLONE_SNAPSHOT = PolicyMethod.of("MasterObserver:preCloneSnapshot");
+	private static final PolicyMethod POST_CLONE_SNAPSHOT = PolicyMethod.of("MasterObserver:postCloneSnapshot");
+	private static final PolicyMethod PRE_RESTORE_SNAPSHOT = PolicyMethod.of("MasterObserver:preRestoreSnapshot");
+	private static final PolicyMethod POST_RESTORE_SNAPSHOT = PolicyMethod.of("MasterObserver:postRestoreSnapshot");
+	private static final PolicyMethod PRE_DELETE_SNAPSHOT = PolicyMethod.of("MasterObserver:preDeleteSnapshot");
+	private static final PolicyMethod POST_DELETE_SNAPSHOT = PolicyMethod.of("MasterObserver:postDeleteSnapshot");
+	private static final PolicyMethod PRE_GET_TABLE_DESCRIPTORS_DEPRECATED = PolicyMethod.of("MasterObserver:preGetTableDescriptors(deprecated)");
+	private static final PolicyMethod POST_GET_TABLE_DESCRIPTORS_DEPRECATED = PolicyMethod.of("MasterObserver:postGetTableDescriptors(deprecated)");
+	private static final PolicyMethod PRE_GET_TABLE_DESCRIPTORS = PolicyMethod.of("MasterObserver:preGetTableDescriptors");
+	private static final PolicyMethod POST_GET_TABLE_DESCRIPTORS = PolicyMethod.of("MasterObserver:postGetTableDescriptors");
+	private static final PolicyMethod PRE_GET_TABLE_NAMES = PolicyMethod.of("MasterObserver:preGetTableNames");
+	private static final PolicyMethod POST_GET_TABLE_NAMES = PolicyMethod.of("MasterObserver:postGetTableNames");
+	private static final PolicyMethod PRE_CREATE_NAMESPACE = PolicyMethod.of("MasterObserver:preCreateNamespace");
+	private static final PolicyMethod POST_CREATE_NAMESPACE = PolicyMethod.of("MasterObserver:postCreateNamespace");
+	private static final PolicyMethod PRE_DELETE_NAMESPACE = PolicyMethod.of("MasterObserver:preDeleteNamespace");
+	private static final PolicyMethod POST_DELETE_NAMESPACE = PolicyMethod.of("MasterObserver:postDeleteNamespace");
+	private static final PolicyMethod PRE_MODIFY_NAMESPACE = PolicyMethod.of("MasterObserver:preModifyNamespace");
+	private static final PolicyMethod POST_MODIFY_NAMESPACE = PolicyMethod.of("MasterObserver:postModifyNamespace");
+	private static final PolicyMethod PRE_GET_NAMESPACE_DESCRIPTOR = PolicyMethod.of("MasterObserver:preGetNamespaceDescriptor");
+	private static final PolicyMethod POST_GET_NAMESPACE_DESCRIPTOR = PolicyMethod.of("MasterObserver:postGetNamespaceDescriptor");
+	private static final PolicyMethod PRE_LIST_NAMESPACE_DESCRIPTORS = PolicyMethod.of("MasterObserver:preListNamespaceDescriptors");
+	private static final PolicyMethod POST_LIST_NAMESPACE_DESCRIPTORS = PolicyMethod.of("MasterObserver:postListNamespaceDescriptors");
+	private static final PolicyMethod PRE_TABLE_FLUSH = PolicyMethod.of("MasterObserver:preTableFlush");
+	private static final PolicyMethod POST_TABLE_FLUSH = PolicyMethod.of("MasterObserver:postTableFlush");
+	private static final PolicyMethod PRE_SET_USER_QUOTA = PolicyMethod.of("MasterObserver:preSetUserQuota");
+	private static final PolicyMethod POST_SET_USER_QUOTA = PolicyMethod.of("MasterObserver:postSetUserQuota");
+	private static final PolicyMethod PRE_SET_USER_QUOTA_TABLE = PolicyMethod.of("MasterObserver:preSetUserQuota(Table)");
+	private static final PolicyMethod POST_SET_USER_QUOTA_TABLE = PolicyMethod.of("MasterObserver:postSetUserQuota(Table)");
+	private static final PolicyMethod PRE_SET_USER_QUOTA_NAMESPACE = PolicyMethod.of("MasterObserver:preSetUserQuota(namespace)");
+	private static final PolicyMethod POST_SET_USER_QUOTA_NAMESPACE = PolicyMethod.of("MasterObserver:postSetUserQuota(namespace)");
+	private static final PolicyMethod PRE_SET_TABLE_QUOTA = PolicyMethod.of("MasterObserver:preSetTableQuota");
+	private static final PolicyMethod POST_SET_TABLE_QUOTA = PolicyMethod.of("MasterObserver:postSetTableQuota");
+	private static final PolicyMethod PRE_SET_NAMESPACE_QUOTA = PolicyMethod.of("MasterObserver:preSetNamespaceQuota");
+	private static final PolicyMethod POST_SET_NAMESPACE_QUOTA = PolicyMethod.of("MasterObserver:postSetNamespaceQuota");
+
 	/**
 	 * Constructor
 	 *
@@ -35,49 +132,49 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 
 	@Override
 	public void preCreateTable(ObserverContext<MasterCoprocessorEnvironment> ctx, HTableDescriptor desc, HRegionInfo[] regions) throws IOException {
-		runWithPolicies("MasterObserver:preCreateTable",
+		runWithPolicies(PRE_CREATE_TABLE,
 				() -> getAdaptee().preCreateTable(argumentWithPolicies(ctx), desc, regions),
 				ctx, desc, regions);
 	}
 
 	@Override
 	public void postCreateTable(ObserverContext<MasterCoprocessorEnvironment> ctx, HTableDescriptor desc, HRegionInfo[] regions) throws IOException {
-		runWithPolicies("MasterObserver:postCreateTable",
+		runWithPolicies(POST_CREATE_TABLE,
 				() -> getAdaptee().postCreateTable(argumentWithPolicies(ctx), desc, regions),
 				ctx, desc, regions);
 	}
 
 	@Override
 	public void preCreateTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx, HTableDescriptor desc, HRegionInfo[] regions) throws IOException {
-		runWithPolicies("MasterObserver:preCreateTableHandler",
+		runWithPolicies(PRE_CREATE_TABLE_HANDLER,
 				() -> getAdaptee().preCreateTableHandler(argumentWithPolicies(ctx), desc, regions),
 				ctx, desc, regions);
 	}
 
 	@Override
 	public void postCreateTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx, HTableDescriptor desc, HRegionInfo[] regions) throws IOException {
-		runWithPolicies("MasterObserver:postCreateTableHandler",
+		runWithPolicies(POST_CREATE_TABLE_HANDLER,
 				() -> getAdaptee().postCreateTableHandler(argumentWithPolicies(ctx), desc, regions),
 				ctx, desc, regions);
 	}
 
 	@Override
 	public void preDeleteTable(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:preDeleteTable",
+		runWithPolicies(PRE_DELETE_TABLE,
 				() -> getAdaptee().preDeleteTable(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
 
 	@Override
 	public void postDeleteTable(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:postDeleteTable",
+		runWithPolicies(POST_DELETE_TABLE,
 				() -> getAdaptee().postDeleteTable(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
 
 	@Override
 	public void preDeleteTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:preDeleteTableHandler",
+		runWithPolicies(PRE_DELETE_TABLE_HANDLER,
 				() -> getAdaptee().preDeleteTableHandler(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
@@ -85,7 +182,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postDeleteTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									   TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:postDeleteTableHandler",
+		runWithPolicies(POST_DELETE_TABLE_HANDLER,
 				() -> getAdaptee().postDeleteTableHandler(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
@@ -93,7 +190,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preTruncateTable(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								 TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:preTruncateTable",
+		runWithPolicies(PRE_TRUNCATE_TABLE,
 				() -> getAdaptee().preTruncateTable(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
@@ -101,7 +198,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postTruncateTable(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								  TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:postTruncateTable",
+		runWithPolicies(POST_TRUNCATE_TABLE,
 				() -> getAdaptee().postTruncateTable(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
@@ -109,7 +206,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preTruncateTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx,
 										TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:preTruncateTableHandler",
+		runWithPolicies(PRE_TRUNCATE_TABLE_HANDLER,
 				() -> getAdaptee().preTruncateTableHandler(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
@@ -117,7 +214,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postTruncateTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx,
 										 TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:postTruncateTableHandler",
+		runWithPolicies(POST_TRUNCATE_TABLE_HANDLER,
 				() -> getAdaptee().postTruncateTableHandler(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
@@ -125,7 +222,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preModifyTable(ObserverContext<MasterCoprocessorEnvironment> ctx,
 							   TableName tableName, HTableDescriptor htd) throws IOException {
-		runWithPolicies("MasterObserver:preModifyTable",
+		runWithPolicies(PRE_MODIFY_TABLE,
 				() -> getAdaptee().preModifyTable(argumentWithPolicies(ctx), tableName, htd),
 				ctx, tableName, htd);
 	}
@@ -133,7 +230,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postModifyTable(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								TableName tableName, HTableDescriptor htd) throws IOException {
-		runWithPolicies("MasterObserver:postModifyTable",
+		runWithPolicies(POST_MODIFY_TABLE,
 				() -> getAdaptee().postModifyTable(argumentWithPolicies(ctx), tableName, htd),
 				ctx, tableName, htd);
 	}
@@ -141,7 +238,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preModifyTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									  TableName tableName, HTableDescriptor htd) throws IOException {
-		runWithPolicies("MasterObserver:preModifyTableHandler",
+		runWithPolicies(PRE_MODIFY_TABLE_HANDLER,
 				() -> getAdaptee().preModifyTableHandler(argumentWithPolicies(ctx), tableName, htd),
 				ctx, tableName, htd);
 	}
@@ -149,7 +246,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postModifyTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									   TableName tableName, HTableDescriptor htd) throws IOException {
-		runWithPolicies("MasterObserver:postModifyTableHandler",
+		runWithPolicies(POST_MODIFY_TABLE_HANDLER,
 				() -> getAdaptee().postModifyTableHandler(argumentWithPolicies(ctx), tableName, htd),
 				ctx, tableName, htd);
 	}
@@ -157,7 +254,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preAddColumn(ObserverContext<MasterCoprocessorEnvironment> ctx,
 							 TableName tableName, HColumnDescriptor column) throws IOException {
-		runWithPolicies("MasterObserver:preAddColumn",
+		runWithPolicies(PRE_ADD_COLUMN,
 				() -> getAdaptee().preAddColumn(argumentWithPolicies(ctx), tableName, column),
 				ctx, tableName, column);
 	}
@@ -165,7 +262,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postAddColumn(ObserverContext<MasterCoprocessorEnvironment> ctx,
 							  TableName tableName, HColumnDescriptor column) throws IOException {
-		runWithPolicies("MasterObserver:postAddColumn",
+		runWithPolicies(POST_ADD_COLUMN,
 				() -> getAdaptee().postAddColumn(argumentWithPolicies(ctx), tableName, column),
 				ctx, tableName, column);
 	}
@@ -173,7 +270,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preAddColumnHandler(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									TableName tableName, HColumnDescriptor column) throws IOException {
-		runWithPolicies("MasterObserver:preAddColumnHandler",
+		runWithPolicies(PRE_ADD_COLUMN_HANDLER,
 				() -> getAdaptee().preAddColumnHandler(argumentWithPolicies(ctx), tableName, column),
 				ctx, tableName, column);
 	}
@@ -181,7 +278,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postAddColumnHandler(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									 TableName tableName, HColumnDescriptor column) throws IOException {
-		runWithPolicies("MasterObserver:postAddColumnHandler",
+		runWithPolicies(POST_ADD_COLUMN_HANDLER,
 				() -> getAdaptee().postAddColumnHandler(argumentWithPolicies(ctx), tableName, column),
 				ctx, tableName, column);
 	}
@@ -189,7 +286,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preModifyColumn(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								TableName tableName, HColumnDescriptor descriptor) throws IOException {
-		runWithPolicies("MasterObserver:preModifyColumn",
+		runWithPolicies(PRE_MODIFY_COLUMN,
 				() -> getAdaptee().preModifyColumn(argumentWithPolicies(ctx), tableName, descriptor),
 				ctx, tableName, descriptor);
 	}
@@ -197,7 +294,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postModifyColumn(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								 TableName tableName, HColumnDescriptor descriptor) throws IOException {
-		runWithPolicies("MasterObserver:postModifyColumn",
+		runWithPolicies(POST_MODIFY_COLUMN,
 				() -> getAdaptee().postModifyColumn(argumentWithPolicies(ctx), tableName, descriptor),
 				ctx, tableName, descriptor);
 	}
@@ -205,7 +302,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preModifyColumnHandler(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									   TableName tableName, HColumnDescriptor descriptor) throws IOException {
-		runWithPolicies("MasterObserver:preModifyColumnHandler",
+		runWithPolicies(PRE_MODIFY_COLUMN_HANDLER,
 				() -> getAdaptee().preModifyColumnHandler(argumentWithPolicies(ctx), tableName, descriptor),
 				ctx, tableName, descriptor);
 	}
@@ -213,84 +310,84 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postModifyColumnHandler(ObserverContext<MasterCoprocessorEnvironment> ctx,
 										TableName tableName, HColumnDescriptor descriptor) throws IOException {
-		runWithPolicies("MasterObserver:postModifyColumnHandler",
+		runWithPolicies(POST_MODIFY_COLUMN_HANDLER,
 				() -> getAdaptee().postModifyColumnHandler(argumentWithPolicies(ctx), tableName, descriptor),
 				ctx, tableName, descriptor);
 	}
 
 	@Override
 	public void preDeleteColumn(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName, byte[] c) throws IOException {
-		runWithPolicies("MasterObserver:preDeleteColumn",
+		runWithPolicies(PRE_DELETE_COLUMN,
 				() -> getAdaptee().preDeleteColumn(argumentWithPolicies(ctx), tableName, c),
 				ctx, tableName, c);
 	}
 
 	@Override
 	public void postDeleteColumn(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName, byte[] c) throws IOException {
-		runWithPolicies("MasterObserver:postDeleteColumn",
+		runWithPolicies(POST_DELETE_COLUMN,
 				() -> getAdaptee().postDeleteColumn(argumentWithPolicies(ctx), tableName, c),
 				ctx, tableName, c);
 	}
 
 	@Override
 	public void preDeleteColumnHandler(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName, byte[] c) throws IOException {
-		runWithPolicies("MasterObserver:preDeleteColumnHandler",
+		runWithPolicies(PRE_DELETE_COLUMN_HANDLER,
 				() -> getAdaptee().preDeleteColumnHandler(argumentWithPolicies(ctx), tableName, c),
 				ctx, tableName, c);
 	}
 
 	@Override
 	public void postDeleteColumnHandler(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName, byte[] c) throws IOException {
-		runWithPolicies("MasterObserver:postDeleteColumnHandler",
+		runWithPolicies(POST_DELETE_COLUMN_HANDLER,
 				() -> getAdaptee().postDeleteColumnHandler(argumentWithPolicies(ctx), tableName, c),
 				ctx, tableName, c);
 	}
 
 	@Override
 	public void preEnableTable(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:preEnableTable",
+		runWithPolicies(PRE_ENABLE_TABLE,
 				() -> getAdaptee().preEnableTable(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
 
 	@Override
 	public void postEnableTable(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:postEnableTable",
+		runWithPolicies(POST_ENABLE_TABLE,
 				() -> getAdaptee().postEnableTable(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
 
 	@Override
 	public void preEnableTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:preEnableTableHandler",
+		runWithPolicies(PRE_ENABLE_TABLE_HANDLER,
 				() -> getAdaptee().preEnableTableHandler(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
 
 	@Override
 	public void postEnableTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:postEnableTableHandler",
+		runWithPolicies(POST_ENABLE_TABLE_HANDLER,
 				() -> getAdaptee().postEnableTableHandler(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
 
 	@Override
 	public void preDisableTable(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:preDisableTable",
+		runWithPolicies(PRE_DISABLE_TABLE,
 				() -> getAdaptee().preDisableTable(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
 
 	@Override
 	public void postDisableTable(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:postDisableTable",
+		runWithPolicies(POST_DISABLE_TABLE,
 				() -> getAdaptee().postDisableTable(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
 
 	@Override
 	public void preDisableTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:preDisableTableHandler",
+		runWithPolicies(PRE_DISABLE_TABLE_HANDLER,
 				() -> getAdaptee().preDisableTableHandler(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
@@ -298,7 +395,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postDisableTableHandler(ObserverContext<MasterCoprocessorEnvironment> ctx,
 										TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:postDisableTableHandler",
+		runWithPolicies(POST_DISABLE_TABLE_HANDLER,
 				() -> getAdaptee().postDisableTableHandler(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
@@ -306,7 +403,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preMove(ObserverContext<MasterCoprocessorEnvironment> ctx, HRegionInfo region,
 						ServerName srcServer, ServerName destServer) throws IOException {
-		runWithPolicies("MasterObserver:preMove",
+		runWithPolicies(PRE_MOVE,
 				() -> getAdaptee().preMove(argumentWithPolicies(ctx), region, srcServer, destServer),
 				ctx, region, srcServer, destServer);
 	}
@@ -314,7 +411,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postMove(ObserverContext<MasterCoprocessorEnvironment> ctx, HRegionInfo region,
 						 ServerName srcServer, ServerName destServer) throws IOException {
-		runWithPolicies("MasterObserver:postMove",
+		runWithPolicies(POST_MOVE,
 				() -> getAdaptee().postMove(argumentWithPolicies(ctx), region, srcServer, destServer),
 				ctx, region, srcServer, destServer);
 	}
@@ -322,127 +419,127 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preAbortProcedure(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								  ProcedureExecutor<MasterProcedureEnv> procEnv, long procId) throws IOException {
-		runWithPolicies("MasterObserver:preAbortProcedure",
+		runWithPolicies(PRE_ABORT_PROCEDURE,
 				() -> getAdaptee().preAbortProcedure(argumentWithPolicies(ctx), procEnv, procId),
 				ctx, procEnv, procId);
 	}
 
 	@Override
 	public void postAbortProcedure(ObserverContext<MasterCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("MasterObserver:postAbortProcedure",
+		runWithPolicies(POST_ABORT_PROCEDURE,
 				() -> getAdaptee().postAbortProcedure(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void preListProcedures(ObserverContext<MasterCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("MasterObserver:preListProcedures",
+		runWithPolicies(PRE_LIST_PROCEDURES,
 				() -> getAdaptee().preListProcedures(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void postListProcedures(ObserverContext<MasterCoprocessorEnvironment> ctx, List<ProcedureInfo> procInfoList) throws IOException {
-		runWithPolicies("MasterObserver:postListProcedures",
+		runWithPolicies(POST_LIST_PROCEDURES,
 				() -> getAdaptee().postListProcedures(argumentWithPolicies(ctx), procInfoList),
 				ctx, procInfoList);
 	}
 
 	@Override
 	public void preAssign(ObserverContext<MasterCoprocessorEnvironment> ctx, HRegionInfo regionInfo) throws IOException {
-		runWithPolicies("MasterObserver:preAssign",
+		runWithPolicies(PRE_ASSIGN,
 				() -> getAdaptee().preAssign(argumentWithPolicies(ctx), regionInfo),
 				ctx, regionInfo);
 	}
 
 	@Override
 	public void postAssign(ObserverContext<MasterCoprocessorEnvironment> ctx, HRegionInfo regionInfo) throws IOException {
-		runWithPolicies("MasterObserver:postAssign",
+		runWithPolicies(POST_ASSIGN,
 				() -> getAdaptee().postAssign(argumentWithPolicies(ctx), regionInfo),
 				ctx, regionInfo);
 	}
 
 	@Override
 	public void preUnassign(ObserverContext<MasterCoprocessorEnvironment> ctx, HRegionInfo regionInfo, boolean force) throws IOException {
-		runWithPolicies("MasterObserver:preUnassign",
+		runWithPolicies(PRE_UNASSIGN,
 				() -> getAdaptee().preUnassign(argumentWithPolicies(ctx), regionInfo, force),
 				ctx, regionInfo, force);
 	}
 
 	@Override
 	public void postUnassign(ObserverContext<MasterCoprocessorEnvironment> ctx, HRegionInfo regionInfo, boolean force) throws IOException {
-		runWithPolicies("MasterObserver:postUnassign",
+		runWithPolicies(POST_UNASSIGN,
 				() -> getAdaptee().postUnassign(argumentWithPolicies(ctx), regionInfo, force),
 				ctx, regionInfo, force);
 	}
 
 	@Override
 	public void preRegionOffline(ObserverContext<MasterCoprocessorEnvironment> ctx, HRegionInfo regionInfo) throws IOException {
-		runWithPolicies("MasterObserver:preRegionOffline",
+		runWithPolicies(PRE_REGION_OFFLINE,
 				() -> getAdaptee().preRegionOffline(argumentWithPolicies(ctx), regionInfo),
 				ctx, regionInfo);
 	}
 
 	@Override
 	public void postRegionOffline(ObserverContext<MasterCoprocessorEnvironment> ctx, HRegionInfo regionInfo) throws IOException {
-		runWithPolicies("MasterObserver:postRegionOffline",
+		runWithPolicies(POST_REGION_OFFLINE,
 				() -> getAdaptee().postRegionOffline(argumentWithPolicies(ctx), regionInfo),
 				ctx, regionInfo);
 	}
 
 	@Override
 	public void preBalance(ObserverContext<MasterCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("MasterObserver:preBalance",
+		runWithPolicies(PRE_BALANCE,
 				() -> getAdaptee().preBalance(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void postBalance(ObserverContext<MasterCoprocessorEnvironment> ctx, List<RegionPlan> plans) throws IOException {
-		runWithPolicies("MasterObserver:postBalance",
+		runWithPolicies(POST_BALANCE,
 				() -> getAdaptee().postBalance(argumentWithPolicies(ctx), plans),
 				ctx, plans);
 	}
 
 	@Override
 	public boolean preBalanceSwitch(ObserverContext<MasterCoprocessorEnvironment> ctx, boolean newValue) throws IOException {
-		return runWithPolicies("MasterObserver:preBalanceSwitch",
+		return runWithPolicies(PRE_BALANCE_SWITCH,
 				() -> getAdaptee().preBalanceSwitch(argumentWithPolicies(ctx), newValue),
 				ctx, newValue);
 	}
 
 	@Override
 	public void postBalanceSwitch(ObserverContext<MasterCoprocessorEnvironment> ctx, boolean oldValue, boolean newValue) throws IOException {
-		runWithPolicies("MasterObserver:postBalanceSwitch",
+		runWithPolicies(POST_BALANCE_SWITCH,
 				() -> getAdaptee().postBalanceSwitch(argumentWithPolicies(ctx), oldValue, newValue),
 				ctx, oldValue, newValue);
 	}
 
 	@Override
 	public void preShutdown(ObserverContext<MasterCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("MasterObserver:preShutdown",
+		runWithPolicies(PRE_SHUTDOWN,
 				() -> getAdaptee().preShutdown(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void preStopMaster(ObserverContext<MasterCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("MasterObserver:preStopMaster",
+		runWithPolicies(PRE_STOP_MASTER,
 				() -> getAdaptee().preStopMaster(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void postStartMaster(ObserverContext<MasterCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("MasterObserver:postStartMaster",
+		runWithPolicies(POST_START_MASTER,
 				() -> getAdaptee().postStartMaster(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void preMasterInitialization(ObserverContext<MasterCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("MasterObserver:preMasterInitialization",
+		runWithPolicies(PRE_MASTER_INITIALIZATION,
 				() -> getAdaptee().preMasterInitialization(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void preSnapshot(ObserverContext<MasterCoprocessorEnvironment> ctx,
 							HBaseProtos.SnapshotDescription snapshot, HTableDescriptor hTableDescriptor) throws IOException {
-		runWithPolicies("MasterObserver:preSnapshot",
+		runWithPolicies(PRE_SNAPSHOT,
 				() -> getAdaptee().preSnapshot(argumentWithPolicies(ctx), snapshot, hTableDescriptor),
 				ctx, snapshot, hTableDescriptor);
 	}
@@ -450,7 +547,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postSnapshot(ObserverContext<MasterCoprocessorEnvironment> ctx,
 							 HBaseProtos.SnapshotDescription snapshot, HTableDescriptor hTableDescriptor) throws IOException {
-		runWithPolicies("MasterObserver:postSnapshot",
+		runWithPolicies(POST_SNAPSHOT,
 				() -> getAdaptee().postSnapshot(argumentWithPolicies(ctx), snapshot, hTableDescriptor),
 				ctx, snapshot, hTableDescriptor);
 	}
@@ -458,7 +555,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preListSnapshot(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								HBaseProtos.SnapshotDescription snapshot) throws IOException {
-		runWithPolicies("MasterObserver:preListSnapshot",
+		runWithPolicies(PRE_LIST_SNAPSHOT,
 				() -> getAdaptee().preListSnapshot(argumentWithPolicies(ctx), snapshot),
 				ctx, snapshot);
 	}
@@ -466,7 +563,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postListSnapshot(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								 HBaseProtos.SnapshotDescription snapshot) throws IOException {
-		runWithPolicies("MasterObserver:postListSnapshot",
+		runWithPolicies(POST_LIST_SNAPSHOT,
 				() -> getAdaptee().postListSnapshot(argumentWithPolicies(ctx), snapshot),
 				ctx, snapshot);
 	}
@@ -474,7 +571,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preCloneSnapshot(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								 HBaseProtos.SnapshotDescription snapshot, HTableDescriptor hTableDescriptor) throws IOException {
-		runWithPolicies("MasterObserver:preCloneSnapshot",
+		runWithPolicies(PRE_CLONE_SNAPSHOT,
 				() -> getAdaptee().preCloneSnapshot(argumentWithPolicies(ctx), snapshot, hTableDescriptor),
 				ctx, snapshot, hTableDescriptor);
 	}
@@ -482,7 +579,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postCloneSnapshot(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								  HBaseProtos.SnapshotDescription snapshot, HTableDescriptor hTableDescriptor) throws IOException {
-		runWithPolicies("MasterObserver:postCloneSnapshot",
+		runWithPolicies(POST_CLONE_SNAPSHOT,
 				() -> getAdaptee().postCloneSnapshot(argumentWithPolicies(ctx), snapshot, hTableDescriptor),
 				ctx, snapshot, hTableDescriptor);
 	}
@@ -490,7 +587,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preRestoreSnapshot(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								   HBaseProtos.SnapshotDescription snapshot, HTableDescriptor hTableDescriptor) throws IOException {
-		runWithPolicies("MasterObserver:preRestoreSnapshot",
+		runWithPolicies(PRE_RESTORE_SNAPSHOT,
 				() -> getAdaptee().preRestoreSnapshot(argumentWithPolicies(ctx), snapshot, hTableDescriptor),
 				ctx, snapshot, hTableDescriptor);
 	}
@@ -498,7 +595,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postRestoreSnapshot(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									HBaseProtos.SnapshotDescription snapshot, HTableDescriptor hTableDescriptor) throws IOException {
-		runWithPolicies("MasterObserver:postRestoreSnapshot",
+		runWithPolicies(POST_RESTORE_SNAPSHOT,
 				() -> getAdaptee().postRestoreSnapshot(argumentWithPolicies(ctx), snapshot, hTableDescriptor),
 				ctx, snapshot, hTableDescriptor);
 	}
@@ -506,7 +603,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preDeleteSnapshot(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								  HBaseProtos.SnapshotDescription snapshot) throws IOException {
-		runWithPolicies("MasterObserver:preDeleteSnapshot",
+		runWithPolicies(PRE_DELETE_SNAPSHOT,
 				() -> getAdaptee().preDeleteSnapshot(argumentWithPolicies(ctx), snapshot),
 				ctx, snapshot);
 	}
@@ -514,7 +611,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postDeleteSnapshot(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								   HBaseProtos.SnapshotDescription snapshot) throws IOException {
-		runWithPolicies("MasterObserver:postDeleteSnapshot",
+		runWithPolicies(POST_DELETE_SNAPSHOT,
 				() -> getAdaptee().postDeleteSnapshot(argumentWithPolicies(ctx), snapshot),
 				ctx, snapshot);
 	}
@@ -523,7 +620,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@SuppressWarnings("deprecation")
 	public void preGetTableDescriptors(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									   List<TableName> tableNamesList, List<HTableDescriptor> descriptors) throws IOException {
-		runWithPolicies("MasterObserver:preGetTableDescriptors(deprecated)",
+		runWithPolicies(PRE_GET_TABLE_DESCRIPTORS_DEPRECATED,
 				() -> getAdaptee().preGetTableDescriptors(argumentWithPolicies(ctx), tableNamesList, descriptors),
 				ctx, tableNamesList, descriptors);
 	}
@@ -532,7 +629,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@SuppressWarnings("deprecation")
 	public void postGetTableDescriptors(ObserverContext<MasterCoprocessorEnvironment> ctx,
 										List<HTableDescriptor> descriptors) throws IOException {
-		runWithPolicies("MasterObserver:postGetTableDescriptors(deprecated)",
+		runWithPolicies(POST_GET_TABLE_DESCRIPTORS_DEPRECATED,
 				() -> getAdaptee().postGetTableDescriptors(argumentWithPolicies(ctx), descriptors),
 				ctx, descriptors);
 	}
@@ -540,7 +637,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preGetTableDescriptors(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									   List<TableName> tableNamesList, List<HTableDescriptor> descriptors, String regex) throws IOException {
-		runWithPolicies("MasterObserver:preGetTableDescriptors",
+		runWithPolicies(PRE_GET_TABLE_DESCRIPTORS,
 				() -> getAdaptee().preGetTableDescriptors(argumentWithPolicies(ctx), tableNamesList, descriptors, regex),
 				ctx, tableNamesList, descriptors, regex);
 	}
@@ -548,7 +645,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postGetTableDescriptors(ObserverContext<MasterCoprocessorEnvironment> ctx,
 										List<TableName> tableNamesList, List<HTableDescriptor> descriptors, String regex) throws IOException {
-		runWithPolicies("MasterObserver:postGetTableDescriptors",
+		runWithPolicies(POST_GET_TABLE_DESCRIPTORS,
 				() -> getAdaptee().postGetTableDescriptors(argumentWithPolicies(ctx), tableNamesList, descriptors, regex),
 				ctx, tableNamesList, descriptors, regex);
 	}
@@ -556,7 +653,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preGetTableNames(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								 List<HTableDescriptor> descriptors, String regex) throws IOException {
-		runWithPolicies("MasterObserver:preGetTableNames",
+		runWithPolicies(PRE_GET_TABLE_NAMES,
 				() -> getAdaptee().preGetTableNames(argumentWithPolicies(ctx), descriptors, regex),
 				ctx, descriptors, regex);
 	}
@@ -564,7 +661,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postGetTableNames(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								  List<HTableDescriptor> descriptors, String regex) throws IOException {
-		runWithPolicies("MasterObserver:postGetTableNames",
+		runWithPolicies(POST_GET_TABLE_NAMES,
 				() -> getAdaptee().postGetTableNames(argumentWithPolicies(ctx), descriptors, regex),
 				ctx, descriptors, regex);
 	}
@@ -572,7 +669,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preCreateNamespace(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								   NamespaceDescriptor ns) throws IOException {
-		runWithPolicies("MasterObserver:preCreateNamespace",
+		runWithPolicies(PRE_CREATE_NAMESPACE,
 				() -> getAdaptee().preCreateNamespace(argumentWithPolicies(ctx), ns),
 				ctx, ns);
 	}
@@ -580,7 +677,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postCreateNamespace(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									NamespaceDescriptor ns) throws IOException {
-		runWithPolicies("MasterObserver:postCreateNamespace",
+		runWithPolicies(POST_CREATE_NAMESPACE,
 				() -> getAdaptee().postCreateNamespace(argumentWithPolicies(ctx), ns),
 				ctx, ns);
 	}
@@ -588,7 +685,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preDeleteNamespace(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								   String namespace) throws IOException {
-		runWithPolicies("MasterObserver:preDeleteNamespace",
+		runWithPolicies(PRE_DELETE_NAMESPACE,
 				() -> getAdaptee().preDeleteNamespace(argumentWithPolicies(ctx), namespace),
 				ctx, namespace);
 	}
@@ -596,7 +693,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postDeleteNamespace(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									String namespace) throws IOException {
-		runWithPolicies("MasterObserver:postDeleteNamespace",
+		runWithPolicies(POST_DELETE_NAMESPACE,
 				() -> getAdaptee().postDeleteNamespace(argumentWithPolicies(ctx), namespace),
 				ctx, namespace);
 	}
@@ -604,7 +701,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preModifyNamespace(ObserverContext<MasterCoprocessorEnvironment> ctx,
 								   NamespaceDescriptor ns) throws IOException {
-		runWithPolicies("MasterObserver:preModifyNamespace",
+		runWithPolicies(PRE_MODIFY_NAMESPACE,
 				() -> getAdaptee().preModifyNamespace(argumentWithPolicies(ctx), ns),
 				ctx, ns);
 	}
@@ -612,7 +709,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postModifyNamespace(ObserverContext<MasterCoprocessorEnvironment> ctx,
 									NamespaceDescriptor ns) throws IOException {
-		runWithPolicies("MasterObserver:postModifyNamespace",
+		runWithPolicies(POST_MODIFY_NAMESPACE,
 				() -> getAdaptee().postModifyNamespace(argumentWithPolicies(ctx), ns),
 				ctx, ns);
 	}
@@ -620,7 +717,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preGetNamespaceDescriptor(ObserverContext<MasterCoprocessorEnvironment> ctx,
 										  String namespace) throws IOException {
-		runWithPolicies("MasterObserver:preGetNamespaceDescriptor",
+		runWithPolicies(PRE_GET_NAMESPACE_DESCRIPTOR,
 				() -> getAdaptee().preGetNamespaceDescriptor(argumentWithPolicies(ctx), namespace),
 				ctx, namespace);
 	}
@@ -628,7 +725,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postGetNamespaceDescriptor(ObserverContext<MasterCoprocessorEnvironment> ctx,
 										   NamespaceDescriptor ns) throws IOException {
-		runWithPolicies("MasterObserver:postGetNamespaceDescriptor",
+		runWithPolicies(POST_GET_NAMESPACE_DESCRIPTOR,
 				() -> getAdaptee().postGetNamespaceDescriptor(argumentWithPolicies(ctx), ns),
 				ctx, ns);
 	}
@@ -636,7 +733,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preListNamespaceDescriptors(ObserverContext<MasterCoprocessorEnvironment> ctx,
 											List<NamespaceDescriptor> descriptors) throws IOException {
-		runWithPolicies("MasterObserver:preListNamespaceDescriptors",
+		runWithPolicies(PRE_LIST_NAMESPACE_DESCRIPTORS,
 				() -> getAdaptee().preListNamespaceDescriptors(argumentWithPolicies(ctx), descriptors),
 				ctx, descriptors);
 	}
@@ -644,21 +741,21 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postListNamespaceDescriptors(ObserverContext<MasterCoprocessorEnvironment> ctx,
 											 List<NamespaceDescriptor> descriptors) throws IOException {
-		runWithPolicies("MasterObserver:postListNamespaceDescriptors",
+		runWithPolicies(POST_LIST_NAMESPACE_DESCRIPTORS,
 				() -> getAdaptee().postListNamespaceDescriptors(argumentWithPolicies(ctx), descriptors),
 				ctx, descriptors);
 	}
 
 	@Override
 	public void preTableFlush(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:preTableFlush",
+		runWithPolicies(PRE_TABLE_FLUSH,
 				() -> getAdaptee().preTableFlush(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
 
 	@Override
 	public void postTableFlush(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName) throws IOException {
-		runWithPolicies("MasterObserver:postTableFlush",
+		runWithPolicies(POST_TABLE_FLUSH,
 				() -> getAdaptee().postTableFlush(argumentWithPolicies(ctx), tableName),
 				ctx, tableName);
 	}
@@ -666,7 +763,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preSetUserQuota(ObserverContext<MasterCoprocessorEnvironment> ctx, String userName,
 								QuotaProtos.Quotas quotas) throws IOException {
-		runWithPolicies("MasterObserver:preSetUserQuota",
+		runWithPolicies(PRE_SET_USER_QUOTA,
 				() -> getAdaptee().preSetUserQuota(argumentWithPolicies(ctx), userName, quotas),
 				ctx, userName, quotas);
 	}
@@ -674,7 +771,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postSetUserQuota(ObserverContext<MasterCoprocessorEnvironment> ctx, String userName,
 								 QuotaProtos.Quotas quotas) throws IOException {
-		runWithPolicies("MasterObserver:postSetUserQuota",
+		runWithPolicies(POST_SET_USER_QUOTA,
 				() -> getAdaptee().postSetUserQuota(argumentWithPolicies(ctx), userName, quotas),
 				ctx, userName, quotas);
 	}
@@ -682,7 +779,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preSetUserQuota(ObserverContext<MasterCoprocessorEnvironment> ctx, String userName, TableName tableName,
 								QuotaProtos.Quotas quotas) throws IOException {
-		runWithPolicies("MasterObserver:preSetUserQuota(Table)",
+		runWithPolicies(PRE_SET_USER_QUOTA_TABLE,
 				() -> getAdaptee().preSetUserQuota(argumentWithPolicies(ctx), userName, tableName, quotas),
 				ctx, userName, tableName, quotas);
 	}
@@ -690,7 +787,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postSetUserQuota(ObserverContext<MasterCoprocessorEnvironment> ctx, String userName, TableName tableName,
 								 QuotaProtos.Quotas quotas) throws IOException {
-		runWithPolicies("MasterObserver:postSetUserQuota(Table)",
+		runWithPolicies(POST_SET_USER_QUOTA_TABLE,
 				() -> getAdaptee().postSetUserQuota(argumentWithPolicies(ctx), userName, tableName, quotas),
 				ctx, userName, tableName, quotas);
 	}
@@ -698,7 +795,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preSetUserQuota(ObserverContext<MasterCoprocessorEnvironment> ctx, String userName, String namespace,
 								QuotaProtos.Quotas quotas) throws IOException {
-		runWithPolicies("MasterObserver:preSetUserQuota(namespace)",
+		runWithPolicies(PRE_SET_USER_QUOTA_NAMESPACE,
 				() -> getAdaptee().preSetUserQuota(argumentWithPolicies(ctx), userName, namespace, quotas),
 				ctx, userName, namespace, quotas);
 	}
@@ -706,7 +803,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postSetUserQuota(ObserverContext<MasterCoprocessorEnvironment> ctx, String userName, String namespace,
 								 QuotaProtos.Quotas quotas) throws IOException {
-		runWithPolicies("MasterObserver:postSetUserQuota(namespace)",
+		runWithPolicies(POST_SET_USER_QUOTA_NAMESPACE,
 				() -> getAdaptee().postSetUserQuota(argumentWithPolicies(ctx), userName, namespace, quotas),
 				ctx, userName, namespace, quotas);
 	}
@@ -714,7 +811,7 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void preSetTableQuota(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName,
 								 QuotaProtos.Quotas quotas) throws IOException {
-		runWithPolicies("MasterObserver:preSetTableQuota",
+		runWithPolicies(PRE_SET_TABLE_QUOTA,
 				() -> getAdaptee().preSetTableQuota(argumentWithPolicies(ctx), tableName, quotas),
 				ctx, tableName, quotas);
 	}
@@ -722,21 +819,21 @@ public class MasterObserverPolicyProxy<T extends MasterObserver> extends Coproce
 	@Override
 	public void postSetTableQuota(ObserverContext<MasterCoprocessorEnvironment> ctx, TableName tableName,
 								  QuotaProtos.Quotas quotas) throws IOException {
-		runWithPolicies("MasterObserver:postSetTableQuota",
+		runWithPolicies(POST_SET_TABLE_QUOTA,
 				() -> getAdaptee().postSetTableQuota(argumentWithPolicies(ctx), tableName, quotas),
 				ctx, tableName, quotas);
 	}
 
 	@Override
 	public void preSetNamespaceQuota(ObserverContext<MasterCoprocessorEnvironment> ctx, String namespace, QuotaProtos.Quotas quotas) throws IOException {
-		runWithPolicies("MasterObserver:preSetNamespaceQuota",
+		runWithPolicies(PRE_SET_NAMESPACE_QUOTA,
 				() -> getAdaptee().preSetNamespaceQuota(argumentWithPolicies(ctx), namespace, quotas),
 				ctx, namespace, quotas);
 	}
 
 	@Override
 	public void postSetNamespaceQuota(ObserverContext<MasterCoprocessorEnvironment> ctx, String namespace, QuotaProtos.Quotas quotas) throws IOException {
-		runWithPolicies("MasterObserver:postSetNamespaceQuota",
+		runWithPolicies(POST_SET_NAMESPACE_QUOTA,
 				() -> getAdaptee().postSetNamespaceQuota(argumentWithPolicies(ctx), namespace, quotas),
 				ctx, namespace, quotas);
 	}
@@ -29,6 +29,6 @@ public class MasterObserverServicePolicyProxy<T extends CoprocessorService & Mas
 
 	@Override
 	public Service getService() {
-		return new ServicePolicyProxy(getAdaptee().getService(), getPolicies());
+		return new ServicePolicyProxy(getAdaptee().getService(), getPolicies(), getExecutor());
 	}
 }
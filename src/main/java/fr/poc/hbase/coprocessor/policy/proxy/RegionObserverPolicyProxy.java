@@ -2,6 +2,7 @@ package fr.poc.hbase.coprocessor.policy.proxy;
 
 import com.google.common.collect.ImmutableList;
 import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
 import fr.poc.hbase.coprocessor.policy.util.RunnableWithIOException;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +38,84 @@ import java.util.NavigableSet;
 @Slf4j
 public class RegionObserverPolicyProxy<T extends RegionObserver> extends CoprocessorPolicyProxy<T> implements RegionObserver {
 
+	// Descriptors of all methods wrapped with policies
+	private static final PolicyMethod PRE_OPEN = PolicyMethod.of("RegionObserver:preOpen");
+	private static final PolicyMethod POST_OPEN = PolicyMethod.of("RegionObserver:postOpen");
+	private static final PolicyMethod POST_LOG_REPLAY = PolicyMethod.of("RegionObserver:postLogReplay");
+	private static final PolicyMethod PRE_FLUSH_SCANNER_OPEN = PolicyMethod.of("RegionObserver:preFlushScannerOpen");
+	private static final PolicyMethod PRE_FLUSH_DEPRECATED = PolicyMethod.of("RegionObserver:preFlush(deprecated)");
+	private static final PolicyMethod PRE_FLUSH = PolicyMethod.of("RegionObserver:preFlush");
+	private static final PolicyMethod POST_FLUSH_DEPRECATED = PolicyMethod.of("RegionObserver:postFlush(deprecated)");
+	private static final PolicyMethod POST_FLUSH = PolicyMethod.of("RegionObserver:postFlush");
+	private static final PolicyMethod PRE_COMPACT_SELECTION = PolicyMethod.of("RegionObserver:preCompactSelection");
+	private static final PolicyMethod PRE_COMPACT_SELECTION_DEPRECATED = PolicyMethod.of("RegionObserver:preCompactSelection(deprecated)");
+	private static final PolicyMethod POST_COMPACT_SELECTION = PolicyMethod.of("RegionObserver:postCompactSelection");
+	private static final PolicyMethod POST_COMPACT_SELECTION_DEPRECATED = PolicyMethod.of("RegionObserver:postCompactSelection(deprecated)");
+	private static final PolicyMethod PRE_COMPACT = PolicyMethod.of("RegionObserver:preCompact");
+	private static final PolicyMethod PRE_COMPACT_DEPRECATED = PolicyMethod.of("RegionObserver:preCompact(deprecated)");
+	private static final PolicyMethod PRE_COMPACT_SCANNER_OPEN = PolicyMethod.of("RegionObserver:preCompactScannerOpen");
+	private static final PolicyMethod PRE_COMPACT_SCANNER_OPEN_DEPRECATED = PolicyMethod.of("RegionObserver:preCompactScannerOpen(deprecated)");
+	private static final PolicyMethod POST_COMPACT = PolicyMethod.of("RegionObserver:postCompact");
+	private static final PolicyMethod POST_COMPACT_DEPRECATED = PolicyMethod.of("RegionObserver:postCompact(deprecated)");
+	private static final PolicyMethod PRE_SPLIT_DEPRECATED = PolicyMethod.of("RegionObserver:preSplit(deprecated)");
+	private static final PolicyMethod PRE_SPLIT = PolicyMethod.of("RegionObserver:preSplit");
+	private static final PolicyMethod POST_SPLIT_DEPRECATED = PolicyMethod.of("RegionObserver:postSplit(deprecated)");
+	private static final PolicyMethod PRE_SPLIT_BEFORE_PONR = PolicyMethod.of("RegionObserver:preSplitBeforePONR");
+	private static final PolicyMethod PRE_SPLIT_AFTER_PONR = PolicyMethod.of("RegionObserver:preSplitAfterPONR");
+	private static final PolicyMethod PRE_ROLL_BACK_SPLIT = PolicyMethod.of("RegionObserver:preRollBackSplit");
+	private static final PolicyMethod POST_ROLL_BACK_SPLIT = PolicyMethod.of("RegionObserver:postRollBackSplit");
+	private static final PolicyMethod POST_COMPLETE_SPLIT = PolicyMethod.of("RegionObserver:postCompleteSplit");
+	private static final PolicyMethod PRE_CLOSE = PolicyMethod.of("RegionObserver:preClose");
+	private static final PolicyMethod POST_CLOSE = PolicyMethod.of("RegionObserver:postClose");
+	private static final PolicyMethod PRE_GET_CLOSEST_ROW_BEFORE = PolicyMethod.of("RegionObserver:preGetClosestRowBefore");
+	private static final PolicyMethod POST_GET_CLOSEST_ROW_BEFORE = PolicyMethod.of("RegionObserver:postGetClosestRowBefore");
+	private static final PolicyMethod PRE_GET_OP = PolicyMethod.of("RegionObserver:preGetOp");
+	private static final PolicyMethod POST_GET_OP = PolicyMethod.of("RegionObserver:postGetOp");
+	private static final PolicyMethod PRE_EXISTS = PolicyMethod.of("RegionObserver:preExists");
+	private static final PolicyMethod POST_EXISTS = PolicyMethod.of("RegionObserver:postExists");
+	private static final PolicyMethod PRE_PUT = PolicyMethod.of("RegionObserver:prePut");
+	private static final PolicyMethod POST_PUT = PolicyMethod.of("RegionObserver:postPut");
+	private static final PolicyMethod PRE_DELETE = PolicyMethod.of("RegionObserver:preDelete");
+	private static final PolicyMethod PRE_PREPARE_TIME_STAMP_FOR_DELETE_VERSION = PolicyMethod.of("RegionObserver:prePrepareTimeStampForDeleteVersion");
+	private static final PolicyMethod POST_DELETE = PolicyMethod.of("RegionObserver:postDelete");
+	private static final PolicyMethod PRE_BATCH_MUTATE = PolicyMethod.of("RegionObserver:preBatchMutate");
+	private static final PolicyMethod POST_BATCH_MUTATE = PolicyMethod.of("RegionObserver:postBatchMutate");
+	private static final PolicyMethod POST_START_REGION_OPERATION = PolicyMethod.of("RegionObserver:postStartRegionOperation");
+	private static final PolicyMethod POST_CLOSE_REGION_OPERATION = PolicyMethod.of("RegionObserver:postCloseRegionOperation");
+	private static final PolicyMethod POST_BATCH_MUTATE_INDISPENSABLY = PolicyMethod.of("RegionObserver:postBatchMutateIndispensably");
+	private static final PolicyMethod PRE_CHECK_AND_PUT = PolicyMethod.of("RegionObserver:preCheckAndPut");
+	private static final PolicyMethod PRE_CHECK_AND_PUT_AFTER_ROW_LOCK = PolicyMethod.of("RegionObserver:preCheckAndPutAfterRowLock");
+	private static final PolicyMethod POST_CHECK_AND_PUT = PolicyMethod.of("RegionObserver:postCheckAndPut");
+	private static final PolicyMethod PRE_CHECK_AND_DELETE = PolicyMethod.of("RegionObserver:preCheckAndDelete");
+	private static final PolicyMethod PRE_CHECK_AND_DELETE_AFTER_ROW_LOCK = PolicyMethod.of("RegionObserver:preCheckAndDeleteAfterRowLock");
+	private static final PolicyMethod POST_CHECK_AND_DELETE = PolicyMethod.of("RegionObserver:postCheckAndDelete");
+	private static final PolicyMethod PRE_INCREMENT_COLUMN_VALUE_DEPRECATED = PolicyMethod.of("RegionObserver:preIncrementColumnValue(deprecated)");
+	private static final PolicyMethod POST_INCREMENT_COLUMN_VALUE_DEPRECATED = PolicyMethod.of("RegionObserver:postIncrementColumnValue(deprecated)");
+	private static final PolicyMethod PRE_APPEND = PolicyMethod.of("RegionObserver:preAppend");
+	private static final PolicyMethod PRE_APPEND_AFTER_ROW_LOCK = PolicyMethod.of("RegionObserver:preAppendAfterRowLock");
+	private static final PolicyMethod POST_APPEND = PolicyMethod.of("RegionObserver:postAppend");
+	private static final PolicyMethod PRE_INCREMENT = PolicyMethod.of("RegionObserver:preIncrement");
+	private static final PolicyMethod PRE_INCREMENT_AFTER_ROW_LOCK = PolicyMethod.of("RegionObserver:preIncrementAfterRowLock");
+	private static final PolicyMethod POST_INCREMENT = PolicyMethod.of("RegionObserver:postIncrement");
+	private static final PolicyMethod PRE_SCANNER_OPEN = PolicyMethod.of("RegionObserver:preScannerOpen");
+	private static final PolicyMethod PRE_STORE_SCANNER_OPEN = PolicyMethod.of("RegionObserver:preStoreScannerOpen");
+	private static final PolicyMethod POST_SCANNER_OPEN = PolicyMethod.of("RegionObserver:postScannerOpen");
+	private static final PolicyMethod PRE_SCANNER_NEXT = PolicyMethod.of("RegionObserver:preScannerNext");
+	private static final PolicyMethod POST_SCANNER_NEXT = PolicyMethod.of("RegionObserver:postScannerNext");
+	private static final PolicyMethod POST_SCANNER_FILTER_ROW = PolicyMethod.of("RegionObserver:postScannerFilterRow");
+	private static final PolicyMethod PRE_SCANNER_CLOSE = PolicyMethod.of("RegionObserver:preScannerClose");
+	private static final PolicyMethod POST_SCANNER_CLOSE = PolicyMethod.of("RegionObserver:postScannerClose");
+	private static final PolicyMethod PRE_WAL_RESTORE = PolicyMethod.of("RegionObserver:preWALRestore");
+	private static final PolicyMethod PRE_WAL_RESTORE_DEPRECATED = PolicyMethod.of("RegionObserver:preWALRestore(deprecated)");
+	private static final PolicyMethod POST_WAL_RESTORE = PolicyMethod.of("RegionObserver:postWALRestore");
+	private static final PolicyMethod POST_WAL_RESTORE_DEPRECATED = PolicyMethod.of("RegionObserver:postWALRestore(deprectated)");
+	private static final PolicyMethod PRE_BULK_LOAD_HFILE = PolicyMethod.of("RegionObserver:preBulkLoadHFile");
+	private static final PolicyMethod POST_BULK_LOAD_HFILE = PolicyMethod.of("RegionObserver:postBulkLoadHFile");
+	private static final PolicyMethod PRE_STORE_FILE_READER_OPEN = PolicyMethod.of("RegionObserver:preStoreFileReaderOpen");
+	private static final PolicyMethod POST_STORE_FILE_READER_OPEN = PolicyMethod.of("RegionObserver:postStoreFileReaderOpen");
+	private static final PolicyMethod POST_MUTATION_BEFORE_WAL = PolicyMethod.of("RegionObserver:postMutationBeforeWAL");
+	private static final PolicyMethod POST_INSTANTIATE_DELETE_TRACKER = PolicyMethod.of("RegionObserver:postInstantiateDeleteTracker");
+
 	/**
 	 * Constructor
 	 *
@@ -57,21 +136,21 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 
 	@Override
 	public void preOpen(ObserverContext<RegionCoprocessorEnvironment> c) throws IOException {
-		runWithPolicies("RegionObserver:preOpen",
+		runWithPolicies(PRE_OPEN,
 				() -> getAdaptee().preOpen(argumentWithPolicies(c)), c);
 	}
 
 	@Override
 	public void postOpen(ObserverContext<RegionCoprocessorEnvironment> c) {
 		catchIOException(
-				() -> runWithPolicies("RegionObserver:postOpen",
+				() -> runWithPolicies(POST_OPEN,
 						() -> getAdaptee().postOpen(argumentWithPolicies(c)), c));
 	}
 
 	@Override
 	public void postLogReplay(ObserverContext<RegionCoprocessorEnvironment> c) {
 		catchIOException(
-				() -> runWithPolicies("RegionObserver:postLogReplay",
+				() -> runWithPolicies(POST_LOG_REPLAY,
 						() -> getAdaptee().postLogReplay(argumentWithPolicies(c)), c));
 	}
 
@@ -79,7 +158,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public InternalScanner preFlushScannerOpen(ObserverContext<RegionCoprocessorEnvironment> c,
 											   Store store, KeyValueScanner memstoreScanner,
 											   InternalScanner s) throws IOException {
-		return runWithPolicies("RegionObserver:preFlushScannerOpen",
+		return runWithPolicies(PRE_FLUSH_SCANNER_OPEN,
 				() -> getAdaptee().preFlushScannerOpen(argumentWithPolicies(c), store, memstoreScanner, s),
 				c, store, memstoreScanner, s);
 	}
@@ -87,14 +166,14 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	@SuppressWarnings("deprecation")
 	public void preFlush(ObserverContext<RegionCoprocessorEnvironment> c) throws IOException {
-		runWithPolicies("RegionObserver:preFlush(deprecated)",
+		runWithPolicies(PRE_FLUSH_DEPRECATED,
 				() -> getAdaptee().preFlush(argumentWithPolicies(c)), c);
 	}
 
 	@Override
 	public InternalScanner preFlush(ObserverContext<RegionCoprocessorEnvironment> c,
 									Store store, InternalScanner scanner) throws IOException {
-		return runWithPolicies("RegionObserver:preFlush",
+		return runWithPolicies(PRE_FLUSH,
 				() -> getAdaptee().preFlush(argumentWithPolicies(c), store, scanner),
 				c, store, scanner);
 	}
@@ -102,13 +181,13 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	@SuppressWarnings("deprecation")
 	public void postFlush(ObserverContext<RegionCoprocessorEnvironment> c) throws IOException {
-		runWithPolicies("RegionObserver:postFlush(deprecated)",
+		runWithPolicies(POST_FLUSH_DEPRECATED,
 				() -> getAdaptee().postFlush(argumentWithPolicies(c)), c);
 	}
 
 	@Override
 	public void postFlush(ObserverContext<RegionCoprocessorEnvironment> c, Store store, StoreFile resultFile) throws IOException {
-		runWithPolicies("RegionObserver:postFlush",
+		runWithPolicies(POST_FLUSH,
 				() -> getAdaptee().postFlush(argumentWithPolicies(c), store, resultFile),
 				c, store, resultFile);
 	}
@@ -116,7 +195,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void preCompactSelection(ObserverContext<RegionCoprocessorEnvironment> c,
 									Store store, List<StoreFile> candidates, CompactionRequest request) throws IOException {
-		runWithPolicies("RegionObserver:preCompactSelection",
+		runWithPolicies(PRE_COMPACT_SELECTION,
 				() -> getAdaptee().preCompactSelection(argumentWithPolicies(c), store, candidates, request),
 				c, store, candidates, request);
 	}
@@ -125,7 +204,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@SuppressWarnings("deprecation")
 	public void preCompactSelection(ObserverContext<RegionCoprocessorEnvironment> c,
 									Store store, List<StoreFile> candidates) throws IOException {
-		runWithPolicies("RegionObserver:preCompactSelection(deprecated)",
+		runWithPolicies(PRE_COMPACT_SELECTION_DEPRECATED,
 				() -> getAdaptee().preCompactSelection(argumentWithPolicies(c), store, candidates),
 				c, store, candidates);
 	}
@@ -134,7 +213,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public void postCompactSelection(ObserverContext<RegionCoprocessorEnvironment> c,
 									 Store store, ImmutableList<StoreFile> selected, CompactionRequest request) {
 		catchIOException(
-				() -> runWithPolicies("RegionObserver:postCompactSelection",
+				() -> runWithPolicies(POST_COMPACT_SELECTION,
 						() -> getAdaptee().postCompactSelection(argumentWithPolicies(c), store, selected, request),
 						c, store, selected, request));
 	}
@@ -144,7 +223,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public void postCompactSelection(ObserverContext<RegionCoprocessorEnvironment> c,
 									 Store store, ImmutableList<StoreFile> selected) {
 		catchIOException(
-				() -> runWithPolicies("RegionObserver:postCompactSelection(deprecated)",
+				() -> runWithPolicies(POST_COMPACT_SELECTION_DEPRECATED,
 						() -> getAdaptee().postCompactSelection(argumentWithPolicies(c), store, selected),
 						c, store, selected));
 	}
@@ -153,7 +232,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public InternalScanner preCompact(ObserverContext<RegionCoprocessorEnvironment> c,
 									  Store store, InternalScanner scanner, ScanType scanType,
 									  CompactionRequest request) throws IOException {
-		return runWithPolicies("RegionObserver:preCompact",
+		return runWithPolicies(PRE_COMPACT,
 				() -> getAdaptee().preCompact(argumentWithPolicies(c), store, scanner, scanType, request),
 				c, store, scanner, scanType, request);
 	}
@@ -162,7 +241,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@SuppressWarnings("deprecation")
 	public InternalScanner preCompact(ObserverContext<RegionCoprocessorEnvironment> c,
 									  Store store, InternalScanner scanner, ScanType scanType) throws IOException {
-		return runWithPolicies("RegionObserver:preCompact(deprecated)",
+		return runWithPolicies(PRE_COMPACT_DEPRECATED,
 				() -> getAdaptee().preCompact(argumentWithPolicies(c), store, scanner, scanType),
 				c, store, scanner, scanType);
 	}
@@ -172,7 +251,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 												 Store store, List<? extends KeyValueScanner> scanners,
 												 ScanType scanType, long earliestPutTs, InternalScanner s,
 												 CompactionRequest request) throws IOException {
-		return runWithPolicies("RegionObserver:preCompactScannerOpen",
+		return runWithPolicies(PRE_COMPACT_SCANNER_OPEN,
 				() -> getAdaptee().preCompactScannerOpen(argumentWithPolicies(c), store, scanners, scanType, earliestPutTs, s, request),
 				c, store, scanners, scanType, earliestPutTs, s, request);
 	}
@@ -182,7 +261,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public InternalScanner preCompactScannerOpen(ObserverContext<RegionCoprocessorEnvironment> c,
 												 Store store, List<? extends KeyValueScanner> scanners,
 												 ScanType scanType, long earliestPutTs, InternalScanner s) throws IOException {
-		return runWithPolicies("RegionObserver:preCompactScannerOpen(deprecated)",
+		return runWithPolicies(PRE_COMPACT_SCANNER_OPEN_DEPRECATED,
 				() -> getAdaptee().preCompactScannerOpen(argumentWithPolicies(c), store, scanners, scanType, earliestPutTs, s),
 				c, store, scanners, scanType, earliestPutTs, s);
 	}
@@ -190,7 +269,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void postCompact(ObserverContext<RegionCoprocessorEnvironment> c, Store store,
 							StoreFile resultFile, CompactionRequest request) throws IOException {
-		runWithPolicies("RegionObserver:postCompact",
+		runWithPolicies(POST_COMPACT,
 				() -> getAdaptee().postCompact(argumentWithPolicies(c), store, resultFile, request),
 				c, store, resultFile, request);
 	}
@@ -198,7 +277,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	@SuppressWarnings("deprecation")
 	public void postCompact(ObserverContext<RegionCoprocessorEnvironment> c, Store store, StoreFile resultFile) throws IOException {
-		runWithPolicies("RegionObserver:postCompact(deprecated)",
+		runWithPolicies(POST_COMPACT_DEPRECATED,
 				() -> getAdaptee().postCompact(argumentWithPolicies(c), store, resultFile),
 				c, store, resultFile);
 	}
@@ -206,13 +285,13 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	@SuppressWarnings("deprecation")
 	public void preSplit(ObserverContext<RegionCoprocessorEnvironment> c) throws IOException {
-		runWithPolicies("RegionObserver:preSplit(deprecated)",
+		runWithPolicies(PRE_SPLIT_DEPRECATED,
 				() -> getAdaptee().preSplit(argumentWithPolicies(c)), c);
 	}
 
 	@Override
 	public void preSplit(ObserverContext<RegionCoprocessorEnvironment> c, byte[] splitRow) throws IOException {
-		runWithPolicies("RegionObserver:preSplit",
+		runWithPolicies(PRE_SPLIT,
 				() -> getAdaptee().preSplit(argumentWithPolicies(c), splitRow),
 				c, splitRow);
 	}
@@ -220,44 +299,44 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	@SuppressWarnings("deprecation")
 	public void postSplit(ObserverContext<RegionCoprocessorEnvironment> c, Region l, Region r) throws IOException {
-		runWithPolicies("RegionObserver:postSplit(deprecated)",
+		runWithPolicies(POST_SPLIT_DEPRECATED,
 				() -> getAdaptee().postSplit(argumentWithPolicies(c), l, r), c, l, r);
 	}
 
 	@Override
 	public void preSplitBeforePONR(ObserverContext<RegionCoprocessorEnvironment> ctx, byte[] splitKey, List<Mutation> metaEntries) throws IOException {
-		runWithPolicies("RegionObserver:preSplitBeforePONR",
+		runWithPolicies(PRE_SPLIT_BEFORE_PONR,
 				() -> getAdaptee().preSplitBeforePONR(argumentWithPolicies(ctx), splitKey, metaEntries),
 				ctx, splitKey, metaEntries);
 	}
 
 	@Override
 	public void preSplitAfterPONR(ObserverContext<RegionCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("RegionObserver:preSplitAfterPONR",
+		runWithPolicies(PRE_SPLIT_AFTER_PONR,
 				() -> getAdaptee().preSplitAfterPONR(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void preRollBackSplit(ObserverContext<RegionCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("RegionObserver:preRollBackSplit",
+		runWithPolicies(PRE_ROLL_BACK_SPLIT,
 				() -> getAdaptee().preRollBackSplit(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void postRollBackSplit(ObserverContext<RegionCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("RegionObserver:postRollBackSplit",
+		runWithPolicies(POST_ROLL_BACK_SPLIT,
 				() -> getAdaptee().postRollBackSplit(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void postCompleteSplit(ObserverContext<RegionCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("RegionObserver:postCompleteSplit",
+		runWithPolicies(POST_COMPLETE_SPLIT,
 				() -> getAdaptee().postCompleteSplit(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void preClose(ObserverContext<RegionCoprocessorEnvironment> c, boolean abortRequested) throws IOException {
-		runWithPolicies("RegionObserver:preClose",
+		runWithPolicies(PRE_CLOSE,
 				() -> getAdaptee().preClose(argumentWithPolicies(c), abortRequested),
 				c, abortRequested);
 	}
@@ -265,70 +344,70 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void postClose(ObserverContext<RegionCoprocessorEnvironment> c, boolean abortRequested) {
 		catchIOException(
-				() -> runWithPolicies("RegionObserver:postClose",
+				() -> runWithPolicies(POST_CLOSE,
 						() -> getAdaptee().postClose(argumentWithPolicies(c), abortRequested),
 						c, abortRequested));
 	}
 
 	@Override
 	public void preGetClosestRowBefore(ObserverContext<RegionCoprocessorEnvironment> c, byte[] row, byte[] family, Result result) throws IOException {
-		runWithPolicies("RegionObserver:preGetClosestRowBefore",
+		runWithPolicies(PRE_GET_CLOSEST_ROW_BEFORE,
 				() -> getAdaptee().preGetClosestRowBefore(argumentWithPolicies(c), row, family, result),
 				c, row, family, result);
 	}
 
 	@Override
 	public void postGetClosestRowBefore(ObserverContext<RegionCoprocessorEnvironment> c, byte[] row, byte[] family, Result result) throws IOException {
-		runWithPolicies("RegionObserver:postGetClosestRowBefore",
+		runWithPolicies(POST_GET_CLOSEST_ROW_BEFORE,
 				() -> getAdaptee().postGetClosestRowBefore(argumentWithPolicies(c), row, family, result),
 				c, row, family, result);
 	}
 
 	@Override
 	public void preGetOp(ObserverContext<RegionCoprocessorEnvironment> c, Get get, List<Cell> result) throws IOException {
-		runWithPolicies("RegionObserver:preGetOp",
+		runWithPolicies(PRE_GET_OP,
 				() -> getAdaptee().preGetOp(argumentWithPolicies(c), get, result),
 				c, get, result);
 	}
 
 	@Override
 	public void postGetOp(ObserverContext<RegionCoprocessorEnvironment> c, Get get, List<Cell> result) throws IOException {
-		runWithPolicies("RegionObserver:postGetOp",
+		runWithPolicies(POST_GET_OP,
 				() -> getAdaptee().postGetOp(argumentWithPolicies(c), get, result),
 				c, get, result);
 	}
 
 	@Override
 	public boolean preExists(ObserverContext<RegionCoprocessorEnvironment> c, Get get, boolean exists) throws IOException {
-		return runWithPolicies("RegionObserver:preExists",
+		return runWithPolicies(PRE_EXISTS,
 				() -> getAdaptee().preExists(argumentWithPolicies(c), get, exists),
 				c, get, exists);
 	}
 
 	@Override
 	public boolean postExists(ObserverContext<RegionCoprocessorEnvironment> c, Get get, boolean exists) throws IOException {
-		return runWithPolicies("RegionObserver:postExists",
+		return runWithPolicies(POST_EXISTS,
 				() -> getAdaptee().postExists(argumentWithPolicies(c), get, exists),
 				c, get, exists);
 	}
 
 	@Override
 	public void prePut(ObserverContext<RegionCoprocessorEnvironment> c, Put put, WALEdit edit, Durability durability) throws IOException {
-		runWithPolicies("RegionObserver:prePut",
+		runWithPolicies(PRE_PUT,
 				() -> getAdaptee().prePut(argumentWithPolicies(c), put, edit, durability),
 				c, put, edit, durability);
 	}
 
 	@Override
 	public void postPut(ObserverContext<RegionCoprocessorEnvironment> c, Put put, WALEdit edit, Durability durability) throws IOException {
-		runWithPolicies("RegionObserver:postPut",
+		runWithPolicies(POST_PUT,
 				() -> getAdaptee().postPut(argumentWithPolicies(c), put, edit, durability),
 				c, put, edit, durability);
 	}
 
 	@Override
 	public void preDelete(ObserverContext<RegionCoprocessorEnvironment> c, Delete delete, WALEdit edit, Durability durability) throws IOException {
-		runWithPolicies("RegionObserver:preDelete",
+		runWithPolicies(PRE_DELETE,
 				() -> getAdaptee().preDelete(argumentWithPolicies(c), delete, edit, durability),
 				c, delete, edit, durability);
 	}
@@ -336,7 +415,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void prePrepareTimeStampForDeleteVersion(ObserverContext<RegionCoprocessorEnvironment> c,
 													Mutation mutation, Cell cell, byte[] byteNow, Get get) throws IOException {
-		runWithPolicies("RegionObserver:prePrepareTimeStampForDeleteVersion",
+		runWithPolicies(PRE_PREPARE_TIME_STAMP_FOR_DELETE_VERSION,
 				() -> getAdaptee().prePrepareTimeStampForDeleteVersion(argumentWithPolicies(c), mutation, cell, byteNow, get),
 				c, mutation, cell, byteNow, get);
 	}
@@ -344,7 +423,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void postDelete(ObserverContext<RegionCoprocessorEnvironment> c, Delete delete,
 						   WALEdit edit, Durability durability) throws IOException {
-		runWithPolicies("RegionObserver:postDelete",
+		runWithPolicies(POST_DELETE,
 				() -> getAdaptee().postDelete(argumentWithPolicies(c), delete, edit, durability),
 				c, delete, edit, durability);
 	}
@@ -352,7 +431,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void preBatchMutate(ObserverContext<RegionCoprocessorEnvironment> c,
 							   MiniBatchOperationInProgress<Mutation> miniBatchOp) throws IOException {
-		runWithPolicies("RegionObserver:preBatchMutate",
+		runWithPolicies(PRE_BATCH_MUTATE,
 				() -> getAdaptee().preBatchMutate(argumentWithPolicies(c), miniBatchOp),
 				c, miniBatchOp);
 	}
@@ -360,7 +439,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void postBatchMutate(ObserverContext<RegionCoprocessorEnvironment> c,
 								MiniBatchOperationInProgress<Mutation> miniBatchOp) throws IOException {
-		runWithPolicies("RegionObserver:postBatchMutate",
+		runWithPolicies(POST_BATCH_MUTATE,
 				() -> getAdaptee().postBatchMutate(argumentWithPolicies(c), miniBatchOp),
 				c, miniBatchOp);
 	}
@@ -368,7 +447,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void postStartRegionOperation(ObserverContext<RegionCoprocessorEnvironment> ctx,
 										 Region.Operation operation) throws IOException {
-		runWithPolicies("RegionObserver:postStartRegionOperation",
+		runWithPolicies(POST_START_REGION_OPERATION,
 				() -> getAdaptee().postStartRegionOperation(argumentWithPolicies(ctx), operation),
 				ctx, operation);
 	}
@@ -376,7 +455,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void postCloseRegionOperation(ObserverContext<RegionCoprocessorEnvironment> ctx,
 										 Region.Operation operation) throws IOException {
-		runWithPolicies("RegionObserver:postCloseRegionOperation",
+		runWithPolicies(POST_CLOSE_REGION_OPERATION,
 				() -> getAdaptee().postCloseRegionOperation(argumentWithPolicies(ctx), operation),
 				ctx, operation);
 	}
@@ -384,7 +463,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void postBatchMutateIndispensably(ObserverContext<RegionCoprocessorEnvironment> ctx,
 											 MiniBatchOperationInProgress<Mutation> miniBatchOp, boolean success) throws IOException {
-		runWithPolicies("RegionObserver:postBatchMutateIndispensably",
+		runWithPolicies(POST_BATCH_MUTATE_INDISPENSABLY,
 				() -> getAdaptee().postBatchMutateIndispensably(argumentWithPolicies(ctx), miniBatchOp, success),
 				ctx, miniBatchOp, success);
 	}
@@ -394,7 +473,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 								  byte[] row, byte[] family, byte[] qualifier,
 								  CompareFilter.CompareOp compareOp,
 								  ByteArrayComparable comparator, Put put, boolean result) throws IOException {
-		return runWithPolicies("RegionObserver:preCheckAndPut",
+		return runWithPolicies(PRE_CHECK_AND_PUT,
 				() -> getAdaptee().preCheckAndPut(argumentWithPolicies(c), row, family, qualifier, compareOp, comparator, put, result),
 				c, row, family, qualifier, compareOp, comparator, put, result);
 	}
@@ -403,7 +482,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public boolean preCheckAndPutAfterRowLock(ObserverContext<RegionCoprocessorEnvironment> c,
 											  byte[] row, byte[] family, byte[] qualifier, CompareFilter.CompareOp compareOp,
 											  ByteArrayComparable comparator, Put put, boolean result) throws IOException {
-		return runWithPolicies("RegionObserver:preCheckAndPutAfterRowLock",
+		return runWithPolicies(PRE_CHECK_AND_PUT_AFTER_ROW_LOCK,
 				() -> getAdaptee().preCheckAndPutAfterRowLock(argumentWithPolicies(c), row, family, qualifier, compareOp, comparator, put, result),
 				c, row, family, qualifier, compareOp, comparator, put, result);
 	}
@@ -412,7 +491,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public boolean postCheckAndPut(ObserverContext<RegionCoprocessorEnvironment> c,
 								   byte[] row, byte[] family, byte[] qualifier, CompareFilter.CompareOp compareOp,
 								   ByteArrayComparable comparator, Put put, boolean result) throws IOException {
-		return runWithPolicies("RegionObserver:postCheckAndPut",
+		return runWithPolicies(POST_CHECK_AND_PUT,
 				() -> getAdaptee().postCheckAndPut(argumentWithPolicies(c), row, family, qualifier, compareOp, comparator, put, result),
 				c, row, family, qualifier, compareOp, comparator, put, result);
 	}
@@ -421,7 +500,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public boolean preCheckAndDelete(ObserverContext<RegionCoprocessorEnvironment> c,
 									 byte[] row, byte[] family, byte[] qualifier, CompareFilter.CompareOp compareOp,
 									 ByteArrayComparable comparator, Delete delete, boolean result) throws IOException {
-		return runWithPolicies("RegionObserver:preCheckAndDelete",
+		return runWithPolicies(PRE_CHECK_AND_DELETE,
 				() -> getAdaptee().preCheckAndDelete(argumentWithPolicies(c), row, family, qualifier, compareOp, comparator, delete, result),
 				c, row, family, qualifier, compareOp, comparator, delete, result);
 	}
@@ -430,7 +509,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public boolean preCheckAndDeleteAfterRowLock(ObserverContext<RegionCoprocessorEnvironment> c,
 												 byte[] row, byte[] family, byte[] qualifier, CompareFilter.CompareOp compareOp,
 												 ByteArrayComparable comparator, Delete delete, boolean result) throws IOException {
-		return runWithPolicies("RegionObserver:preCheckAndDeleteAfterRowLock",
+		return runWithPolicies(PRE_CHECK_AND_DELETE_AFTER_ROW_LOCK,
 				() -> getAdaptee().preCheckAndDeleteAfterRowLock(argumentWithPolicies(c), row, family, qualifier, compareOp, comparator, delete, result),
 				c, row, family, qualifier, compareOp, comparator, delete, result);
 	}
@@ -439,7 +518,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public boolean postCheckAndDelete(ObserverContext<RegionCoprocessorEnvironment> c,
 									  byte[] row, byte[] family, byte[] qualifier, CompareFilter.CompareOp compareOp,
 									  ByteArrayComparable comparator, Delete delete, boolean result) throws IOException {
-		return runWithPolicies("RegionObserver:postCheckAndDelete",
+		return runWithPolicies(POST_CHECK_AND_DELETE,
 				() -> getAdaptee().postCheckAndDelete(argumentWithPolicies(c), row, family, qualifier, compareOp, comparator, delete, result),
 				c, row, family, qualifier, compareOp, comparator, delete, result);
 	}
@@ -449,7 +528,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public long preIncrementColumnValue(ObserverContext<RegionCoprocessorEnvironment> c,
 										byte[] row, byte[] family, byte[] qualifier, long amount,
 										boolean writeToWAL) throws IOException {
-		return runWithPolicies("RegionObserver:preIncrementColumnValue(deprecated)",
+		return runWithPolicies(PRE_INCREMENT_COLUMN_VALUE_DEPRECATED,
 				() -> getAdaptee().preIncrementColumnValue(argumentWithPolicies(c), row, family, qualifier, amount, writeToWAL),
 				c, row, family, qualifier, amount, writeToWAL);
 	}
@@ -459,56 +538,56 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public long postIncrementColumnValue(ObserverContext<RegionCoprocessorEnvironment> c,
 										 byte[] row, byte[] family, byte[] qualifier, long amount,
 										 boolean writeToWAL, long result) throws IOException {
-		return runWithPolicies("RegionObserver:postIncrementColumnValue(deprecated)",
+		return runWithPolicies(POST_INCREMENT_COLUMN_VALUE_DEPRECATED,
 				() -> getAdaptee().postIncrementColumnValue(argumentWithPolicies(c), row, family, qualifier, amount, writeToWAL, result),
 				c, row, family, qualifier, amount, writeToWAL, result);
 	}
 
 	@Override
 	public Result preAppend(ObserverContext<RegionCoprocessorEnvironment> c, Append append) throws IOException {
-		return runWithPolicies("RegionObserver:preAppend",
+		return runWithPolicies(PRE_APPEND,
 				() -> getAdaptee().preAppend(argumentWithPolicies(c), append),
 				c, append);
 	}
 
 	@Override
 	public Result preAppendAfterRowLock(ObserverContext<RegionCoprocessorEnvironment> c, Append append) throws IOException {
-		return runWithPolicies("RegionObserver:preAppendAfterRowLock",
+		return runWithPolicies(PRE_APPEND_AFTER_ROW_LOCK,
 				() -> getAdaptee().preAppendAfterRowLock(argumentWithPolicies(c), append),
 				c, append);
 	}
 
 	@Override
 	public Result postAppend(ObserverContext<RegionCoprocessorEnvironment> c, Append append, Result result) throws IOException {
-		return runWithPolicies("RegionObserver:postAppend",
+		return runWithPolicies(POST_APPEND,
 				() -> getAdaptee().postAppend(argumentWithPolicies(c), append, result),
 				c, append, result);
 	}
 
 	@Override
 	public Result preIncrement(ObserverContext<RegionCoprocessorEnvironment> c, Increment increment) throws IOException {
-		return runWithPolicies("RegionObserver:preIncrement",
+		return runWithPolicies(PRE_INCREMENT,
 				() -> getAdaptee().preIncrement(argumentWithPolicies(c), increment),
 				c, increment);
 	}
 
 	@Override
 	public Result preIncrementAfterRowLock(ObserverContext<RegionCoprocessorEnvironment> c, Increment increment) throws IOException {
-		return runWithPolicies("RegionObserver:preIncrementAfterRowLock",
+		return runWithPolicies(PRE_INCREMENT_AFTER_ROW_LOCK,
 				() -> getAdaptee().preIncrementAfterRowLock(argumentWithPolicies(c), increment),
 				c, increment);
 	}
 
 	@Override
 	public Result postIncrement(ObserverContext<RegionCoprocessorEnvironment> c, Increment increment, Result result) throws IOException {
-		return runWithPolicies("RegionObserver:postIncrement",
+		return runWithPolicies(POST_INCREMENT,
 				() -> getAdaptee().postIncrement(argumentWithPolicies(c), increment, result),
 				c, increment, result);
 	}
 
 	@Override
 	public RegionScanner preScannerOpen(ObserverContext<RegionCoprocessorEnvironment> c, Scan scan, RegionScanner s) throws IOException {
-		return runWithPolicies("RegionObserver:preScannerOpen",
+		return runWithPolicies(PRE_SCANNER_OPEN,
 				() -> getAdaptee().preScannerOpen(argumentWithPolicies(c), scan, s),
 				c, scan, s);
 	}
@@ -516,7 +595,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public KeyValueScanner preStoreScannerOpen(ObserverContext<RegionCoprocessorEnvironment> c,
 											   Store store, Scan scan, NavigableSet<byte[]> targetCols, KeyValueScanner s) throws IOException {
-		return runWithPolicies("RegionObserver:preStoreScannerOpen",
+		return runWithPolicies(PRE_STORE_SCANNER_OPEN,
 				() -> getAdaptee().preStoreScannerOpen(argumentWithPolicies(c), store, scan, targetCols, s),
 				c, store, scan, targetCols, s);
 	}
@@ -524,7 +603,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public RegionScanner postScannerOpen(ObserverContext<RegionCoprocessorEnvironment> c,
 										 Scan scan, RegionScanner s) throws IOException {
-		return runWithPolicies("RegionObserver:postScannerOpen",
+		return runWithPolicies(POST_SCANNER_OPEN,
 				() -> getAdaptee().postScannerOpen(argumentWithPolicies(c), scan, s),
 				c, scan, s);
 	}
@@ -532,7 +611,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public boolean preScannerNext(ObserverContext<RegionCoprocessorEnvironment> c,
 								  InternalScanner s, List<Result> result, int limit, boolean hasNext) throws IOException {
-		return runWithPolicies("RegionObserver:preScannerNext",
+		return runWithPolicies(PRE_SCANNER_NEXT,
 				() -> getAdaptee().preScannerNext(argumentWithPolicies(c), s, result, limit, hasNext),
 				c, s, result, limit, hasNext);
 	}
@@ -540,7 +619,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public boolean postScannerNext(ObserverContext<RegionCoprocessorEnvironment> c,
 								   InternalScanner s, List<Result> result, int limit, boolean hasNext) throws IOException {
-		return runWithPolicies("RegionObserver:postScannerNext",
+		return runWithPolicies(POST_SCANNER_NEXT,
 				() -> getAdaptee().postScannerNext(argumentWithPolicies(c), s, result, limit, hasNext),
 				c, s, result, limit, hasNext);
 	}
@@ -549,21 +628,21 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public boolean postScannerFilterRow(ObserverContext<RegionCoprocessorEnvironment> c,
 										InternalScanner s, byte[] currentRow, int offset,
 										short length, boolean hasMore) throws IOException {
-		return runWithPolicies("RegionObserver:postScannerFilterRow",
+		return runWithPolicies(POST_SCANNER_FILTER_ROW,
 				() -> getAdaptee().postScannerFilterRow(argumentWithPolicies(c), s, currentRow, offset, length, hasMore),
 				c, s, currentRow, offset, length, hasMore);
 	}
 
 	@Override
 	public void preScannerClose(ObserverContext<RegionCoprocessorEnvironment> c, InternalScanner s) throws IOException {
-		runWithPolicies("RegionObserver:preScannerClose",
+		runWithPolicies(PRE_SCANNER_CLOSE,
 				() -> getAdaptee().preScannerClose(argumentWithPolicies(c), s),
 				c, s);
 	}
 
 	@Override
 	public void postScannerClose(ObserverContext<RegionCoprocessorEnvironment> c, InternalScanner s) throws IOException {
-		runWithPolicies("RegionObserver:postScannerClose",
+		runWithPolicies(POST_SCANNER_CLOSE,
 				() -> getAdaptee().postScannerClose(argumentWithPolicies(c), s),
 				c, s);
 	}
@@ -571,7 +650,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void preWALRestore(ObserverContext<? extends RegionCoprocessorEnvironment> ctx,
 							  HRegionInfo info, WALKey logKey, WALEdit logEdit) throws IOException {
-		runWithPolicies("RegionObserver:preWALRestore",
+		runWithPolicies(PRE_WAL_RESTORE,
 				() -> getAdaptee().preWALRestore(argumentWithPolicies(ctx), info, logKey, logEdit),
 				ctx, info, logKey, logEdit);
 	}
@@ -580,7 +659,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@SuppressWarnings("deprecation")
 	public void preWALRestore(ObserverContext<RegionCoprocessorEnvironment> ctx,
 							  HRegionInfo info, HLogKey logKey, WALEdit logEdit) throws IOException {
-		runWithPolicies("RegionObserver:preWALRestore(deprecated)",
+		runWithPolicies(PRE_WAL_RESTORE_DEPRECATED,
 				() -> getAdaptee().preWALRestore(argumentWithPolicies(ctx), info, logKey, logEdit),
 				ctx, info, logKey, logEdit);
 	}
@@ -588,7 +667,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public void postWALRestore(ObserverContext<? extends RegionCoprocessorEnvironment> ctx,
 							   HRegionInfo info, WALKey logKey, WALEdit logEdit) throws IOException {
-		runWithPolicies("RegionObserver:postWALRestore",
+		runWithPolicies(POST_WAL_RESTORE,
 				() -> getAdaptee().postWALRestore(argumentWithPolicies(ctx), info, logKey, logEdit),
 				ctx, info, logKey, logEdit);
 	}
@@ -597,14 +676,14 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@SuppressWarnings("deprecation")
 	public void postWALRestore(ObserverContext<RegionCoprocessorEnvironment> ctx,
 							   HRegionInfo info, HLogKey logKey, WALEdit logEdit) throws IOException {
-		runWithPolicies("RegionObserver:postWALRestore(deprectated)",
+		runWithPolicies(POST_WAL_RESTORE_DEPRECATED,
 				() -> getAdaptee().postWALRestore(argumentWithPolicies(ctx), info, logKey, logEdit),
 				ctx, info, logKey, logEdit);
 	}
 
 	@Override
 	public void preBulkLoadHFile(ObserverContext<RegionCoprocessorEnvironment> ctx, List<Pair<byte[], String>> familyPaths) throws IOException {
-		runWithPolicies("RegionObserver:preBulkLoadHFile",
+		runWithPolicies(PRE_BULK_LOAD_HFILE,
 				() -> getAdaptee().preBulkLoadHFile(argumentWithPolicies(ctx), familyPaths),
 				ctx, familyPaths);
 	}
@@ -612,7 +691,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public boolean postBulkLoadHFile(ObserverContext<RegionCoprocessorEnvironment> ctx, List<Pair<byte[],
 			String>> familyPaths, boolean hasLoaded) throws IOException {
-		return runWithPolicies("RegionObserver:postBulkLoadHFile",
+		return runWithPolicies(POST_BULK_LOAD_HFILE,
 				() -> getAdaptee().postBulkLoadHFile(argumentWithPolicies(ctx), familyPaths, hasLoaded),
 				ctx, familyPaths, hasLoaded);
 	}
@@ -621,7 +700,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	public StoreFile.Reader preStoreFileReaderOpen(ObserverContext<RegionCoprocessorEnvironment> ctx,
 												   FileSystem fs, Path p, FSDataInputStreamWrapper in, long size,
 												   CacheConfig cacheConf, Reference r, StoreFile.Reader reader) throws IOException {
-		return runWithPolicies("RegionObserver:preStoreFileReaderOpen",
+		return runWithPolicies(PRE_STORE_FILE_READER_OPEN,
 				() -> getAdaptee().preStoreFileReaderOpen(argumentWithPolicies(ctx), fs, p, in, size, cacheConf, r, reader),
 				ctx, fs, p, in, size, cacheConf, r, reader);
 	}
@@ -631,7 +710,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 													FileSystem fs, Path p, FSDataInputStreamWrapper in,
 													long size, CacheConfig cacheConf, Reference r,
 													StoreFile.Reader reader) throws IOException {
-		return runWithPolicies("RegionObserver:postStoreFileReaderOpen",
+		return runWithPolicies(POST_STORE_FILE_READER_OPEN,
 				() -> getAdaptee().postStoreFileReaderOpen(argumentWithPolicies(ctx), fs, p, in, size, cacheConf, r, reader),
 				ctx, fs, p, in, size, cacheConf, r, reader);
 	}
@@ -639,7 +718,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public Cell postMutationBeforeWAL(ObserverContext<RegionCoprocessorEnvironment> ctx,
 									  MutationType opType, Mutation mutation, Cell oldCell, Cell newCell) throws IOException {
-		return runWithPolicies("RegionObserver:postMutationBeforeWAL",
+		return runWithPolicies(POST_MUTATION_BEFORE_WAL,
 				() -> getAdaptee().postMutationBeforeWAL(argumentWithPolicies(ctx), opType, mutation, oldCell, newCell),
 				ctx, opType, mutation, oldCell, newCell);
 	}
@@ -647,7 +726,7 @@ public class RegionObserverPolicyProxy<T extends RegionObserver> extends Coproce
 	@Override
 	public DeleteTracker postInstantiateDeleteTracker(ObserverContext<RegionCoprocessorEnvironment> ctx,
 													  DeleteTracker delTracker) throws IOException {
-		return runWithPolicies("RegionObserver:postInstantiateDeleteTracker",
+		return runWithPolicies(POST_INSTANTIATE_DELETE_TRACKER,
 				() -> getAdaptee().postInstantiateDeleteTracker(argumentWithPolicies(ctx), delTracker),
 				ctx, delTracker);
 	}
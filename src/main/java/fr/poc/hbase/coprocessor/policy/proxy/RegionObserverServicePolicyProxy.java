@@ -29,7 +29,7 @@ public class RegionObserverServicePolicyProxy<T extends CoprocessorService & Reg
 
 	@Override
 	public Service getService() {
-		return new ServicePolicyProxy(getAdaptee().getService(), getPolicies());
+		return new ServicePolicyProxy(getAdaptee().getService(), getPolicies(), getExecutor());
 	}
 
 }
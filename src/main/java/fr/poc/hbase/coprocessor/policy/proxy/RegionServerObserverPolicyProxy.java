@@ -1,6 +1,7 @@
 package fr.poc.hbase.coprocessor.policy.proxy;
 
 import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.hbase.CellScanner;
@@ -24,6 +25,20 @@ import java.util.List;
 @Slf4j
 public class RegionServerObserverPolicyProxy<T extends RegionServerObserver> extends CoprocessorPolicyProxy<T> implements RegionServerObserver {
 
+	// Descriptors of all methods wrapped with policies
+	private static final PolicyMethod PRE_STOP_REGION_SERVER = PolicyMethod.of("RegionServerObserver:preStopRegionServer");
+	private static final PolicyMethod PRE_MERGE = PolicyMethod.of("RegionServerObserver:preMerge");
+	private static final PolicyMethod POST_MERGE = PolicyMethod.of("RegionServerObserver:postMerge");
+	private static final PolicyMethod PRE_MERGE_COMMIT = PolicyMethod.of("RegionServerObserver:preMergeCommit");
+	private static final PolicyMethod POST_MERGE_COMMIT = PolicyMethod.of("RegionServerObserver:postMergeCommit");
+	private static final PolicyMethod PRE_ROLL_BACK_MERGE = PolicyMethod.of("RegionServerObserver:preRollBackMerge");
+	private static final PolicyMethod POST_ROLL_BACK_MERGE = PolicyMethod.of("RegionServerObserver:postRollBackMerge");
+	private static final PolicyMethod PRE_ROLL_WAL_WRITER_REQUEST = PolicyMethod.of("RegionServerObserver:preRollWALWriterRequest");
+	private static final PolicyMethod POST_ROLL_WAL_WRITER_REQUEST = PolicyMethod.of("RegionServerObserver:postRollWALWriterRequest");
+	private static final PolicyMethod POST_CREATE_REPLICATION_END_POINT = PolicyMethod.of("RegionServerObserver:postCreateReplicationEndPoint");
+	private static final PolicyMethod PRE_REPLICATE_LOG_ENTRIES = PolicyMethod.of("RegionServerObserver:preReplicateLogEntries");
+	private static final PolicyMethod POST_REPLICATE_LOG_ENTRIES = PolicyMethod.of("RegionServerObserver:postReplicateLogEntries");
+
 	/**
 	 * Constructor
 	 *
@@ -36,14 +51,14 @@ public class RegionServerObserverPolicyProxy<T extends RegionServerObserver> ext
 
 	@Override
 	public void preStopRegionServer(ObserverContext<RegionServerCoprocessorEnvironment> env) throws IOException {
-		runWithPolicies("RegionServerObserver:preStopRegionServer",
+		runWithPolicies(PRE_STOP_REGION_SERVER,
 				() -> getAdaptee().preStopRegionServer(argumentWithPolicies(env)), env);
 	}
 
 	@Override
 	public void preMerge(ObserverContext<RegionServerCoprocessorEnvironment> ctx,
 						 Region regionA, Region regionB) throws IOException {
-		runWithPolicies("RegionServerObserver:preMerge",
+		runWithPolicies(PRE_MERGE,
 				() -> getAdaptee().preMerge(argumentWithPolicies(ctx), regionA, regionB),
 				ctx, regionA, regionB);
 	}
@@ -51,7 +66,7 @@ public class RegionServerObserverPolicyProxy<T extends RegionServerObserver> ext
 	@Override
 	public void postMerge(ObserverContext<RegionServerCoprocessorEnvironment> c,
 						  Region regionA, Region regionB, Region mergedRegion) throws IOException {
-		runWithPolicies("RegionServerObserver:postMerge",
+		runWithPolicies(POST_MERGE,
 				() -> getAdaptee().postMerge(argumentWithPolicies(c), regionA, regionB, mergedRegion),
 				c, regionA, regionB, mergedRegion);
 	}
@@ -60,7 +75,7 @@ public class RegionServerObserverPolicyProxy<T extends RegionServerObserver> ext
 	public void preMergeCommit(ObserverContext<RegionServerCoprocessorEnvironment> ctx,
 							   Region regionA, Region regionB,
 							   @MetaMutationAnnotation List<Mutation> metaEntries) throws IOException {
-		runWithPolicies("RegionServerObserver:preMergeCommit",
+		runWithPolicies(PRE_MERGE_COMMIT,
 				() -> getAdaptee().preMergeCommit(argumentWithPolicies(ctx), regionA, regionB, metaEntries),
 				ctx, regionA, regionB, metaEntries);
 	}
@@ -68,7 +83,7 @@ public class RegionServerObserverPolicyProxy<T extends RegionServerObserver> ext
 	@Override
 	public void postMergeCommit(ObserverContext<RegionServerCoprocessorEnvironment> ctx,
 								Region regionA, Region regionB, Region mergedRegion) throws IOException {
-		runWithPolicies("RegionServerObserver:postMergeCommit",
+		runWithPolicies(POST_MERGE_COMMIT,
 				() -> getAdaptee().postMergeCommit(argumentWithPolicies(ctx), regionA, regionB, mergedRegion),
 				ctx, regionA, regionB, mergedRegion);
 	}
@@ -76,7 +91,7 @@ public class RegionServerObserverPolicyProxy<T extends RegionServerObserver> ext
 	@Override
 	public void preRollBackMerge(ObserverContext<RegionServerCoprocessorEnvironment> ctx,
 								 Region regionA, Region regionB) throws IOException {
-		runWithPolicies("RegionServerObserver:preRollBackMerge",
+		runWithPolicies(PRE_ROLL_BACK_MERGE,
 				() -> getAdaptee().preRollBackMerge(argumentWithPolicies(ctx), regionA, regionB),
 				ctx, regionA, regionB);
 	}
@@ -84,20 +99,20 @@ public class RegionServerObserverPolicyProxy<T extends RegionServerObserver> ext
 	@Override
 	public void postRollBackMerge(ObserverContext<RegionServerCoprocessorEnvironment> ctx,
 								  Region regionA, Region regionB) throws IOException {
-		runWithPolicies("RegionServerObserver:postRollBackMerge",
+		runWithPolicies(POST_ROLL_BACK_MERGE,
 				() -> getAdaptee().postRollBackMerge(argumentWithPolicies(ctx), regionA, regionB),
 				ctx, regionA, regionB);
 	}
 
 	@Override
 	public void preRollWALWriterRequest(ObserverContext<RegionServerCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("RegionServerObserver:preRollWALWriterRequest",
+		runWithPolicies(PRE_ROLL_WAL_WRITER_REQUEST,
 				() -> getAdaptee().preRollWALWriterRequest(argumentWithPolicies(ctx)), ctx);
 	}
 
 	@Override
 	public void postRollWALWriterRequest(ObserverContext<RegionServerCoprocessorEnvironment> ctx) throws IOException {
-		runWithPolicies("RegionServerObserver:postRollWALWriterRequest",
+		runWithPolicies(POST_ROLL_WAL_WRITER_REQUEST,
 				() -> getAdaptee().postRollWALWriterRequest(argumentWithPolicies(ctx)), ctx);
 	}
 
@@ -105,7 +120,7 @@ public class RegionServerObserverPolicyProxy<T extends RegionServerObserver> ext
 	public ReplicationEndpoint postCreateReplicationEndPoint(ObserverContext<RegionServerCoprocessorEnvironment> ctx,
 															 ReplicationEndpoint endpoint) {
 		try {
-			return runWithPolicies("RegionServerObserver:postCreateReplicationEndPoint",
+			return runWithPolicies(POST_CREATE_REPLICATION_END_POINT,
 					() -> getAdaptee().postCreateReplicationEndPoint(argumentWithPolicies(ctx), endpoint),
 					ctx, endpoint);
 		} catch (IOException ioEx) {
@@ -116,14 +131,14 @@ public class RegionServerObserverPolicyProxy<T extends RegionServerObserver> ext
 
 	@Override
 	public void preReplicateLogEntries(ObserverContext<RegionServerCoprocessorEnvironment> ctx, List<AdminProtos.WALEntry> entries, CellScanner cells) throws IOException {
-		runWithPolicies("RegionServerObserver:preReplicateLogEntries",
+		runWithPolicies(PRE_REPLICATE_LOG_ENTRIES,
 				() -> getAdaptee().preReplicateLogEntries(argumentWithPolicies(ctx), entries, cells),
 				ctx, entries, cells);
 	}
 
 	@Override
 	public void postReplicateLogEntries(ObserverContext<RegionServerCoprocessorEnvironment> ctx, List<AdminProtos.WALEntry> entries, CellScanner cells) throws IOException {
-		runWithPolicies("RegionServerObserver:postReplicateLogEntries",
+		runWithPolicies(POST_REPLICATE_LOG_ENTRIES,
 				() -> getAdaptee().postReplicateLogEntries(argumentWithPolicies(ctx), entries, cells),
 				ctx, entries, cells);
 	}
@@ -28,7 +28,7 @@ public class RegionServerObserverServicePolicyProxy<T extends SingletonCoprocess
 
 	@Override
 	public Service getService() {
-		return new ServicePolicyProxy(getAdaptee().getService(), getPolicies());
+		return new ServicePolicyProxy(getAdaptee().getService(), getPolicies(), getExecutor());
 	}
 
 }
@@ -1,9 +1,14 @@
 package fr.poc.hbase.coprocessor.policy.proxy;
 
 import com.google.protobuf.*;
+import fr.poc.hbase.coprocessor.policy.Deadline;
 import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
 import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.executor.BoundedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.hbase.protobuf.ResponseConverter;
 
 import java.io.IOException;
@@ -12,10 +17,30 @@ import java.util.List;
 /**
  * Protobuf {@link Service} proxy that wrap all calls to be sure there is "safe" according to the given policies
  * <br>
+ * The response callback is completed exactly once : a late completion (from an execution that has been
+ * cancelled by a policy, or after its {@link Deadline} expiration) is ignored, so it could not alter a response
+ * already returned by the RPC handler.
+ * <br>
+ * HBase reads the endpoint response as soon as {@link #callMethod} returns, so services are never completed
+ * asynchronously. To avoid holding an RPC handler and an executor thread for the same call, use
+ * {@link ExecutionMode#CALLER_THREAD} : endpoints are then executed in the handler thread and must poll their
+ * {@link Deadline} to stop when a policy cancels them.
+ * <br>
  * See {@link PolicyVerifier} for more details.
  */
+@Slf4j
 public class ServicePolicyProxy extends PolicyVerifier<Service> implements Service {
 
+	/**
+	 * Protobuf descriptors of all service methods, indexed by {@link Descriptors.MethodDescriptor#getIndex()}
+	 */
+	private final Descriptors.MethodDescriptor[] descriptors;
+
+	/**
+	 * Descriptors of all service methods, indexed by {@link Descriptors.MethodDescriptor#getIndex()}
+	 */
+	private final PolicyMethod[] methods;
+
 	/**
 	 * Constructor
 	 *
@@ -23,7 +48,39 @@ public class ServicePolicyProxy extends PolicyVerifier<Service> implements Servi
 	 * @param policies policies to check
 	 */
 	public ServicePolicyProxy(@NonNull Service adaptee, @NonNull List<Policy> policies) {
-		super(adaptee, policies);
+		this(adaptee, policies, SharedPolicyExecutor.getInstance().newBoundedExecutor());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param adaptee  service adaptee
+	 * @param policies policies to check
+	 * @param executor executor shared with the coprocessor that provides the service
+	 */
+	public ServicePolicyProxy(@NonNull Service adaptee, @NonNull List<Policy> policies,
+							  @NonNull BoundedPolicyExecutor executor) {
+		this(adaptee, policies, executor, ExecutionMode.EXECUTOR);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param adaptee       service adaptee
+	 * @param policies      policies to check
+	 * @param executor      executor shared with the coprocessor that provides the service
+	 * @param executionMode how service methods are executed when a policy watches them
+	 */
+	public ServicePolicyProxy(@NonNull Service adaptee, @NonNull List<Policy> policies,
+							  @NonNull BoundedPolicyExecutor executor, @NonNull ExecutionMode executionMode) {
+		super(adaptee, policies, executor, executionMode);
+		List<Descriptors.MethodDescriptor> serviceMethods = adaptee.getDescriptorForType().getMethods();
+		this.descriptors = new Descriptors.MethodDescriptor[serviceMethods.size()];
+		this.methods = new PolicyMethod[serviceMethods.size()];
+		for (Descriptors.MethodDescriptor descriptor : serviceMethods) {
+			descriptors[descriptor.getIndex()] = descriptor;
+			methods[descriptor.getIndex()] = PolicyMethod.of(descriptor.getFullName());
+		}
 	}
 
 	@Override
@@ -47,13 +104,87 @@ public class ServicePolicyProxy extends PolicyVerifier<Service> implements Servi
 	@Override
 	public void callMethod(Descriptors.MethodDescriptor method, RpcController controller,
 						   Message request, RpcCallback<Message> done) {
+		CompleteOnceCallback callback = new CompleteOnceCallback(done);
+		int index = method.getIndex();
+		// Generated services always call with their own descriptors : compare them by identity
+		PolicyMethod policyMethod = index < descriptors.length && descriptors[index] == method
+				? methods[index] : PolicyMethod.of(method.getFullName());
 		try {
-			runWithPolicies(method.getFullName(),
-					() -> getAdaptee().callMethod(method, controller, request, done),
+			runWithPolicies(policyMethod,
+					() -> getAdaptee().callMethod(method, controller, request, callback.within(Deadline.current())),
 					method, controller, request, done);
 		} catch (IOException ioe) {
+			if (!callback.fail(controller, ioe)) {
+				LOGGER.debug("Service method [{}] has failed after its completion, error ignored", method.getFullName(), ioe);
+			}
+		}
+	}
+
+	/**
+	 * Callback that completes the RPC callback only once, while the invocation deadline is not expired
+	 */
+	private static final class CompleteOnceCallback implements RpcCallback<Message> {
+
+		/**
+		 * RPC callback
+		 */
+		private final RpcCallback<Message> done;
+
+		/**
+		 * Indicates whenever the RPC callback is already completed
+		 */
+		private boolean completed;
+
+		/**
+		 * Deadline of the service method invocation
+		 */
+		private Deadline deadline = Deadline.NONE;
+
+		/**
+		 * Constructor
+		 *
+		 * @param done RPC callback
+		 */
+		private CompleteOnceCallback(@NonNull RpcCallback<Message> done) {
+			this.done = done;
+		}
+
+		/**
+		 * Bind the callback to the deadline of the service method invocation
+		 *
+		 * @param deadline invocation deadline
+		 * @return self
+		 */
+		private synchronized CompleteOnceCallback within(@NonNull Deadline deadline) {
+			this.deadline = deadline;
+			return this;
+		}
+
+		@Override
+		public synchronized void run(Message response) {
+			if (completed || deadline.isExpired()) {
+				LOGGER.debug("Ignore a service response received after the call completion or deadline");
+				return;
+			}
+			completed = true;
+			done.run(response);
+		}
+
+		/**
+		 * Complete the RPC callback with an error
+		 *
+		 * @param controller RPC controller
+		 * @param ioe        call error
+		 * @return true if the callback has been completed, false if it was already completed
+		 */
+		private synchronized boolean fail(RpcController controller, IOException ioe) {
+			if (completed) {
+				return false;
+			}
+			completed = true;
 			ResponseConverter.setControllerException(controller, ioe);
 			done.run(null);
+			return true;
 		}
 	}
 }
@@ -1,6 +1,7 @@
 package fr.poc.hbase.coprocessor.policy.proxy;
 
 import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
 import lombok.NonNull;
 import org.apache.hadoop.hbase.HRegionInfo;
 import org.apache.hadoop.hbase.coprocessor.ObserverContext;
@@ -20,6 +21,12 @@ import java.util.List;
  */
 public class WALObserverPolicyProxy extends CoprocessorPolicyProxy<WALObserver> implements WALObserver {
 
+	// Descriptors of all methods wrapped with policies
+	private static final PolicyMethod PRE_WAL_WRITE = PolicyMethod.of("WALObserver:preWALWrite");
+	private static final PolicyMethod PRE_WAL_WRITE_DEPRECATED = PolicyMethod.of("WALObserver:preWALWrite(deprecated)");
+	private static final PolicyMethod POST_WAL_WRITE = PolicyMethod.of("WALObserver:postWALWrite");
+	private static final PolicyMethod POST_WAL_WRITE_DEPRECATED = PolicyMethod.of("WALObserver:postWALWrite(deprecated)");
+
 	/**
 	 * Constructor
 	 *
@@ -33,7 +40,7 @@ public class WALObserverPolicyProxy extends CoprocessorPolicyProxy<WALObserver>
 	@Override
 	public boolean preWALWrite(ObserverContext<? extends WALCoprocessorEnvironment> ctx,
 							   HRegionInfo info, WALKey logKey, WALEdit logEdit) throws IOException {
-		return runWithPolicies("WALObserver:preWALWrite",
+		return runWithPolicies(PRE_WAL_WRITE,
 				() -> getAdaptee().preWALWrite(argumentWithPolicies(ctx), info, logKey, logEdit),
 				ctx, info, logKey, logEdit);
 	}
@@ -42,7 +49,7 @@ public class WALObserverPolicyProxy extends CoprocessorPolicyProxy<WALObserver>
 	@SuppressWarnings("deprecation")
 	public boolean preWALWrite(ObserverContext<WALCoprocessorEnvironment> ctx, HRegionInfo info,
 							   HLogKey logKey, WALEdit logEdit) throws IOException {
-		return runWithPolicies("WALObserver:preWALWrite(deprecated)",
+		return runWithPolicies(PRE_WAL_WRITE_DEPRECATED,
 				() -> getAdaptee().preWALWrite(argumentWithPolicies(ctx), info, logKey, logEdit),
 				ctx, info, logKey, logEdit);
 	}
@@ -50,7 +57,7 @@ public class WALObserverPolicyProxy extends CoprocessorPolicyProxy<WALObserver>
 	@Override
 	public void postWALWrite(ObserverContext<? extends WALCoprocessorEnvironment> ctx,
 							 HRegionInfo info, WALKey logKey, WALEdit logEdit) throws IOException {
-		runWithPolicies("WALObserver:postWALWrite",
+		runWithPolicies(POST_WAL_WRITE,
 				() -> getAdaptee().postWALWrite(argumentWithPolicies(ctx), info, logKey, logEdit),
 				ctx, info, logKey, logEdit);
 	}
@@ -59,7 +66,7 @@ public class WALObserverPolicyProxy extends CoprocessorPolicyProxy<WALObserver>
 	@SuppressWarnings("deprecation")
 	public void postWALWrite(ObserverContext<WALCoprocessorEnvironment> ctx,
 							 HRegionInfo info, HLogKey logKey, WALEdit logEdit) throws IOException {
-		runWithPolicies("WALObserver:postWALWrite(deprecated)",
+		runWithPolicies(POST_WAL_WRITE_DEPRECATED,
 				() -> getAdaptee().postWALWrite(argumentWithPolicies(ctx), info, logKey, logEdit),
 				ctx, info, logKey, logEdit);
 	}
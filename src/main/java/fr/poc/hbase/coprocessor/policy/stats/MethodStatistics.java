@@ -0,0 +1,167 @@
+package fr.poc.hbase.coprocessor.policy.stats;
+
+import fr.poc.hbase.coprocessor.policy.util.LatencyHistogram;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable statistics of a coprocessor method, mergeable : statistics of several regions, metrics contexts or region
+ * servers are merged into statistics of the same method.
+ * Execution times are in microseconds.
+ */
+@Getter
+public final class MethodStatistics {
+
+	/**
+	 * Coprocessor class name
+	 */
+	@NonNull
+	private final String coprocessor;
+
+	/**
+	 * Coprocessor method
+	 */
+	@NonNull
+	private final String method;
+
+	/**
+	 * Execution count
+	 */
+	private final long count;
+
+	/**
+	 * Number of executions that end with an error
+	 */
+	private final long errorCount;
+
+	/**
+	 * Number of executions that end with an unexpected error
+	 */
+	private final long unexpectedErrorCount;
+
+	/**
+	 * Total execution time (in microseconds)
+	 */
+	private final long totalTimeMicros;
+
+	/**
+	 * Minimum execution time (in microseconds), meaningless without execution
+	 */
+	private final long minTimeMicros;
+
+	/**
+	 * Maximum execution time (in microseconds), meaningless without execution
+	 */
+	private final long maxTimeMicros;
+
+	/**
+	 * Execution time distribution
+	 */
+	@NonNull
+	private final LatencyHistogram.Snapshot executionTimes;
+
+	/**
+	 * Execution time distribution over the last minute
+	 */
+	@NonNull
+	private final LatencyHistogram.Snapshot recentExecutionTimes;
+
+	/**
+	 * Constructor
+	 *
+	 * @param coprocessor          coprocessor class name
+	 * @param method               coprocessor method
+	 * @param count                execution count
+	 * @param errorCount           number of executions that end with an error
+	 * @param unexpectedErrorCount number of executions that end with an unexpected error
+	 * @param totalTimeMicros      total execution time (in microseconds)
+	 * @param minTimeMicros        minimum execution time (in microseconds)
+	 * @param maxTimeMicros        maximum execution time (in microseconds)
+	 * @param executionTimes       execution time distribution
+	 * @param recentExecutionTimes execution time distribution over the last minute
+	 */
+	public MethodStatistics(@NonNull String coprocessor, @NonNull String method, long count, long errorCount,
+							long unexpectedErrorCount, long totalTimeMicros, long minTimeMicros, long maxTimeMicros,
+							@NonNull LatencyHistogram.Snapshot executionTimes,
+							@NonNull LatencyHistogram.Snapshot recentExecutionTimes) {
+		this.coprocessor = coprocessor;
+		this.method = method;
+		this.count = count;
+		this.errorCount = errorCount;
+		this.unexpectedErrorCount = unexpectedErrorCount;
+		this.totalTimeMicros = totalTimeMicros;
+		this.minTimeMicros = minTimeMicros;
+		this.maxTimeMicros = maxTimeMicros;
+		this.executionTimes = executionTimes;
+		this.recentExecutionTimes = recentExecutionTimes;
+	}
+
+	/**
+	 * Returns the average execution time
+	 *
+	 * @return the average execution time in microseconds, zero without execution
+	 */
+	public double getAverageMicros() {
+		return count == 0L ? 0d : (double) totalTimeMicros / count;
+	}
+
+	/**
+	 * Returns a percentile of the execution times
+	 *
+	 * @param percentile percentile, between 0 and 100
+	 * @return the percentile in microseconds, zero without execution
+	 */
+	public double getPercentileMicros(double percentile) {
+		return executionTimes.getPercentileMicros(percentile);
+	}
+
+	/**
+	 * Merge with statistics of the same method
+	 *
+	 * @param other statistics to merge
+	 * @return statistics of the executions of both statistics
+	 * @throws IllegalArgumentException if statistics are not about the same method
+	 */
+	public MethodStatistics merge(@NonNull MethodStatistics other) {
+		if (!coprocessor.equals(other.coprocessor) || !method.equals(other.method)) {
+			throw new IllegalArgumentException("Could not merge statistics of [" + coprocessor + ":" + method
+					+ "] with [" + other.coprocessor + ":" + other.method + "]");
+		}
+		long minTime = count == 0L ? other.minTimeMicros
+				: other.count == 0L ? minTimeMicros : Math.min(minTimeMicros, other.minTimeMicros);
+		long maxTime = count == 0L ? other.maxTimeMicros
+				: other.count == 0L ? maxTimeMicros : Math.max(maxTimeMicros, other.maxTimeMicros);
+		return new MethodStatistics(coprocessor, method, count + other.count, errorCount + other.errorCount,
+				unexpectedErrorCount + other.unexpectedErrorCount, totalTimeMicros + other.totalTimeMicros,
+				minTime, maxTime, executionTimes.merge(other.executionTimes),
+				recentExecutionTimes.merge(other.recentExecutionTimes));
+	}
+
+	/**
+	 * Merge statistics by coprocessor method
+	 *
+	 * @param statistics statistics to merge
+	 * @return statistics per coprocessor method, sorted by coprocessor then method
+	 */
+	public static List<MethodStatistics> mergeByMethod(@NonNull Iterable<MethodStatistics> statistics) {
+		Map<String, MethodStatistics> merged = new LinkedHashMap<>();
+		for (MethodStatistics stats : statistics) {
+			merged.merge(stats.coprocessor + ":" + stats.method, stats, MethodStatistics::merge);
+		}
+		List<MethodStatistics> result = new ArrayList<>(merged.values());
+		result.sort(Comparator.comparing(MethodStatistics::getCoprocessor).thenComparing(MethodStatistics::getMethod));
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return coprocessor + ":" + method + " [count=" + count + ", errors=" + errorCount + ", unexpectedErrors="
+				+ unexpectedErrorCount + ", avg=" + getAverageMicros() + "us, p99=" + getPercentileMicros(99d) + "us]";
+	}
+}
@@ -0,0 +1,180 @@
+package fr.poc.hbase.coprocessor.policy.stats;
+
+import com.google.protobuf.ServiceException;
+import fr.poc.hbase.coprocessor.policy.generated.PolicyStatisticsProtos;
+import fr.poc.hbase.coprocessor.policy.util.LatencyHistogram;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.protobuf.ProtobufUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link PolicyStatisticsEndpoint} client : fetch statistics of a table region servers or of the whole cluster,
+ * and merge them into cluster-wide statistics per coprocessor method (ie: a cluster-wide p99).
+ * <p>
+ * Statistics are held per JVM : responses of the same process (ie: of several regions of a server) are counted once.
+ * </p>
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class PolicyStatisticsClient {
+
+	/**
+	 * Cluster connection
+	 */
+	@NonNull
+	private final Connection connection;
+
+	/**
+	 * Fetch the statistics of the region servers of a table, through the endpoint loaded on the table : statistics
+	 * are held per JVM, so only the first region of each region server is called
+	 *
+	 * @param tableName   table name
+	 * @param coprocessor coprocessor class name, null for all coprocessors
+	 * @return statistics per coprocessor method, merged over the table region servers
+	 * @throws IOException if statistics could not be fetched
+	 */
+	public List<MethodStatistics> getTableStatistics(@NonNull TableName tableName, String coprocessor)
+			throws IOException {
+		PolicyStatisticsProtos.PolicyStatisticsRequest request = newRequest(coprocessor);
+		List<PolicyStatisticsProtos.PolicyStatisticsResponse> responses = new ArrayList<>();
+		try (RegionLocator locator = connection.getRegionLocator(tableName);
+			 Table table = connection.getTable(tableName)) {
+			for (byte[] row : getFirstRowPerServer(locator.getAllRegionLocations())) {
+				try {
+					responses.add(PolicyStatisticsProtos.PolicyStatisticsService
+							.newBlockingStub(table.coprocessorService(row)).getStatistics(null, request));
+				} catch (ServiceException e) {
+					throw ProtobufUtil.getRemoteException(e);
+				}
+			}
+		}
+		return merge(responses);
+	}
+
+	/**
+	 * Select one region per region server
+	 *
+	 * @param locations regions locations
+	 * @return the start row of the first region of each region server
+	 */
+	private static Collection<byte[]> getFirstRowPerServer(@NonNull List<HRegionLocation> locations) {
+		Map<ServerName, byte[]> rows = new LinkedHashMap<>();
+		for (HRegionLocation location : locations) {
+			if (location.getServerName() != null) {
+				rows.putIfAbsent(location.getServerName(), location.getRegionInfo().getStartKey());
+			}
+		}
+		return rows.values();
+	}
+
+	/**
+	 * Fetch the statistics of all region servers, through the endpoint loaded on region servers
+	 *
+	 * @param coprocessor coprocessor class name, null for all coprocessors
+	 * @return statistics per coprocessor method, merged over the cluster
+	 * @throws IOException if statistics could not be fetched from a region server
+	 */
+	public List<MethodStatistics> getClusterStatistics(String coprocessor) throws IOException {
+		PolicyStatisticsProtos.PolicyStatisticsRequest request = newRequest(coprocessor);
+		List<PolicyStatisticsProtos.PolicyStatisticsResponse> responses = new ArrayList<>();
+		try (Admin admin = connection.getAdmin()) {
+			for (ServerName server : admin.getClusterStatus().getServers()) {
+				try {
+					responses.add(PolicyStatisticsProtos.PolicyStatisticsService
+							.newBlockingStub(admin.coprocessorService(server)).getStatistics(null, request));
+				} catch (ServiceException e) {
+					throw ProtobufUtil.getRemoteException(e);
+				}
+			}
+		}
+		return merge(responses);
+	}
+
+	/**
+	 * Build a statistics request
+	 *
+	 * @param coprocessor coprocessor class name, null for all coprocessors
+	 * @return the request
+	 */
+	private static PolicyStatisticsProtos.PolicyStatisticsRequest newRequest(String coprocessor) {
+		PolicyStatisticsProtos.PolicyStatisticsRequest.Builder request =
+				PolicyStatisticsProtos.PolicyStatisticsRequest.newBuilder();
+		if (coprocessor != null) {
+			request.setCoprocessor(coprocessor);
+		}
+		return request.build();
+	}
+
+	/**
+	 * Merge endpoint responses, responses of the same process are counted once
+	 *
+	 * @param responses endpoint responses
+	 * @return statistics per coprocessor method, merged over all processes
+	 */
+	public static List<MethodStatistics> merge(@NonNull Collection<PolicyStatisticsProtos.PolicyStatisticsResponse> responses) {
+		Map<String, PolicyStatisticsProtos.PolicyStatisticsResponse> byProcess = new LinkedHashMap<>();
+		for (PolicyStatisticsProtos.PolicyStatisticsResponse response : responses) {
+			byProcess.putIfAbsent(response.getProcess(), response);
+		}
+		LOGGER.debug("Merging policy statistics of [{}] processes from [{}] responses", byProcess.size(),
+				responses.size());
+		List<MethodStatistics> statistics = new ArrayList<>();
+		for (PolicyStatisticsProtos.PolicyStatisticsResponse response : byProcess.values()) {
+			for (PolicyStatisticsProtos.MethodStatistics method : response.getMethodList()) {
+				statistics.add(fromProto(method));
+			}
+		}
+		return MethodStatistics.mergeByMethod(statistics);
+	}
+
+	/**
+	 * Convert statistics from their protobuf form
+	 *
+	 * @param statistics protobuf statistics
+	 * @return statistics of a coprocessor method
+	 */
+	static MethodStatistics fromProto(@NonNull PolicyStatisticsProtos.MethodStatistics statistics) {
+		return new MethodStatistics(statistics.getCoprocessor(), statistics.getMethod(), statistics.getCount(),
+				statistics.getErrorCount(), statistics.getUnexpectedErrorCount(), statistics.getTotalTime(),
+				statistics.getMinTime(), statistics.getMaxTime(), fromProto(statistics.getExecutionTimes()),
+				fromProto(statistics.getRecentExecutionTimes()));
+	}
+
+	/**
+	 * Convert an histogram from its sparse protobuf form
+	 *
+	 * @param histogram non-empty buckets of an histogram
+	 * @return the histogram snapshot
+	 * @throws IllegalArgumentException if buckets are invalid
+	 */
+	static LatencyHistogram.Snapshot fromProto(@NonNull PolicyStatisticsProtos.Histogram histogram) {
+		if (histogram.getBucketCount() != histogram.getCountCount()) {
+			throw new IllegalArgumentException("Histogram has [" + histogram.getBucketCount() + "] buckets and ["
+					+ histogram.getCountCount() + "] counts");
+		}
+		long[] counts = new long[LatencyHistogram.BUCKETS];
+		for (int i = 0; i < histogram.getBucketCount(); i++) {
+			int bucket = histogram.getBucket(i);
+			if (bucket < 0 || bucket >= counts.length) {
+				throw new IllegalArgumentException("Histogram bucket [" + bucket + "] is out of range");
+			}
+			counts[bucket] += histogram.getCount(i);
+		}
+		return LatencyHistogram.Snapshot.of(counts);
+	}
+}
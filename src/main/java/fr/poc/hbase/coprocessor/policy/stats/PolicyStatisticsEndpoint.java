@@ -0,0 +1,147 @@
+package fr.poc.hbase.coprocessor.policy.stats;
+
+import com.google.protobuf.RpcCallback;
+import com.google.protobuf.RpcController;
+import com.google.protobuf.Service;
+import fr.poc.hbase.coprocessor.policy.generated.PolicyStatisticsProtos;
+import fr.poc.hbase.coprocessor.policy.impl.MetricsPolicy;
+import fr.poc.hbase.coprocessor.policy.util.LatencyHistogram;
+import lombok.NonNull;
+import org.apache.hadoop.hbase.Coprocessor;
+import org.apache.hadoop.hbase.CoprocessorEnvironment;
+import org.apache.hadoop.hbase.coprocessor.CoprocessorException;
+import org.apache.hadoop.hbase.coprocessor.CoprocessorService;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+import org.apache.hadoop.hbase.coprocessor.RegionServerCoprocessorEnvironment;
+import org.apache.hadoop.hbase.coprocessor.SingletonCoprocessorService;
+import org.apache.hadoop.hbase.protobuf.ResponseConverter;
+import org.apache.hadoop.hbase.regionserver.RegionServerServices;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Endpoint returning the {@link MetricsPolicy} statistics of its region server, merged by coprocessor method.
+ * <p>
+ * Execution times histograms are sent as sparse bucket counts, so the client could merge them without precision
+ * loss : see {@link PolicyStatisticsClient}.
+ * The endpoint could be loaded on a table (statistics are fetched through its regions) or on region servers
+ * ({@code hbase.coprocessor.regionserver.classes}, statistics are fetched from each server).
+ * Statistics are held per JVM, whatever the region or the table the endpoint is called on.
+ * </p>
+ */
+public class PolicyStatisticsEndpoint extends PolicyStatisticsProtos.PolicyStatisticsService
+		implements Coprocessor, CoprocessorService, SingletonCoprocessorService {
+
+	/**
+	 * Identifier of the current process
+	 */
+	private static final String PROCESS = getProcessId();
+
+	/**
+	 * Name of the region server, null if unknown
+	 */
+	private String server;
+
+	/**
+	 * Compute the identifier of the current process
+	 *
+	 * @return an identifier of the JVM, unique across restarts
+	 */
+	private static String getProcessId() {
+		RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+		return runtime.getName() + "/" + runtime.getStartTime();
+	}
+
+	@Override
+	public void start(CoprocessorEnvironment env) throws IOException {
+		RegionServerServices services;
+		if (env instanceof RegionCoprocessorEnvironment) {
+			services = ((RegionCoprocessorEnvironment) env).getRegionServerServices();
+		} else if (env instanceof RegionServerCoprocessorEnvironment) {
+			services = ((RegionServerCoprocessorEnvironment) env).getRegionServerServices();
+		} else {
+			throw new CoprocessorException("Must be loaded on a table region or on a region server!");
+		}
+		if (services != null && services.getServerName() != null) {
+			server = services.getServerName().getServerName();
+		}
+	}
+
+	@Override
+	public void stop(CoprocessorEnvironment env) throws IOException {
+		// nothing to do when coprocessor is shutting down
+	}
+
+	@Override
+	public Service getService() {
+		return this;
+	}
+
+	@Override
+	public void getStatistics(RpcController controller, PolicyStatisticsProtos.PolicyStatisticsRequest request,
+							  RpcCallback<PolicyStatisticsProtos.PolicyStatisticsResponse> done) {
+		PolicyStatisticsProtos.PolicyStatisticsResponse response = null;
+		try {
+			List<MethodStatistics> statistics = new ArrayList<>();
+			for (MethodStatistics stats : MetricsPolicy.getStatistics()) {
+				if (!request.hasCoprocessor() || request.getCoprocessor().equals(stats.getCoprocessor())) {
+					statistics.add(stats);
+				}
+			}
+			PolicyStatisticsProtos.PolicyStatisticsResponse.Builder builder =
+					PolicyStatisticsProtos.PolicyStatisticsResponse.newBuilder().setProcess(PROCESS);
+			if (server != null) {
+				builder.setServer(server);
+			}
+			for (MethodStatistics stats : MethodStatistics.mergeByMethod(statistics)) {
+				builder.addMethod(toProto(stats));
+			}
+			response = builder.build();
+		} catch (Exception e) {
+			ResponseConverter.setControllerException(controller, new IOException(e));
+		}
+		done.run(response);
+	}
+
+	/**
+	 * Convert statistics to their protobuf form
+	 *
+	 * @param statistics statistics of a coprocessor method
+	 * @return protobuf statistics
+	 */
+	static PolicyStatisticsProtos.MethodStatistics toProto(@NonNull MethodStatistics statistics) {
+		return PolicyStatisticsProtos.MethodStatistics.newBuilder()
+				.setCoprocessor(statistics.getCoprocessor())
+				.setMethod(statistics.getMethod())
+				.setCount(statistics.getCount())
+				.setErrorCount(statistics.getErrorCount())
+				.setUnexpectedErrorCount(statistics.getUnexpectedErrorCount())
+				.setTotalTime(statistics.getTotalTimeMicros())
+				.setMinTime(statistics.getMinTimeMicros())
+				.setMaxTime(statistics.getMaxTimeMicros())
+				.setExecutionTimes(toProto(statistics.getExecutionTimes()))
+				.setRecentExecutionTimes(toProto(statistics.getRecentExecutionTimes()))
+				.build();
+	}
+
+	/**
+	 * Convert an histogram snapshot to its sparse protobuf form
+	 *
+	 * @param snapshot histogram snapshot
+	 * @return non-empty buckets of the snapshot
+	 */
+	static PolicyStatisticsProtos.Histogram toProto(@NonNull LatencyHistogram.Snapshot snapshot) {
+		PolicyStatisticsProtos.Histogram.Builder histogram = PolicyStatisticsProtos.Histogram.newBuilder();
+		long[] counts = snapshot.getCounts();
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] != 0L) {
+				histogram.addBucket(i).addCount(counts[i]);
+			}
+		}
+		return histogram.build();
+	}
+}
@@ -0,0 +1,69 @@
+package fr.poc.hbase.coprocessor.policy.util;
+
+import fr.poc.hbase.coprocessor.policy.Deadline;
+import lombok.NonNull;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.regionserver.InternalScanner;
+import org.apache.hadoop.hbase.regionserver.ScannerContext;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * {@link InternalScanner} adapter that checks the {@link Deadline} of the current invocation before each row batch.
+ * <p>
+ * Once the deadline is expired, the scan stops cleanly with a {@link Deadline.DeadlineExceededException}
+ * instead of being interrupted in the middle of an I/O.
+ * </p>
+ */
+public class DeadlineInternalScanner implements InternalScanner {
+
+	/**
+	 * Adapted scanner
+	 */
+	@NonNull
+	private final InternalScanner adaptee;
+
+	/**
+	 * Deadline to check
+	 */
+	@NonNull
+	private final Deadline deadline;
+
+	/**
+	 * Constructor, check the deadline of the current invocation
+	 *
+	 * @param adaptee adapted scanner
+	 */
+	public DeadlineInternalScanner(@NonNull InternalScanner adaptee) {
+		this(adaptee, Deadline.current());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param adaptee  adapted scanner
+	 * @param deadline deadline to check
+	 */
+	public DeadlineInternalScanner(@NonNull InternalScanner adaptee, @NonNull Deadline deadline) {
+		this.adaptee = adaptee;
+		this.deadline = deadline;
+	}
+
+	@Override
+	public boolean next(List<Cell> results) throws IOException {
+		deadline.check();
+		return adaptee.next(results);
+	}
+
+	@Override
+	public boolean next(List<Cell> result, ScannerContext scannerContext) throws IOException {
+		deadline.check();
+		return adaptee.next(result, scannerContext);
+	}
+
+	@Override
+	public void close() throws IOException {
+		adaptee.close();
+	}
+}
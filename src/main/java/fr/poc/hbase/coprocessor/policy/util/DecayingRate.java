@@ -0,0 +1,168 @@
+package fr.poc.hbase.coprocessor.policy.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exponentially decaying 1, 5 and 15 minutes event rates (like unix load averages).
+ * <p>
+ * Events are counted without locks, rates are updated every {@value #TICK_SECONDS} seconds by the first reader or
+ * writer that sees the tick is due. Idle periods are decayed at once, whatever their duration.
+ * Times are given by callers in {@link System#nanoTime()} reference, so a single clock read could be shared by
+ * several metrics.
+ * </p>
+ */
+public final class DecayingRate {
+
+	/**
+	 * Rates update interval (in seconds)
+	 */
+	private static final int TICK_SECONDS = 5;
+
+	/**
+	 * Rates update interval (in nanoseconds)
+	 */
+	private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(TICK_SECONDS);
+
+	/**
+	 * Weight of the last interval in the one minute rate
+	 */
+	private static final double ALPHA_1 = alpha(1);
+
+	/**
+	 * Weight of the last interval in the five minutes rate
+	 */
+	private static final double ALPHA_5 = alpha(5);
+
+	/**
+	 * Weight of the last interval in the fifteen minutes rate
+	 */
+	private static final double ALPHA_15 = alpha(15);
+
+	/**
+	 * Events since the last tick
+	 */
+	private final LongAdder uncounted = new LongAdder();
+
+	/**
+	 * Last tick time
+	 */
+	private final AtomicLong lastTick;
+
+	/**
+	 * One minute rate (in events per second)
+	 */
+	private volatile double rate1;
+
+	/**
+	 * Five minutes rate (in events per second)
+	 */
+	private volatile double rate5;
+
+	/**
+	 * Fifteen minutes rate (in events per second)
+	 */
+	private volatile double rate15;
+
+	/**
+	 * Indicates whenever rates have been ticked once
+	 */
+	private volatile boolean initialized;
+
+	/**
+	 * Constructor
+	 *
+	 * @param nanoTime creation time in {@link System#nanoTime()} reference
+	 */
+	public DecayingRate(long nanoTime) {
+		this.lastTick = new AtomicLong(nanoTime);
+	}
+
+	/**
+	 * Compute the weight of an interval
+	 *
+	 * @param minutes rate period
+	 * @return the interval weight
+	 */
+	private static double alpha(int minutes) {
+		return 1d - Math.exp(-TICK_SECONDS / (60d * minutes));
+	}
+
+	/**
+	 * Mark an event
+	 *
+	 * @param nanoTime event time in {@link System#nanoTime()} reference
+	 */
+	public void mark(long nanoTime) {
+		tickIfNecessary(nanoTime);
+		uncounted.increment();
+	}
+
+	/**
+	 * Returns the one minute rate
+	 *
+	 * @param nanoTime current time in {@link System#nanoTime()} reference
+	 * @return events per second
+	 */
+	public double getOneMinuteRate(long nanoTime) {
+		tickIfNecessary(nanoTime);
+		return rate1;
+	}
+
+	/**
+	 * Returns the five minutes rate
+	 *
+	 * @param nanoTime current time in {@link System#nanoTime()} reference
+	 * @return events per second
+	 */
+	public double getFiveMinutesRate(long nanoTime) {
+		tickIfNecessary(nanoTime);
+		return rate5;
+	}
+
+	/**
+	 * Returns the fifteen minutes rate
+	 *
+	 * @param nanoTime current time in {@link System#nanoTime()} reference
+	 * @return events per second
+	 */
+	public double getFifteenMinutesRate(long nanoTime) {
+		tickIfNecessary(nanoTime);
+		return rate15;
+	}
+
+	/**
+	 * Update rates when ticks are due, only the thread that claims the ticks updates them
+	 *
+	 * @param nanoTime current time in {@link System#nanoTime()} reference
+	 */
+	private void tickIfNecessary(long nanoTime) {
+		long previous = lastTick.get();
+		long age = nanoTime - previous;
+		if (age < TICK_INTERVAL) {
+			return;
+		}
+		long ticks = age / TICK_INTERVAL;
+		if (!lastTick.compareAndSet(previous, previous + ticks * TICK_INTERVAL)) {
+			return;
+		}
+		// Events since the last tick are all accounted to the first due interval, others intervals were idle
+		double instantRate = uncounted.sumThenReset() / (double) TICK_SECONDS;
+		if (initialized) {
+			rate1 += ALPHA_1 * (instantRate - rate1);
+			rate5 += ALPHA_5 * (instantRate - rate5);
+			rate15 += ALPHA_15 * (instantRate - rate15);
+		} else {
+			rate1 = instantRate;
+			rate5 = instantRate;
+			rate15 = instantRate;
+			initialized = true;
+		}
+		if (ticks > 1) {
+			rate1 *= Math.pow(1d - ALPHA_1, ticks - 1);
+			rate5 *= Math.pow(1d - ALPHA_5, ticks - 1);
+			rate15 *= Math.pow(1d - ALPHA_15, ticks - 1);
+		}
+	}
+}
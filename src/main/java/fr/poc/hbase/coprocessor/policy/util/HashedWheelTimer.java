@@ -0,0 +1,440 @@
+package fr.poc.hbase.coprocessor.policy.util;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.util.Threads;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hashed wheel timer, able to schedule and cancel a huge number of timeouts in O(1).
+ * <p>
+ * Timeouts are bucketed by tick on a wheel, a single thread advances the wheel at each tick and runs the expired
+ * timeouts of the current bucket. Scheduling and cancellation only enqueue the timeout, the wheel thread moves it
+ * in (or out of) its bucket at the next tick. Expiration accuracy is therefore bounded by the tick duration.
+ * </p>
+ * Timeout tasks are executed by the wheel thread, they must be short and non blocking.
+ */
+@Slf4j
+public final class HashedWheelTimer implements Closeable {
+
+	/**
+	 * Default tick duration in milliseconds
+	 */
+	public static final long TICK_DURATION_MS_DEFAULT = 10L;
+
+	/**
+	 * Default number of buckets in the wheel
+	 */
+	public static final int WHEEL_SIZE_DEFAULT = 512;
+
+	/**
+	 * Maximum number of timeouts moved in the wheel per tick, to keep ticks short under burst
+	 */
+	private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+	/**
+	 * Timer shared by all policies
+	 */
+	private static volatile HashedWheelTimer shared;
+
+	/**
+	 * Timer wheel
+	 */
+	private final Bucket[] wheel;
+
+	/**
+	 * Wheel mask (wheel size is a power of two)
+	 */
+	private final int mask;
+
+	/**
+	 * Tick duration in nanoseconds
+	 */
+	private final long tickDuration;
+
+	/**
+	 * Timeouts waiting to be added in the wheel
+	 */
+	private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Timeouts waiting to be removed from the wheel
+	 */
+	private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Number of scheduled timeouts, neither expired nor cancelled
+	 */
+	private final LongAdder activeTimeouts = new LongAdder();
+
+	/**
+	 * Wheel thread
+	 */
+	private final Thread workerThread;
+
+	/**
+	 * Wheel start time, reference of all deadlines
+	 */
+	private final long startTime;
+
+	/**
+	 * Indicates whenever the timer is stopped
+	 */
+	private volatile boolean stopped;
+
+	/**
+	 * Constructor
+	 *
+	 * @param name         name of the wheel thread
+	 * @param tickDuration duration between two ticks
+	 * @param unit         tick duration unit
+	 * @param wheelSize    number of buckets in the wheel (rounded to the next power of two)
+	 */
+	public HashedWheelTimer(@NonNull String name, long tickDuration, @NonNull TimeUnit unit, int wheelSize) {
+		if (tickDuration <= 0 || wheelSize <= 0) {
+			throw new IllegalArgumentException("Tick duration and wheel size must be positives");
+		}
+		int size = Integer.highestOneBit(wheelSize);
+		if (size < wheelSize) {
+			size <<= 1;
+		}
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.mask = size - 1;
+		this.tickDuration = unit.toNanos(tickDuration);
+		this.startTime = System.nanoTime();
+		this.workerThread = Threads.newDaemonThreadFactory(name).newThread(this::run);
+		this.workerThread.start();
+	}
+
+	/**
+	 * Returns the timer shared by all policies
+	 *
+	 * @return the shared timer
+	 */
+	public static HashedWheelTimer getShared() {
+		HashedWheelTimer result = shared;
+		if (result == null) {
+			synchronized (HashedWheelTimer.class) {
+				result = shared;
+				if (result == null) {
+					result = new HashedWheelTimer("coprocessor-policy-timer", TICK_DURATION_MS_DEFAULT,
+							TimeUnit.MILLISECONDS, WHEEL_SIZE_DEFAULT);
+					shared = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Schedule a task once the given delay expires
+	 *
+	 * @param task  the task to run
+	 * @param delay delay before running the task
+	 * @param unit  delay unit
+	 * @return timeout handle, able to cancel the task
+	 */
+	public Timeout schedule(@NonNull Runnable task, long delay, @NonNull TimeUnit unit) {
+		if (stopped) {
+			throw new IllegalStateException("Timer is stopped");
+		}
+		Timeout timeout = new Timeout(this, task, System.nanoTime() + unit.toNanos(delay) - startTime);
+		activeTimeouts.increment();
+		pendingTimeouts.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * Returns the number of scheduled timeouts, neither expired nor cancelled
+	 *
+	 * @return number of active timeouts
+	 */
+	public long getActiveTimeouts() {
+		return activeTimeouts.sum();
+	}
+
+	@Override
+	public void close() {
+		if (this == shared) {
+			throw new IllegalStateException("The shared timer can't be closed");
+		}
+		stopped = true;
+		workerThread.interrupt();
+	}
+
+	/**
+	 * Wheel thread main loop
+	 */
+	private void run() {
+		long tick = 0;
+		while (!stopped) {
+			long deadline = waitForNextTick(tick);
+			if (deadline < 0) {
+				break;
+			}
+			removeCancelledTimeouts();
+			transferPendingTimeouts(tick);
+			wheel[(int) (tick & mask)].expireTimeouts(deadline);
+			tick++;
+		}
+	}
+
+	/**
+	 * Wait until the next tick
+	 *
+	 * @param tick current tick
+	 * @return current time relative to the start time, negative if the timer has been stopped
+	 */
+	private long waitForNextTick(long tick) {
+		long deadline = tickDuration * (tick + 1);
+		while (true) {
+			long currentTime = System.nanoTime() - startTime;
+			long sleepTime = deadline - currentTime;
+			if (sleepTime <= 0) {
+				return currentTime;
+			}
+			try {
+				TimeUnit.NANOSECONDS.sleep(sleepTime);
+			} catch (InterruptedException e) {
+				if (stopped) {
+					return -1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Move pending timeouts in their bucket
+	 *
+	 * @param tick current tick
+	 */
+	private void transferPendingTimeouts(long tick) {
+		for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+			Timeout timeout = pendingTimeouts.poll();
+			if (timeout == null) {
+				break;
+			}
+			if (timeout.state != Timeout.ST_INIT) {
+				continue;
+			}
+			long expectedTicks = timeout.deadline / tickDuration;
+			timeout.remainingRounds = (expectedTicks - tick) / wheel.length;
+			// Do not schedule in the past
+			long ticks = Math.max(expectedTicks, tick);
+			wheel[(int) (ticks & mask)].add(timeout);
+		}
+	}
+
+	/**
+	 * Remove cancelled timeouts from their bucket
+	 */
+	private void removeCancelledTimeouts() {
+		Timeout timeout;
+		while ((timeout = cancelledTimeouts.poll()) != null) {
+			if (timeout.bucket != null) {
+				timeout.bucket.remove(timeout);
+			}
+		}
+	}
+
+	/**
+	 * Scheduled task handle
+	 */
+	public static final class Timeout {
+
+		/**
+		 * Initial state
+		 */
+		private static final int ST_INIT = 0;
+		/**
+		 * Cancelled state
+		 */
+		private static final int ST_CANCELLED = 1;
+		/**
+		 * Expired state
+		 */
+		private static final int ST_EXPIRED = 2;
+
+		/**
+		 * State updater
+		 */
+		private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER =
+				AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+		/**
+		 * Owner timer
+		 */
+		private final HashedWheelTimer timer;
+
+		/**
+		 * Deadline relative to the timer start time
+		 */
+		private final long deadline;
+
+		/**
+		 * Task to run (cleared once cancelled)
+		 */
+		private volatile Runnable task;
+
+		/**
+		 * Timeout state
+		 */
+		private volatile int state = ST_INIT;
+
+		/**
+		 * Number of wheel rounds before expiration (wheel thread only)
+		 */
+		private long remainingRounds;
+
+		/**
+		 * Bucket links (wheel thread only)
+		 */
+		private Timeout next;
+		private Timeout prev;
+		private Bucket bucket;
+
+		/**
+		 * Constructor
+		 *
+		 * @param timer    owner timer
+		 * @param task     task to run
+		 * @param deadline deadline relative to the timer start time
+		 */
+		private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+			this.timer = timer;
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Cancel the task if it hasn't been executed yet
+		 *
+		 * @return true if the task has been cancelled by this call
+		 */
+		public boolean cancel() {
+			if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+				return false;
+			}
+			task = null;
+			timer.activeTimeouts.decrement();
+			timer.cancelledTimeouts.add(this);
+			return true;
+		}
+
+		/**
+		 * Indicates whenever the task has been cancelled
+		 *
+		 * @return true if cancelled
+		 */
+		public boolean isCancelled() {
+			return state == ST_CANCELLED;
+		}
+
+		/**
+		 * Indicates whenever the task has been executed
+		 *
+		 * @return true if expired
+		 */
+		public boolean isExpired() {
+			return state == ST_EXPIRED;
+		}
+
+		/**
+		 * Run the task
+		 */
+		private void expire() {
+			if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+				return;
+			}
+			timer.activeTimeouts.decrement();
+			Runnable toRun = task;
+			task = null;
+			try {
+				toRun.run();
+			} catch (Throwable th) {
+				LOGGER.warn("An unexpected error occurred while running timeout task", th);
+			}
+		}
+	}
+
+	/**
+	 * Wheel bucket, a doubly linked list of timeouts (wheel thread only)
+	 */
+	private static final class Bucket {
+
+		private Timeout head;
+		private Timeout tail;
+
+		/**
+		 * Add a timeout to the bucket
+		 *
+		 * @param timeout the timeout
+		 */
+		private void add(Timeout timeout) {
+			timeout.bucket = this;
+			if (head == null) {
+				head = tail = timeout;
+			} else {
+				tail.next = timeout;
+				timeout.prev = tail;
+				tail = timeout;
+			}
+		}
+
+		/**
+		 * Remove a timeout from the bucket
+		 *
+		 * @param timeout the timeout
+		 * @return next timeout in bucket
+		 */
+		private Timeout remove(Timeout timeout) {
+			Timeout next = timeout.next;
+			if (timeout.prev != null) {
+				timeout.prev.next = next;
+			}
+			if (timeout.next != null) {
+				timeout.next.prev = timeout.prev;
+			}
+			if (timeout == head) {
+				head = next;
+			}
+			if (timeout == tail) {
+				tail = timeout.prev;
+			}
+			timeout.prev = null;
+			timeout.next = null;
+			timeout.bucket = null;
+			return next;
+		}
+
+		/**
+		 * Expire all timeouts of this bucket that have reached their deadline
+		 *
+		 * @param currentTime current time relative to the timer start time
+		 */
+		private void expireTimeouts(long currentTime) {
+			Timeout timeout = head;
+			while (timeout != null) {
+				if (timeout.remainingRounds <= 0 && timeout.deadline <= currentTime) {
+					Timeout next = remove(timeout);
+					timeout.expire();
+					timeout = next;
+				} else if (timeout.isCancelled()) {
+					timeout = remove(timeout);
+				} else {
+					timeout.remainingRounds--;
+					timeout = timeout.next;
+				}
+			}
+		}
+	}
+}
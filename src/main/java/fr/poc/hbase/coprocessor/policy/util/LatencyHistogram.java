@@ -0,0 +1,273 @@
+package fr.poc.hbase.coprocessor.policy.util;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free latency histogram with log-linear buckets (HDR-style), recorded in microseconds.
+ * <p>
+ * Each power of two range is split in {@value #SUB_BUCKETS} linear buckets, so a recorded value is known with a
+ * relative error lower than 1/{@value #SUB_BUCKETS}, from 1 microsecond up to {@value #MAX_VALUE_US} microseconds
+ * (greater values are clamped).
+ * Counts are striped by thread : recording is one atomic increment on a stripe that is rarely shared, stripes are
+ * allocated on first use. Snapshots sum all stripes without blocking writers, a snapshot taken while values are
+ * recorded may miss some of them.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * Number of bits of the linear part of a bucket index
+	 */
+	private static final int SUB_BUCKET_BITS = 4;
+
+	/**
+	 * Number of linear buckets per power of two
+	 */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Greatest tracked value (about 38 hours)
+	 */
+	private static final long MAX_VALUE_US = (1L << 37) - 1;
+
+	/**
+	 * Number of buckets
+	 */
+	public static final int BUCKETS = indexOf(MAX_VALUE_US) + 1;
+
+	/**
+	 * Maximum default number of stripes : a stripe holds {@link #BUCKETS} counts (about 4 KB), and histograms are kept
+	 * by metric
+	 */
+	private static final int MAX_STRIPES = 4;
+
+	/**
+	 * Default number of stripes, a power of two
+	 */
+	private static final int STRIPES = Integer.highestOneBit(Math.max(1, Math.min(MAX_STRIPES,
+			Runtime.getRuntime().availableProcessors())) * 2 - 1);
+
+	/**
+	 * Bucket counts by stripe, null until a thread uses the stripe
+	 */
+	private final AtomicReferenceArray<AtomicLongArray> stripes;
+
+	/**
+	 * Constructor, counts are striped by available processors (up to {@value #MAX_STRIPES} stripes)
+	 */
+	public LatencyHistogram() {
+		this(STRIPES);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param stripes number of stripes, a power of two (use few stripes for short-lived or numerous histograms)
+	 */
+	public LatencyHistogram(int stripes) {
+		if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+			throw new IllegalArgumentException("Stripes count must be a power of two, was [" + stripes + "]");
+		}
+		this.stripes = new AtomicReferenceArray<>(stripes);
+	}
+
+	/**
+	 * Record a latency
+	 *
+	 * @param duration latency
+	 * @param unit     latency unit
+	 */
+	public void record(long duration, @NonNull TimeUnit unit) {
+		recordMicros(unit.toMicros(duration));
+	}
+
+	/**
+	 * Record a latency
+	 *
+	 * @param micros latency in microseconds, negative values are recorded as zero
+	 */
+	public void recordMicros(long micros) {
+		getStripe().incrementAndGet(indexOf(Math.min(Math.max(micros, 0L), MAX_VALUE_US)));
+	}
+
+	/**
+	 * Returns the stripe of the current thread, allocate it on first use
+	 *
+	 * @return bucket counts of the current thread stripe
+	 */
+	private AtomicLongArray getStripe() {
+		long id = Thread.currentThread().getId();
+		int index = (int) ((id ^ (id >>> 16)) * 0x9E3779B9L >>> 16) & (stripes.length() - 1);
+		AtomicLongArray stripe = stripes.get(index);
+		if (stripe == null) {
+			stripes.compareAndSet(index, null, new AtomicLongArray(BUCKETS));
+			stripe = stripes.get(index);
+		}
+		return stripe;
+	}
+
+	/**
+	 * Take a snapshot of all recorded values
+	 *
+	 * @return the histogram snapshot
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		addTo(counts);
+		return new Snapshot(counts);
+	}
+
+	/**
+	 * Add recorded values to bucket counts
+	 *
+	 * @param counts counts by bucket, of {@link #BUCKETS} length
+	 */
+	void addTo(long[] counts) {
+		for (int s = 0; s < stripes.length(); s++) {
+			AtomicLongArray stripe = stripes.get(s);
+			if (stripe == null) {
+				continue;
+			}
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] += stripe.get(i);
+			}
+		}
+	}
+
+	/**
+	 * Compute the bucket of a value
+	 *
+	 * @param value a value between 0 and {@link #MAX_VALUE_US}
+	 * @return the bucket index
+	 */
+	static int indexOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+	}
+
+	/**
+	 * Compute the lowest value of a bucket
+	 *
+	 * @param index bucket index
+	 * @return the lowest value of the bucket
+	 */
+	static long lowestValueOf(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		return (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+	}
+
+	/**
+	 * Immutable snapshot of an histogram
+	 */
+	public static final class Snapshot {
+
+		/**
+		 * Counts by bucket
+		 */
+		private final long[] counts;
+
+		/**
+		 * Total count
+		 */
+		private final long count;
+
+		/**
+		 * Constructor
+		 *
+		 * @param counts counts by bucket
+		 */
+		Snapshot(long[] counts) {
+			this.counts = counts;
+			long total = 0L;
+			for (long c : counts) {
+				total += c;
+			}
+			this.count = total;
+		}
+
+		/**
+		 * Build a snapshot from bucket counts, ie: counts of a snapshot of another process
+		 *
+		 * @param counts counts by bucket (see {@link #getCounts()}), missing trailing buckets are empty
+		 * @return the snapshot
+		 * @throws IllegalArgumentException if there are more counts than buckets, or negative counts
+		 */
+		public static Snapshot of(@NonNull long[] counts) {
+			if (counts.length > BUCKETS) {
+				throw new IllegalArgumentException("Histogram has [" + BUCKETS + "] buckets, got [" + counts.length
+						+ "] counts");
+			}
+			for (long c : counts) {
+				if (c < 0L) {
+					throw new IllegalArgumentException("Invalid negative bucket count [" + c + "]");
+				}
+			}
+			return new Snapshot(Arrays.copyOf(counts, BUCKETS));
+		}
+
+		/**
+		 * Merge with another snapshot
+		 *
+		 * @param other snapshot to merge
+		 * @return a snapshot of the values of both snapshots
+		 */
+		public Snapshot merge(@NonNull Snapshot other) {
+			long[] merged = counts.clone();
+			for (int i = 0; i < merged.length; i++) {
+				merged[i] += other.counts[i];
+			}
+			return new Snapshot(merged);
+		}
+
+		/**
+		 * Returns the counts by bucket, so a snapshot could be rebuilt (and merged) elsewhere with {@link #of(long[])}
+		 *
+		 * @return a copy of the counts by bucket
+		 */
+		public long[] getCounts() {
+			return counts.clone();
+		}
+
+		/**
+		 * Returns the number of values in the snapshot
+		 *
+		 * @return the values count
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns a percentile of the snapshot values
+		 *
+		 * @param percentile percentile, between 0 and 100
+		 * @return the percentile in microseconds (middle of its bucket), zero if the snapshot is empty
+		 */
+		public double getPercentileMicros(double percentile) {
+			if (count == 0L) {
+				return 0d;
+			}
+			long rank = Math.max(1L, (long) Math.ceil(count * Math.min(Math.max(percentile, 0d), 100d) / 100d));
+			long seen = 0L;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					long lowest = lowestValueOf(i);
+					return lowest + (lowestValueOf(i + 1) - lowest - 1) / 2d;
+				}
+			}
+			return MAX_VALUE_US;
+		}
+	}
+}
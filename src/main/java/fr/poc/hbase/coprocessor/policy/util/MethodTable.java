@@ -0,0 +1,72 @@
+package fr.poc.hbase.coprocessor.policy.util;
+
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import lombok.NonNull;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Thread safe table of per method values, indexed by {@link PolicyMethod#getId()}.
+ * <p>
+ * Lookups are array reads, the table only grows (under lock) when a value is computed for a method
+ * registered after the latest growth.
+ * </p>
+ *
+ * @param <V> value type
+ */
+public final class MethodTable<V> {
+
+	/**
+	 * Values by method id
+	 */
+	private volatile AtomicReferenceArray<V> values = new AtomicReferenceArray<>(PolicyMethod.count());
+
+	/**
+	 * Returns the value of a method
+	 *
+	 * @param method the method
+	 * @return the method value, null if not computed yet
+	 */
+	public V get(@NonNull PolicyMethod method) {
+		AtomicReferenceArray<V> table = values;
+		return method.getId() < table.length() ? table.get(method.getId()) : null;
+	}
+
+	/**
+	 * Returns the value of a method, computing it on first call
+	 *
+	 * @param method       the method
+	 * @param valueFactory value factory, called at most once per method
+	 * @return the method value
+	 */
+	public V computeIfAbsent(@NonNull PolicyMethod method, @NonNull Function<PolicyMethod, V> valueFactory) {
+		V value = get(method);
+		return value != null ? value : compute(method, valueFactory);
+	}
+
+	/**
+	 * Compute the value of a method, growing the table if needed
+	 *
+	 * @param method       the method
+	 * @param valueFactory value factory
+	 * @return the method value
+	 */
+	private synchronized V compute(PolicyMethod method, Function<PolicyMethod, V> valueFactory) {
+		AtomicReferenceArray<V> table = values;
+		if (method.getId() >= table.length()) {
+			AtomicReferenceArray<V> newTable = new AtomicReferenceArray<>(Math.max(PolicyMethod.count(), method.getId() + 1));
+			for (int i = 0; i < table.length(); i++) {
+				newTable.set(i, table.get(i));
+			}
+			values = newTable;
+			table = newTable;
+		}
+		V value = table.get(method.getId());
+		if (value == null) {
+			value = valueFactory.apply(method);
+			table.set(method.getId(), value);
+		}
+		return value;
+	}
+}
@@ -1,6 +1,7 @@
 package fr.poc.hbase.coprocessor.policy.util;
 
-import fr.poc.hbase.coprocessor.policy.PolicyInvocationHandler;
+import fr.poc.hbase.coprocessor.policy.WovenCoprocessor;
+import fr.poc.hbase.coprocessor.policy.WovenPolicyVerifier;
 import fr.poc.hbase.coprocessor.policy.config.PoliciesConfigurer;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
@@ -9,7 +10,6 @@ import org.apache.commons.lang.ClassUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.Coprocessor;
 
-import java.lang.reflect.Proxy;
 import java.util.List;
 
 /**
@@ -39,15 +39,21 @@ public class PoliciesHelper {
 			// DO not modify others coprocessors
 			return coprocessor;
 		}
+		// Woven coprocessors apply policies themselves
+		if (coprocessor instanceof WovenCoprocessor) {
+			LOGGER.debug("Attach a WovenPolicyVerifier on Coprocessor : [{}]", coprocessor);
+			((WovenCoprocessor) coprocessor).setWovenPolicyVerifier(new WovenPolicyVerifier<>(coprocessor,
+					configurer.getPolicies(), configurer.getExecutor(), configurer.getServiceExecutionMode()));
+			return coprocessor;
+		}
 		// Fetch interfaces
 		List<Class<?>> interfaces = ClassUtils.getAllInterfaces(coprocessor.getClass());
 		Class<?>[] ifaces = interfaces.toArray(new Class<?>[interfaces.size()]);
 
 		LOGGER.debug("Create a PolicyVerifier on Coprocessor : [{}]", coprocessor);
 		// Create a proxy for the current coprocessor based on each interfaces
-		return (Coprocessor) Proxy.newProxyInstance(
-				coprocessor.getClass().getClassLoader(), ifaces,
-				new PolicyInvocationHandler<>(coprocessor, ifaces, configurer.getPolicies()));
+		return PolicyProxyFactory.newProxy(coprocessor, ifaces, configurer.getPolicies(), configurer.getExecutor(),
+				configurer.getServiceExecutionMode());
 	}
 
 }
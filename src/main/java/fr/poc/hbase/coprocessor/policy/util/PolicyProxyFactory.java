@@ -0,0 +1,444 @@
+package fr.poc.hbase.coprocessor.policy.util;
+
+import com.google.protobuf.Service;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyInvocationHandler;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.executor.BoundedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.proxy.GeneratedPolicyProxy;
+import javassist.*;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.ClassUtils;
+import org.apache.hadoop.hbase.Coprocessor;
+import org.apache.hadoop.hbase.coprocessor.CoprocessorService;
+import org.apache.hadoop.hbase.coprocessor.SingletonCoprocessorService;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Create proxies that applies policies on {@link Coprocessor} (agent path).
+ * <p>
+ * A proxy class is generated with javassist once per coprocessor class, it extends {@link GeneratedPolicyProxy} and
+ * implements all coprocessor interfaces like the hand-written policy proxies do : each method has its own
+ * {@link PolicyMethod} constant, calls the fixed arity {@code runWithPolicies} (up to four arguments) and its callable
+ * (a generated class per method) directly calls the adaptee method. There is no reflection nor arguments array on the
+ * call path, so the JIT could inline calls like in the hand-written policy proxies.
+ * Methods are handled like {@link PolicyInvocationHandler} does (stop, services, Object methods).
+ * When the class could not be generated, a {@link Proxy} on a {@link PolicyInvocationHandler} is used.
+ * </p>
+ */
+@Slf4j
+@UtilityClass
+public class PolicyProxyFactory {
+
+	/**
+	 * Generated class name suffix
+	 */
+	private static final String PROXY_CLASSNAME_SUFFIX = "$$PolicyProxy$";
+
+	/**
+	 * Object methods that are delegated to the adaptee, as {@link PolicyInvocationHandler} does
+	 */
+	private static final Method[] OBJECT_METHODS;
+
+	static {
+		try {
+			OBJECT_METHODS = new Method[]{
+					Object.class.getMethod("hashCode"),
+					Object.class.getMethod("equals", Object.class),
+					Object.class.getMethod("toString")
+			};
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Generated classes names sequence
+	 */
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+
+	/**
+	 * Generated proxy classes by coprocessor class, empty when the class could not be generated.
+	 * Concurrent first uses of a coprocessor class may generate it more than once, only one is kept
+	 */
+	private static final ClassValue<Optional<ProxyClass>> PROXY_CLASSES = new ClassValue<Optional<ProxyClass>>() {
+		@Override
+		protected Optional<ProxyClass> computeValue(Class<?> type) {
+			try {
+				return Optional.of(generate(type));
+			} catch (CannotCompileException | NotFoundException | ReflectiveOperationException
+					| IllegalArgumentException | SecurityException e) {
+				LOGGER.info("Unable to generate a policy proxy class for [{}], use a java proxy", type.getName(), e);
+				return Optional.empty();
+			}
+		}
+	};
+
+	/**
+	 * Create a proxy of a coprocessor
+	 *
+	 * @param coprocessor          proxied coprocessor
+	 * @param ifaces               all interfaces of the coprocessor class
+	 * @param policies             policies to check
+	 * @param executor             executor where methods are executed when a policy needs to watch the execution
+	 * @param serviceExecutionMode how coprocessor services are executed when a policy watches them
+	 * @return the proxy, an instance of the generated class when available, a java proxy otherwise
+	 */
+	public static Coprocessor newProxy(@NonNull Coprocessor coprocessor, @NonNull Class<?>[] ifaces,
+									   @NonNull List<Policy> policies, @NonNull BoundedPolicyExecutor executor,
+									   @NonNull PolicyVerifier.ExecutionMode serviceExecutionMode) {
+		Optional<ProxyClass> proxyClass = PROXY_CLASSES.get(coprocessor.getClass());
+		if (proxyClass.isPresent() && Arrays.equals(proxyClass.get().ifaces, ifaces)) {
+			try {
+				return (Coprocessor) proxyClass.get().constructor
+						.newInstance(coprocessor, policies, executor, serviceExecutionMode);
+			} catch (ReflectiveOperationException e) {
+				LOGGER.info("Unable to instantiate the policy proxy class [{}], use a java proxy",
+						proxyClass.get().constructor.getDeclaringClass().getName(), e);
+			}
+		}
+		return (Coprocessor) Proxy.newProxyInstance(coprocessor.getClass().getClassLoader(), ifaces,
+				new PolicyInvocationHandler<>(coprocessor, ifaces, policies, executor, serviceExecutionMode));
+	}
+
+	/**
+	 * Generate the proxy class of a coprocessor class
+	 *
+	 * @param type coprocessor class
+	 * @return the generated class
+	 * @throws CannotCompileException       if the class could not be generated
+	 * @throws NotFoundException            if a class could not be found by javassist
+	 * @throws ReflectiveOperationException if the class constructor could not be found
+	 */
+	private static ProxyClass generate(@NonNull Class<?> type) throws CannotCompileException, NotFoundException,
+			ReflectiveOperationException {
+		List<?> interfaces = ClassUtils.getAllInterfaces(type);
+		Class<?>[] ifaces = interfaces.toArray(new Class<?>[interfaces.size()]);
+		ClassLoader loader = type.getClassLoader();
+		if (loader == null) {
+			throw new IllegalArgumentException("Bootstrap classes could not be proxied");
+		}
+		Method[] methods = collectMethods(ifaces);
+
+		ClassPool pool = new ClassPool(true);
+		pool.appendClassPath(new LoaderClassPath(loader));
+		pool.appendClassPath(new ClassClassPath(PolicyProxyFactory.class));
+
+		String proxyName = getPackage(type, ifaces, loader) + type.getSimpleName()
+				+ PROXY_CLASSNAME_SUFFIX + SEQUENCE.incrementAndGet();
+		CtClass proxy = pool.makeClass(proxyName, pool.get(GeneratedPolicyProxy.class.getName()));
+		proxy.setModifiers(Modifier.PUBLIC | Modifier.FINAL);
+		for (Class<?> iface : ifaces) {
+			proxy.addInterface(pool.get(iface.getName()));
+		}
+		proxy.addConstructor(CtNewConstructor.make(new CtClass[]{pool.get(Coprocessor.class.getName()),
+						pool.get(List.class.getName()), pool.get(BoundedPolicyExecutor.class.getName()),
+						pool.get(PolicyVerifier.ExecutionMode.class.getName())}, new CtClass[0],
+				"{ super($1, $2, $3, $4); }", proxy));
+
+		List<CtClass> generated = new ArrayList<>();
+		try {
+			for (int i = 0; i < methods.length; i++) {
+				Method method = methods[i];
+				CtMethod ctMethod = new CtMethod(pool.get(method.getReturnType().getName()), method.getName(),
+						toCtClasses(pool, method.getParameterTypes()), proxy);
+				ctMethod.setExceptionTypes(toCtClasses(pool, method.getExceptionTypes()));
+				ctMethod.setModifiers(Modifier.PUBLIC);
+				if (isPolicyMethod(method, ifaces)) {
+					CtClass callable = makeCallable(pool, proxyName + "$Call" + i, method);
+					generated.add(callable);
+					proxy.addField(CtField.make("private static final " + PolicyMethod.class.getName() + " METHOD_"
+							+ i + " = " + PolicyMethod.class.getName() + ".of(\"" + method.getName() + "\");", proxy));
+					String body = getPolicyBody(i, method, callable.getName());
+					// The proxy is closed once the adaptee is stopped, even if it fails
+					ctMethod.setBody(isStop(method) ? "{ try " + body + " finally { close(); } }" : body);
+				} else {
+					ctMethod.setBody(getDelegateBody(method));
+				}
+				proxy.addMethod(ctMethod);
+			}
+
+			// Callables are loaded first, the proxy links them on its first calls
+			for (CtClass callable : generated) {
+				callable.toClass(loader, type.getProtectionDomain());
+			}
+			Class<?> proxyClass = proxy.toClass(loader, type.getProtectionDomain());
+			LOGGER.debug("Policy proxy class [{}] generated for [{}]", proxyClass.getName(), type.getName());
+			return new ProxyClass(ifaces, proxyClass.getConstructor(Coprocessor.class, List.class,
+					BoundedPolicyExecutor.class, PolicyVerifier.ExecutionMode.class));
+		} finally {
+			for (CtClass callable : generated) {
+				callable.detach();
+			}
+			proxy.detach();
+		}
+	}
+
+	/**
+	 * Indicates whenever a method is executed with policies, as {@link PolicyInvocationHandler} does : methods of
+	 * the coprocessor interfaces, except services getters
+	 *
+	 * @param method proxied method
+	 * @param ifaces interfaces of the proxy
+	 * @return true if the method is executed with policies
+	 */
+	private static boolean isPolicyMethod(@NonNull Method method, @NonNull Class<?>[] ifaces) {
+		return Arrays.stream(ifaces).anyMatch(c -> c.isAssignableFrom(method.getDeclaringClass()))
+				&& !isServiceGetter(method);
+	}
+
+	/**
+	 * @param method proxied method
+	 * @return true if the method is {@link Coprocessor#stop}
+	 */
+	private static boolean isStop(@NonNull Method method) {
+		return method.getDeclaringClass().isAssignableFrom(Coprocessor.class) && "stop".equals(method.getName());
+	}
+
+	/**
+	 * @param method proxied method
+	 * @return true if the method returns a coprocessor protobuf service
+	 */
+	private static boolean isServiceGetter(@NonNull Method method) {
+		return (method.getDeclaringClass().isAssignableFrom(CoprocessorService.class)
+				|| method.getDeclaringClass().isAssignableFrom(SingletonCoprocessorService.class))
+				&& method.getReturnType().isAssignableFrom(Service.class);
+	}
+
+	/**
+	 * Generate the callable of a method : it holds the typed adaptee and arguments, and calls the adaptee method
+	 *
+	 * @param pool   javassist class pool
+	 * @param name   callable class name, in the proxy package
+	 * @param method proxied method
+	 * @return the callable class
+	 * @throws CannotCompileException if the class could not be generated
+	 * @throws NotFoundException      if a class could not be found by javassist
+	 */
+	private static CtClass makeCallable(@NonNull ClassPool pool, @NonNull String name, @NonNull Method method)
+			throws CannotCompileException, NotFoundException {
+		CtClass callable = pool.makeClass(name);
+		callable.setModifiers(Modifier.FINAL);
+		callable.addInterface(pool.get(CallableWithIOException.class.getName()));
+
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		CtClass[] fieldTypes = new CtClass[parameterTypes.length + 1];
+		fieldTypes[0] = pool.get(method.getDeclaringClass().getName());
+		System.arraycopy(toCtClasses(pool, parameterTypes), 0, fieldTypes, 1, parameterTypes.length);
+		StringBuilder constructor = new StringBuilder("{ super();");
+		StringBuilder call = new StringBuilder("target.").append(method.getName()).append('(');
+		for (int i = 0; i < fieldTypes.length; i++) {
+			String field = i == 0 ? "target" : "arg" + (i - 1);
+			CtField ctField = new CtField(fieldTypes[i], field, callable);
+			ctField.setModifiers(Modifier.PRIVATE | Modifier.FINAL);
+			callable.addField(ctField);
+			constructor.append(" this.").append(field).append(" = $").append(i + 1).append(';');
+			if (i > 0) {
+				call.append(i > 1 ? ", " : "").append(field);
+			}
+		}
+		call.append(')');
+		callable.addConstructor(CtNewConstructor.make(fieldTypes, new CtClass[0], constructor.append(" }").toString(),
+				callable));
+
+		CtMethod ctMethod = new CtMethod(pool.get(Object.class.getName()), "call", new CtClass[0], callable);
+		ctMethod.setExceptionTypes(new CtClass[]{pool.get(IOException.class.getName())});
+		ctMethod.setModifiers(Modifier.PUBLIC);
+		ctMethod.setBody(method.getReturnType() == void.class ? "{ " + call + "; return null; }"
+				: "{ return ($w) " + call + "; }");
+		callable.addMethod(ctMethod);
+		return callable;
+	}
+
+	/**
+	 * Generate the body of a method executed with policies. The method error is thrown when it declares a compatible
+	 * exception, it is wrapped when it declares others (as {@link Proxy} does) and logged when it declares none
+	 *
+	 * @param index        method index, used to name its descriptor field
+	 * @param method       implemented method
+	 * @param callableName name of the method callable class
+	 * @return the method body
+	 */
+	private static String getPolicyBody(int index, @NonNull Method method, @NonNull String callableName) {
+		int count = method.getParameterCount();
+		StringBuilder run = new StringBuilder("runWithPolicies(METHOD_").append(index).append(", new ")
+				.append(callableName).append("((").append(method.getDeclaringClass().getName())
+				.append(") getAdaptee()").append(count > 0 ? ", $$)" : ")");
+		if (count == 0 || count > 4) {
+			run.append(", $args");
+		} else {
+			for (int i = 1; i <= count; i++) {
+				run.append(", ($w) $").append(i);
+			}
+		}
+		run.append(')');
+
+		boolean isVoid = method.getReturnType() == void.class;
+		String statement = isVoid ? run + ";" : "return ($r) " + run + ";";
+		Class<?>[] exceptionTypes = method.getExceptionTypes();
+		if (Arrays.stream(exceptionTypes).anyMatch(type -> type.isAssignableFrom(IOException.class))) {
+			return "{ " + statement + " }";
+		}
+		if (exceptionTypes.length > 0) {
+			return "{ try { " + statement + " } catch (java.io.IOException e) {"
+					+ " throw new java.lang.reflect.UndeclaredThrowableException(e); } }";
+		}
+		return "{ try { " + statement + " } catch (java.io.IOException e) { onUndeclaredError(e); "
+				+ (isVoid ? "" : "return " + getDefaultValue(method.getReturnType()) + "; ") + "} }";
+	}
+
+	/**
+	 * Generate the body of a method executed without policies : services getters (the service is wrapped) and Object
+	 * methods
+	 *
+	 * @param method implemented method
+	 * @return the method body
+	 */
+	private static String getDelegateBody(@NonNull Method method) {
+		String call = "((" + method.getDeclaringClass().getName() + ") getAdaptee())." + method.getName() + "($$)";
+		if (isServiceGetter(method)) {
+			return "{ return wrapService(" + call + "); }";
+		}
+		return method.getReturnType() == void.class ? "{ " + call + "; }" : "{ return " + call + "; }";
+	}
+
+	/**
+	 * @param type method return type
+	 * @return source of the default value of the type
+	 */
+	private static String getDefaultValue(@NonNull Class<?> type) {
+		if (!type.isPrimitive()) {
+			return "null";
+		}
+		if (type == boolean.class) {
+			return "false";
+		}
+		if (type == long.class) {
+			return "0L";
+		}
+		if (type == float.class) {
+			return "0.0F";
+		}
+		if (type == double.class) {
+			return "0.0D";
+		}
+		return "(" + type.getName() + ") 0";
+	}
+
+	/**
+	 * Collect all methods to implement, as {@link Proxy} does the first declared one is used for duplicated methods
+	 *
+	 * @param ifaces interfaces of the proxy
+	 * @return methods to implement
+	 */
+	private static Method[] collectMethods(@NonNull Class<?>[] ifaces) {
+		Map<String, Method> methods = new LinkedHashMap<>();
+		for (Method method : OBJECT_METHODS) {
+			methods.put(getSignature(method), method);
+		}
+		for (Class<?> iface : ifaces) {
+			for (Method method : iface.getMethods()) {
+				if (java.lang.reflect.Modifier.isStatic(method.getModifiers())) {
+					continue;
+				}
+				Method existing = methods.putIfAbsent(getSignature(method), method);
+				if (existing != null && existing.getReturnType() != method.getReturnType()) {
+					if (!existing.getReturnType().isAssignableFrom(method.getReturnType())) {
+						throw new IllegalArgumentException("Incompatible return types on methods " + existing
+								+ " and " + method);
+					}
+					// Keep the most specific one
+					methods.put(getSignature(method), method);
+				}
+			}
+		}
+		return methods.values().toArray(new Method[methods.size()]);
+	}
+
+	/**
+	 * Resolve the package (with the trailing dot) of the proxy class, non public interfaces could only be implemented
+	 * from their own package
+	 *
+	 * @param type   coprocessor class
+	 * @param ifaces interfaces of the proxy
+	 * @param loader class loader where the proxy class will be defined
+	 * @return the proxy class package
+	 */
+	private static String getPackage(@NonNull Class<?> type, @NonNull Class<?>[] ifaces, @NonNull ClassLoader loader) {
+		String packageName = null;
+		for (Class<?> iface : ifaces) {
+			if (java.lang.reflect.Modifier.isPublic(iface.getModifiers())) {
+				continue;
+			}
+			String ifacePackage = ClassUtils.getPackageName(iface);
+			if (iface.getClassLoader() != loader || (packageName != null && !packageName.equals(ifacePackage))) {
+				throw new IllegalArgumentException("Non public interfaces are not accessible from the same package");
+			}
+			packageName = ifacePackage;
+		}
+		if (packageName == null) {
+			packageName = ClassUtils.getPackageName(type);
+		}
+		return packageName.isEmpty() ? "" : packageName + ".";
+	}
+
+	/**
+	 * @param method a method
+	 * @return signature of the method, without its return type
+	 */
+	private static String getSignature(@NonNull Method method) {
+		return method.getName() + Arrays.toString(method.getParameterTypes());
+	}
+
+	/**
+	 * Convert classes to javassist ones
+	 *
+	 * @param pool    javassist class pool
+	 * @param classes classes to convert
+	 * @return javassist classes
+	 * @throws NotFoundException if a class could not be found
+	 */
+	private static CtClass[] toCtClasses(@NonNull ClassPool pool, @NonNull Class<?>[] classes) throws NotFoundException {
+		CtClass[] result = new CtClass[classes.length];
+		for (int i = 0; i < classes.length; i++) {
+			result[i] = pool.get(classes[i].getName());
+		}
+		return result;
+	}
+
+	/**
+	 * A generated proxy class
+	 */
+	private static final class ProxyClass {
+
+		/**
+		 * Interfaces implemented by the class
+		 */
+		private final Class<?>[] ifaces;
+
+		/**
+		 * Proxy class constructor, takes the adaptee, its policies, executor and services execution mode
+		 */
+		private final Constructor<?> constructor;
+
+		/**
+		 * Constructor
+		 *
+		 * @param ifaces      interfaces implemented by the class
+		 * @param constructor proxy class constructor
+		 */
+		private ProxyClass(Class<?>[] ifaces, Constructor<?> constructor) {
+			this.ifaces = ifaces;
+			this.constructor = constructor;
+		}
+	}
+}
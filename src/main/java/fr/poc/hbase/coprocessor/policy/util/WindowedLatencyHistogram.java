@@ -0,0 +1,113 @@
+package fr.poc.hbase.coprocessor.policy.util;
+
+import lombok.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free latency histogram over a sliding time window.
+ * <p>
+ * The window is split in rotating slots, each one being a {@link LatencyHistogram} of the values recorded during its
+ * period : a snapshot merges the slots of the window, so it holds values recorded between the last
+ * (slots - 1) and (slots) periods. Slots are replaced (not cleared) when they are reused, a writer late on a rotation
+ * may drop its value.
+ * Times are given by callers in {@link System#nanoTime()} reference, so a single clock read could be shared by
+ * several metrics.
+ * </p>
+ */
+public final class WindowedLatencyHistogram {
+
+	/**
+	 * Stripes of a slot histogram : slots are numerous and short-lived, keep their footprint low
+	 */
+	private static final int SLOT_STRIPES = 2;
+
+	/**
+	 * Period of a slot (in nanoseconds)
+	 */
+	private final long slotPeriod;
+
+	/**
+	 * Rotating slots
+	 */
+	private final AtomicReferenceArray<Slot> slots;
+
+	/**
+	 * Constructor
+	 *
+	 * @param window window duration
+	 * @param unit   window duration unit
+	 * @param slots  number of slots of the window
+	 */
+	public WindowedLatencyHistogram(long window, @NonNull TimeUnit unit, int slots) {
+		if (slots <= 0 || unit.toNanos(window) < slots) {
+			throw new IllegalArgumentException("Invalid window of [" + window + " " + unit + "] with [" + slots
+					+ "] slots");
+		}
+		this.slotPeriod = unit.toNanos(window) / slots;
+		this.slots = new AtomicReferenceArray<>(slots);
+	}
+
+	/**
+	 * Record a latency
+	 *
+	 * @param micros   latency in microseconds
+	 * @param nanoTime recording time in {@link System#nanoTime()} reference
+	 */
+	public void recordMicros(long micros, long nanoTime) {
+		long epoch = Math.floorDiv(nanoTime, slotPeriod);
+		int index = (int) Math.floorMod(epoch, (long) slots.length());
+		Slot slot = slots.get(index);
+		if (slot == null || slot.epoch < epoch) {
+			Slot fresh = new Slot(epoch);
+			slot = slots.compareAndSet(index, slot, fresh) ? fresh : slots.get(index);
+		}
+		if (slot.epoch == epoch) {
+			slot.histogram.recordMicros(micros);
+		}
+	}
+
+	/**
+	 * Take a snapshot of the values of the window
+	 *
+	 * @param nanoTime snapshot time in {@link System#nanoTime()} reference
+	 * @return the window snapshot
+	 */
+	public LatencyHistogram.Snapshot snapshot(long nanoTime) {
+		long epoch = Math.floorDiv(nanoTime, slotPeriod);
+		long[] counts = new long[LatencyHistogram.BUCKETS];
+		for (int i = 0; i < slots.length(); i++) {
+			Slot slot = slots.get(i);
+			if (slot != null && slot.epoch <= epoch && slot.epoch > epoch - slots.length()) {
+				slot.histogram.addTo(counts);
+			}
+		}
+		return new LatencyHistogram.Snapshot(counts);
+	}
+
+	/**
+	 * Values recorded during a slot period
+	 */
+	private static final class Slot {
+
+		/**
+		 * Slot period index since the clock origin
+		 */
+		private final long epoch;
+
+		/**
+		 * Values of the period
+		 */
+		private final LatencyHistogram histogram = new LatencyHistogram(SLOT_STRIPES);
+
+		/**
+		 * Constructor
+		 *
+		 * @param epoch slot period index
+		 */
+		private Slot(long epoch) {
+			this.epoch = epoch;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.agent.transformer.ClassNameMatcher;
+import fr.poc.hbase.coprocessor.policy.agent.transformer.CoprocessorHostWithPoliciesTransformer;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.hbase.regionserver.HRegion;
+import org.apache.hadoop.hbase.regionserver.RegionCoprocessorHost;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test {@link CoprocessorHostWithPoliciesTransformer} classes filtering
+ */
+public class CoprocessorHostTransformerTest {
+
+	/**
+	 * Test class names matching on internal names
+	 */
+	@Test
+	public void testClassNameMatcher() {
+		ClassNameMatcher matcher = new ClassNameMatcher(Arrays.asList("org.apache.hadoop.hbase", " com.example.", ""));
+		assertThat(matcher.matches("org/apache/hadoop/hbase/regionserver/HRegion")).isTrue();
+		assertThat(matcher.matches("com/example/Endpoint")).isTrue();
+		assertThat(matcher.matches("org/apache/hadoop/fs/Path")).isFalse();
+		assertThat(matcher.matches(null)).isFalse();
+	}
+
+	/**
+	 * Only coprocessor hosts are transformed, as many times as they are loaded
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testTransform() throws Exception {
+		CoprocessorHostWithPoliciesTransformer transformer = new CoprocessorHostWithPoliciesTransformer(Collections.emptyMap());
+		ClassLoader loader = getClass().getClassLoader();
+
+		assertThat(transform(transformer, loader, RegionCoprocessorHost.class)).isNotNull();
+		// Transformation does not keep any state (ie: hosts could be loaded by several class loaders)
+		assertThat(transform(transformer, loader, RegionCoprocessorHost.class)).isNotNull();
+		assertThat(transform(transformer, loader, HRegion.class)).isNull();
+
+		// Filtered by prefix
+		transformer = new CoprocessorHostWithPoliciesTransformer(
+				Collections.singletonMap(CoprocessorHostWithPoliciesTransformer.COPROCESSOR_HOST_PREFIX_PARAM, "com.example"));
+		assertThat(transform(transformer, loader, RegionCoprocessorHost.class)).isNull();
+	}
+
+	/**
+	 * Transform a class
+	 *
+	 * @param transformer transformer
+	 * @param loader      class loader
+	 * @param type        class to transform
+	 * @return transformed bytecode, null if not transformed
+	 * @throws Exception on error
+	 */
+	private static byte[] transform(CoprocessorHostWithPoliciesTransformer transformer, ClassLoader loader,
+									Class<?> type) throws Exception {
+		String internalName = type.getName().replace('.', '/');
+		try (InputStream input = loader.getResourceAsStream(internalName + ".class")) {
+			return transformer.transform(loader, internalName, null, null, IOUtils.toByteArray(input));
+		}
+	}
+}
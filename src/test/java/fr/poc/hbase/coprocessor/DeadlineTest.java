@@ -0,0 +1,111 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.Deadline;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.impl.TimeoutPolicy;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test {@link Deadline} publication and cooperative cancellation
+ */
+public class DeadlineTest {
+
+	/**
+	 * Test that a long execution stops cooperatively once its timeout expires
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testCooperativeTimeout() throws Throwable {
+		CountDownLatch stopped = new CountDownLatch(1);
+		AtomicBoolean interrupted = new AtomicBoolean();
+		TestVerifier verifier = new TestVerifier(new TimeoutPolicy(200, TimeUnit.MILLISECONDS, -1));
+
+		long start = System.nanoTime();
+		Throwable error = catchThrowable(() -> verifier.run(() -> {
+			Deadline deadline = Deadline.current();
+			try {
+				while (!deadline.isExpired()) {
+					Thread.sleep(10);
+				}
+			} catch (InterruptedException e) {
+				interrupted.set(true);
+			}
+			stopped.countDown();
+			deadline.check();
+			return null;
+		}));
+
+		assertThat(error).as("Timeout error").isInstanceOf(Deadline.DeadlineExceededException.class);
+		assertThat(System.nanoTime() - start).as("Timeout delay").isLessThan(TimeUnit.SECONDS.toNanos(5));
+		assertThat(stopped.await(5, TimeUnit.SECONDS)).as("Cooperative stop").isTrue();
+		assertThat(interrupted.get()).as("Interrupted execution").isFalse();
+	}
+
+	/**
+	 * Test that there is no deadline outside of a policy-wrapped invocation
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testNoDeadline() throws Throwable {
+		assertThat(Deadline.current()).isSameAs(Deadline.NONE);
+		TestVerifier verifier = new TestVerifier(new TimeoutPolicy(10, TimeUnit.SECONDS));
+		Deadline deadline = verifier.run(Deadline::current);
+		assertThat(deadline).as("Invocation deadline").isNotSameAs(Deadline.NONE);
+		assertThat(deadline.isExpired()).as("Expired deadline").isFalse();
+		assertThat(Deadline.current()).as("Deadline after invocation").isSameAs(Deadline.NONE);
+	}
+
+	/**
+	 * Test that a nested invocation does not lose the timeout of its enclosing invocation : the outer timeout must
+	 * be cancelled once the outer invocation ends
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testNestedTimeouts() throws Throwable {
+		TimeoutPolicy policy = new TimeoutPolicy(200, TimeUnit.MILLISECONDS, -1);
+		TestVerifier outer = new TestVerifier(policy, PolicyVerifier.ExecutionMode.CALLER_THREAD);
+		TestVerifier inner = new TestVerifier(policy, PolicyVerifier.ExecutionMode.CALLER_THREAD);
+
+		Deadline[] deadlines = outer.run(() -> new Deadline[]{Deadline.current(), inner.run(Deadline::current)});
+		assertThat(deadlines[0]).as("Outer deadline").isNotSameAs(deadlines[1]);
+
+		Thread.sleep(500);
+		assertThat(deadlines[0].isExpired()).as("Expired outer deadline").isFalse();
+		assertThat(deadlines[1].isExpired()).as("Expired inner deadline").isFalse();
+	}
+
+	/**
+	 * Simple verifier that expose method execution
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		private TestVerifier(Policy policy) {
+			super(new Object(), new ArrayList<>(Collections.singletonList(policy)));
+		}
+
+		private TestVerifier(Policy policy, ExecutionMode executionMode) {
+			super(new Object(), new ArrayList<>(Collections.singletonList(policy)),
+					SharedPolicyExecutor.getInstance().newBoundedExecutor(), executionMode);
+		}
+
+		private <R> R run(CallableWithIOException<R> callable) throws IOException {
+			return runWithPolicies("Test:run", callable);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.util.DecayingRate;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test {@link DecayingRate}
+ */
+public class DecayingRateTest {
+
+	/**
+	 * Test rates of a steady then stopped load
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testRates() throws Throwable {
+		long start = 42L;
+		DecayingRate rate = new DecayingRate(start);
+		assertThat(rate.getOneMinuteRate(start)).isEqualTo(0d);
+
+		// 10 events per second during 15 minutes
+		long now = start;
+		for (int i = 0; i < 15 * 60 * 10; i++) {
+			now += TimeUnit.MILLISECONDS.toNanos(100);
+			rate.mark(now);
+		}
+		assertThat(rate.getOneMinuteRate(now)).isCloseTo(10d, within(0.1d));
+		assertThat(rate.getFiveMinutesRate(now)).isCloseTo(10d, within(0.1d));
+		assertThat(rate.getFifteenMinutesRate(now)).isCloseTo(10d, within(0.1d));
+
+		// One idle minute
+		now += TimeUnit.MINUTES.toNanos(1);
+		assertThat(rate.getOneMinuteRate(now)).isCloseTo(10d / Math.E, within(0.5d));
+		assertThat(rate.getFiveMinutesRate(now)).isCloseTo(10d * Math.exp(-1d / 5), within(0.2d));
+		assertThat(rate.getFifteenMinutesRate(now)).isCloseTo(10d * Math.exp(-1d / 15), within(0.2d));
+
+		// Long idle period
+		now += TimeUnit.DAYS.toNanos(21);
+		assertThat(rate.getFifteenMinutesRate(now)).isCloseTo(0d, within(1e-6d));
+	}
+}
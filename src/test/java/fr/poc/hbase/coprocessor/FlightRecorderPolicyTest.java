@@ -0,0 +1,109 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.impl.FlightRecorderPolicy;
+import fr.poc.hbase.coprocessor.policy.impl.MemoryBudgetPolicy;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.NonNull;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Test {@link FlightRecorderPolicy}
+ */
+public class FlightRecorderPolicyTest {
+
+	private static final String EVENT_NAME = "fr.poc.hbase.coprocessor.Invocation";
+
+	/**
+	 * Test recorded invocations, with their outcome and rejecting policy
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testRecording() throws Throwable {
+		assumeTrue(FlightRecorder.isAvailable());
+		assertThat(FlightRecorderPolicy.isRecording()).isFalse();
+
+		// Fast successful calls are not sampled, others are always recorded
+		TestVerifier verifier = new TestVerifier(new FlightRecorderPolicy(1, TimeUnit.HOURS, 0), new RejectingPolicy());
+		Path dump = Files.createTempFile("FlightRecorderPolicyTest", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(EVENT_NAME).withThreshold(java.time.Duration.ZERO);
+			recording.start();
+			assertThat(FlightRecorderPolicy.isRecording()).isTrue();
+
+			verifier.run("Target:fast()", () -> null);
+			assertThat(catchThrowable(() -> verifier.run("Target:failed()", () -> {
+				throw new IOException("expected");
+			}))).isInstanceOf(IOException.class);
+			assertThat(catchThrowable(() -> verifier.run("Target:rejected()", () -> null)))
+					.isInstanceOf(IOException.class);
+			assertThat(catchThrowable(() -> verifier.run("Target:overBudget()", () -> {
+				throw new MemoryBudgetPolicy.MemoryBudgetExceededException("expected");
+			}))).isInstanceOf(MemoryBudgetPolicy.MemoryBudgetExceededException.class);
+
+			recording.stop();
+			recording.dump(dump);
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+					.filter(event -> EVENT_NAME.equals(event.getEventType().getName()))
+					.collect(Collectors.toList());
+			assertThat(events).extracting(event -> event.getString("method"))
+					.containsExactly("Target:failed()", "Target:rejected()", "Target:overBudget()");
+			assertThat(events).extracting(event -> event.getString("outcome"))
+					.containsExactly("ERROR", "REJECTED", "CANCELLED");
+			assertThat(events.get(0).getString("coprocessor")).isEqualTo(Object.class.getName());
+			assertThat(events.get(0).getString("rejectedBy")).isNull();
+			assertThat(events.get(1).getString("rejectedBy")).isEqualTo(RejectingPolicy.class.getName());
+		} finally {
+			Files.deleteIfExists(dump);
+		}
+	}
+
+	/**
+	 * Policy that rejects the "rejected" method
+	 */
+	public static final class RejectingPolicy implements Policy {
+
+		@Override
+		public void beforeRun(@NonNull InvocationContext context) throws IOException {
+			if (context.getMethod().contains("rejected")) {
+				throw new IOException("rejected");
+			}
+		}
+	}
+
+	/**
+	 * Simple verifier that expose method execution
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		private TestVerifier(Policy... policies) {
+			super(new Object(), new ArrayList<>(Arrays.asList(policies)));
+		}
+
+		private <R> R run(String method, CallableWithIOException<R> callable) throws IOException {
+			return runWithPolicies(PolicyMethod.of(method), callable, (Object) null);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.util.HashedWheelTimer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test {@link HashedWheelTimer}
+ */
+public class HashedWheelTimerTest {
+
+	private HashedWheelTimer timer;
+
+	@Before
+	public void initTest() {
+		// Small wheel to test timeouts that need several rounds
+		timer = new HashedWheelTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8);
+	}
+
+	@After
+	public void afterTest() {
+		timer.close();
+	}
+
+	/**
+	 * Test that a task is executed once its delay expires
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testExpiration() throws Throwable {
+		CountDownLatch expired = new CountDownLatch(1);
+		long start = System.nanoTime();
+		HashedWheelTimer.Timeout timeout = timer.schedule(expired::countDown, 200, TimeUnit.MILLISECONDS);
+
+		assertThat(expired.await(5, TimeUnit.SECONDS)).as("Expired task").isTrue();
+		assertThat(System.nanoTime() - start).as("Expiration delay").isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+		assertThat(timeout.isExpired()).as("Expired state").isTrue();
+		assertThat(timeout.cancel()).as("Cancel an expired task").isFalse();
+		assertThat(timer.getActiveTimeouts()).as("Active timeouts").isEqualTo(0);
+	}
+
+	/**
+	 * Test that a cancelled task is never executed
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testCancellation() throws Throwable {
+		AtomicInteger executions = new AtomicInteger();
+		HashedWheelTimer.Timeout[] timeouts = new HashedWheelTimer.Timeout[1000];
+		for (int i = 0; i < timeouts.length; i++) {
+			timeouts[i] = timer.schedule(executions::incrementAndGet, 100, TimeUnit.MILLISECONDS);
+		}
+		assertThat(timer.getActiveTimeouts()).as("Active timeouts").isEqualTo(timeouts.length);
+
+		for (int i = 0; i < timeouts.length; i += 2) {
+			assertThat(timeouts[i].cancel()).as("Cancel a scheduled task").isTrue();
+		}
+		assertThat(timer.getActiveTimeouts()).as("Active timeouts after cancellation").isEqualTo(timeouts.length / 2);
+
+		Thread.sleep(500);
+		assertThat(executions.get()).as("Executed tasks").isEqualTo(timeouts.length / 2);
+		assertThat(timer.getActiveTimeouts()).as("Active timeouts after expiration").isEqualTo(0);
+	}
+}
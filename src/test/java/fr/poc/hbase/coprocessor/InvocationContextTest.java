@@ -0,0 +1,278 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test {@link InvocationContext} given to policies hooks
+ */
+public class InvocationContextTest {
+
+	/**
+	 * Test context content on success and failure, and both hooks flavors
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testContextContent() throws Throwable {
+		RecordingPolicy contextPolicy = new RecordingPolicy();
+		List<Object> legacyArgs = new ArrayList<>();
+		TestVerifier verifier = new TestVerifier(contextPolicy, new Policy() {
+			@Override
+			public <T> void afterRun(T object, String method, Object[] args, Object result, long executionTime) {
+				legacyArgs.addAll(Arrays.asList(args));
+				legacyArgs.add(result);
+			}
+		});
+
+		assertThat(verifier.run("first", () -> "result", "a", "b")).isEqualTo("result");
+		assertThat(contextPolicy.method).isEqualTo("first");
+		assertThat(contextPolicy.methodId).isEqualTo(PolicyMethod.of("first").getId());
+		assertThat(contextPolicy.target).isSameAs(verifier.getAdaptee());
+		assertThat(contextPolicy.arguments).containsExactly("a", "b");
+		assertThat(contextPolicy.result).isEqualTo("result");
+		assertThat(contextPolicy.error).isNull();
+		assertThat(contextPolicy.executionTime).isGreaterThanOrEqualTo(0L);
+		assertThat(legacyArgs).containsExactly("a", "b", "result");
+
+		IOException expected = new IOException("expected");
+		Throwable error = catchThrowable(() -> verifier.run("second", () -> {
+			throw expected;
+		}, "c", "d"));
+		assertThat(error).isSameAs(expected);
+		assertThat(contextPolicy.method).isEqualTo("second");
+		assertThat(contextPolicy.result).isNull();
+		assertThat(contextPolicy.error).isSameAs(expected);
+		assertThat(contextPolicy.onError).isSameAs(expected);
+	}
+
+	/**
+	 * Test that contexts are reused by the caller thread and distinct for nested invocations
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testContextReuse() throws Throwable {
+		RecordingPolicy policy = new RecordingPolicy();
+		TestVerifier verifier = new TestVerifier(policy);
+
+		verifier.run("first", () -> null, "a", "b");
+		InvocationContext first = policy.context;
+		verifier.run("second", () -> null, "c", "d");
+		assertThat(policy.context).as("Reused context").isSameAs(first);
+		assertThat(first.getArguments()).as("Released arguments").isEmpty();
+		assertThat(first.getTarget()).as("Released target").isNull();
+
+		verifier.run("outer", () -> verifier.run("inner", () -> null, "e", "f"), "g", "h");
+		assertThat(policy.methods).endsWith("inner", "outer");
+		assertThat(policy.arguments).as("Outer arguments").containsExactly("g", "h");
+	}
+
+	/**
+	 * Test that policies states are kept between hooks of an invocation, and cleared once it is released
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testPolicyStates() throws Throwable {
+		InvocationContext.Key<String> key = InvocationContext.newKey("test");
+		List<String> states = new ArrayList<>();
+		TestVerifier verifier = new TestVerifier(new Policy() {
+			@Override
+			public void beforeRun(InvocationContext context) {
+				states.add(context.get(key));
+				context.set(key, context.getMethod());
+			}
+
+			@Override
+			public void afterRun(InvocationContext context) {
+				states.add(context.get(key));
+			}
+		});
+
+		verifier.run("first", () -> null, "a", "b");
+		verifier.run("outer", () -> verifier.run("inner", () -> null, "c", "d"), "e", "f");
+		assertThat(states).containsExactly(null, "first", null, null, "inner", "outer");
+	}
+
+	/**
+	 * Test that the execution time is split in policies overhead, queue time and run time
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testTimingSplit() throws Throwable {
+		// Inline : nothing is queued
+		TimingPolicy inline = new TimingPolicy();
+		TestVerifier inlineVerifier = new TestVerifier(inline);
+		inlineVerifier.run("inline", () -> park(20L), "a", "b");
+		assertThat(inline.queueTime).isEqualTo(0L);
+		assertThat(inline.runTime).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20L));
+		assertThat(inline.policyTime).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(10L));
+		assertThat(inline.policyTime + inline.queueTime + inline.runTime).isEqualTo(inline.executionTime);
+
+		// Watched : the call waits for a concurrency permit of the saturated executor
+		TimingPolicy watched = new WatchingTimingPolicy();
+		TestVerifier verifier = new TestVerifier(watched);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Thread> blockers = new ArrayList<>();
+		for (int i = verifier.getExecutor().availablePermits(); i > 0; i--) {
+			Thread blocker = new Thread(() -> catchThrowable(() -> verifier.run("blocker", () -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return null;
+			}, "c", "d")));
+			blocker.start();
+			blockers.add(blocker);
+		}
+		while (verifier.getExecutor().availablePermits() > 0) {
+			Thread.sleep(1L);
+		}
+		Thread releaser = new Thread(() -> {
+			park(100L);
+			release.countDown();
+		});
+		releaser.start();
+		verifier.run("queued", () -> park(20L), "e", "f");
+		for (Thread blocker : blockers) {
+			blocker.join();
+		}
+		assertThat(watched.method).isEqualTo("queued");
+		assertThat(watched.queueTime).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50L));
+		assertThat(watched.runTime).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20L));
+		assertThat(watched.policyTime).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(10L));
+		assertThat(watched.policyTime + watched.queueTime + watched.runTime).isEqualTo(watched.executionTime);
+	}
+
+	/**
+	 * Park the current thread
+	 *
+	 * @param millis park duration in milliseconds
+	 * @return null
+	 */
+	private static Object park(long millis) {
+		long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+		long remaining;
+		while ((remaining = end - System.nanoTime()) > 0L) {
+			LockSupport.parkNanos(remaining);
+		}
+		return null;
+	}
+
+	/**
+	 * Policy that spends 10ms before each execution and records the latest execution time split
+	 */
+	private static class TimingPolicy implements Policy {
+
+		private volatile String method;
+
+		private volatile long executionTime;
+
+		private volatile long policyTime;
+
+		private volatile long queueTime;
+
+		private volatile long runTime;
+
+		@Override
+		public void beforeRun(InvocationContext context) {
+			park(10L);
+		}
+
+		@Override
+		public void afterRun(InvocationContext context) {
+			this.method = context.getMethod();
+			this.executionTime = context.getExecutionTime();
+			this.policyTime = context.getPolicyTime();
+			this.queueTime = context.getQueueTime();
+			this.runTime = context.getRunTime();
+		}
+	}
+
+	/**
+	 * Timing policy that watches executions, so they are executed by the executor
+	 */
+	private static final class WatchingTimingPolicy extends TimingPolicy {
+
+		@Override
+		public boolean watchesExecution() {
+			return true;
+		}
+	}
+
+	/**
+	 * Policy that records the latest context content
+	 */
+	private static final class RecordingPolicy implements Policy {
+
+		private final List<String> methods = new ArrayList<>();
+
+		private InvocationContext context;
+
+		private Object target;
+
+		private String method;
+
+		private int methodId;
+
+		private Object[] arguments;
+
+		private Object result;
+
+		private Throwable error;
+
+		private IOException onError;
+
+		private long executionTime;
+
+		@Override
+		public void onError(InvocationContext context, IOException ioException) {
+			this.onError = ioException;
+		}
+
+		@Override
+		public void afterRun(InvocationContext context) {
+			this.context = context;
+			this.methods.add(context.getMethod());
+			this.target = context.getTarget();
+			this.method = context.getMethod();
+			this.methodId = context.getMethodId();
+			this.arguments = context.getArguments().clone();
+			this.result = context.getResult();
+			this.error = context.getError();
+			this.executionTime = context.getExecutionTime();
+		}
+	}
+
+	/**
+	 * Simple verifier that expose method execution
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		private TestVerifier(Policy... policies) {
+			super(new Object(), new ArrayList<>(Arrays.asList(policies)));
+		}
+
+		private <R> R run(String method, CallableWithIOException<R> callable, Object arg0, Object arg1) throws IOException {
+			return runWithPolicies(PolicyMethod.of(method), callable, arg0, arg1);
+		}
+	}
+}
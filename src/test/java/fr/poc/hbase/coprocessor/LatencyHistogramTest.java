@@ -0,0 +1,138 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.util.LatencyHistogram;
+import fr.poc.hbase.coprocessor.policy.util.WindowedLatencyHistogram;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Test {@link LatencyHistogram} and {@link WindowedLatencyHistogram}
+ */
+public class LatencyHistogramTest {
+
+	/**
+	 * Test percentiles precision
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testPercentiles() throws Throwable {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.snapshot().getCount()).isEqualTo(0L);
+		assertThat(histogram.snapshot().getPercentileMicros(99d)).isEqualTo(0d);
+
+		for (long i = 1; i <= 100000; i++) {
+			histogram.recordMicros(i);
+		}
+		histogram.record(-1L, TimeUnit.MILLISECONDS);
+		histogram.record(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertThat(snapshot.getCount()).isEqualTo(100002L);
+		// Log-linear buckets are known with 1/16 relative error
+		assertThat(snapshot.getPercentileMicros(50d)).isCloseTo(50000d, within(50000d / 16));
+		assertThat(snapshot.getPercentileMicros(95d)).isCloseTo(95000d, within(95000d / 16));
+		assertThat(snapshot.getPercentileMicros(99d)).isCloseTo(99000d, within(99000d / 16));
+		assertThat(snapshot.getPercentileMicros(99.9d)).isCloseTo(99900d, within(99900d / 16));
+		assertThat(snapshot.getPercentileMicros(0d)).isEqualTo(0d);
+		assertThat(snapshot.getPercentileMicros(100d)).isGreaterThan(TimeUnit.HOURS.toMicros(30));
+	}
+
+	/**
+	 * Test that concurrent recordings are not lost
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testConcurrentRecording() throws Throwable {
+		LatencyHistogram histogram = new LatencyHistogram();
+		int threads = 8;
+		int values = 100000;
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] writers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			writers[t] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for (int i = 0; i < values; i++) {
+					histogram.recordMicros(i % 1000);
+				}
+			});
+			writers[t].start();
+		}
+		start.countDown();
+		for (Thread writer : writers) {
+			writer.join();
+		}
+
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+		assertThat(snapshot.getCount()).isEqualTo((long) threads * values);
+		assertThat(snapshot.getPercentileMicros(50d)).isCloseTo(500d, within(500d / 16));
+	}
+
+	/**
+	 * Test that snapshots rebuilt from their counts are merged without loss
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testMerge() throws Throwable {
+		LatencyHistogram fast = new LatencyHistogram();
+		LatencyHistogram slow = new LatencyHistogram();
+		for (long i = 1; i <= 990; i++) {
+			fast.recordMicros(i);
+		}
+		for (long i = 1; i <= 10; i++) {
+			slow.recordMicros(100000L * i);
+		}
+
+		LatencyHistogram.Snapshot merged = LatencyHistogram.Snapshot.of(fast.snapshot().getCounts())
+				.merge(LatencyHistogram.Snapshot.of(slow.snapshot().getCounts()));
+		assertThat(merged.getCount()).isEqualTo(1000L);
+		assertThat(merged.getPercentileMicros(50d)).isCloseTo(500d, within(500d / 16));
+		assertThat(merged.getPercentileMicros(99.5d)).isCloseTo(500000d, within(500000d / 16));
+		assertThat(LatencyHistogram.Snapshot.of(new long[0]).merge(merged).getCounts()).isEqualTo(merged.getCounts());
+		assertThatThrownBy(() -> LatencyHistogram.Snapshot.of(new long[LatencyHistogram.BUCKETS + 1]))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	/**
+	 * Test that a windowed histogram only keeps recent values
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testWindow() throws Throwable {
+		WindowedLatencyHistogram histogram = new WindowedLatencyHistogram(60, TimeUnit.SECONDS, 6);
+		long now = -TimeUnit.SECONDS.toNanos(5);
+		assertThat(histogram.snapshot(now).getCount()).isEqualTo(0L);
+
+		// One slow value per second during a minute, then fast values during thirty seconds
+		for (int i = 0; i < 60; i++) {
+			histogram.recordMicros(100000L, now);
+			now += TimeUnit.SECONDS.toNanos(1);
+		}
+		assertThat(histogram.snapshot(now).getPercentileMicros(50d)).isCloseTo(100000d, within(100000d / 16));
+		for (int i = 0; i < 30; i++) {
+			histogram.recordMicros(1000L, now);
+			now += TimeUnit.SECONDS.toNanos(1);
+		}
+		LatencyHistogram.Snapshot snapshot = histogram.snapshot(now);
+		assertThat(snapshot.getCount()).isBetween(50L, 60L);
+		assertThat(snapshot.getPercentileMicros(50d)).isCloseTo(1000d, within(1000d / 16));
+		assertThat(snapshot.getPercentileMicros(99d)).isCloseTo(100000d, within(100000d / 16));
+
+		// Values older than the window are dropped
+		now += TimeUnit.MINUTES.toNanos(1);
+		assertThat(histogram.snapshot(now).getCount()).isEqualTo(0L);
+	}
+}
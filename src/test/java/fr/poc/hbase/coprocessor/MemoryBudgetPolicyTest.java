@@ -0,0 +1,127 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.Deadline;
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.impl.MemoryBudgetPolicy;
+import fr.poc.hbase.coprocessor.policy.impl.TimeoutPolicy;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import fr.poc.hbase.coprocessor.policy.util.HashedWheelTimer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test {@link MemoryBudgetPolicy}
+ */
+public class MemoryBudgetPolicyTest {
+
+	private static final long BUDGET = 16L * 1024 * 1024;
+
+	/**
+	 * Test that an execution exceeding its budget is cancelled and stops cooperatively
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testBudgetExceeded() throws Throwable {
+		TestVerifier verifier = new TestVerifier(new MemoryBudgetPolicy(BUDGET, 10, TimeUnit.MILLISECONDS, -1));
+		CountDownLatch stopped = new CountDownLatch(1);
+		Throwable error = catchThrowable(() -> verifier.run("Target:call()", () -> {
+			List<byte[]> retained = new ArrayList<>();
+			Deadline deadline = Deadline.current();
+			try {
+				while (!deadline.isExpired()) {
+					retained.add(new byte[64 * 1024]);
+					if (retained.size() > 64) {
+						retained.clear();
+					}
+				}
+				deadline.check();
+				return null;
+			} finally {
+				stopped.countDown();
+			}
+		}));
+
+		assertThat(error).isInstanceOf(MemoryBudgetPolicy.MemoryBudgetExceededException.class)
+				.hasMessageContaining("budget of [" + BUDGET + "] bytes");
+		assertThat(stopped.await(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+	/**
+	 * Test that executions within their budget, or without budget, complete
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testWithinBudget() throws Throwable {
+		TestVerifier verifier = new TestVerifier(new MemoryBudgetPolicy(BUDGET, 10, TimeUnit.MILLISECONDS, -1));
+		assertThat(verifier.run("Target:call()", () -> new byte[1024].length)).isEqualTo(1024);
+
+		TestVerifier unlimited = new TestVerifier(new MemoryBudgetPolicy(BUDGET,
+				Collections.singletonMap(Object.class.getName(), 0L), 10, TimeUnit.MILLISECONDS, -1));
+		assertThat(unlimited.run("Target:call()", () -> {
+			long size = 0L;
+			for (int i = 0; i < 2 * BUDGET / 1024; i++) {
+				size += new byte[1024].length;
+			}
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+			return size;
+		})).isEqualTo(2 * BUDGET);
+	}
+
+	/**
+	 * Test the budget together with a timeout and no other policy : the watch is set by the executing thread while
+	 * the timeout is set by the caller thread (delayed by a random spin, so both threads set them concurrently), both
+	 * must be stopped once executions end
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testWithTimeout() throws Throwable {
+		HashedWheelTimer timer = HashedWheelTimer.getShared();
+		long activeTimeouts = timer.getActiveTimeouts();
+		TestVerifier verifier = new TestVerifier(new Policy() {
+			@Override
+			public void running(InvocationContext context, Future<?> future) {
+				long end = System.nanoTime() + ThreadLocalRandom.current().nextLong(TimeUnit.MICROSECONDS.toNanos(50));
+				while (System.nanoTime() < end) {
+					Thread.yield();
+				}
+			}
+		}, new TimeoutPolicy(1, TimeUnit.MINUTES), new MemoryBudgetPolicy(BUDGET, 1, TimeUnit.MINUTES, -1));
+		for (int i = 0; i < 10000; i++) {
+			assertThat(verifier.run("Target:call()", () -> "result")).isEqualTo("result");
+			assertThat(timer.getActiveTimeouts()).as("Active timeouts after execution " + i).isEqualTo(activeTimeouts);
+		}
+	}
+
+	/**
+	 * Simple verifier that expose method execution
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		private TestVerifier(Policy... policies) {
+			super(new Object(), new ArrayList<>(Arrays.asList(policies)));
+		}
+
+		private <R> R run(String method, CallableWithIOException<R> callable) throws IOException {
+			return runWithPolicies(PolicyMethod.of(method), callable, (Object) null);
+		}
+	}
+}
@@ -0,0 +1,277 @@
+package fr.poc.hbase.coprocessor;
+
+import com.google.protobuf.RpcCallback;
+import com.google.protobuf.RpcController;
+import com.google.protobuf.Service;
+import fr.poc.hbase.coprocessor.generated.RowCounterProtos;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyInvocationHandler;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.impl.MetricsPolicy;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import fr.poc.hbase.coprocessor.util.RecordingMetricsCollector;
+import org.apache.hadoop.hbase.Coprocessor;
+import org.apache.hadoop.hbase.CoprocessorEnvironment;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.coprocessor.CoprocessorService;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+import org.apache.hadoop.metrics2.MetricsSource;
+import org.apache.hadoop.metrics2.impl.MetricsSystemImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test {@link MetricsPolicy}
+ */
+public class MetricsPolicyTest {
+
+	private MetricsSystemImpl metricsSystem;
+
+	@Before
+	public void initTest() {
+		metricsSystem = new MetricsSystemImpl("MetricsPolicyTest");
+	}
+
+	@After
+	public void afterTest() {
+		metricsSystem.shutdown();
+	}
+
+	/**
+	 * Test that a metric is registered once per method and records all invocations
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testMetrics() throws Throwable {
+		TestVerifier verifier = new TestVerifier(new MetricsPolicy(metricsSystem, "Test"));
+		for (int i = 0; i < 10; i++) {
+			verifier.run("Target:call()", () -> null);
+		}
+		assertThat(catchThrowable(() -> verifier.run("Target:call()", () -> {
+			throw new IOException("expected");
+		}))).isInstanceOf(IOException.class);
+
+		Map<String, Number> metrics = collect("Test");
+		String prefix = "coprocessor_Object_method_Target-call--_";
+		assertThat(metrics.get(prefix + "Count")).isEqualTo(11L);
+		assertThat(metrics.get(prefix + "ErrorCount")).isEqualTo(1L);
+		assertThat(metrics.get(prefix + "ErrorRatio").doubleValue()).isEqualTo(1d / 11);
+		assertThat(metrics).containsKeys(prefix + "P50", prefix + "P95", prefix + "P99", prefix + "P999");
+		assertThat(metrics.get(prefix + "P99").doubleValue())
+				.isLessThanOrEqualTo(metrics.get(prefix + "Max").doubleValue() * 1.1d);
+		// Recent values
+		assertThat(metrics.get(prefix + "RecentCount")).isEqualTo(11L);
+		assertThat(metrics).containsKeys(prefix + "RecentP50", prefix + "RecentP99", prefix + "CallRate1m",
+				prefix + "CallRate5m", prefix + "CallRate15m", prefix + "ErrorRate1m", prefix + "ErrorRate5m",
+				prefix + "ErrorRate15m");
+		// Execution time split, methods are executed inline
+		assertThat(metrics.get(prefix + "QueueAvg").doubleValue()).isEqualTo(0d);
+		assertThat(metrics).containsKeys(prefix + "QueueMax", prefix + "RunAvg", prefix + "RunMax",
+				prefix + "PolicyOverheadAvg");
+	}
+
+	/**
+	 * Test that region metrics are removed once the coprocessor is stopped
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testRegionLifecycle() throws Throwable {
+		HRegionInfo region = new HRegionInfo(TableName.valueOf("ns:table"));
+		TestVerifier verifier = new TestVerifier(new MetricsPolicy(metricsSystem, "Lifecycle"));
+		verifier.run("Target:call()", () -> null, environment(region));
+		String key = "coprocessor_Object_method_Target-call--_region_" + region.getEncodedName() + "_Count";
+		assertThat(collect("Lifecycle").get(key)).isEqualTo(1L);
+
+		verifier.close();
+		assertThat(collect("Lifecycle")).doesNotContainKey(key).isEmpty();
+	}
+
+	/**
+	 * Test that metrics of a coprocessor service that is a separate object are removed once the coprocessor is stopped
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testServiceLifecycle() throws Throwable {
+		Class<?>[] ifaces = new Class<?>[]{Coprocessor.class, CoprocessorService.class};
+		List<Policy> policies = new LeasedPolicies(new MetricsPolicy(metricsSystem, "Service"));
+		ServiceEndpoint endpoint = new ServiceEndpoint();
+		Object proxy = Proxy.newProxyInstance(MetricsPolicyTest.class.getClassLoader(), ifaces,
+				new PolicyInvocationHandler<>(endpoint, ifaces, policies));
+
+		Service service = ((CoprocessorService) proxy).getService();
+		assertThat(service).isNotSameAs(endpoint.service);
+		service.callMethod(service.getDescriptorForType().findMethodByName("getRowCount"), null,
+				RowCounterProtos.CountRequest.getDefaultInstance(), response -> {
+				});
+		assertThat(collect("Service")).containsKey("coprocessor_CountService_method_RowCountService.getRowCount_Count");
+
+		((Coprocessor) proxy).stop(null);
+		assertThat(collect("Service")).isEmpty();
+	}
+
+	/**
+	 * Test metrics roll-ups and cardinality cap
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testRollUpAndCap() throws Throwable {
+		HRegionInfo region1 = new HRegionInfo(TableName.valueOf("ns:table"), new byte[0], new byte[]{1});
+		HRegionInfo region2 = new HRegionInfo(TableName.valueOf("ns:table"), new byte[]{1}, new byte[0]);
+
+		MetricsPolicy tablePolicy = new MetricsPolicy(metricsSystem, "Table", MetricsPolicy.Scope.TABLE, 10);
+		TestVerifier verifier1 = new TestVerifier(tablePolicy);
+		TestVerifier verifier2 = new TestVerifier(tablePolicy);
+		verifier1.run("Target:call()", () -> null, environment(region1));
+		verifier2.run("Target:call()", () -> null, environment(region2));
+		assertThat(collect("Table")).containsEntry("coprocessor_Object_method_Target-call--_table_ns_table_Count", 2L);
+		// Table metric is kept while a region of the table is opened
+		verifier1.onClose();
+		assertThat(collect("Table")).containsEntry("coprocessor_Object_method_Target-call--_table_ns_table_Count", 2L);
+		verifier2.onClose();
+		assertThat(collect("Table")).isEmpty();
+
+		MetricsPolicy cappedPolicy = new MetricsPolicy(metricsSystem, "Capped", MetricsPolicy.Scope.REGION, 1);
+		new TestVerifier(cappedPolicy).run("Target:call()", () -> null, environment(region1));
+		new TestVerifier(cappedPolicy).run("Target:call()", () -> null, environment(region2));
+		assertThat(collect("Capped"))
+				.containsEntry("coprocessor_Object_method_Target-call--_region_" + region1.getEncodedName() + "_Count", 1L)
+				.containsEntry("coprocessor_Object_method_Target-call--_Count", 1L)
+				.doesNotContainKey("coprocessor_Object_method_Target-call--_region_" + region2.getEncodedName() + "_Count");
+		cappedPolicy.close();
+		assertThat(collect("Capped")).isEmpty();
+
+		// Policies of a context share its cap, the greatest one is kept whatever the creation order
+		MetricsPolicy sharedPolicy = new MetricsPolicy(metricsSystem, "Shared", MetricsPolicy.Scope.REGION, 2);
+		new MetricsPolicy(metricsSystem, "Shared", MetricsPolicy.Scope.REGION, 1);
+		new TestVerifier(sharedPolicy).run("Target:call()", () -> null, environment(region1));
+		new TestVerifier(sharedPolicy).run("Target:call()", () -> null, environment(region2));
+		assertThat(collect("Shared"))
+				.containsEntry("coprocessor_Object_method_Target-call--_region_" + region1.getEncodedName() + "_Count", 1L)
+				.containsEntry("coprocessor_Object_method_Target-call--_region_" + region2.getEncodedName() + "_Count", 1L);
+		sharedPolicy.close();
+	}
+
+	/**
+	 * Collect metrics of a context
+	 *
+	 * @param context metrics context
+	 * @return metrics by name
+	 */
+	private Map<String, Number> collect(String context) {
+		String name = MetricsPolicy.SOURCE_NAME + ",sub=" + context;
+		MetricsSource source = metricsSystem.getSource(name);
+		assertThat(source).isNotNull();
+		return RecordingMetricsCollector.collect(source).get(name);
+	}
+
+	/**
+	 * Create a region coprocessor environment
+	 *
+	 * @param region environment region
+	 * @return an environment that only returns its region
+	 */
+	private static RegionCoprocessorEnvironment environment(HRegionInfo region) {
+		return (RegionCoprocessorEnvironment) Proxy.newProxyInstance(MetricsPolicyTest.class.getClassLoader(),
+				new Class[]{RegionCoprocessorEnvironment.class},
+				(proxy, method, args) -> "getRegionInfo".equals(method.getName()) ? region : null);
+	}
+
+	/**
+	 * Policies that outlive the coprocessor, like shared policies leases
+	 */
+	private static final class LeasedPolicies extends ArrayList<Policy> implements Closeable {
+
+		private LeasedPolicies(Policy policy) {
+			super(Collections.singletonList(policy));
+		}
+
+		@Override
+		public void close() {
+			// Policies are still used by other coprocessors
+		}
+	}
+
+	/**
+	 * Endpoint whose service is a separate object
+	 */
+	private static final class ServiceEndpoint implements Coprocessor, CoprocessorService {
+
+		/**
+		 * Provided service
+		 */
+		private final CountService service = new CountService();
+
+		@Override
+		public void start(CoprocessorEnvironment env) throws IOException {
+			// Nothing to do
+		}
+
+		@Override
+		public void stop(CoprocessorEnvironment env) throws IOException {
+			// Nothing to do
+		}
+
+		@Override
+		public Service getService() {
+			return service;
+		}
+	}
+
+	/**
+	 * Counting service
+	 */
+	private static final class CountService extends RowCounterProtos.RowCountService {
+
+		@Override
+		public void getRowCount(RpcController controller, RowCounterProtos.CountRequest request,
+								RpcCallback<RowCounterProtos.CountResponse> done) {
+			done.run(RowCounterProtos.CountResponse.newBuilder().setCount(0L).build());
+		}
+
+		@Override
+		public void getCellCount(RpcController controller, RowCounterProtos.CountRequest request,
+								 RpcCallback<RowCounterProtos.CountResponse> done) {
+			done.run(RowCounterProtos.CountResponse.newBuilder().setCount(0L).build());
+		}
+	}
+
+	/**
+	 * Simple verifier that expose method execution
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		private TestVerifier(MetricsPolicy policy) {
+			super(new Object(), new ArrayList<>(Collections.singletonList(policy)));
+		}
+
+		private <R> R run(String method, CallableWithIOException<R> callable) throws IOException {
+			return run(method, callable, null);
+		}
+
+		private <R> R run(String method, CallableWithIOException<R> callable, Object arg0) throws IOException {
+			return runWithPolicies(PolicyMethod.of(method), callable, arg0);
+		}
+
+		private void onClose() {
+			getPolicies().forEach(policy -> policy.onClose(getAdaptee()));
+		}
+	}
+}
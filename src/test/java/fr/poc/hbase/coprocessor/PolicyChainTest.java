@@ -0,0 +1,264 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyChain;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test {@link PolicyChain} compilation : hooks overrides detection and per-phase execution order
+ */
+public class PolicyChainTest {
+
+	/**
+	 * Test that overrides of both hooks flavors are detected, including overrides inherited from an intermediate class
+	 */
+	@Test
+	public void testOverrideDetection() {
+		assertThat(chainOf(new Policy() {
+		}).hasRunningPolicies()).as("No override").isFalse();
+		assertThat(chainOf(new Policy() {
+			@Override
+			public <T> void running(T object, String method, Object[] args, Future<?> future) {
+				// No operation
+			}
+		}).hasRunningPolicies()).as("Legacy flavor override").isTrue();
+		assertThat(chainOf(new Policy() {
+			@Override
+			public void running(InvocationContext context, Future<?> future) {
+				// No operation
+			}
+		}).hasRunningPolicies()).as("Context flavor override").isTrue();
+		assertThat(chainOf(new InheritedWatchingPolicy()).hasRunningPolicies()).as("Inherited override").isTrue();
+		assertThat(chainOf(new Policy() {
+			@Override
+			public boolean watchesExecution() {
+				return true;
+			}
+		}).hasRunningPolicies()).as("Watched executions").isTrue();
+
+		assertThat(chainOf(new Policy() {
+		}).onArgument("value")).as("No argument override").isEqualTo("value");
+		assertThat(chainOf(new InheritedWatchingPolicy(), new InheritedWatchingPolicy()).onArgument("value"))
+				.as("Inherited argument override").isEqualTo("value-base-base");
+	}
+
+	/**
+	 * Test that each phase calls its policies in declaration order, whatever the hook flavor they override
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testPhaseOrder() throws Throwable {
+		List<String> events = new ArrayList<>();
+		TestVerifier verifier = new TestVerifier(PolicyVerifier.ExecutionMode.CALLER_THREAD,
+				new ContextPolicy("context", events), new LegacyPolicy("legacy", events), new Policy() {
+		}, new InheritedPolicy("inherited", events), new BothFlavorsPolicy("both", events));
+
+		verifier.run(() -> null);
+		assertThat(events).containsExactly(
+				"context:beforeRun", "legacy:beforeRun", "inherited:beforeRun", "both:beforeRun",
+				"context:running", "legacy:running", "inherited:running", "both:running",
+				"context:afterRun", "legacy:afterRun", "inherited:afterRun", "both:afterRun");
+
+		events.clear();
+		IOException expected = new IOException("expected");
+		assertThat(catchThrowable(() -> verifier.run(() -> {
+			throw expected;
+		}))).isSameAs(expected);
+		assertThat(events).containsExactly(
+				"context:beforeRun", "legacy:beforeRun", "inherited:beforeRun", "both:beforeRun",
+				"context:running", "legacy:running", "inherited:running", "both:running",
+				"context:onError", "legacy:onError", "inherited:onError", "both:onError",
+				"context:afterRun", "legacy:afterRun", "inherited:afterRun", "both:afterRun");
+	}
+
+	/**
+	 * Build a chain
+	 *
+	 * @param policies chain policies
+	 * @return the compiled chain
+	 */
+	private static PolicyChain chainOf(Policy... policies) {
+		return new PolicyChain(Arrays.asList(policies));
+	}
+
+	/**
+	 * Intermediate class overriding hooks
+	 */
+	private abstract static class WatchingPolicy implements Policy {
+
+		@Override
+		public <T> T onArgument(T arg) {
+			@SuppressWarnings("unchecked")
+			T result = arg instanceof String ? (T) (arg + "-base") : arg;
+			return result;
+		}
+
+		@Override
+		public void running(InvocationContext context, Future<?> future) {
+			// No operation
+		}
+	}
+
+	/**
+	 * Policy inheriting its hooks
+	 */
+	private static final class InheritedWatchingPolicy extends WatchingPolicy {
+	}
+
+	/**
+	 * Policy overriding context flavors
+	 */
+	private static class ContextPolicy implements Policy {
+
+		/**
+		 * Policy name
+		 */
+		private final String name;
+
+		/**
+		 * Recorded hooks calls
+		 */
+		private final List<String> events;
+
+		private ContextPolicy(String name, List<String> events) {
+			this.name = name;
+			this.events = events;
+		}
+
+		@Override
+		public void beforeRun(InvocationContext context) throws IOException {
+			events.add(name + ":beforeRun");
+		}
+
+		@Override
+		public void running(InvocationContext context, Future<?> future) {
+			events.add(name + ":running");
+		}
+
+		@Override
+		public void onError(InvocationContext context, IOException ioException) {
+			events.add(name + ":onError");
+		}
+
+		@Override
+		public void afterRun(InvocationContext context) {
+			events.add(name + ":afterRun");
+		}
+	}
+
+	/**
+	 * Policy inheriting context flavors from an intermediate class
+	 */
+	private static final class InheritedPolicy extends ContextPolicy {
+
+		private InheritedPolicy(String name, List<String> events) {
+			super(name, events);
+		}
+	}
+
+	/**
+	 * Policy overriding legacy flavors
+	 */
+	private static final class LegacyPolicy implements Policy {
+
+		/**
+		 * Policy name
+		 */
+		private final String name;
+
+		/**
+		 * Recorded hooks calls
+		 */
+		private final List<String> events;
+
+		private LegacyPolicy(String name, List<String> events) {
+			this.name = name;
+			this.events = events;
+		}
+
+		@Override
+		public <T> void beforeRun(T object, String method, Object[] args) throws IOException {
+			events.add(name + ":beforeRun");
+		}
+
+		@Override
+		public <T> void running(T object, String method, Object[] args, Future<?> future) {
+			events.add(name + ":running");
+		}
+
+		@Override
+		public <T> void onError(T object, String method, Object[] args, IOException ioException) {
+			events.add(name + ":onError");
+		}
+
+		@Override
+		public <T> void afterRun(T object, String method, Object[] args, Object result, long executionTime) {
+			events.add(name + ":afterRun");
+		}
+	}
+
+	/**
+	 * Policy overriding both flavors, only its context flavors must be called
+	 */
+	private static final class BothFlavorsPolicy extends ContextPolicy {
+
+		private BothFlavorsPolicy(String name, List<String> events) {
+			super(name, events);
+		}
+
+		@Override
+		public <T> void beforeRun(T object, String method, Object[] args) throws IOException {
+			throw new IllegalStateException("Legacy flavor called");
+		}
+
+		@Override
+		public <T> void running(T object, String method, Object[] args, Future<?> future) {
+			throw new IllegalStateException("Legacy flavor called");
+		}
+
+		@Override
+		public <T> void onError(T object, String method, Object[] args, IOException ioException) {
+			throw new IllegalStateException("Legacy flavor called");
+		}
+
+		@Override
+		public <T> void afterRun(T object, String method, Object[] args, Object result, long executionTime) {
+			throw new IllegalStateException("Legacy flavor called");
+		}
+	}
+
+	/**
+	 * Simple verifier that expose method execution
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		/**
+		 * Method descriptor
+		 */
+		private static final PolicyMethod METHOD = PolicyMethod.of("Test:run()");
+
+		private TestVerifier(ExecutionMode executionMode, Policy... policies) {
+			super(new Object(), new ArrayList<>(Arrays.asList(policies)),
+					SharedPolicyExecutor.getInstance().newBoundedExecutor(), executionMode);
+		}
+
+		private <R> R run(CallableWithIOException<R> callable) throws IOException {
+			return runWithPolicies(METHOD, callable);
+		}
+	}
+}
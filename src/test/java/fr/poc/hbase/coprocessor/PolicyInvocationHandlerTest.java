@@ -0,0 +1,427 @@
+package fr.poc.hbase.coprocessor;
+
+import com.google.protobuf.RpcCallback;
+import com.google.protobuf.RpcController;
+import com.google.protobuf.Service;
+import fr.poc.hbase.coprocessor.generated.RowCounterProtos;
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyInvocationHandler;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.proxy.GeneratedPolicyProxy;
+import fr.poc.hbase.coprocessor.policy.proxy.ServicePolicyProxy;
+import fr.poc.hbase.coprocessor.policy.util.PolicyProxyFactory;
+import org.apache.commons.lang.ClassUtils;
+import org.apache.hadoop.hbase.Coprocessor;
+import org.apache.hadoop.hbase.CoprocessorEnvironment;
+import org.apache.hadoop.hbase.HBaseIOException;
+import org.apache.hadoop.hbase.coprocessor.CoprocessorService;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test {@link PolicyInvocationHandler} dispatch (agent path), through java and generated proxies
+ */
+public class PolicyInvocationHandlerTest {
+
+	/**
+	 * Test calls of public and non public interfaces methods
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testInvocation() throws Throwable {
+		List<String> methods = new ArrayList<>();
+		Object proxy = newProxy(new Endpoint(), methods);
+
+		assertThat(((PublicApi) proxy).echo("value")).isEqualTo("value");
+		assertThat(((PublicApi) proxy).length("value")).isEqualTo(5);
+		assertThat(((HiddenApi) proxy).hidden(2)).isEqualTo(4);
+		assertThat(methods).containsExactly("echo", "length", "hidden");
+
+		// Non policies methods
+		assertThat(proxy.toString()).isEqualTo("Endpoint");
+		assertThat(methods).hasSize(3);
+	}
+
+	/**
+	 * Test that errors are not wrapped in reflection exceptions
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testErrors() throws Throwable {
+		Object proxy = newProxy(new Endpoint(), new ArrayList<>());
+
+		Throwable error = catchThrowable(() -> ((PublicApi) proxy).fail(new IOException("expected")));
+		assertThat(error).isInstanceOf(IOException.class).hasMessage("expected");
+
+		IllegalStateException unexpected = new IllegalStateException("unexpected");
+		error = catchThrowable(() -> ((PublicApi) proxy).fail(unexpected));
+		assertThat(error).isInstanceOf(HBaseIOException.class).hasCause(unexpected);
+
+		error = catchThrowable(() -> ((HiddenApi) proxy).hiddenFail());
+		assertThat(error).isInstanceOf(IOException.class).hasMessage("hidden");
+	}
+
+	/**
+	 * Test proxies generated once per coprocessor class
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testGeneratedProxy() throws Throwable {
+		List<String> methods = new ArrayList<>();
+		Object proxy = newGeneratedProxy(new Endpoint(), newPolicies(methods));
+		assertThat(Proxy.isProxyClass(proxy.getClass())).isFalse();
+		assertThat(proxy).isInstanceOf(GeneratedPolicyProxy.class).isInstanceOf(Coprocessor.class)
+				.isInstanceOf(PublicApi.class).isInstanceOf(HiddenApi.class);
+		assertThat(newGeneratedProxy(new Endpoint(), newPolicies(methods)).getClass()).isSameAs(proxy.getClass());
+
+		assertThat(((PublicApi) proxy).echo("value")).isEqualTo("value");
+		assertThat(((PublicApi) proxy).length("value")).isEqualTo(5);
+		assertThat(((HiddenApi) proxy).hidden(2)).isEqualTo(4);
+		assertThat(methods).containsExactly("echo", "length", "hidden");
+		assertThat(proxy.toString()).isEqualTo("Endpoint");
+		assertThat(methods).hasSize(3);
+
+		Throwable error = catchThrowable(() -> ((PublicApi) proxy).fail(new IOException("expected")));
+		assertThat(error).isInstanceOf(IOException.class).hasMessage("expected");
+		IllegalStateException unexpected = new IllegalStateException("unexpected");
+		error = catchThrowable(() -> ((PublicApi) proxy).fail(unexpected));
+		assertThat(error).isInstanceOf(HBaseIOException.class).hasCause(unexpected);
+		error = catchThrowable(() -> ((HiddenApi) proxy).hiddenFail());
+		assertThat(error).isInstanceOf(IOException.class).hasMessage("hidden");
+	}
+
+	/**
+	 * Test how each method is dispatched : passthrough (not a coprocessor interface method), stop (with policies,
+	 * then the verifier is closed), service (the service is wrapped) or with policies
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testDispatcherClassification() throws Throwable {
+		List<String> methods = new ArrayList<>();
+		Class<?>[] ifaces = new Class<?>[]{Coprocessor.class, CoprocessorService.class, PublicApi.class};
+		List<Policy> policies = newPolicies(methods);
+		policies.add(new Policy() {
+			@Override
+			public void close() throws IOException {
+				methods.add("closed");
+			}
+		});
+		ServiceEndpoint endpoint = new ServiceEndpoint();
+		Object proxy = Proxy.newProxyInstance(PolicyInvocationHandlerTest.class.getClassLoader(), ifaces,
+				new PolicyInvocationHandler<>(endpoint, ifaces, policies));
+
+		// Passthrough
+		assertThat(proxy.toString()).isEqualTo("ServiceEndpoint");
+		assertThat(methods).isEmpty();
+
+		// With policies
+		assertThat(((PublicApi) proxy).echo("value")).isEqualTo("value");
+		assertThat(methods).containsExactly("echo");
+
+		// Service
+		Service service = ((CoprocessorService) proxy).getService();
+		assertThat(service).isInstanceOf(ServicePolicyProxy.class);
+		assertThat(((ServicePolicyProxy) service).getAdaptee()).isSameAs(endpoint.service);
+		assertThat(methods).containsExactly("echo");
+		service.callMethod(service.getDescriptorForType().findMethodByName("getRowCount"), null,
+				RowCounterProtos.CountRequest.getDefaultInstance(), response -> {
+				});
+		assertThat(methods).containsExactly("echo", "RowCountService.getRowCount");
+
+		// Stop
+		((Coprocessor) proxy).stop(null);
+		assertThat(endpoint.stopped).isTrue();
+		assertThat(methods).containsExactly("echo", "RowCountService.getRowCount", "stop", "closed");
+	}
+
+	/**
+	 * Test that generated proxies handle methods like the handler : passthrough, stop, service or with policies
+	 * (whatever the arguments count), errors of methods without declared exceptions are only logged
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testGeneratedProxyDispatch() throws Throwable {
+		List<String> methods = new ArrayList<>();
+		List<Policy> policies = newPolicies(methods);
+		policies.add(new Policy() {
+			@Override
+			public void close() throws IOException {
+				methods.add("closed");
+			}
+		});
+		ServiceEndpoint endpoint = new ServiceEndpoint();
+		Object proxy = newGeneratedProxy(endpoint, policies);
+		assertThat(proxy).isInstanceOf(GeneratedPolicyProxy.class);
+
+		// Passthrough
+		assertThat(proxy.toString()).isEqualTo("ServiceEndpoint");
+		assertThat(proxy.hashCode()).isEqualTo(endpoint.hashCode());
+		assertThat(methods).isEmpty();
+
+		// With policies
+		assertThat(((PublicApi) proxy).echo("value")).isEqualTo("value");
+		assertThat(((ExtraApi) proxy).count()).isEqualTo(3L);
+		assertThat(((ExtraApi) proxy).join("a", "b", "c", "d", "e")).isEqualTo("abcde");
+		assertThat(((ExtraApi) proxy).quiet(false)).isEqualTo(1);
+		assertThat(((ExtraApi) proxy).quiet(true)).isEqualTo(0);
+		assertThat(methods).containsExactly("echo", "count", "join", "quiet", "quiet");
+
+		// Service
+		Service service = ((CoprocessorService) proxy).getService();
+		assertThat(service).isInstanceOf(ServicePolicyProxy.class);
+		assertThat(((ServicePolicyProxy) service).getAdaptee()).isSameAs(endpoint.service);
+
+		// Stop
+		methods.clear();
+		((Coprocessor) proxy).stop(null);
+		assertThat(endpoint.stopped).isTrue();
+		assertThat(methods).containsExactly("stop", "closed");
+	}
+
+	/**
+	 * Test that dispatchers are resolved once per method, interfaces methods ones with the handler, others lazily
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testDispatcherCache() throws Throwable {
+		List<String> methods = new ArrayList<>();
+		Endpoint endpoint = new Endpoint();
+		Class<?>[] ifaces = new Class<?>[]{Coprocessor.class, PublicApi.class, HiddenApi.class};
+		PolicyInvocationHandler<Endpoint> handler = new PolicyInvocationHandler<>(endpoint, ifaces, newPolicies(methods));
+		Method[] proxied = new Method[]{PublicApi.class.getMethod("echo", String.class),
+				HiddenApi.class.getMethod("hidden", int.class), Object.class.getMethod("toString")};
+
+		PolicyInvocationHandler.Dispatcher[] dispatchers = handler.getDispatchers(proxied);
+		assertThat(handler.getDispatchers(proxied)).containsExactly(dispatchers);
+		assertThat(dispatchers[0].dispatch(new Object[]{"value"})).isEqualTo("value");
+		assertThat(dispatchers[1].dispatch(new Object[]{2})).isEqualTo(4);
+		assertThat(dispatchers[2].dispatch(null)).isEqualTo("Endpoint");
+		assertThat(methods).containsExactly("echo", "hidden");
+
+		// Proxy calls reuse the same dispatchers
+		Object proxy = Proxy.newProxyInstance(PolicyInvocationHandlerTest.class.getClassLoader(), ifaces, handler);
+		assertThat(((PublicApi) proxy).echo("other")).isEqualTo("other");
+		assertThat(proxy.toString()).isEqualTo("Endpoint");
+		assertThat(handler.getDispatchers(proxied)).containsExactly(dispatchers);
+		assertThat(methods).containsExactly("echo", "hidden", "echo");
+	}
+
+	/**
+	 * Create a generated proxy with policies, like the agent does
+	 *
+	 * @param endpoint proxied endpoint
+	 * @param policies policies to apply
+	 * @return the proxy
+	 */
+	private static Object newGeneratedProxy(Coprocessor endpoint, List<Policy> policies) {
+		List<?> interfaces = ClassUtils.getAllInterfaces(endpoint.getClass());
+		return PolicyProxyFactory.newProxy(endpoint, interfaces.toArray(new Class<?>[interfaces.size()]), policies,
+				SharedPolicyExecutor.getInstance().newBoundedExecutor(), PolicyVerifier.ExecutionMode.EXECUTOR);
+	}
+
+	/**
+	 * Create a java proxy with policies
+	 *
+	 * @param endpoint proxied endpoint
+	 * @param methods  list where called methods are recorded
+	 * @return the proxy
+	 */
+	private static Object newProxy(Endpoint endpoint, List<String> methods) {
+		Class<?>[] ifaces = new Class<?>[]{Coprocessor.class, PublicApi.class, HiddenApi.class};
+		return Proxy.newProxyInstance(PolicyInvocationHandlerTest.class.getClassLoader(), ifaces,
+				new PolicyInvocationHandler<>(endpoint, ifaces, newPolicies(methods)));
+	}
+
+	/**
+	 * @param methods list where called methods are recorded
+	 * @return policies recording called methods
+	 */
+	private static List<Policy> newPolicies(List<String> methods) {
+		Policy policy = new Policy() {
+			@Override
+			public void beforeRun(InvocationContext context) throws IOException {
+				methods.add(context.getMethod());
+			}
+		};
+		return new ArrayList<>(Collections.singletonList(policy));
+	}
+
+	/**
+	 * Public interface
+	 */
+	public interface PublicApi {
+
+		String echo(String value) throws IOException;
+
+		int length(String value) throws IOException;
+
+		void fail(Exception error) throws Exception;
+	}
+
+	/**
+	 * Non public interface
+	 */
+	interface HiddenApi {
+
+		int hidden(int value) throws IOException;
+
+		void hiddenFail() throws IOException;
+	}
+
+	/**
+	 * Interface with methods of various arguments counts
+	 */
+	public interface ExtraApi {
+
+		long count() throws IOException;
+
+		String join(String arg0, String arg1, String arg2, String arg3, String arg4) throws IOException;
+
+		int quiet(boolean fail);
+	}
+
+	/**
+	 * Proxied endpoint providing a separate service
+	 */
+	private static final class ServiceEndpoint implements Coprocessor, CoprocessorService, PublicApi, ExtraApi {
+
+		/**
+		 * Provided service
+		 */
+		private final Service service = RowCounterProtos.RowCountService.newReflectiveService(
+				new RowCounterProtos.RowCountService.Interface() {
+					@Override
+					public void getRowCount(RpcController controller, RowCounterProtos.CountRequest request,
+											RpcCallback<RowCounterProtos.CountResponse> done) {
+						done.run(RowCounterProtos.CountResponse.newBuilder().setCount(0L).build());
+					}
+
+					@Override
+					public void getCellCount(RpcController controller, RowCounterProtos.CountRequest request,
+											 RpcCallback<RowCounterProtos.CountResponse> done) {
+						done.run(RowCounterProtos.CountResponse.newBuilder().setCount(0L).build());
+					}
+				});
+
+		/**
+		 * Indicates whenever the endpoint has been stopped
+		 */
+		private boolean stopped;
+
+		@Override
+		public void start(CoprocessorEnvironment env) throws IOException {
+			// Nothing to do
+		}
+
+		@Override
+		public void stop(CoprocessorEnvironment env) throws IOException {
+			stopped = true;
+		}
+
+		@Override
+		public Service getService() {
+			return service;
+		}
+
+		@Override
+		public String echo(String value) {
+			return value;
+		}
+
+		@Override
+		public int length(String value) {
+			return value.length();
+		}
+
+		@Override
+		public void fail(Exception error) throws Exception {
+			throw error;
+		}
+
+		@Override
+		public long count() {
+			return 3L;
+		}
+
+		@Override
+		public String join(String arg0, String arg1, String arg2, String arg3, String arg4) {
+			return arg0 + arg1 + arg2 + arg3 + arg4;
+		}
+
+		@Override
+		public int quiet(boolean fail) {
+			if (fail) {
+				throw new IllegalStateException("expected");
+			}
+			return 1;
+		}
+
+		@Override
+		public String toString() {
+			return "ServiceEndpoint";
+		}
+	}
+
+	/**
+	 * Proxied endpoint
+	 */
+	private static final class Endpoint implements Coprocessor, PublicApi, HiddenApi {
+
+		@Override
+		public void start(CoprocessorEnvironment env) throws IOException {
+			// Nothing to do
+		}
+
+		@Override
+		public void stop(CoprocessorEnvironment env) throws IOException {
+			// Nothing to do
+		}
+
+		@Override
+		public String echo(String value) {
+			return value;
+		}
+
+		@Override
+		public int length(String value) {
+			return value.length();
+		}
+
+		@Override
+		public void fail(Exception error) throws Exception {
+			throw error;
+		}
+
+		@Override
+		public int hidden(int value) {
+			return value * 2;
+		}
+
+		@Override
+		public void hiddenFail() throws IOException {
+			throw new IOException("hidden");
+		}
+
+		@Override
+		public String toString() {
+			return "Endpoint";
+		}
+	}
+}
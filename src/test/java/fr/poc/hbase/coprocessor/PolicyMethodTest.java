@@ -0,0 +1,52 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.util.MethodTable;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test {@link PolicyMethod} registry and {@link MethodTable}
+ */
+public class PolicyMethodTest {
+
+	/**
+	 * Test that each method name is given a single stable id
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testRegistry() throws Throwable {
+		PolicyMethod method = PolicyMethod.of("PolicyMethodTest:registry");
+		PolicyMethod other = PolicyMethod.of("PolicyMethodTest:other");
+
+		assertThat(PolicyMethod.of("PolicyMethodTest:registry")).isSameAs(method);
+		assertThat(other.getId()).isNotEqualTo(method.getId());
+		assertThat(PolicyMethod.get(method.getId())).isSameAs(method);
+		assertThat(PolicyMethod.count()).isGreaterThan(Math.max(method.getId(), other.getId()));
+		assertThat(method.getName()).isEqualTo("PolicyMethodTest:registry");
+	}
+
+	/**
+	 * Test that method table values are computed once, including for methods registered after the table creation
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testMethodTable() throws Throwable {
+		MethodTable<String> table = new MethodTable<>();
+		AtomicInteger computed = new AtomicInteger();
+		PolicyMethod method = PolicyMethod.of("PolicyMethodTest:table-" + PolicyMethod.count());
+
+		assertThat(table.get(method)).isNull();
+		assertThat(table.computeIfAbsent(method, m -> m.getName() + "-" + computed.incrementAndGet()))
+				.isEqualTo(method.getName() + "-1");
+		assertThat(table.computeIfAbsent(method, m -> m.getName() + "-" + computed.incrementAndGet()))
+				.isEqualTo(method.getName() + "-1");
+		assertThat(table.get(method)).isEqualTo(method.getName() + "-1");
+		assertThat(computed.get()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,333 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.config.PoliciesConfigurer;
+import fr.poc.hbase.coprocessor.policy.config.PolicyRegistry;
+import fr.poc.hbase.coprocessor.policy.impl.LoggingPolicy;
+import fr.poc.hbase.coprocessor.policy.impl.MemoryBudgetPolicy;
+import fr.poc.hbase.coprocessor.policy.impl.TimeoutPolicy;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import lombok.NonNull;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test {@link PolicyRegistry}
+ */
+public class PolicyRegistryTest {
+
+	/**
+	 * Test policies sharing and reference counting
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testLeases() throws Exception {
+		AtomicInteger built = new AtomicInteger();
+		AtomicInteger closed = new AtomicInteger();
+		PolicyRegistry registry = PolicyRegistry.getInstance();
+
+		PolicyRegistry.Lease first = registry.acquire(newConfiguration("testLeases"), c -> newPolicies(built, closed));
+		PolicyRegistry.Lease second = registry.acquire(newConfiguration("testLeases"), c -> newPolicies(built, closed));
+		PolicyRegistry.Lease other = registry.acquire(newConfiguration("testLeases-other"), c -> newPolicies(built, closed));
+		assertThat(built.get()).isEqualTo(2);
+		assertThat(second.get(0)).isSameAs(first.get(0));
+		assertThat(other.get(0)).isNotSameAs(first.get(0));
+
+		// Closed by the last lease only, even if a lease is closed several times
+		new PolicyVerifier<>(new Object(), first).close();
+		first.close();
+		assertThat(closed.get()).isEqualTo(0);
+		second.close();
+		assertThat(closed.get()).isEqualTo(1);
+		other.close();
+		assertThat(closed.get()).isEqualTo(2);
+
+		// Built again once released
+		PolicyRegistry.Lease again = registry.acquire(newConfiguration("testLeases"), c -> newPolicies(built, closed));
+		assertThat(built.get()).isEqualTo(3);
+		again.close();
+	}
+
+	/**
+	 * Test policies sharing between coprocessors configurations
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testConfigurer() throws Exception {
+		Configuration configuration = HBaseConfiguration.create();
+		configuration.set(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "test", "value");
+		Configuration otherConfiguration = HBaseConfiguration.create();
+		otherConfiguration.set(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "test", "other");
+
+		try (PolicyRegistry.Lease first = new PoliciesConfigurer(configuration).getPolicies();
+			 PolicyRegistry.Lease second = new PoliciesConfigurer(new Configuration(configuration)).getPolicies();
+			 PolicyRegistry.Lease other = new PoliciesConfigurer(otherConfiguration).getPolicies()) {
+			assertThat(first).isNotEmpty();
+			assertThat(second).containsExactlyElementsOf(first);
+			assertThat(other).doesNotContainAnyElementsOf(first);
+		}
+	}
+
+	/**
+	 * Test policies built from the configuration
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreatePolicies() throws Exception {
+		Configuration configuration = newConfiguration("testCreatePolicies");
+		configuration.set(PoliciesConfigurer.COPROCESSOR_POLICY_POLICIES_CONFIGURATION_NAME,
+				"timeout, logging," + RecordingPolicy.class.getName());
+
+		try (PolicyRegistry.Lease lease = new PoliciesConfigurer(configuration).getPolicies()) {
+			assertThat(lease).hasSize(3);
+			assertThat(lease.get(0)).isInstanceOf(TimeoutPolicy.class);
+			assertThat(lease.get(1)).isInstanceOf(LoggingPolicy.class);
+			assertThat(lease.get(2)).isInstanceOf(RecordingPolicy.class);
+			assertThat(lease.getChain().hasRunningPolicies()).isTrue();
+		}
+
+		configuration.set(PoliciesConfigurer.COPROCESSOR_POLICY_POLICIES_CONFIGURATION_NAME, "memory-budget");
+		configuration.set(PoliciesConfigurer.COPROCESSOR_POLICY_MEMORY_BUDGET_CONFIGURATION_NAME, "64m");
+		configuration.set(PoliciesConfigurer.COPROCESSOR_POLICY_MEMORY_BUDGET_CONFIGURATION_NAME + ".com.acme.Endpoint", "1g");
+		try (PolicyRegistry.Lease lease = new PoliciesConfigurer(configuration).getPolicies()) {
+			assertThat(lease).hasSize(1);
+			assertThat(lease.get(0)).isInstanceOf(MemoryBudgetPolicy.class);
+			assertThat(lease.getChain().hasRunningPolicies()).isTrue();
+		}
+
+		configuration.set(PoliciesConfigurer.COPROCESSOR_POLICY_POLICIES_CONFIGURATION_NAME, "unknown");
+		assertThatThrownBy(() -> new PoliciesConfigurer(configuration).getPolicies())
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	/**
+	 * Test chain reload : in-flight calls complete on the previous chain, new ones use the new chain
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testReload() throws Exception {
+		PolicyRegistry registry = PolicyRegistry.getInstance();
+		Configuration configuration = newConfiguration("testReload");
+		List<RecordingPolicy> built = new ArrayList<>();
+
+		try (PolicyRegistry.Lease lease = registry.acquire(configuration, c -> {
+			RecordingPolicy policy = new RecordingPolicy();
+			policy.name = c.get(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "test");
+			if ("testReload-error".equals(policy.name)) {
+				throw new IllegalArgumentException("Invalid policy configuration");
+			}
+			built.add(policy);
+			return Collections.singletonList(policy);
+		})) {
+			TestVerifier verifier = new TestVerifier(lease);
+			registry.onConfigurationChange(configuration);
+			assertThat(built).hasSize(1);
+			Configuration reloaded = new Configuration(configuration);
+			reloaded.set(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "test", "testReload-new");
+
+			// Reload while a call is in-flight
+			verifier.call(() -> {
+				registry.onConfigurationChange(reloaded);
+				return null;
+			});
+			assertThat(built).hasSize(2);
+			assertThat(built.get(0).before).isEqualTo(1);
+			assertThat(built.get(0).after).isEqualTo(1);
+			assertThat(built.get(1).before).isEqualTo(0);
+			assertThat(lease.get(0)).isSameAs(built.get(1));
+			assertThat(verifier.getPolicies()).containsExactly(built.get(1));
+
+			// New calls use the new chain, the previous one is closed after the grace period
+			verifier.call(() -> null);
+			assertThat(built.get(1).name).isEqualTo("testReload-new");
+			assertThat(built.get(1).before).isEqualTo(1);
+			assertThat(built.get(1).after).isEqualTo(1);
+			Thread.sleep(500L);
+			assertThat(built.get(0).closed).isTrue();
+			assertThat(built.get(0).closingThread).startsWith("coprocessor-policy-reload");
+
+			// Same values : nothing to rebuild, build errors keep the current chain
+			registry.onConfigurationChange(reloaded);
+			reloaded.set(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "test", "testReload-error");
+			registry.onConfigurationChange(reloaded);
+			assertThat(built).hasSize(2);
+			assertThat(lease.get(0)).isSameAs(built.get(1));
+			assertThat(built.get(1).closed).isFalse();
+		}
+		assertThat(built.get(1).closed).isTrue();
+	}
+
+	/**
+	 * Test that a reload only rebuilds the policies whose values change, keeps the values they override, and
+	 * re-registers them under their new configuration
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testReloadMatchingPolicies() throws Exception {
+		PolicyRegistry registry = PolicyRegistry.getInstance();
+		Configuration server = newConfiguration("testReloadMatching");
+		Configuration table = new Configuration(server);
+		table.set(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "test", "testReloadMatching-table");
+		registry.onConfigurationChange(server);
+		List<RecordingPolicy> built = new ArrayList<>();
+		Function<Configuration, List<Policy>> factory = c -> {
+			RecordingPolicy policy = new RecordingPolicy();
+			policy.name = c.get(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "test") + "/"
+					+ c.get(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "other");
+			built.add(policy);
+			return Collections.singletonList(policy);
+		};
+
+		try (PolicyRegistry.Lease serverLease = registry.acquire(server, factory);
+			 PolicyRegistry.Lease tableLease = registry.acquire(table, factory)) {
+			// A server change is applied to all policies, the values they override are kept
+			Configuration changed = new Configuration(server);
+			changed.set(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "test", "testReloadMatching-new");
+			changed.set(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "other", "value");
+			registry.onConfigurationChange(changed);
+			assertThat(built).hasSize(4);
+			assertThat(((RecordingPolicy) serverLease.get(0)).name).isEqualTo("testReloadMatching-new/value");
+			assertThat(((RecordingPolicy) tableLease.get(0)).name).isEqualTo("testReloadMatching-table/value");
+
+			// Reloaded policies are shared under their new configuration
+			try (PolicyRegistry.Lease changedLease = registry.acquire(changed, factory)) {
+				assertThat(built).hasSize(4);
+				assertThat(changedLease.get(0)).isSameAs(serverLease.get(0));
+			}
+
+			// Only policies whose values change are rebuilt
+			changed.set(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "test", "testReloadMatching-newer");
+			registry.onConfigurationChange(changed);
+			assertThat(built).hasSize(5);
+			assertThat(((RecordingPolicy) serverLease.get(0)).name).isEqualTo("testReloadMatching-newer/value");
+			assertThat(tableLease.get(0)).isSameAs(built.get(3));
+		}
+	}
+
+	/**
+	 * Build a configuration with a test value, without configuration resources watch
+	 *
+	 * @param value test value
+	 * @return the configuration
+	 */
+	private static Configuration newConfiguration(String value) {
+		Configuration configuration = HBaseConfiguration.create();
+		configuration.set(PoliciesConfigurer.COPROCESSOR_POLICY_CONFIGURATION_PREFIX + "test", value);
+		configuration.setLong(PolicyRegistry.RELOAD_PERIOD_CONFIGURATION_NAME, 0L);
+		configuration.setLong(PolicyRegistry.RELOAD_GRACE_PERIOD_CONFIGURATION_NAME, 0L);
+		return configuration;
+	}
+
+	/**
+	 * Build counted policies
+	 *
+	 * @param built  number of built policies
+	 * @param closed number of closed policies
+	 * @return a policy that counts closes
+	 */
+	private static List<Policy> newPolicies(AtomicInteger built, AtomicInteger closed) {
+		built.incrementAndGet();
+		return Collections.singletonList(new Policy() {
+			@Override
+			public void close() throws IOException {
+				closed.incrementAndGet();
+			}
+		});
+	}
+
+	/**
+	 * Policy that records its calls
+	 */
+	public static class RecordingPolicy implements Policy {
+
+		/**
+		 * Configured name
+		 */
+		private String name;
+
+		/**
+		 * Number of before run calls
+		 */
+		private int before;
+
+		/**
+		 * Number of after run calls
+		 */
+		private int after;
+
+		/**
+		 * Indicates whenever the policy has been closed
+		 */
+		private volatile boolean closed;
+
+		/**
+		 * Name of the thread that closed the policy
+		 */
+		private volatile String closingThread;
+
+		@Override
+		public void beforeRun(@NonNull InvocationContext context) throws IOException {
+			before++;
+		}
+
+		@Override
+		public void afterRun(@NonNull InvocationContext context) {
+			after++;
+		}
+
+		@Override
+		public void close() throws IOException {
+			closingThread = Thread.currentThread().getName();
+			closed = true;
+		}
+	}
+
+	/**
+	 * Verifier that exposes calls with policies
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		/**
+		 * Called method
+		 */
+		private static final PolicyMethod METHOD = PolicyMethod.of("call");
+
+		/**
+		 * Constructor
+		 *
+		 * @param policies policies to check
+		 */
+		private TestVerifier(List<Policy> policies) {
+			super(new Object(), policies);
+		}
+
+		/**
+		 * Call a method with policies
+		 *
+		 * @param callable the method
+		 * @throws IOException if the call fails
+		 */
+		private void call(CallableWithIOException<Object> callable) throws IOException {
+			runWithPolicies(METHOD, callable);
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package fr.poc.hbase.coprocessor;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import com.google.protobuf.RpcController;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.generated.PolicyStatisticsProtos;
+import fr.poc.hbase.coprocessor.policy.impl.MetricsPolicy;
+import fr.poc.hbase.coprocessor.policy.stats.MethodStatistics;
+import fr.poc.hbase.coprocessor.policy.stats.PolicyStatisticsClient;
+import fr.poc.hbase.coprocessor.policy.stats.PolicyStatisticsEndpoint;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.HRegionLocation;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.coprocessor.RegionCoprocessorEnvironment;
+import org.apache.hadoop.hbase.ipc.CoprocessorRpcChannel;
+import org.apache.hadoop.hbase.regionserver.RegionServerServices;
+import org.apache.hadoop.metrics2.impl.MetricsSystemImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test {@link PolicyStatisticsEndpoint} and {@link PolicyStatisticsClient}
+ */
+public class PolicyStatisticsTest {
+
+	private MetricsSystemImpl metricsSystem;
+
+	@Before
+	public void initTest() {
+		metricsSystem = new MetricsSystemImpl("PolicyStatisticsTest");
+	}
+
+	@After
+	public void afterTest() {
+		metricsSystem.shutdown();
+	}
+
+	/**
+	 * Test that the endpoint returns statistics merged by method, and that the client merges them once per process
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testStatistics() throws Throwable {
+		MetricsPolicy policy = new MetricsPolicy(metricsSystem, "Statistics");
+		HRegionInfo region1 = new HRegionInfo(TableName.valueOf("ns:table"), new byte[0], new byte[]{1});
+		HRegionInfo region2 = new HRegionInfo(TableName.valueOf("ns:table"), new byte[]{1}, new byte[0]);
+		TestVerifier verifier1 = new TestVerifier(policy);
+		TestVerifier verifier2 = new TestVerifier(policy);
+		for (int i = 0; i < 10; i++) {
+			verifier1.run("Target:call()", () -> null, environment(region1));
+			verifier2.run("Target:call()", () -> null, environment(region2));
+		}
+		assertThat(catchThrowable(() -> verifier1.run("Target:call()", () -> {
+			throw new IOException("expected");
+		}, environment(region1)))).isInstanceOf(IOException.class);
+		verifier2.run("Target:other()", () -> null, environment(region2));
+
+		// Server side : region metrics are merged by method
+		PolicyStatisticsEndpoint endpoint = new PolicyStatisticsEndpoint();
+		endpoint.start(environment(region1));
+		PolicyStatisticsProtos.PolicyStatisticsResponse response = getStatistics(endpoint, Target.class.getName());
+		assertThat(response.getServer()).isEqualTo("rs1,16020,1");
+		assertThat(response.getMethodList()).extracting(PolicyStatisticsProtos.MethodStatistics::getMethod)
+				.containsExactly("Target:call()", "Target:other()");
+		PolicyStatisticsProtos.MethodStatistics call = response.getMethod(0);
+		assertThat(call.getCount()).isEqualTo(21L);
+		assertThat(call.getErrorCount()).isEqualTo(1L);
+		assertThat(call.getExecutionTimes().getCountList().stream().mapToLong(Long::longValue).sum()).isEqualTo(21L);
+		assertThat(getStatistics(endpoint, "unknown").getMethodList()).isEmpty();
+
+		// Client side : responses of a process are merged once, histograms are merged without loss
+		PolicyStatisticsProtos.PolicyStatisticsResponse otherProcess = response.toBuilder()
+				.setProcess("other").setServer("rs2,16020,1").build();
+		List<MethodStatistics> merged = PolicyStatisticsClient.merge(Arrays.asList(response, response, otherProcess));
+		assertThat(merged).hasSize(2);
+		MethodStatistics callStatistics = merged.get(0);
+		assertThat(callStatistics.getCoprocessor()).isEqualTo(Target.class.getName());
+		assertThat(callStatistics.getCount()).isEqualTo(42L);
+		assertThat(callStatistics.getErrorCount()).isEqualTo(2L);
+		assertThat(callStatistics.getExecutionTimes().getCount()).isEqualTo(42L);
+		assertThat(callStatistics.getMaxTimeMicros()).isEqualTo(call.getMaxTime());
+		assertThat(callStatistics.getPercentileMicros(99d)).isEqualTo(
+				PolicyStatisticsClient.merge(Collections.singletonList(response)).get(0).getPercentileMicros(99d));
+		assertThat(merged.get(1).getCount()).isEqualTo(2L);
+
+		verifier1.close();
+		verifier2.close();
+		assertThat(getStatistics(endpoint, Target.class.getName()).getMethodList()).isEmpty();
+	}
+
+	/**
+	 * Test that table statistics are fetched through one region per region server
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testTableStatisticsPerServer() throws Throwable {
+		TableName tableName = TableName.valueOf("ns:table");
+		ServerName rs1 = ServerName.valueOf("rs1", 16020, 1L);
+		ServerName rs2 = ServerName.valueOf("rs2", 16020, 1L);
+		List<HRegionLocation> locations = Arrays.asList(
+				new HRegionLocation(new HRegionInfo(tableName, new byte[0], new byte[]{1}), rs1),
+				new HRegionLocation(new HRegionInfo(tableName, new byte[]{1}, new byte[]{2}), rs2),
+				new HRegionLocation(new HRegionInfo(tableName, new byte[]{2}, new byte[0]), rs1));
+		List<byte[]> calledRows = new ArrayList<>();
+		Table table = (Table) Proxy.newProxyInstance(PolicyStatisticsTest.class.getClassLoader(),
+				new Class[]{Table.class}, (proxy, method, args) -> {
+					if (!"coprocessorService".equals(method.getName())) {
+						return null;
+					}
+					byte[] row = (byte[]) args[0];
+					calledRows.add(row);
+					ServerName server = row.length == 1 && row[0] == 1 ? rs2 : rs1;
+					return new CoprocessorRpcChannel() {
+						@Override
+						protected Message callExecService(RpcController controller,
+														  Descriptors.MethodDescriptor method, Message request,
+														  Message responsePrototype) {
+							return PolicyStatisticsProtos.PolicyStatisticsResponse.newBuilder()
+									.setProcess(server.getServerName()).setServer(server.getServerName())
+									.addMethod(PolicyStatisticsProtos.MethodStatistics.newBuilder()
+											.setCoprocessor(Target.class.getName()).setMethod("Target:call()")
+											.setCount(1L).setErrorCount(0L).setUnexpectedErrorCount(0L)
+											.setTotalTime(10L).setMinTime(10L).setMaxTime(10L)
+											.setExecutionTimes(PolicyStatisticsProtos.Histogram.getDefaultInstance())
+											.setRecentExecutionTimes(PolicyStatisticsProtos.Histogram.getDefaultInstance()))
+									.build();
+						}
+					};
+				});
+		RegionLocator locator = (RegionLocator) Proxy.newProxyInstance(PolicyStatisticsTest.class.getClassLoader(),
+				new Class[]{RegionLocator.class},
+				(proxy, method, args) -> "getAllRegionLocations".equals(method.getName()) ? locations : null);
+		Connection connection = (Connection) Proxy.newProxyInstance(PolicyStatisticsTest.class.getClassLoader(),
+				new Class[]{Connection.class}, (proxy, method, args) -> "getTable".equals(method.getName()) ? table
+						: "getRegionLocator".equals(method.getName()) ? locator : null);
+
+		List<MethodStatistics> statistics = new PolicyStatisticsClient(connection)
+				.getTableStatistics(tableName, Target.class.getName());
+		assertThat(calledRows).containsExactly(new byte[0], new byte[]{1});
+		assertThat(statistics).hasSize(1);
+		assertThat(statistics.get(0).getCount()).isEqualTo(2L);
+	}
+
+	/**
+	 * Call the endpoint
+	 *
+	 * @param endpoint    endpoint
+	 * @param coprocessor coprocessor class name
+	 * @return the endpoint response
+	 */
+	private static PolicyStatisticsProtos.PolicyStatisticsResponse getStatistics(PolicyStatisticsEndpoint endpoint,
+																			   String coprocessor) {
+		AtomicReference<PolicyStatisticsProtos.PolicyStatisticsResponse> response = new AtomicReference<>();
+		endpoint.getStatistics(null, PolicyStatisticsProtos.PolicyStatisticsRequest.newBuilder()
+				.setCoprocessor(coprocessor).build(), response::set);
+		assertThat(response.get()).isNotNull();
+		return response.get();
+	}
+
+	/**
+	 * Create a region coprocessor environment
+	 *
+	 * @param region environment region
+	 * @return an environment that only returns its region and its region server
+	 */
+	private static RegionCoprocessorEnvironment environment(HRegionInfo region) {
+		RegionServerServices services = (RegionServerServices) Proxy.newProxyInstance(
+				PolicyStatisticsTest.class.getClassLoader(), new Class[]{RegionServerServices.class},
+				(proxy, method, args) -> "getServerName".equals(method.getName())
+						? ServerName.valueOf("rs1", 16020, 1L) : null);
+		return (RegionCoprocessorEnvironment) Proxy.newProxyInstance(PolicyStatisticsTest.class.getClassLoader(),
+				new Class[]{RegionCoprocessorEnvironment.class},
+				(proxy, method, args) -> "getRegionInfo".equals(method.getName()) ? region
+						: "getRegionServerServices".equals(method.getName()) ? services : null);
+	}
+
+	/**
+	 * Coprocessor whose methods are measured
+	 */
+	private static final class Target {
+	}
+
+	/**
+	 * Simple verifier that expose method execution
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		private TestVerifier(MetricsPolicy policy) {
+			super(new Target(), Collections.singletonList(policy));
+		}
+
+		private <R> R run(String method, CallableWithIOException<R> callable, Object arg0) throws IOException {
+			return runWithPolicies(PolicyMethod.of(method), callable, arg0);
+		}
+	}
+}
@@ -0,0 +1,240 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.Deadline;
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import org.apache.hadoop.hbase.HBaseIOException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test {@link PolicyVerifier} inline execution : hooks semantics and errors containment must be the same than
+ * watched executions
+ */
+public class PolicyVerifierTest {
+
+	/**
+	 * Test that methods are executed inline unless a policy watches the execution
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testInlineSwitch() throws Throwable {
+		TestVerifier inline = new TestVerifier(PolicyVerifier.ExecutionMode.EXECUTOR, new RecordingPolicy());
+		assertThat(inline.isInline()).isTrue();
+		Thread caller = Thread.currentThread();
+		assertThat(inline.run(Thread::currentThread)).as("Executing thread").isSameAs(caller);
+		assertThat(inline.run(Deadline::current)).as("Inline deadline").isSameAs(Deadline.NONE);
+
+		TestVerifier watched = new TestVerifier(PolicyVerifier.ExecutionMode.EXECUTOR, new RecordingPolicy(),
+				new WatchingPolicy());
+		assertThat(watched.isInline()).isFalse();
+		assertThat(watched.run(Thread::currentThread)).as("Executing thread").isNotSameAs(caller);
+		assertThat(watched.run(Deadline::current)).as("Watched deadline").isNotSameAs(Deadline.NONE);
+	}
+
+	/**
+	 * Test hooks called on success
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testSuccess() throws Throwable {
+		for (TestVerifier verifier : newVerifiers(new RecordingPolicy())) {
+			assertThat(verifier.run(() -> "result")).isEqualTo("result");
+			assertThat(verifier.recorder().events).as(verifier.toString())
+					.containsExactly("beforeRun", "beforeExecution", "afterExecution", "afterRun:result");
+		}
+	}
+
+	/**
+	 * Test hooks called when the method throws an {@link IOException} : it is returned as is
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testMethodError() throws Throwable {
+		IOException expected = new IOException("expected");
+		for (TestVerifier verifier : newVerifiers(new RecordingPolicy())) {
+			Throwable error = catchThrowable(() -> verifier.run(() -> {
+				throw expected;
+			}));
+			assertThat(error).as(verifier.toString()).isSameAs(expected);
+			assertThat(verifier.recorder().events).as(verifier.toString())
+					.containsExactly("beforeRun", "beforeExecution", "afterExecution", "onError", "afterRun:error");
+		}
+	}
+
+	/**
+	 * Test hooks called when the method throws an unexpected error : it is contained in an {@link HBaseIOException}
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testMethodUnexpectedError() throws Throwable {
+		IllegalStateException unexpected = new IllegalStateException("unexpected");
+		for (TestVerifier verifier : newVerifiers(new RecordingPolicy())) {
+			Throwable error = catchThrowable(() -> verifier.run(() -> {
+				throw unexpected;
+			}));
+			assertThat(error).as(verifier.toString()).isInstanceOf(HBaseIOException.class).hasCause(unexpected);
+			assertThat(verifier.recorder().events).as(verifier.toString())
+					.containsExactly("beforeRun", "beforeExecution", "afterExecution", "onUnexpectedError",
+							"afterRun:error");
+		}
+	}
+
+	/**
+	 * Test hooks called when a policy rejects the invocation : the method is not executed, no error hook is called
+	 * for an {@link IOException} rejection, an unexpected rejection is contained in an {@link HBaseIOException}
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testRejection() throws Throwable {
+		IOException rejection = new IOException("rejected");
+		RecordingPolicy rejecting = new RecordingPolicy();
+		rejecting.rejection = rejection;
+		for (TestVerifier verifier : newVerifiers(rejecting)) {
+			List<String> executed = new ArrayList<>();
+			Throwable error = catchThrowable(() -> verifier.run(() -> executed.add("executed")));
+			assertThat(error).as(verifier.toString()).isSameAs(rejection);
+			assertThat(executed).as(verifier.toString()).isEmpty();
+			assertThat(verifier.recorder().events).as(verifier.toString())
+					.containsExactly("beforeRun", "afterRun:error");
+			assertThat(verifier.recorder().rejectingPolicy).as(verifier.toString()).isSameAs(verifier.recorder());
+		}
+
+		IllegalStateException unexpected = new IllegalStateException("unexpected");
+		RecordingPolicy failing = new RecordingPolicy();
+		failing.rejection = unexpected;
+		for (TestVerifier verifier : newVerifiers(failing)) {
+			Throwable error = catchThrowable(() -> verifier.run(() -> "result"));
+			assertThat(error).as(verifier.toString()).isInstanceOf(HBaseIOException.class).hasCause(unexpected);
+			assertThat(verifier.recorder().events).as(verifier.toString())
+					.containsExactly("beforeRun", "onUnexpectedError", "afterRun:error");
+		}
+	}
+
+	/**
+	 * Create an inline verifier and watched ones, sharing the same recording policy
+	 *
+	 * @param recorder recording policy
+	 * @return verifiers, inline first
+	 */
+	private static List<TestVerifier> newVerifiers(RecordingPolicy recorder) {
+		return Arrays.asList(new TestVerifier(PolicyVerifier.ExecutionMode.EXECUTOR, recorder),
+				new TestVerifier(PolicyVerifier.ExecutionMode.EXECUTOR, recorder, new WatchingPolicy()),
+				new TestVerifier(PolicyVerifier.ExecutionMode.CALLER_THREAD, recorder, new WatchingPolicy()));
+	}
+
+	/**
+	 * Policy that records hooks calls
+	 */
+	private static final class RecordingPolicy implements Policy {
+
+		/**
+		 * Called hooks
+		 */
+		private final List<String> events = new ArrayList<>();
+
+		/**
+		 * Error thrown by {@link #beforeRun(InvocationContext)}, null to accept invocations
+		 */
+		private Exception rejection;
+
+		/**
+		 * Rejecting policy of the last invocation
+		 */
+		private Policy rejectingPolicy;
+
+		@Override
+		public synchronized void beforeRun(InvocationContext context) throws IOException {
+			events.add("beforeRun");
+			if (rejection instanceof IOException) {
+				throw (IOException) rejection;
+			}
+			if (rejection != null) {
+				throw (RuntimeException) rejection;
+			}
+		}
+
+		@Override
+		public synchronized void beforeExecution(InvocationContext context) {
+			events.add("beforeExecution");
+		}
+
+		@Override
+		public synchronized void afterExecution(InvocationContext context) {
+			events.add("afterExecution");
+		}
+
+		@Override
+		public synchronized void onError(InvocationContext context, IOException ioException) {
+			events.add("onError");
+		}
+
+		@Override
+		public synchronized void onUnexpectedError(InvocationContext context, Throwable throwable) {
+			events.add("onUnexpectedError");
+		}
+
+		@Override
+		public synchronized void afterRun(InvocationContext context) {
+			events.add("afterRun:" + (context.getError() != null ? "error" : context.getResult()));
+			rejectingPolicy = context.getRejectingPolicy();
+		}
+	}
+
+	/**
+	 * Policy that watches executions
+	 */
+	private static final class WatchingPolicy implements Policy {
+
+		@Override
+		public boolean watchesExecution() {
+			return true;
+		}
+	}
+
+	/**
+	 * Simple verifier that expose method execution
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		/**
+		 * Method descriptor
+		 */
+		private static final PolicyMethod METHOD = PolicyMethod.of("Test:run()");
+
+		private TestVerifier(ExecutionMode executionMode, Policy... policies) {
+			super(new Object(), new ArrayList<>(Arrays.asList(policies)),
+					SharedPolicyExecutor.getInstance().newBoundedExecutor(), executionMode);
+		}
+
+		private <R> R run(CallableWithIOException<R> callable) throws IOException {
+			recorder().events.clear();
+			return runWithPolicies(METHOD, callable);
+		}
+
+		private RecordingPolicy recorder() {
+			return (RecordingPolicy) getPolicies().get(0);
+		}
+
+		@Override
+		public String toString() {
+			return (isInline() ? "inline" : getExecutionMode().toString()) + " execution";
+		}
+	}
+}
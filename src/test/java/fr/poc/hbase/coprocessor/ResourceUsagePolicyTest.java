@@ -0,0 +1,135 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.impl.ResourceUsagePolicy;
+import fr.poc.hbase.coprocessor.policy.impl.TimeoutPolicy;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import fr.poc.hbase.coprocessor.util.RecordingMetricsCollector;
+import org.apache.hadoop.metrics2.MetricsSource;
+import org.apache.hadoop.metrics2.impl.MetricsSystemImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test {@link ResourceUsagePolicy}
+ */
+public class ResourceUsagePolicyTest {
+
+	private static final int ALLOCATED_BYTES = 4 * 1024 * 1024;
+
+	private MetricsSystemImpl metricsSystem;
+
+	@Before
+	public void initTest() {
+		metricsSystem = new MetricsSystemImpl("ResourceUsagePolicyTest");
+	}
+
+	@After
+	public void afterTest() {
+		metricsSystem.shutdown();
+	}
+
+	/**
+	 * Test accounting of methods executed in the caller thread, with nested executions
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testInlineExecutions() throws Throwable {
+		ResourceUsagePolicy policy = new ResourceUsagePolicy(metricsSystem, "Inline");
+		TestVerifier verifier = new TestVerifier(policy);
+		verifier.run("Target:outer()", () -> verifier.run("Target:inner()", ResourceUsagePolicyTest::allocate));
+
+		Map<String, Number> metrics = collect("Inline");
+		assertThat(metrics.get("coprocessor_Object_method_Target-outer--_Count")).isEqualTo(1L);
+		assertThat(metrics.get("coprocessor_Object_method_Target-inner--_Count")).isEqualTo(1L);
+		assertThat(metrics.get("coprocessor_Object_method_Target-inner--_AllocatedBytes").longValue())
+				.isGreaterThanOrEqualTo(ALLOCATED_BYTES);
+		// Outer execution includes the inner one
+		assertThat(metrics.get("coprocessor_Object_method_Target-outer--_AllocatedBytes").longValue())
+				.isGreaterThanOrEqualTo(metrics.get("coprocessor_Object_method_Target-inner--_AllocatedBytes").longValue());
+		assertThat(metrics.get("coprocessor_Object_method_Target-outer--_CpuTimeNs").longValue())
+				.isGreaterThanOrEqualTo(metrics.get("coprocessor_Object_method_Target-inner--_CpuTimeNs").longValue());
+	}
+
+	/**
+	 * Test accounting of methods executed in the policies executor
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testExecutorExecutions() throws Throwable {
+		TestVerifier verifier = new TestVerifier(new TimeoutPolicy(10, TimeUnit.SECONDS),
+				new ResourceUsagePolicy(metricsSystem, "Executor"));
+		long callerAllocatedBytes = allocatedBytes();
+		for (int i = 0; i < 3; i++) {
+			verifier.run("Target:call()", ResourceUsagePolicyTest::allocate);
+		}
+
+		Map<String, Number> metrics = collect("Executor");
+		assertThat(metrics.get("coprocessor_Object_method_Target-call--_Count")).isEqualTo(3L);
+		assertThat(metrics.get("coprocessor_Object_method_Target-call--_AllocatedBytes").longValue())
+				.isGreaterThanOrEqualTo(3L * ALLOCATED_BYTES);
+		assertThat(metrics.get("coprocessor_Object_method_Target-call--_MaxAllocatedBytes").longValue())
+				.isGreaterThanOrEqualTo(ALLOCATED_BYTES);
+		// Allocations are accounted on the executor thread
+		assertThat(allocatedBytes() - callerAllocatedBytes).isLessThan(ALLOCATED_BYTES);
+	}
+
+	/**
+	 * Allocate {@link #ALLOCATED_BYTES} bytes
+	 *
+	 * @return allocated array
+	 */
+	private static byte[] allocate() {
+		return new byte[ALLOCATED_BYTES];
+	}
+
+	/**
+	 * Returns the bytes allocated by the current thread
+	 *
+	 * @return allocated bytes
+	 */
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean())
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Collect metrics of a context
+	 *
+	 * @param context metrics context
+	 * @return metrics by name
+	 */
+	private Map<String, Number> collect(String context) {
+		String name = ResourceUsagePolicy.SOURCE_NAME + ",sub=" + context;
+		MetricsSource source = metricsSystem.getSource(name);
+		assertThat(source).isNotNull();
+		return RecordingMetricsCollector.collect(source).get(name);
+	}
+
+	/**
+	 * Simple verifier that expose method execution
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		private TestVerifier(Policy... policies) {
+			super(new Object(), new ArrayList<>(Arrays.asList(policies)));
+		}
+
+		private <R> R run(String method, CallableWithIOException<R> callable) throws IOException {
+			return runWithPolicies(PolicyMethod.of(method), callable, (Object) null);
+		}
+	}
+}
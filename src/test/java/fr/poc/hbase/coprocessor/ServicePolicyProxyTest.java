@@ -0,0 +1,146 @@
+package fr.poc.hbase.coprocessor;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import com.google.protobuf.RpcCallback;
+import com.google.protobuf.RpcController;
+import fr.poc.hbase.coprocessor.generated.RowCounterProtos;
+import fr.poc.hbase.coprocessor.policy.Deadline;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.impl.TimeoutPolicy;
+import fr.poc.hbase.coprocessor.policy.proxy.ServicePolicyProxy;
+import org.apache.hadoop.hbase.ipc.ServerRpcController;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test {@link ServicePolicyProxy} execution modes and response completion
+ */
+public class ServicePolicyProxyTest {
+
+	/**
+	 * Count response
+	 */
+	private static final RowCounterProtos.CountResponse RESPONSE =
+			RowCounterProtos.CountResponse.newBuilder().setCount(42).build();
+
+	/**
+	 * Test that a service is executed in the caller thread and stops cooperatively once cancelled
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testCallerThreadExecution() throws Throwable {
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+		ServicePolicyProxy proxy = newProxy(new RowCounterProtos.RowCountService() {
+			@Override
+			public void getRowCount(RpcController controller, RowCounterProtos.CountRequest request,
+									RpcCallback<RowCounterProtos.CountResponse> done) {
+				threads.add(Thread.currentThread());
+				done.run(RESPONSE);
+			}
+
+			@Override
+			public void getCellCount(RpcController controller, RowCounterProtos.CountRequest request,
+									 RpcCallback<RowCounterProtos.CountResponse> done) {
+				threads.add(Thread.currentThread());
+				Deadline deadline = Deadline.current();
+				while (!deadline.isExpired()) {
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+				done.run(RESPONSE);
+			}
+		}, PolicyVerifier.ExecutionMode.CALLER_THREAD);
+
+		ServerRpcController controller = new ServerRpcController();
+		List<Message> responses = call(proxy, "getRowCount", controller);
+		assertThat(responses).containsExactly(RESPONSE);
+		assertThat(controller.getFailedOn()).isNull();
+
+		controller = new ServerRpcController();
+		responses = call(proxy, "getCellCount", controller);
+		assertThat(responses).as("Responses of a cancelled call").containsExactly((Message) null);
+		assertThat(controller.getFailedOn()).isInstanceOf(Deadline.DeadlineExceededException.class);
+		assertThat(threads).containsOnly(Thread.currentThread());
+		assertThat(Thread.interrupted()).as("Interrupted caller").isFalse();
+	}
+
+	/**
+	 * Test that a late response of a cancelled execution is ignored
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testLateResponseIgnored() throws Throwable {
+		CountDownLatch completed = new CountDownLatch(1);
+		ServicePolicyProxy proxy = newProxy(new RowCounterProtos.RowCountService() {
+			@Override
+			public void getRowCount(RpcController controller, RowCounterProtos.CountRequest request,
+									RpcCallback<RowCounterProtos.CountResponse> done) {
+				try {
+					Thread.sleep(500);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				done.run(RESPONSE);
+				completed.countDown();
+			}
+
+			@Override
+			public void getCellCount(RpcController controller, RowCounterProtos.CountRequest request,
+									 RpcCallback<RowCounterProtos.CountResponse> done) {
+				done.run(RESPONSE);
+			}
+		}, PolicyVerifier.ExecutionMode.EXECUTOR);
+
+		ServerRpcController controller = new ServerRpcController();
+		List<Message> responses = call(proxy, "getRowCount", controller);
+		assertThat(controller.getFailedOn()).isInstanceOf(Deadline.DeadlineExceededException.class);
+		assertThat(completed.await(10, TimeUnit.SECONDS)).as("Late completion").isTrue();
+		assertThat(responses).as("Responses").containsExactly((Message) null);
+	}
+
+	/**
+	 * Create a service proxy with a 100ms timeout and no interruption
+	 *
+	 * @param service       proxied service
+	 * @param executionMode service execution mode
+	 * @return service proxy
+	 */
+	private static ServicePolicyProxy newProxy(RowCounterProtos.RowCountService service,
+											   PolicyVerifier.ExecutionMode executionMode) {
+		return new ServicePolicyProxy(service,
+				new ArrayList<>(Collections.<Policy>singletonList(new TimeoutPolicy(100, TimeUnit.MILLISECONDS, -1))),
+				SharedPolicyExecutor.getInstance().newBoundedExecutor(), executionMode);
+	}
+
+	/**
+	 * Call a service method, like the RPC handler does
+	 *
+	 * @param proxy      service proxy
+	 * @param method     method name
+	 * @param controller RPC controller
+	 * @return all responses received by the RPC callback
+	 */
+	private static List<Message> call(ServicePolicyProxy proxy, String method, ServerRpcController controller) {
+		List<Message> responses = new CopyOnWriteArrayList<>();
+		Descriptors.MethodDescriptor descriptor = proxy.getDescriptorForType().findMethodByName(method);
+		proxy.callMethod(descriptor, controller, RowCounterProtos.CountRequest.getDefaultInstance(), responses::add);
+		return responses;
+	}
+}
@@ -0,0 +1,151 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.executor.BoundedPolicyExecutor;
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.CallQueueTooBigException;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test {@link SharedPolicyExecutor} and {@link BoundedPolicyExecutor}
+ */
+public class SharedPolicyExecutorTest {
+
+	/**
+	 * Test that the shared executor is never resized by a later configuration
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testLaterConfigurationIsIgnored() throws Throwable {
+		SharedPolicyExecutor sharedExecutor = SharedPolicyExecutor.getInstance();
+		int poolSize = sharedExecutor.getPoolSize();
+		int maxConcurrency = sharedExecutor.getMaxConcurrency();
+		Configuration configuration = HBaseConfiguration.create();
+		configuration.setInt(SharedPolicyExecutor.POOL_SIZE_CONFIGURATION_NAME, poolSize + 1);
+		configuration.setInt(SharedPolicyExecutor.MAX_CONCURRENCY_CONFIGURATION_NAME, maxConcurrency + 1);
+
+		assertThat(SharedPolicyExecutor.getInstance(configuration)).isSameAs(sharedExecutor);
+		assertThat(SharedPolicyExecutor.getInstance()).isSameAs(sharedExecutor);
+		assertThat(sharedExecutor.getPoolSize()).isEqualTo(poolSize);
+		assertThat(sharedExecutor.getMaxConcurrency()).isEqualTo(maxConcurrency);
+	}
+
+	/**
+	 * Test that a coprocessor instance can't exceed its concurrency limit
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testConcurrencyLimit() throws Throwable {
+		SharedPolicyExecutor sharedExecutor = SharedPolicyExecutor.getInstance();
+		BoundedPolicyExecutor executor = sharedExecutor.newBoundedExecutor();
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<Future<Boolean>> futures = new ArrayList<>();
+		for (int i = 0; i < sharedExecutor.getMaxConcurrency(); i++) {
+			futures.add(executor.submit(() -> release.await(10, TimeUnit.SECONDS)));
+		}
+		assertThat(executor.availablePermits()).as("Available permits once limit is reached").isEqualTo(0);
+
+		// Another coprocessor instance is not impacted
+		assertThat(sharedExecutor.newBoundedExecutor().submit(() -> true).get(10, TimeUnit.SECONDS))
+				.as("Other coprocessor execution").isTrue();
+
+		// Next execution waits for a permit
+		CountDownLatch submitted = new CountDownLatch(1);
+		Thread waiter = new Thread(() -> {
+			try {
+				executor.submit(() -> true).get();
+				submitted.countDown();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		waiter.start();
+		assertThat(submitted.await(200, TimeUnit.MILLISECONDS)).as("Execution over the limit").isFalse();
+
+		release.countDown();
+		for (Future<Boolean> future : futures) {
+			assertThat(future.get(10, TimeUnit.SECONDS)).isTrue();
+		}
+		assertThat(submitted.await(10, TimeUnit.SECONDS)).as("Execution once permits are released").isTrue();
+		waiter.join();
+		// Permits are released once tasks return, after their futures completion
+		awaitReleasedPermits(sharedExecutor, executor);
+		assertThat(executor.availablePermits()).as("Released permits").isEqualTo(sharedExecutor.getMaxConcurrency());
+	}
+
+	/**
+	 * Test that the wait for a permit is bounded : stuck executions must not park callers forever
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testBoundedWait() throws Throwable {
+		SharedPolicyExecutor sharedExecutor = SharedPolicyExecutor.getInstance();
+		BoundedPolicyExecutor executor = sharedExecutor.newBoundedExecutor();
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<Future<Boolean>> futures = new ArrayList<>();
+		for (int i = 0; i < sharedExecutor.getMaxConcurrency(); i++) {
+			futures.add(executor.submit(() -> release.await(10, TimeUnit.SECONDS)));
+		}
+		long start = System.nanoTime();
+		assertThatThrownBy(() -> executor.submit(() -> true, 100, TimeUnit.MILLISECONDS))
+				.isInstanceOf(CallQueueTooBigException.class);
+		assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+		release.countDown();
+		for (Future<Boolean> future : futures) {
+			assertThat(future.get(10, TimeUnit.SECONDS)).isTrue();
+		}
+		awaitReleasedPermits(sharedExecutor, executor);
+		assertThat(executor.availablePermits()).as("Released permits").isEqualTo(sharedExecutor.getMaxConcurrency());
+	}
+
+	/**
+	 * Test that a cancelled execution releases its permit
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testCancelledExecutionReleasesPermit() throws Throwable {
+		SharedPolicyExecutor sharedExecutor = SharedPolicyExecutor.getInstance();
+		BoundedPolicyExecutor executor = sharedExecutor.newBoundedExecutor();
+
+		Future<Boolean> future = executor.submit(() -> {
+			Thread.sleep(10_000);
+			return true;
+		});
+		future.cancel(true);
+
+		awaitReleasedPermits(sharedExecutor, executor);
+		assertThat(executor.availablePermits()).as("Released permits").isEqualTo(sharedExecutor.getMaxConcurrency());
+	}
+
+	/**
+	 * Wait (at most 10 seconds) until all permits of the executor are released
+	 *
+	 * @param sharedExecutor shared executor
+	 * @param executor       bounded executor
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	private static void awaitReleasedPermits(SharedPolicyExecutor sharedExecutor, BoundedPolicyExecutor executor)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (executor.availablePermits() != sharedExecutor.getMaxConcurrency() && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.PolicyMethod;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.impl.StackSamplingPolicy;
+import fr.poc.hbase.coprocessor.policy.util.CallableWithIOException;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test {@link StackSamplingPolicy}
+ */
+public class StackSamplingPolicyTest {
+
+	/**
+	 * Test that only slow calls are sampled, and dumped through JMX
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testSlowCalls() throws Throwable {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(StackSamplingPolicy.MBEAN_DOMAIN + ":type=SlowCalls,name="
+				+ ObjectName.quote("testSlowCalls"));
+		StackSamplingPolicy policy = new StackSamplingPolicy("testSlowCalls", 2, 100, 10, TimeUnit.MILLISECONDS);
+		TestVerifier verifier = new TestVerifier(policy);
+		try {
+			assertThat(server.isRegistered(name)).isTrue();
+
+			verifier.run("Target:fast()", () -> null);
+			for (int i = 0; i < 3; i++) {
+				verifier.run("Target:slow()", StackSamplingPolicyTest::slowMethod);
+			}
+			assertThat(policy.getSlowCalls().getSlowCalls()).hasSize(2)
+					.allMatch(call -> call.contains("java.lang.Object Target:slow()"));
+
+			String dump = (String) server.invoke(name, "dumpCollapsedStacks", new Object[0], new String[0]);
+			assertThat(dump).isNotEmpty().doesNotContain("Target:fast()");
+			for (String line : dump.split("\n")) {
+				assertThat(line).startsWith("java.lang.Object:Target:slow();").matches(".* \\d+");
+			}
+			assertThat(dump).contains(StackSamplingPolicyTest.class.getName() + ".slowMethod");
+
+			policy.getSlowCalls().clear();
+			assertThat(policy.getSlowCalls().getSlowCalls()).isEmpty();
+		} finally {
+			policy.close();
+		}
+		assertThat(server.isRegistered(name)).isFalse();
+	}
+
+	/**
+	 * Test that a nested execution is sampled as part of its enclosing execution
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testNestedCalls() throws Throwable {
+		StackSamplingPolicy policy = new StackSamplingPolicy("testNestedCalls", 4, 100, 10, TimeUnit.MILLISECONDS);
+		TestVerifier outer = new TestVerifier(policy);
+		TestVerifier inner = new TestVerifier(policy);
+		try {
+			outer.run("Outer:call()", () -> inner.run("Inner:call()", StackSamplingPolicyTest::slowMethod));
+			assertThat(policy.getSlowCalls().getSlowCalls()).hasSize(1)
+					.allMatch(call -> call.contains("java.lang.Object Outer:call()"));
+			assertThat(policy.getSlowCalls().dumpCollapsedStacks())
+					.contains(StackSamplingPolicyTest.class.getName() + ".slowMethod");
+		} finally {
+			policy.close();
+		}
+	}
+
+	/**
+	 * A method that lasts 300ms
+	 *
+	 * @return nothing
+	 */
+	private static Object slowMethod() {
+		long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+		while (System.nanoTime() < end) {
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+		}
+		return null;
+	}
+
+	/**
+	 * Simple verifier that expose method execution
+	 */
+	private static final class TestVerifier extends PolicyVerifier<Object> {
+
+		private TestVerifier(StackSamplingPolicy policy) {
+			super(new Object(), new ArrayList<>(Collections.singletonList(policy)));
+		}
+
+		private <R> R run(String method, CallableWithIOException<R> callable) throws IOException {
+			return runWithPolicies(PolicyMethod.of(method), callable, (Object) null);
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package fr.poc.hbase.coprocessor;
+
+import fr.poc.hbase.coprocessor.policy.InvocationContext;
+import fr.poc.hbase.coprocessor.policy.Policy;
+import fr.poc.hbase.coprocessor.policy.PolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.WovenCoprocessor;
+import fr.poc.hbase.coprocessor.policy.WovenPolicyVerifier;
+import fr.poc.hbase.coprocessor.policy.agent.transformer.CoprocessorPolicyWeavingTransformer;
+import fr.poc.hbase.coprocessor.policy.executor.SharedPolicyExecutor;
+import lombok.NonNull;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.hbase.Coprocessor;
+import org.apache.hadoop.hbase.CoprocessorEnvironment;
+import org.apache.hadoop.hbase.HBaseIOException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test coprocessors woven by {@link CoprocessorPolicyWeavingTransformer}
+ */
+public class WovenCoprocessorTest {
+
+	/**
+	 * Test woven methods calls
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testWovenMethods() throws Throwable {
+		List<String> methods = new ArrayList<>();
+		Api endpoint = newWovenEndpoint(methods);
+
+		assertThat(endpoint.echo("value")).isEqualTo("value");
+		assertThat(endpoint.length("value")).isEqualTo(5);
+		assertThat(endpoint.sum(1, 2, 3, 4, 5)).isEqualTo(15);
+		assertThat(methods).containsExactly("echo", "length", "sum");
+
+		// Internal calls are executed without policies
+		assertThat(endpoint.echoLength("value")).isEqualTo("5");
+		assertThat(methods).containsExactly("echo", "length", "sum", "echoLength");
+
+		// Original methods are kept
+		assertThat(endpoint.getClass().getDeclaredMethod("echo" + CoprocessorPolicyWeavingTransformer.IMPL_SUFFIX,
+				String.class)).isNotNull();
+	}
+
+	/**
+	 * Test woven methods errors
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testWovenErrors() throws Throwable {
+		List<String> methods = new ArrayList<>();
+		Api endpoint = newWovenEndpoint(methods);
+
+		Throwable error = catchThrowable(() -> endpoint.fail(new IOException("expected")));
+		assertThat(error).isInstanceOf(IOException.class).hasMessage("expected");
+
+		IllegalStateException unexpected = new IllegalStateException("unexpected");
+		error = catchThrowable(() -> endpoint.fail(unexpected));
+		assertThat(error).isInstanceOf(HBaseIOException.class).hasCause(unexpected);
+
+		// Methods without exceptions only log errors
+		endpoint.failSilently(unexpected);
+		assertThat(methods).containsExactly("fail", "fail", "failSilently");
+	}
+
+	/**
+	 * Test woven coprocessor stop : it runs with policies, then the verifier is closed
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testWovenStop() throws Throwable {
+		List<String> methods = new ArrayList<>();
+		Api endpoint = newWovenEndpoint(methods);
+		((Coprocessor) endpoint).stop(null);
+		assertThat(methods).containsExactly("stop", "closed");
+
+		// The verifier is closed even if the coprocessor could not be stopped
+		methods.clear();
+		endpoint = newWovenEndpoint(methods);
+		endpoint.failOnStop(new IOException("expected"));
+		Coprocessor coprocessor = (Coprocessor) endpoint;
+		Throwable error = catchThrowable(() -> coprocessor.stop(null));
+		assertThat(error).isInstanceOf(IOException.class).hasMessage("expected");
+		assertThat(methods).containsExactly("failOnStop", "stop", "closed");
+	}
+
+	/**
+	 * Test woven coprocessors without verifier
+	 *
+	 * @throws Throwable
+	 */
+	@Test
+	public void testWithoutVerifier() throws Throwable {
+		Object endpoint = weave(Endpoint.class).newInstance();
+		assertThat(((WovenCoprocessor) endpoint).getWovenPolicyVerifier()).isNull();
+		assertThat(((Api) endpoint).echo("value")).isEqualTo("value");
+		Throwable error = catchThrowable(() -> ((Api) endpoint).fail(new IllegalStateException("unexpected")));
+		assertThat(error).isInstanceOf(IllegalStateException.class);
+	}
+
+	/**
+	 * Create a woven endpoint with a policy that records called methods
+	 *
+	 * @param methods list where called methods are recorded
+	 * @return woven endpoint
+	 * @throws Exception if the endpoint could not be woven
+	 */
+	@SuppressWarnings("unchecked")
+	private static Api newWovenEndpoint(List<String> methods) throws Exception {
+		Object endpoint = weave(Endpoint.class).newInstance();
+		assertThat(endpoint).isInstanceOf(WovenCoprocessor.class);
+		Policy policy = new Policy() {
+			@Override
+			public void beforeRun(InvocationContext context) throws IOException {
+				methods.add(context.getMethod());
+			}
+
+			@Override
+			public void onClose(@NonNull Object object) {
+				methods.add("closed");
+			}
+		};
+		((WovenCoprocessor) endpoint).setWovenPolicyVerifier(new WovenPolicyVerifier<>((Coprocessor) endpoint,
+				new ArrayList<>(Collections.singletonList(policy)), SharedPolicyExecutor.getInstance().newBoundedExecutor(),
+				PolicyVerifier.ExecutionMode.EXECUTOR));
+		return (Api) endpoint;
+	}
+
+	/**
+	 * Weave a class, and load it in a dedicated class loader
+	 *
+	 * @param type class to weave
+	 * @return the woven class
+	 * @throws Exception if the class could not be woven
+	 */
+	private static Class<?> weave(Class<?> type) throws Exception {
+		String internalName = type.getName().replace('.', '/');
+		ClassLoader loader = WovenCoprocessorTest.class.getClassLoader();
+		byte[] bytecode;
+		try (InputStream input = loader.getResourceAsStream(internalName + ".class")) {
+			bytecode = IOUtils.toByteArray(input);
+		}
+		byte[] woven = new CoprocessorPolicyWeavingTransformer(Collections.emptyMap())
+				.transform(loader, internalName, null, null, bytecode);
+		assertThat(woven).isNotNull();
+		return new WovenClassLoader(loader).define(type.getName(), woven);
+	}
+
+	/**
+	 * Woven api
+	 */
+	public interface Api {
+
+		String echo(String value) throws IOException;
+
+		int length(String value) throws IOException;
+
+		String echoLength(String value) throws IOException;
+
+		int sum(int a, int b, int c, int d, int e) throws IOException;
+
+		void fail(Exception error) throws Exception;
+
+		void failSilently(RuntimeException error);
+
+		void failOnStop(IOException error);
+	}
+
+	/**
+	 * Endpoint to weave
+	 */
+	public static final class Endpoint implements Coprocessor, Api {
+
+		/**
+		 * Error thrown on stop
+		 */
+		private IOException stopError;
+
+		@Override
+		public void start(CoprocessorEnvironment env) throws IOException {
+			// Nothing to do
+		}
+
+		@Override
+		public void stop(CoprocessorEnvironment env) throws IOException {
+			if (stopError != null) {
+				throw stopError;
+			}
+		}
+
+		@Override
+		public String echo(String value) {
+			return value;
+		}
+
+		@Override
+		public int length(String value) {
+			return value.length();
+		}
+
+		@Override
+		public String echoLength(String value) throws IOException {
+			return echo(Integer.toString(length(value)));
+		}
+
+		@Override
+		public int sum(int a, int b, int c, int d, int e) {
+			return a + b + c + d + e;
+		}
+
+		@Override
+		public void fail(Exception error) throws Exception {
+			throw error;
+		}
+
+		@Override
+		public void failSilently(RuntimeException error) {
+			throw error;
+		}
+
+		@Override
+		public void failOnStop(IOException error) {
+			stopError = error;
+		}
+	}
+
+	/**
+	 * Class loader of woven classes
+	 */
+	private static final class WovenClassLoader extends ClassLoader {
+
+		/**
+		 * Constructor
+		 *
+		 * @param parent parent class loader
+		 */
+		private WovenClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		/**
+		 * Define a class
+		 *
+		 * @param name     class name
+		 * @param bytecode class bytecode
+		 * @return the class
+		 */
+		private Class<?> define(String name, byte[] bytecode) {
+			return defineClass(name, bytecode, 0, bytecode.length);
+		}
+	}
+}
@@ -6,6 +6,8 @@ import com.google.protobuf.RpcController;
 import com.google.protobuf.Service;
 import fr.poc.hbase.coprocessor.generated.GroupByProtos;
 import fr.poc.hbase.coprocessor.generated.GroupByProtos.GroupByResponse.Builder;
+import fr.poc.hbase.coprocessor.policy.Deadline;
+import fr.poc.hbase.coprocessor.policy.util.DeadlineInternalScanner;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.Coprocessor;
@@ -94,7 +96,7 @@ public final class GroupByEndpoint extends GroupByProtos.GroupByService implemen
 
 		// Execute scan
 		try (
-				InternalScanner scanner = env.getRegion().getScanner(scan)
+				InternalScanner scanner = new DeadlineInternalScanner(env.getRegion().getScanner(scan))
 		) {
 			Map<GroupKey, GroupByProtos.Value.Builder> groupByResults = new HashMap<>();
 			List<Cell> row = new ArrayList<>();
@@ -127,9 +129,9 @@ public final class GroupByEndpoint extends GroupByProtos.GroupByService implemen
 				row.clear();
 			} while (hasMore);
 
-			// Long delay to test interruption
+			// Long delay to test timeouts
 			if (count > 20_000) {
-				Thread.sleep(10_000);
+				sleepUntilDeadline(10_000);
 			}
 
 			// Build response
@@ -161,7 +163,7 @@ public final class GroupByEndpoint extends GroupByProtos.GroupByService implemen
 
 		// Execute scan
 		try (
-				InternalScanner scanner = env.getRegion().getScanner(scan)
+				InternalScanner scanner = new DeadlineInternalScanner(env.getRegion().getScanner(scan))
 		) {
 			Map<GroupKey, GroupByProtos.Value.Builder> groupByResults = new HashMap<>();
 			List<Cell> row = new ArrayList<>();
@@ -193,9 +195,9 @@ public final class GroupByEndpoint extends GroupByProtos.GroupByService implemen
 				row.clear();
 			} while (hasMore);
 
-			// Long delay to test interruption
+			// Long delay to test timeouts
 			if (count > 20_000) {
-				Thread.sleep(10_000);
+				sleepUntilDeadline(10_000);
 			}
 
 			// Build response
@@ -207,6 +209,22 @@ public final class GroupByEndpoint extends GroupByProtos.GroupByService implemen
 		}
 	}
 
+	/**
+	 * Sleep for the given duration, but stop as soon as the invocation deadline expires
+	 *
+	 * @param millis sleep duration in milliseconds
+	 * @throws InterruptedException if interrupted while sleeping
+	 * @throws IOException          once the invocation deadline is expired
+	 */
+	private static void sleepUntilDeadline(long millis) throws InterruptedException, IOException {
+		Deadline deadline = Deadline.current();
+		long end = System.currentTimeMillis() + millis;
+		while (!deadline.isExpired() && System.currentTimeMillis() < end) {
+			Thread.sleep(Math.min(100L, Math.max(1L, end - System.currentTimeMillis())));
+		}
+		deadline.check();
+	}
+
 	/**
 	 * Key wrapper to use a byte[] as a map key, implements both equals and hashCode (from Arrays)
 	 */
@@ -0,0 +1,129 @@
+package fr.poc.hbase.coprocessor.util;
+
+import lombok.NonNull;
+import org.apache.hadoop.metrics2.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metrics collector that keeps collected values by record name then metric name
+ */
+public class RecordingMetricsCollector implements MetricsCollector {
+
+	/**
+	 * Collected values by record name then metric name
+	 */
+	private final Map<String, Map<String, Number>> records = new LinkedHashMap<>();
+
+	/**
+	 * Collect the metrics of a source
+	 *
+	 * @param source metrics source
+	 * @return collected values by record name then metric name
+	 */
+	public static Map<String, Map<String, Number>> collect(@NonNull MetricsSource source) {
+		RecordingMetricsCollector collector = new RecordingMetricsCollector();
+		source.getMetrics(collector, true);
+		return collector.records;
+	}
+
+	@Override
+	public MetricsRecordBuilder addRecord(String name) {
+		Map<String, Number> values = new LinkedHashMap<>();
+		records.put(name, values);
+		return new Builder(values);
+	}
+
+	@Override
+	public MetricsRecordBuilder addRecord(MetricsInfo info) {
+		return addRecord(info.name());
+	}
+
+	/**
+	 * Record builder that keeps counters and gauges values
+	 */
+	private final class Builder extends MetricsRecordBuilder {
+
+		/**
+		 * Record values by metric name
+		 */
+		private final Map<String, Number> values;
+
+		/**
+		 * Constructor
+		 *
+		 * @param values record values by metric name
+		 */
+		private Builder(Map<String, Number> values) {
+			this.values = values;
+		}
+
+		/**
+		 * Keep a value
+		 *
+		 * @param info  metric info
+		 * @param value metric value
+		 * @return self
+		 */
+		private MetricsRecordBuilder put(MetricsInfo info, Number value) {
+			values.put(info.name(), value);
+			return this;
+		}
+
+		@Override
+		public MetricsRecordBuilder tag(MetricsInfo info, String value) {
+			return this;
+		}
+
+		@Override
+		public MetricsRecordBuilder add(MetricsTag tag) {
+			return this;
+		}
+
+		@Override
+		public MetricsRecordBuilder add(AbstractMetric metric) {
+			return put(metric, metric.value());
+		}
+
+		@Override
+		public MetricsRecordBuilder setContext(String value) {
+			return this;
+		}
+
+		@Override
+		public MetricsRecordBuilder addCounter(MetricsInfo info, int value) {
+			return put(info, value);
+		}
+
+		@Override
+		public MetricsRecordBuilder addCounter(MetricsInfo info, long value) {
+			return put(info, value);
+		}
+
+		@Override
+		public MetricsRecordBuilder addGauge(MetricsInfo info, int value) {
+			return put(info, value);
+		}
+
+		@Override
+		public MetricsRecordBuilder addGauge(MetricsInfo info, long value) {
+			return put(info, value);
+		}
+
+		@Override
+		public MetricsRecordBuilder addGauge(MetricsInfo info, float value) {
+			return put(info, value);
+		}
+
+		@Override
+		public MetricsRecordBuilder addGauge(MetricsInfo info, double value) {
+			return put(info, value);
+		}
+
+		@Override
+		public MetricsCollector parent() {
+			return RecordingMetricsCollector.this;
+		}
+	}
+}